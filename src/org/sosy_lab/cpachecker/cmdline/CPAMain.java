@@ -187,6 +187,8 @@ public class CPAMain {
       printResultAndStatistics(result, outputDirectory, options, reportGenerator, logManager);
     } catch (IOException e) {
       logManager.logUserException(Level.WARNING, e, "Could not write statistics to file");
+    } finally {
+      result.close();
     }
 
     System.out.flush();
@@ -286,6 +286,7 @@ public class CPAchecker {
     logger.log(Level.INFO, "CPAchecker", getVersion(), "started");
 
     MainCPAStatistics stats = null;
+    ConfigurableProgramAnalysis cpa = null;
     Algorithm algorithm = null;
     ReachedSet reached = null;
     CFA cfa = null;
@@ -312,7 +313,6 @@ public class CPAchecker {
           GlobalInfo.getInstance().storeCFA(cfa);
           shutdownNotifier.shutdownIfNecessary();
 
-          ConfigurableProgramAnalysis cpa;
           Specification specification;
           stats.cpaCreationTime.start();
           try {
@@ -351,7 +351,7 @@ public class CPAchecker {
 
         if (disableAnalysis) {
           return new CPAcheckerResult(
-              Result.NOT_YET_STARTED, violatedPropertyDescription, null, cfa, stats);
+              Result.NOT_YET_STARTED, violatedPropertyDescription, null, cfa, stats, cpa, logger);
         }
 
         // run analysis
@@ -418,7 +418,9 @@ public class CPAchecker {
       CPAs.closeIfPossible(algorithm, logger);
       shutdownNotifier.unregister(interruptThreadOnShutdown);
     }
-    return new CPAcheckerResult(result, violatedPropertyDescription, reached, cfa, stats);
+    // the CPAs are closed by the caller, because the statistics may still need them
+    return new CPAcheckerResult(
+        result, violatedPropertyDescription, reached, cfa, stats, cpa, logger);
   }
 
   private Path checkIfOneValidFile(List<String> fileDenotation)
@@ -27,10 +27,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.PrintStream;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.CPAs;
 
 /**
  * Class that represents the result of a CPAchecker analysis.
@@ -57,17 +60,25 @@ public class CPAcheckerResult {
 
   private @Nullable Statistics proofGeneratorStats = null;
 
+  private @Nullable ConfigurableProgramAnalysis cpa;
+
+  private final LogManager logger;
+
   CPAcheckerResult(
       Result result,
       String violatedPropertyDescription,
       @Nullable ReachedSet reached,
       @Nullable CFA cfa,
-      @Nullable Statistics stats) {
+      @Nullable Statistics stats,
+      @Nullable ConfigurableProgramAnalysis cpa,
+      LogManager logger) {
     this.violatedPropertyDescription = checkNotNull(violatedPropertyDescription);
     this.result = checkNotNull(result);
     this.reached = reached;
     this.cfa = cfa;
     this.stats = stats;
+    this.cpa = cpa;
+    this.logger = checkNotNull(logger);
   }
 
   /**
@@ -108,6 +119,18 @@ public class CPAcheckerResult {
     }
   }
 
+  /**
+   * Close the CPAs of the analysis, which releases their solvers and worker threads and writes
+   * caches that are kept across runs. Statistics and the reached set may depend on the CPAs,
+   * so this should be called only after they are not needed anymore.
+   */
+  public void close() {
+    if (cpa != null) {
+      CPAs.closeCpaIfPossible(cpa, logger);
+      cpa = null;
+    }
+  }
+
   public void printResult(PrintStream out) {
     if (result == Result.NOT_YET_STARTED) {
       return;
@@ -59,9 +59,11 @@ import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.value.refiner.UnsoundRefiner;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
+import org.sosy_lab.cpachecker.util.CPAs;
 
 @Options(prefix = "cegar")
-public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSetUpdater {
+public class CEGARAlgorithm
+    implements Algorithm, StatisticsProvider, ReachedSetUpdater, AutoCloseable {
 
   private static class CEGARStatistics implements Statistics {
 
@@ -287,6 +289,12 @@ public class CEGARAlgorithm implements Algorithm, StatisticsProvider, ReachedSet
     return refinementResult;
   }
 
+  @Override
+  public void close() {
+    CPAs.closeIfPossible(mRefiner, logger);
+    CPAs.closeIfPossible(algorithm, logger);
+  }
+
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     if (algorithm instanceof StatisticsProvider) {
@@ -35,6 +35,7 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.Iterables;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.logging.Level;
@@ -111,6 +112,16 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
   @Option(secure=true, description="try using induction to verify programs with loops")
   private boolean induction = false;
 
+  @Option(secure=true, description="Keep the formulas of the base case on the solver stack "
+      + "across all bounds and check them under assumptions, such that the solver can reuse "
+      + "what it learned about the program for previous bounds.")
+  private boolean incrementalBaseCase = false;
+
+  @Option(secure=true, description="Run the inductive step of k-induction concurrently to the "
+      + "base case (the step case has its own solver instance). The inductive step for the "
+      + "next bound is started speculatively while the base case is still running.")
+  private boolean concurrentInduction = false;
+
   @Option(secure=true, description="Strategy for generating auxiliary invariants")
   private InvariantGeneratorFactory invariantGenerationStrategy = InvariantGeneratorFactory.REACHED_SET;
 
@@ -121,9 +132,16 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
 
+  // step case for sequential induction, a concurrent step case is created for each run
   private final @Nullable ConfigurableProgramAnalysis stepCaseCPA;
   private final @Nullable Algorithm stepCaseAlgorithm;
 
+  // step case of the current run for concurrent induction
+  private @Nullable ShutdownManager concurrentStepCaseShutdownManager = null;
+  private @Nullable ConfigurableProgramAnalysis concurrentStepCaseCPA = null;
+
+  private final Configuration config;
+
   protected final InvariantGenerator invariantGenerator;
 
   private final FormulaManagerView fmgr;
@@ -142,6 +160,9 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
 
   private final @Nullable ShutdownRequestListener propagateSafetyInterrupt;
 
+  /** Number of activation literals created for the incremental base case. */
+  private int activationLiterals = 0;
+
   protected AbstractBMCAlgorithm(
       Algorithm pAlgorithm,
       ConfigurableProgramAnalysis pCPA,
@@ -158,6 +179,7 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
 
     pConfig.inject(this, AbstractBMCAlgorithm.class);
 
+    config = pConfig;
     stats = pBMCStatistics;
     algorithm = pAlgorithm;
     cpa = pCPA;
@@ -175,17 +197,14 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
       induction = induction && cfa.getLoopStructure().get().getCount() > 0 && !getLoopHeads().isEmpty();
     }
 
-    if (induction) {
-      LogManager stepCaseLogger = logger.withComponentName("InductionStepCase");
-      CPABuilder builder =
-          new CPABuilder(
-              pConfig, stepCaseLogger, pShutdownManager.getNotifier(), pReachedSetFactory);
-      stepCaseCPA = builder.buildCPAs(cfa, pSpecification, new AggregatedReachedSets());
-      stepCaseAlgorithm =
-          CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, pShutdownManager.getNotifier());
+    if (induction && !concurrentInduction) {
+      stepCaseCPA = createStepCaseCPA(shutdownNotifier);
+      stepCaseAlgorithm = createStepCaseAlgorithm(stepCaseCPA, shutdownNotifier);
     } else {
       stepCaseCPA = null;
       stepCaseAlgorithm = null;
+    }
+    if (!induction) {
       invariantGenerationStrategy = InvariantGeneratorFactory.DO_NOTHING;
     }
 
@@ -263,7 +282,9 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
 
     try (ProverEnvironment prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
          @SuppressWarnings("resource")
-        KInductionProver kInductionProver = createInductionProver()) {
+        KInductionProver kInductionProver = createInductionProver();
+        // closed before the induction prover, cancels the checks still running on it
+        ConcurrentStepCase concurrentStepCase = createConcurrentStepCase(kInductionProver)) {
 
       Set<CFANode> immediateLoopHeads = null;
 
@@ -293,6 +314,21 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
           return AlgorithmStatus.SOUND_AND_PRECISE;
         }
 
+        if (concurrentStepCase != null && status.isSound()) {
+          if (immediateLoopHeads == null) {
+            immediateLoopHeads = getImmediateLoopHeads(reachedSet);
+          }
+          Set<CandidateInvariant> candidates = from(candidateGenerator).toSet();
+          // Candidates confirmed by the step case are assumed by later step cases,
+          // so in general they need to pass the base case first.
+          // A target location that fails the base case ends the analysis, however,
+          // so the step case for these candidates can start before the base case.
+          if (from(candidates).allMatch(c -> c instanceof TargetLocationCandidateInvariant)) {
+            concurrentStepCase.schedule(
+                getCurrentBound(), candidates, immediateLoopHeads, true);
+          }
+        }
+
         // Perform a bounded model check on each candidate invariant
         Iterator<CandidateInvariant> candidateInvariantIterator = candidateGenerator.iterator();
         while (candidateInvariantIterator.hasNext()) {
@@ -325,16 +361,24 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
 
           // try to prove program safety via induction
           if (induction) {
-            final int k =
-                CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
+            final int k = getCurrentBound();
 
             if (immediateLoopHeads == null) {
               immediateLoopHeads = getImmediateLoopHeads(reachedSet);
             }
             Set<CandidateInvariant> candidates = from(candidateGenerator).toSet();
             shutdownNotifier.shutdownIfNecessary();
-            sound = sound || kInductionProver.check(k, candidates, immediateLoopHeads);
-            candidateGenerator.confirmCandidates(kInductionProver.getConfirmedCandidates());
+            // the generator may know invariants confirmed elsewhere, e.g., by other workers
+            kInductionProver.assumeConfirmedCandidates(candidateGenerator.getConfirmedCandidates());
+            if (concurrentStepCase == null) {
+              sound = sound || kInductionProver.check(k, candidates, immediateLoopHeads);
+              candidateGenerator.confirmCandidates(kInductionProver.getConfirmedCandidates());
+            } else if (!sound) {
+              ConcurrentStepCase.Result stepCaseResult =
+                  concurrentStepCase.getResult(k, candidates, immediateLoopHeads);
+              sound = stepCaseResult.isProven();
+              candidateGenerator.confirmCandidates(stepCaseResult.getConfirmedCandidates());
+            }
           }
           if (invariantGenerator.isProgramSafe()
               || (sound && !candidateGenerator.produceMoreCandidates())) {
@@ -348,6 +392,8 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
         }
       }
       while (status.isSound() && adjustConditions());
+    } finally {
+      closeConcurrentStepCase();
     }
 
     return AlgorithmStatus.UNSOUND_AND_PRECISE;
@@ -425,8 +471,20 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     BooleanFormula program = bfmgr.not(pInductionProblem.getAssertion(pReachedSet, fmgr, pmgr, 0));
     logger.log(Level.INFO, "Starting satisfiability check...");
     stats.satCheck.start();
-    pProver.push(program);
-    boolean safe = pProver.isUnsat();
+    boolean safe;
+    boolean pushed;
+    if (incrementalBaseCase) {
+      safe = isUnsatIncrementally(pProver, program);
+      pushed = !safe;
+      if (pushed) {
+        // the counterexample analysis expects the program formula on the solver stack
+        pProver.push(program);
+      }
+    } else {
+      pProver.push(program);
+      pushed = true;
+      safe = pProver.isUnsat();
+    }
     // Leave program formula on solver stack until error path is created
     stats.satCheck.stop();
 
@@ -437,11 +495,29 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     }
 
     // Now pop the program formula off of the stack
-    pProver.pop();
+    if (pushed) {
+      pProver.pop();
+    }
 
     return safe;
   }
 
+  /**
+   * Checks whether a formula is unsatisfiable without ever removing it from the prover:
+   * The formula is asserted permanently, guarded by a fresh activation literal,
+   * which is assumed for this check and disabled afterwards.
+   * This way, the solver keeps what it learned about the parts of the formula
+   * that are shared with the formulas for the next bounds.
+   */
+  private boolean isUnsatIncrementally(final ProverEnvironment pProver, BooleanFormula pFormula)
+      throws SolverException, InterruptedException {
+    BooleanFormula activation = bfmgr.makeVariable("__bmc_activation_" + activationLiterals++);
+    pProver.addConstraint(bfmgr.implication(activation, pFormula));
+    boolean unsat = pProver.isUnsatWithAssumptions(Collections.singleton(activation));
+    pProver.addConstraint(bfmgr.not(activation));
+    return unsat;
+  }
+
   /**
    * This method is called after a violation has been found
    * (i.e., the bounded-model-checking formula was satisfied).
@@ -520,17 +596,84 @@ abstract class AbstractBMCAlgorithm implements StatisticsProvider {
     }
   }
 
-  protected @Nullable KInductionProver createInductionProver() {
-     return induction ? new KInductionProver(
-        cfa,
-        logger,
-        stepCaseAlgorithm,
-        stepCaseCPA,
-        invariantGenerator,
-        stats,
-        reachedSetFactory,
-        shutdownNotifier,
-        getLoopHeads()) : null;
+  protected @Nullable KInductionProver createInductionProver() throws CPAException {
+    if (!induction) {
+      return null;
+    }
+    if (!concurrentInduction) {
+      return new KInductionProver(
+          cfa,
+          logger,
+          stepCaseAlgorithm,
+          stepCaseCPA,
+          invariantGenerator,
+          stats,
+          reachedSetFactory,
+          shutdownNotifier,
+          getLoopHeads());
+    }
+
+    // A concurrent step case is cancelled by a shutdown request at the end of the run,
+    // so it needs a fresh shutdown manager and analysis for each run.
+    assert concurrentStepCaseShutdownManager == null && concurrentStepCaseCPA == null;
+    concurrentStepCaseShutdownManager = ShutdownManager.createWithParent(shutdownNotifier);
+    ShutdownNotifier stepCaseNotifier = concurrentStepCaseShutdownManager.getNotifier();
+    try {
+      concurrentStepCaseCPA = createStepCaseCPA(stepCaseNotifier);
+      return new KInductionProver(
+          cfa,
+          logger,
+          createStepCaseAlgorithm(concurrentStepCaseCPA, stepCaseNotifier),
+          concurrentStepCaseCPA,
+          invariantGenerator,
+          stats,
+          reachedSetFactory,
+          stepCaseNotifier,
+          getLoopHeads());
+    } catch (InvalidConfigurationException e) {
+      // the configuration was already used successfully in the constructor
+      throw new CPAException("Could not create the analysis for the inductive step", e);
+    }
+  }
+
+  private ConfigurableProgramAnalysis createStepCaseCPA(ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException, CPAException {
+    CPABuilder builder =
+        new CPABuilder(
+            config,
+            logger.withComponentName("InductionStepCase"),
+            pShutdownNotifier,
+            reachedSetFactory);
+    return builder.buildCPAs(cfa, specification, new AggregatedReachedSets());
+  }
+
+  private Algorithm createStepCaseAlgorithm(
+      ConfigurableProgramAnalysis pStepCaseCPA, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    return CPAAlgorithm.create(
+        pStepCaseCPA, logger.withComponentName("InductionStepCase"), config, pShutdownNotifier);
+  }
+
+  private @Nullable ConcurrentStepCase createConcurrentStepCase(
+      @Nullable KInductionProver pKInductionProver) {
+    if (concurrentStepCaseShutdownManager == null || pKInductionProver == null) {
+      return null;
+    }
+    return new ConcurrentStepCase(pKInductionProver, concurrentStepCaseShutdownManager);
+  }
+
+  /** Release the step case of the current run after all concurrent checks were stopped. */
+  private void closeConcurrentStepCase() {
+    if (concurrentStepCaseCPA != null) {
+      CPAs.closeCpaIfPossible(concurrentStepCaseCPA, logger);
+    }
+    concurrentStepCaseCPA = null;
+    concurrentStepCaseShutdownManager = null;
+  }
+
+  /** Gets the bound up to which loops are currently unrolled. */
+  private int getCurrentBound() {
+    return CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
   }
 
   /**
@@ -0,0 +1,213 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Runs the inductive step of k-induction on a separate thread, concurrently to the base case.
+ *
+ * <p>The step case has its own CPA and solver instance, so it does not interfere with the base
+ * case. The checks are executed one after another in the order of increasing bounds, because the
+ * {@link KInductionProver} keeps its state across bounds. The step case for the next bound can be
+ * scheduled speculatively, such that it runs while the base case for the current bound is still
+ * checked.
+ *
+ * <p>Closing this instance cancels all pending checks. The step case is shut down permanently by
+ * this, so the instance should be closed only when the analysis is finished.
+ */
+class ConcurrentStepCase implements AutoCloseable {
+
+  /** The result of the step case for one bound. */
+  static final class Result {
+    private final boolean proven;
+    private final ImmutableSet<CandidateInvariant> confirmedCandidates;
+
+    private Result(boolean pProven, ImmutableSet<CandidateInvariant> pConfirmedCandidates) {
+      proven = pProven;
+      confirmedCandidates = pConfirmedCandidates;
+    }
+
+    /** Whether all candidate invariants were proven inductive. */
+    boolean isProven() {
+      return proven;
+    }
+
+    /** The candidate invariants confirmed by the step case up to and including this bound. */
+    ImmutableSet<CandidateInvariant> getConfirmedCandidates() {
+      return confirmedCandidates;
+    }
+  }
+
+  private static final class ScheduledCheck {
+    private final ImmutableSet<CandidateInvariant> candidates;
+    private final Future<Result> result;
+
+    private ScheduledCheck(ImmutableSet<CandidateInvariant> pCandidates, Future<Result> pResult) {
+      candidates = pCandidates;
+      result = pResult;
+    }
+  }
+
+  private final KInductionProver prover;
+  private final ShutdownManager shutdownManager;
+  private final ExecutorService executor;
+
+  /** The scheduled checks by bound. */
+  private final NavigableMap<Integer, ScheduledCheck> scheduledChecks = new TreeMap<>();
+
+  private int lastScheduledBound = -1;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param pProver the prover for the step case, which must not be used by anyone else.
+   * @param pShutdownManager the shutdown manager used by the step case (and nothing else).
+   *     It is shut down when this instance is closed, so it must not outlive it.
+   */
+  ConcurrentStepCase(KInductionProver pProver, ShutdownManager pShutdownManager) {
+    prover = checkNotNull(pProver);
+    shutdownManager = checkNotNull(pShutdownManager);
+
+    // important to use a daemon thread here, because we might never have the chance
+    // to stop the executor if the analysis is aborted
+    executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("k-induction step case")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Schedules the step case for the given bound, unless it is already scheduled.
+   *
+   * @param pK the bound.
+   * @param pCandidateInvariants the candidate invariants to prove.
+   * @param pImmediateLoopHeads the loop heads reached without unrolling any loops.
+   * @param pSpeculate whether to schedule the step case for the next bound as well.
+   */
+  void schedule(
+      int pK,
+      Set<CandidateInvariant> pCandidateInvariants,
+      Set<CFANode> pImmediateLoopHeads,
+      boolean pSpeculate) {
+    ImmutableSet<CandidateInvariant> candidates = ImmutableSet.copyOf(pCandidateInvariants);
+    scheduleIfNecessary(pK, candidates, pImmediateLoopHeads);
+    if (pSpeculate) {
+      scheduleIfNecessary(pK + 1, candidates, pImmediateLoopHeads);
+    }
+  }
+
+  private void scheduleIfNecessary(
+      int pK, ImmutableSet<CandidateInvariant> pCandidates, Set<CFANode> pImmediateLoopHeads) {
+    if (pK > lastScheduledBound) {
+      scheduledChecks.put(
+          pK, new ScheduledCheck(pCandidates, submit(pK, pCandidates, pImmediateLoopHeads)));
+      lastScheduledBound = pK;
+    }
+  }
+
+  private Future<Result> submit(
+      int pK, ImmutableSet<CandidateInvariant> pCandidates, Set<CFANode> pImmediateLoopHeads) {
+    return executor.submit(
+        () -> {
+          boolean proven = prover.check(pK, pCandidates, pImmediateLoopHeads);
+          return new Result(proven, ImmutableSet.copyOf(prover.getConfirmedCandidates()));
+        });
+  }
+
+  /**
+   * Waits for the result of the step case for the given bound. Checks scheduled for smaller bounds
+   * are discarded. If the check was scheduled for other candidate invariants, it is repeated.
+   *
+   * @param pK the bound.
+   * @param pCandidateInvariants the candidate invariants to prove.
+   * @param pImmediateLoopHeads the loop heads reached without unrolling any loops.
+   */
+  Result getResult(
+      int pK, Set<CandidateInvariant> pCandidateInvariants, Set<CFANode> pImmediateLoopHeads)
+      throws CPAException, SolverException, InterruptedException {
+    schedule(pK, pCandidateInvariants, pImmediateLoopHeads, false);
+
+    for (ScheduledCheck outdatedCheck : scheduledChecks.headMap(pK).values()) {
+      // a running check cannot be interrupted without shutting down the step case
+      outdatedCheck.result.cancel(false);
+    }
+    scheduledChecks.headMap(pK).clear();
+    ScheduledCheck scheduledCheck = scheduledChecks.remove(pK);
+    checkState(scheduledCheck != null, "no step case scheduled for bound %s", pK);
+
+    Result result = get(scheduledCheck.result);
+    if (!scheduledCheck.candidates.equals(pCandidateInvariants)) {
+      // the check is repeated by the same thread, so it runs after all scheduled ones
+      result = get(submit(pK, ImmutableSet.copyOf(pCandidateInvariants), pImmediateLoopHeads));
+    }
+    return result;
+  }
+
+  private static Result get(Future<Result> pResult)
+      throws CPAException, SolverException, InterruptedException {
+    try {
+      return pResult.get();
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPAException.class, SolverException.class);
+      if (t instanceof InterruptedException) {
+        throw (InterruptedException) t;
+      }
+      throw new AssertionError("unexpected exception in step case of k-induction", t);
+    }
+  }
+
+  /**
+   * Cancels all pending checks and waits until the step case has stopped,
+   * such that its prover can be closed safely afterwards.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    shutdownManager.requestShutdown("k-induction finished");
+    executor.shutdownNow();
+    while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+      // wait for the step case to react to the shutdown request
+    }
+  }
+}
@@ -176,6 +176,14 @@ class KInductionProver implements AutoCloseable {
     return from(confirmedCandidates).toSet();
   }
 
+  /**
+   * Assumes the given candidate invariants, which were confirmed independently of this prover,
+   * in all following inductive steps.
+   */
+  void assumeConfirmedCandidates(Iterable<? extends CandidateInvariant> pCandidates) {
+    Iterables.addAll(confirmedCandidates, pCandidates);
+  }
+
   /**
    * Checks if the prover is already initialized.
    *
@@ -81,7 +81,7 @@ import org.sosy_lab.java_smt.api.SolverException;
  * paper "Lazy Abstraction with Interpolants" and implemented in the tool IMPACT.
  */
 @Options(prefix="impact")
-public class ImpactAlgorithm implements Algorithm, StatisticsProvider {
+public class ImpactAlgorithm implements Algorithm, StatisticsProvider, AutoCloseable {
 
   private final LogManager logger;
 
@@ -143,7 +143,7 @@ public class ImpactAlgorithm implements Algorithm, StatisticsProvider {
     solver = Solver.create(config, pLogger, pShutdownNotifier);
     fmgr = solver.getFormulaManager();
     bfmgr = fmgr.getBooleanFormulaManager();
-    pfmgr = new CachingPathFormulaManager(new PathFormulaManagerImpl(fmgr, config, logger, pShutdownNotifier, cfa, AnalysisDirection.FORWARD));
+    pfmgr = new CachingPathFormulaManager(new PathFormulaManagerImpl(fmgr, config, logger, pShutdownNotifier, cfa, AnalysisDirection.FORWARD), config);
     imgr = new InterpolationManager(pfmgr, solver, cfa.getLoopStructure(), cfa.getVarClassification(), config, pShutdownNotifier, logger);
   }
 
@@ -513,4 +513,9 @@ public class ImpactAlgorithm implements Algorithm, StatisticsProvider {
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(new Stats());
   }
+
+  @Override
+  public void close() {
+    imgr.close();
+  }
 }
@@ -25,21 +25,26 @@ package org.sosy_lab.cpachecker.core.algorithm.invariants;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.FluentIterable.from;
 
 import com.google.common.base.Predicates;
 import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.nio.file.Path;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +67,7 @@ import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.ConfigurationBuilder;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.FileOption.Type;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -113,6 +119,8 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 import org.sosy_lab.cpachecker.util.expressions.ToFormulaVisitor;
 import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
 import org.sosy_lab.java_smt.api.SolverException;
 
 /**
@@ -142,6 +150,18 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
       description = "Check candidate invariants in a separate thread asynchronously."
     )
     private boolean async = true;
+
+    @Option(
+      secure = true,
+      description =
+          "Number of threads that check disjoint partitions of the candidate invariants in parallel,"
+              + " each with a separate solver instance. Only used for asynchronous invariant"
+              + " generation with a static set of candidates. The inductive steps of all workers"
+              + " assume the invariants confirmed so far by any worker, but candidates that are"
+              + " only inductive together are not proven if they are in different partitions."
+    )
+    @IntegerOption(min = 1)
+    private int parallelWorkers = 1;
   }
 
   private static class KInductionInvariantGeneratorStatistics extends BMCStatistics {
@@ -169,12 +189,30 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
     }
   }
 
+  private static class WorkerStatistics extends BMCStatistics {
+
+    private final int workerId;
+
+    private WorkerStatistics(int pWorkerId) {
+      workerId = pWorkerId;
+    }
+
+    @Override
+    public String getName() {
+      return "k-Induction-based invariant generator (worker " + workerId + ")";
+    }
+  }
+
   private final KInductionInvariantGeneratorStatistics stats = new KInductionInvariantGeneratorStatistics();
 
   private final BMCAlgorithmForInvariantGeneration algorithm;
   private final ConfigurableProgramAnalysis cpa;
   private final ReachedSetFactory reachedSetFactory;
 
+  // Workers for all but the first candidate partition, which is checked by the algorithm above.
+  private final ImmutableList<PartitionWorker> additionalWorkers;
+  private final ShutdownManager workerShutdownManager;
+
   private final LogManager logger;
   private final ShutdownManager shutdownManager;
 
@@ -215,6 +253,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
         specification,
         pReachedSetFactory,
         options.async,
+        options.async ? options.parallelWorkers : 1,
         getCandidateInvariants(
             options,
             pConfig,
@@ -245,6 +284,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
         specification,
         pReachedSetFactory,
         pAsync,
+        1,
         candidateGenerator,
         new AggregatedReachedSets());
   }
@@ -257,6 +297,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
       final Specification specification,
       final ReachedSetFactory pReachedSetFactory,
       final boolean pAsync,
+      final int pParallelWorkers,
       final CandidateGenerator pCandidateGenerator,
       final AggregatedReachedSets pAggregatedReachedSets)
       throws InvalidConfigurationException, CPAException {
@@ -333,6 +374,41 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
     CPABuilder invGenBMCBuilder =
         new CPABuilder(config, logger, childShutdown.getNotifier(), pReachedSetFactory);
 
+    CandidateGenerator primaryCandidateGenerator = statisticsCandidateGenerator;
+    ImmutableList.Builder<PartitionWorker> workers = ImmutableList.builder();
+    workerShutdownManager = ShutdownManager.createWithParent(childShutdown.getNotifier());
+    if (pParallelWorkers > 1 && pCandidateGenerator instanceof StaticCandidateProvider) {
+      List<List<CandidateInvariant>> partitions =
+          partitionCandidates(
+              ((StaticCandidateProvider) pCandidateGenerator).getAllCandidates(), pParallelWorkers);
+      primaryCandidateGenerator =
+          new CandidatePartition(statisticsCandidateGenerator, partitions.get(0));
+      for (int i = 1; i < partitions.size(); i++) {
+        ShutdownNotifier workerNotifier = workerShutdownManager.getNotifier();
+        CPABuilder workerBuilder =
+            new CPABuilder(config, logger, workerNotifier, pReachedSetFactory);
+        ConfigurableProgramAnalysis workerCPA =
+            workerBuilder.buildCPAs(cfa, specification, pAggregatedReachedSets);
+        Algorithm workerCPAAlgorithm = CPAAlgorithm.create(workerCPA, logger, config, workerNotifier);
+        WorkerStatistics workerStats = new WorkerStatistics(i);
+        BMCAlgorithmForInvariantGeneration workerAlgorithm =
+            new BMCAlgorithmForInvariantGeneration(
+                workerCPAAlgorithm,
+                workerCPA,
+                config,
+                logger,
+                pReachedSetFactory,
+                workerShutdownManager,
+                cfa,
+                specification,
+                workerStats,
+                new CandidatePartition(statisticsCandidateGenerator, partitions.get(i)),
+                pAggregatedReachedSets);
+        workers.add(new PartitionWorker(workerCPA, workerAlgorithm, workerStats));
+      }
+    }
+    additionalWorkers = workers.build();
+
     cpa = invGenBMCBuilder.buildCPAs(cfa, specification, pAggregatedReachedSets);
     Algorithm cpaAlgorithm = CPAAlgorithm.create(cpa, logger, config, childShutdown.getNotifier());
     algorithm =
@@ -346,7 +422,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
             cfa,
             specification,
             stats,
-            statisticsCandidateGenerator,
+            primaryCandidateGenerator,
             pAggregatedReachedSets);
 
     PredicateCPA predicateCPA =
@@ -401,7 +477,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
 
     if ((async && !invariantGenerationFuture.isDone()) || cancelled.get()) {
       // grab intermediate result that is available so far
-      return algorithm.getCurrentInvariants();
+      return getCurrentInvariants();
 
     } else {
       try {
@@ -423,7 +499,7 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
 
     if ((async && !invariantGenerationFuture.isDone()) || cancelled.get()) {
       // grab intermediate result that is available so far
-      return algorithm.getCurrentInvariantsAsExpressionTree();
+      return getCurrentInvariantsAsExpressionTree();
 
     } else {
       try {
@@ -438,15 +514,226 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
     }
   }
 
+  /**
+   * Gets the invariants confirmed so far by all workers. Invariants are available from the
+   * returned supplier as soon as any worker proves them.
+   */
+  private InvariantSupplier getCurrentInvariants() {
+    if (additionalWorkers.isEmpty()) {
+      return algorithm.getCurrentInvariants();
+    }
+    return (node, callstackInformation, fmgr, pfmgr, context) -> {
+      BooleanFormulaManager bfmgr = fmgr.getBooleanFormulaManager();
+      BooleanFormula invariant =
+          algorithm
+              .getCurrentInvariants()
+              .getInvariantFor(node, callstackInformation, fmgr, pfmgr, context);
+      for (PartitionWorker worker : additionalWorkers) {
+        invariant =
+            bfmgr.and(
+                invariant,
+                worker
+                    .algorithm
+                    .getCurrentInvariants()
+                    .getInvariantFor(node, callstackInformation, fmgr, pfmgr, context));
+      }
+      return invariant;
+    };
+  }
+
+  /**
+   * Gets the invariants confirmed so far by all workers as expression trees.
+   */
+  private ExpressionTreeSupplier getCurrentInvariantsAsExpressionTree() {
+    if (additionalWorkers.isEmpty()) {
+      return algorithm.getCurrentInvariantsAsExpressionTree();
+    }
+    return node -> {
+      ExpressionTree<Object> invariant =
+          algorithm.getCurrentInvariantsAsExpressionTree().getInvariantFor(node);
+      for (PartitionWorker worker : additionalWorkers) {
+        invariant =
+            And.of(
+                invariant,
+                worker.algorithm.getCurrentInvariantsAsExpressionTree().getInvariantFor(node));
+      }
+      return invariant;
+    };
+  }
+
   @Override
   public boolean isProgramSafe() {
-    return algorithm.isProgramSafe();
+    return algorithm.isProgramSafe()
+        || from(additionalWorkers).anyMatch(worker -> worker.algorithm.isProgramSafe());
   }
 
   @Override
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     algorithm.collectStatistics(pStatsCollection);
     pStatsCollection.add(stats);
+    for (PartitionWorker worker : additionalWorkers) {
+      pStatsCollection.add(worker.stats);
+    }
+  }
+
+  /**
+   * Distributes the candidates round-robin over the given number of partitions. The safety
+   * property is always placed in the first partition, and only the first partition may be empty.
+   */
+  private static List<List<CandidateInvariant>> partitionCandidates(
+      Iterable<CandidateInvariant> pCandidates, int pNumberOfPartitions) {
+    List<List<CandidateInvariant>> partitions = new ArrayList<>(pNumberOfPartitions);
+    for (int i = 0; i < pNumberOfPartitions; i++) {
+      partitions.add(new ArrayList<>());
+    }
+    int next = 0;
+    for (CandidateInvariant candidate : pCandidates) {
+      if (candidate instanceof TargetLocationCandidateInvariant) {
+        partitions.get(0).add(candidate);
+      } else {
+        partitions.get(next).add(candidate);
+        next = (next + 1) % pNumberOfPartitions;
+      }
+    }
+    partitions.subList(1, pNumberOfPartitions).removeIf(List::isEmpty);
+    return partitions;
+  }
+
+  private static void runAlgorithm(
+      ConfigurableProgramAnalysis pCPA,
+      BMCAlgorithmForInvariantGeneration pAlgorithm,
+      ReachedSetFactory pReachedSetFactory,
+      CFANode pInitialLocation)
+      throws CPAException, InterruptedException {
+    try {
+      ReachedSet reachedSet = pReachedSetFactory.create();
+      StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+      AbstractState initialState = pCPA.getInitialState(pInitialLocation, partition);
+      Precision initialPrecision = pCPA.getInitialPrecision(pInitialLocation, partition);
+      reachedSet.add(initialState, initialPrecision);
+      pAlgorithm.run(reachedSet);
+    } catch (SolverException e) {
+      throw new CPAException("Solver Failure", e);
+    }
+  }
+
+  /**
+   * A view of one partition of a shared candidate generator. Candidates that are confirmed or
+   * refuted by any worker are removed from the shared generator, which is also used as the lock
+   * for all accesses, and thus disappear from all partitions. The confirmed candidates are
+   * those of all partitions.
+   */
+  private static class CandidatePartition implements CandidateGenerator {
+
+    private final CandidateGenerator sharedCandidates;
+
+    private final ImmutableSet<CandidateInvariant> partition;
+
+    private boolean produced = false;
+
+    private CandidatePartition(
+        CandidateGenerator pSharedCandidates, Iterable<CandidateInvariant> pPartition) {
+      sharedCandidates = checkNotNull(pSharedCandidates);
+      partition = ImmutableSet.copyOf(pPartition);
+    }
+
+    @Override
+    public boolean produceMoreCandidates() {
+      synchronized (sharedCandidates) {
+        if (produced) {
+          return false;
+        }
+        produced = true;
+        // the shared generator only produces candidates once, for whichever partition asks first
+        sharedCandidates.produceMoreCandidates();
+        return hasCandidatesAvailable();
+      }
+    }
+
+    @Override
+    public boolean hasCandidatesAvailable() {
+      return iterator().hasNext();
+    }
+
+    @Override
+    public void confirmCandidates(Iterable<CandidateInvariant> pCandidates) {
+      synchronized (sharedCandidates) {
+        sharedCandidates.confirmCandidates(pCandidates);
+      }
+    }
+
+    /**
+     * Returns the candidates confirmed by all workers, such that every worker can assume them in
+     * its inductive steps.
+     */
+    @Override
+    public Set<CandidateInvariant> getConfirmedCandidates() {
+      synchronized (sharedCandidates) {
+        return ImmutableSet.copyOf(sharedCandidates.getConfirmedCandidates());
+      }
+    }
+
+    @Override
+    public Iterator<CandidateInvariant> iterator() {
+      final Iterator<CandidateInvariant> iterator;
+      synchronized (sharedCandidates) {
+        if (!produced) {
+          return Collections.emptyIterator();
+        }
+        // iterate over a copy, other workers modify the shared candidates concurrently
+        iterator = from(sharedCandidates).filter(Predicates.in(partition)).toList().iterator();
+      }
+      return new Iterator<CandidateInvariant>() {
+
+        private CandidateInvariant candidate = null;
+
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public CandidateInvariant next() {
+          return candidate = iterator.next();
+        }
+
+        @Override
+        public void remove() {
+          checkState(candidate != null);
+          synchronized (sharedCandidates) {
+            Iterator<CandidateInvariant> sharedIterator = sharedCandidates.iterator();
+            while (sharedIterator.hasNext()) {
+              if (sharedIterator.next().equals(candidate)) {
+                sharedIterator.remove();
+                break;
+              }
+            }
+          }
+          candidate = null;
+        }
+      };
+    }
+  }
+
+  /**
+   * Checks one partition of the candidates with a separate CPA and solver instance.
+   */
+  private static class PartitionWorker {
+
+    private final ConfigurableProgramAnalysis cpa;
+
+    private final BMCAlgorithmForInvariantGeneration algorithm;
+
+    private final WorkerStatistics stats;
+
+    private PartitionWorker(
+        ConfigurableProgramAnalysis pCPA,
+        BMCAlgorithmForInvariantGeneration pAlgorithm,
+        WorkerStatistics pStats) {
+      cpa = checkNotNull(pCPA);
+      algorithm = checkNotNull(pAlgorithm);
+      stats = checkNotNull(pStats);
+    }
   }
 
   private class InvariantGenerationTask
@@ -464,18 +751,53 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator imp
       stats.invariantGeneration.start();
       shutdownManager.getNotifier().shutdownIfNecessary();
 
+      boolean finished = false;
       try {
-        ReachedSet reachedSet = reachedSetFactory.create();
-        AbstractState initialState = cpa.getInitialState(initialLocation, StateSpacePartition.getDefaultPartition());
-        Precision initialPrecision = cpa.getInitialPrecision(initialLocation, StateSpacePartition.getDefaultPartition());
-        reachedSet.add(initialState, initialPrecision);
-        algorithm.run(reachedSet);
-        return Pair.of(
-            algorithm.getCurrentInvariants(), algorithm.getCurrentInvariantsAsExpressionTree());
-
-      } catch (SolverException e) {
-        throw new CPAException("Solver Failure", e);
+        List<Future<?>> workerFutures = new ArrayList<>(additionalWorkers.size());
+        if (!additionalWorkers.isEmpty()) {
+          ExecutorService executor =
+              Executors.newFixedThreadPool(
+                  additionalWorkers.size(),
+                  new ThreadFactoryBuilder()
+                      .setDaemon(true)
+                      .setNameFormat("k-induction invariant generator worker %d")
+                      .build());
+          for (PartitionWorker worker : additionalWorkers) {
+            workerFutures.add(
+                executor.submit(
+                    () -> {
+                      try {
+                        runAlgorithm(
+                            worker.cpa, worker.algorithm, reachedSetFactory, initialLocation);
+                        return null;
+                      } finally {
+                        CPAs.closeCpaIfPossible(worker.cpa, logger);
+                        CPAs.closeIfPossible(worker.algorithm, logger);
+                      }
+                    }));
+          }
+          executor.shutdown();
+        }
+
+        runAlgorithm(cpa, algorithm, reachedSetFactory, initialLocation);
+
+        for (Future<?> workerFuture : workerFutures) {
+          try {
+            workerFuture.get();
+          } catch (ExecutionException e) {
+            Throwables.propagateIfPossible(
+                e.getCause(), CPAException.class, InterruptedException.class);
+            throw new UnexpectedCheckedException("invariant generation", e.getCause());
+          }
+        }
+        finished = true;
+        return Pair.of(getCurrentInvariants(), getCurrentInvariantsAsExpressionTree());
+
       } finally {
+        if (!finished) {
+          // stop the remaining workers
+          workerShutdownManager.requestShutdown("Invariant generation failed.");
+        }
         stats.invariantGeneration.stop();
         CPAs.closeCpaIfPossible(cpa, logger);
         CPAs.closeIfPossible(algorithm, logger);
@@ -185,6 +185,10 @@ public class ConstraintsCPA implements ConfigurableProgramAnalysis, StatisticsPr
   public void collectStatistics(Collection<Statistics> statsCollection) {
     precisionAdjustment.collectStatistics(statsCollection);
 
+    if (transferRelation instanceof StatisticsProvider) {
+      ((StatisticsProvider) transferRelation).collectStatistics(statsCollection);
+    }
+
     if (mergeOperator instanceof Statistics) {
       statsCollection.add((Statistics) mergeOperator);
     }
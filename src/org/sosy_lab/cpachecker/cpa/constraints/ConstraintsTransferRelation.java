@@ -25,6 +25,8 @@ package org.sosy_lab.cpachecker.cpa.constraints;
 
 import com.google.common.collect.Iterables;
 
+import javax.annotation.Nullable;
+
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -56,12 +58,15 @@ import org.sosy_lab.cpachecker.core.defaults.ForwardingTransferRelation;
 import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.cpa.automaton.AutomatonState;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.Constraint;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.ConstraintFactory;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.ConstraintTrivialityChecker;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.IdentifierAssignment;
 import org.sosy_lab.cpachecker.cpa.constraints.domain.ConstraintsState;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.CounterexampleCache;
 import org.sosy_lab.cpachecker.cpa.constraints.util.StateSimplifier;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
@@ -85,7 +90,8 @@ import java.util.Optional;
  */
 @Options(prefix = "cpa.constraints")
 public class ConstraintsTransferRelation
-    extends ForwardingTransferRelation<ConstraintsState, ConstraintsState, SingletonPrecision> {
+    extends ForwardingTransferRelation<ConstraintsState, ConstraintsState, SingletonPrecision>
+    implements StatisticsProvider {
 
   private enum CheckStrategy { AT_ASSUME, AT_TARGET }
 
@@ -93,6 +99,16 @@ public class ConstraintsTransferRelation
       description = "When to check the satisfiability of constraints")
   private CheckStrategy checkStrategy = CheckStrategy.AT_ASSUME;
 
+  @Option(secure = true, description = "Cache the satisfiability of constraint sets and answer "
+      + "SAT checks of subsets of unsatisfiable sets, supersets of satisfiable sets, and sets "
+      + "satisfied by earlier models without the solver. Definite assignments are not updated "
+      + "if a check is answered by the cache.")
+  private boolean useCounterexampleCache = false;
+
+  @Option(secure = true, description = "Only check the constraints that share symbolic "
+      + "identifiers with the newest constraint, if all other constraints are known to be "
+      + "satisfiable")
+  private boolean sliceIndependentConstraints = true;
 
   private final LogManagerWithoutDuplicates logger;
 
@@ -102,6 +118,7 @@ public class ConstraintsTransferRelation
   private FormulaManagerView formulaManager;
   private CtoFormulaConverter converter;
   private StateSimplifier simplifier;
+  private final @Nullable CounterexampleCache counterexampleCache;
 
   public ConstraintsTransferRelation(
       final Solver pSolver,
@@ -120,6 +137,8 @@ public class ConstraintsTransferRelation
     solver = pSolver;
     formulaManager = solver.getFormulaManager();
     initializeCToFormulaConverter(pLogger, pConfig, pShutdownNotifier);
+
+    counterexampleCache = useCounterexampleCache ? new CounterexampleCache(pConfig) : null;
   }
 
   // Can only be called after machineModel and formulaManager are set
@@ -210,7 +229,8 @@ public class ConstraintsTransferRelation
 
     final IdentifierAssignment definiteAssignment = pOldState.getDefiniteAssignment();
     FormulaCreator formulaCreator = getFormulaCreator(pFunctionName);
-    newState.initialize(solver, formulaManager, formulaCreator);
+    newState.initialize(
+        solver, formulaManager, formulaCreator, counterexampleCache, sliceIndependentConstraints);
 
     if (oNewConstraint.isPresent()) {
       final Constraint newConstraint = oNewConstraint.get();
@@ -238,6 +258,13 @@ public class ConstraintsTransferRelation
     return pOldState;
   }
 
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    if (counterexampleCache != null) {
+      pStatsCollection.add(counterexampleCache);
+    }
+  }
+
   private FormulaCreator getFormulaCreator(String pFunctionName) {
     return new FormulaCreatorUsingCConverter(formulaManager, getConverter(), pFunctionName);
   }
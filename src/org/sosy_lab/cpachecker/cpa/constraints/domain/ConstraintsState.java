@@ -26,17 +26,20 @@ package org.sosy_lab.cpachecker.cpa.constraints.domain;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Joiner;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.cpa.constraints.FormulaCreator;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.Constraint;
 import org.sosy_lab.cpachecker.cpa.constraints.constraint.IdentifierAssignment;
+import org.sosy_lab.cpachecker.cpa.constraints.domain.CounterexampleCache.Answer;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicIdentifier;
 import org.sosy_lab.cpachecker.cpa.value.symbolic.util.SymbolicIdentifierLocator;
 import org.sosy_lab.cpachecker.cpa.value.type.BooleanValue;
 import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
 import org.sosy_lab.cpachecker.cpa.value.type.Value;
 import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.java_smt.api.SolverException;
@@ -53,6 +56,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -82,9 +86,18 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
   private FormulaCreator formulaCreator;
   private FormulaManagerView formulaManager;
   private SymbolicIdentifierLocator locator;
+  private @Nullable CounterexampleCache cache;
+  private boolean sliceIndependentConstraints;
 
   private IdentifierAssignment definiteAssignment;
 
+  /**
+   * The number of constraints that were added since the last successful SAT check.
+   * If only one constraint was added, all others are known to be satisfiable, and only the
+   * constraints that depend on the new one have to be checked.
+   */
+  private int uncheckedConstraints;
+
   /**
    * Creates a new, initial <code>ConstraintsState</code> object.
    */
@@ -100,6 +113,7 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
       final IdentifierAssignment pDefiniteAssignment
   ) {
     constraints = new ArrayList<>(pConstraints);
+    uncheckedConstraints = constraints.size();
     definiteAssignment = new IdentifierAssignment(pDefiniteAssignment);
     constraintFormulas = new HashMap<>();
     locator = SymbolicIdentifierLocator.getInstance();
@@ -124,7 +138,10 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     formulaCreator = pState.formulaCreator;
     formulaManager = pState.formulaManager;
     locator = pState.locator;
+    cache = pState.cache;
+    sliceIndependentConstraints = pState.sliceIndependentConstraints;
 
+    uncheckedConstraints = pState.uncheckedConstraints;
     lastAddedConstraint = pState.lastAddedConstraint;
     definiteAssignment = new IdentifierAssignment(pState.definiteAssignment);
   }
@@ -158,7 +175,11 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     checkNotNull(pConstraint);
 
     lastAddedConstraint = pConstraint;
-    return !constraints.contains(pConstraint) && constraints.add(pConstraint);
+    if (constraints.contains(pConstraint)) {
+      return false;
+    }
+    uncheckedConstraints++;
+    return constraints.add(pConstraint);
   }
 
   @Override
@@ -223,6 +244,7 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
   public void clear() {
     constraints.clear();
     constraintFormulas.clear();
+    uncheckedConstraints = 0;
   }
 
   @Override
@@ -262,9 +284,29 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
    * @param pFormulaCreator the formula creator to use for creating <code>Formula</code>s
    */
   public void initialize(Solver pSolver, FormulaManagerView pFormulaManager, FormulaCreator pFormulaCreator) {
+    initialize(pSolver, pFormulaManager, pFormulaCreator, null, false);
+  }
+
+  /**
+   * Initializes this state with the given objects, like
+   * {@link #initialize(Solver, FormulaManagerView, FormulaCreator)}.
+   *
+   * @param pCache the cache for the results of SAT checks, or <code>null</code> if no cache should
+   *    be used
+   * @param pSliceIndependentConstraints whether SAT checks should only consider the constraints
+   *    that depend on the newest constraint, if all other constraints are known to be satisfiable
+   */
+  public void initialize(
+      Solver pSolver,
+      FormulaManagerView pFormulaManager,
+      FormulaCreator pFormulaCreator,
+      @Nullable CounterexampleCache pCache,
+      boolean pSliceIndependentConstraints) {
     solver = pSolver;
     formulaManager = pFormulaManager;
     formulaCreator = pFormulaCreator;
+    cache = pCache;
+    sliceIndependentConstraints = pSliceIndependentConstraints;
   }
 
   /**
@@ -278,21 +320,42 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
 
     try {
       if (!constraints.isEmpty()) {
-        prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
-        BooleanFormula constraintsAsFormula = getFullFormula();
+        Set<Constraint> relevantConstraints = getConstraintsToCheck();
 
-        prover.push(constraintsAsFormula);
-        unsat = prover.isUnsat();
+        Answer cachedAnswer = Answer.UNKNOWN;
+        if (cache != null) {
+          cachedAnswer = cache.lookup(relevantConstraints, model -> isSatisfiedBy(relevantConstraints, model));
+        }
 
-        if (!unsat) {
-          // doing this while the complete formula is still on the prover environment stack is
-          // cheaper than performing another complete SAT check when the assignment is really requested
-          resolveDefiniteAssignments();
+        if (cachedAnswer != Answer.UNKNOWN) {
+          // no new definite assignments are computed, but the old ones are still valid
+          unsat = cachedAnswer == Answer.UNSAT;
 
         } else {
-          definiteAssignment = null;
+          prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+          BooleanFormula constraintsAsFormula = getFormula(relevantConstraints);
+
+          prover.push(constraintsAsFormula);
+          unsat = prover.isUnsat();
+
+          if (!unsat) {
+            // doing this while the complete formula is still on the prover environment stack is
+            // cheaper than performing another complete SAT check when the assignment is really requested
+            IdentifierAssignment model = resolveDefiniteAssignments();
+
+            if (cache != null) {
+              cache.putSat(relevantConstraints, model);
+            }
+          } else if (cache != null) {
+            cache.putUnsat(relevantConstraints);
+          }
         }
 
+        if (unsat) {
+          definiteAssignment = null;
+        } else {
+          uncheckedConstraints = 0;
+        }
       }
     } finally {
       closeProver();
@@ -308,22 +371,92 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     }
   }
 
-  private void resolveDefiniteAssignments()
+  /**
+   * Returns the constraints whose satisfiability has to be checked to determine the
+   * satisfiability of this state.
+   *
+   * <p>If all constraints but the newest one are known to be satisfiable, the constraints
+   * that do not (transitively) share any symbolic identifier with the newest constraint can't
+   * influence the result, so only the remaining ones are returned.</p>
+   */
+  private Set<Constraint> getConstraintsToCheck() {
+    if (!sliceIndependentConstraints
+        || uncheckedConstraints != 1
+        || !constraints.contains(lastAddedConstraint)) {
+      return new LinkedHashSet<>(constraints);
+    }
+
+    Set<Constraint> dependentConstraints = new LinkedHashSet<>();
+    dependentConstraints.add(lastAddedConstraint);
+    Set<SymbolicIdentifier> identifiers = new HashSet<>(lastAddedConstraint.accept(locator));
+
+    List<Constraint> remainingConstraints = new ArrayList<>(constraints);
+    remainingConstraints.remove(lastAddedConstraint);
+
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      Iterator<Constraint> it = remainingConstraints.iterator();
+      while (it.hasNext()) {
+        Constraint c = it.next();
+        Set<SymbolicIdentifier> constraintIdentifiers = c.accept(locator);
+
+        if (!Collections.disjoint(identifiers, constraintIdentifiers)) {
+          dependentConstraints.add(c);
+          identifiers.addAll(constraintIdentifiers);
+          it.remove();
+          changed = true;
+        }
+      }
+    }
+
+    return dependentConstraints;
+  }
+
+  /**
+   * Returns whether all given constraints evaluate to true under the given assignment.
+   * Constraints with identifiers that are not assigned never evaluate to true.
+   */
+  private boolean isSatisfiedBy(Set<Constraint> pConstraints, IdentifierAssignment pModel)
+      throws UnrecognizedCCodeException, InterruptedException {
+    BooleanFormulaManagerView bfmgr = formulaManager.getBooleanFormulaManager();
+    for (Constraint c : pConstraints) {
+      BooleanFormula evaluated = formulaManager.simplify(formulaCreator.createFormula(c, pModel));
+      if (!bfmgr.isTrue(evaluated)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Computes new definite assignments and updates the formulas accordingly.
+   *
+   * @return the complete model of the current SAT check, combined with the definite assignments
+   */
+  private IdentifierAssignment resolveDefiniteAssignments()
       throws InterruptedException, SolverException, UnrecognizedCCodeException {
 
     IdentifierAssignment oldDefinites = new IdentifierAssignment(definiteAssignment);
-    computeDefiniteAssignment();
+    IdentifierAssignment model = computeDefiniteAssignment();
     updateOldFormulasDefinitesAppearIn(oldDefinites, definiteAssignment);
     assert definiteAssignment.entrySet().containsAll(oldDefinites.entrySet());
+
+    model.putAll(definiteAssignment);
+    return model;
   }
 
-  private void computeDefiniteAssignment() throws SolverException, InterruptedException {
+  private IdentifierAssignment computeDefiniteAssignment()
+      throws SolverException, InterruptedException {
+    IdentifierAssignment model = new IdentifierAssignment();
+
     try (Model validAssignment = prover.getModel()) {
       for (ValueAssignment val : validAssignment) {
         if (isSymbolicTerm(val.getName())) {
 
           SymbolicIdentifier identifier = toSymbolicIdentifier(val.getName());
           Value concreteValue = convertToValue(val);
+          model.put(identifier, concreteValue);
 
           if (!definiteAssignment.containsKey(identifier)
               && isOnlySatisfyingAssignment(val)) {
@@ -336,6 +469,8 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
         }
       }
     }
+
+    return model;
   }
 
   private void updateOldFormulasDefinitesAppearIn(
@@ -434,6 +569,21 @@ public class ConstraintsState implements AbstractState, Graphable, Set<Constrain
     return formulaManager.getBooleanFormulaManager().and(constraintFormulas.values());
   }
 
+  private BooleanFormula getFormula(Set<Constraint> pConstraints)
+      throws UnrecognizedCCodeException, InterruptedException {
+    if (pConstraints.size() == constraints.size()) {
+      return getFullFormula();
+    }
+
+    createMissingConstraintFormulas();
+
+    List<BooleanFormula> formulas = new ArrayList<>(pConstraints.size());
+    for (Constraint c : pConstraints) {
+      formulas.add(constraintFormulas.get(c));
+    }
+    return formulaManager.getBooleanFormulaManager().and(formulas);
+  }
+
   private void createMissingConstraintFormulas() throws UnrecognizedCCodeException, InterruptedException {
     assert constraints.size() >= constraintFormulas.size()
         : "More formulas than constraints!";
@@ -0,0 +1,209 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.constraints.domain;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.constraints.constraint.Constraint;
+import org.sosy_lab.cpachecker.cpa.constraints.constraint.IdentifierAssignment;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCCodeException;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Cache for the satisfiability of sets of {@link Constraint}s, in the style of the counterexample
+ * cache of KLEE.
+ *
+ * <p>A set of constraints is known to be unsatisfiable if it contains a set that was found to be
+ * unsatisfiable before, and it is known to be satisfiable if it is contained in a set that was
+ * found to be satisfiable before. In addition, the models of earlier satisfiable sets are tried
+ * as witnesses for new sets before the solver is asked.
+ *
+ * <p>Subset and superset queries are answered by scanning all cached sets, so the number of
+ * entries is bounded and the least-recently used entries are evicted.
+ */
+@Options(prefix = "cpa.constraints.counterexampleCache")
+public final class CounterexampleCache implements Statistics {
+
+  /** The result of a lookup in the cache. */
+  public enum Answer {
+    SAT,
+    UNSAT,
+    UNKNOWN
+  }
+
+  /** Checks whether a model satisfies the constraints of the current query. */
+  @FunctionalInterface
+  public interface ModelChecker {
+    boolean isSatisfiedBy(IdentifierAssignment pModel)
+        throws UnrecognizedCCodeException, InterruptedException;
+  }
+
+  @Option(
+    secure = true,
+    description =
+        "Maximum number of satisfiable and of unsatisfiable constraint sets "
+            + "that are kept in the counterexample cache."
+  )
+  @IntegerOption(min = 1)
+  private int maxEntries = 1000;
+
+  @Option(
+    secure = true,
+    description =
+        "Maximum number of models of earlier satisfiable constraint sets "
+            + "that are tried as witnesses for a new constraint set."
+  )
+  @IntegerOption(min = 0)
+  private int modelsToTry = 10;
+
+  private final Map<ImmutableSet<Constraint>, Boolean> unsatSets;
+  private final Map<ImmutableSet<Constraint>, Boolean> satSets;
+
+  /** the models of the most recently found satisfiable sets, most recent first */
+  private final Deque<IdentifierAssignment> recentModels = new ArrayDeque<>();
+
+  private final StatCounter lookups = new StatCounter("Number of lookups");
+  private final StatCounter exactHits = new StatCounter("Number of exact hits");
+  private final StatCounter unsatSubsetHits = new StatCounter("Number of hits by unsat subset");
+  private final StatCounter satSupersetHits = new StatCounter("Number of hits by sat superset");
+  private final StatCounter modelHits = new StatCounter("Number of hits by reused model");
+
+  public CounterexampleCache(Configuration pConfig) throws InvalidConfigurationException {
+    pConfig.inject(this);
+
+    unsatSets = newLruMap(maxEntries);
+    satSets = newLruMap(maxEntries);
+  }
+
+  private static <K, V> Map<K, V> newLruMap(final int pMaxEntries) {
+    return new LinkedHashMap<K, V>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> pEldest) {
+        return size() > pMaxEntries;
+      }
+    };
+  }
+
+  /**
+   * Determines whether the satisfiability of the given constraints follows from earlier results.
+   *
+   * @param pConstraints the constraints to check
+   * @param pModelChecker used for checking whether a cached model is a witness for the given
+   *     constraints
+   * @return {@link Answer#SAT} or {@link Answer#UNSAT} if the satisfiability is known,
+   *     {@link Answer#UNKNOWN} otherwise
+   */
+  public Answer lookup(Set<Constraint> pConstraints, ModelChecker pModelChecker)
+      throws UnrecognizedCCodeException, InterruptedException {
+    lookups.inc();
+
+    // get() instead of containsKey() to update the access order
+    if (unsatSets.get(pConstraints) != null) {
+      exactHits.inc();
+      return Answer.UNSAT;
+    }
+    if (satSets.get(pConstraints) != null) {
+      exactHits.inc();
+      return Answer.SAT;
+    }
+
+    for (Set<Constraint> unsat : unsatSets.keySet()) {
+      if (unsat.size() <= pConstraints.size() && pConstraints.containsAll(unsat)) {
+        unsatSubsetHits.inc();
+        return Answer.UNSAT;
+      }
+    }
+
+    for (Set<Constraint> sat : satSets.keySet()) {
+      if (sat.size() >= pConstraints.size() && sat.containsAll(pConstraints)) {
+        satSupersetHits.inc();
+        return Answer.SAT;
+      }
+    }
+
+    for (IdentifierAssignment model : recentModels) {
+      if (pModelChecker.isSatisfiedBy(model)) {
+        modelHits.inc();
+        return Answer.SAT;
+      }
+    }
+
+    return Answer.UNKNOWN;
+  }
+
+  public void putUnsat(Set<Constraint> pConstraints) {
+    unsatSets.put(ImmutableSet.copyOf(pConstraints), Boolean.TRUE);
+  }
+
+  /**
+   * Stores a satisfiable set of constraints.
+   *
+   * @param pConstraints the satisfiable constraints
+   * @param pModel a satisfying assignment of the constraints, may be partial
+   */
+  public void putSat(Set<Constraint> pConstraints, IdentifierAssignment pModel) {
+    satSets.put(ImmutableSet.copyOf(pConstraints), Boolean.TRUE);
+
+    if (modelsToTry > 0 && !pModel.isEmpty()) {
+      recentModels.addFirst(pModel);
+      if (recentModels.size() > modelsToTry) {
+        recentModels.removeLast();
+      }
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(lookups)
+        .put(exactHits)
+        .put(unsatSubsetHits)
+        .put(satSupersetHits)
+        .put(modelHits)
+        .put("Cached unsatisfiable sets", unsatSets.size())
+        .put("Cached satisfiable sets", satSets.size());
+  }
+
+  @Override
+  public @Nullable String getName() {
+    return "Counterexample cache for constraints";
+  }
+}
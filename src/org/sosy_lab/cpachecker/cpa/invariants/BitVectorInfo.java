@@ -25,6 +25,7 @@ package org.sosy_lab.cpachecker.cpa.invariants;
 
 import com.google.common.base.Preconditions;
 import java.math.BigInteger;
+import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cfa.types.Type;
 import org.sosy_lab.cpachecker.cfa.types.c.CBasicType;
@@ -44,12 +45,27 @@ public class BitVectorInfo implements TypeInfo {
 
   private final BigInteger maxValue;
 
+  /**
+   * Whether all values of the bit vector fit into a long, which is the case for signed bit
+   * vectors of up to 64 bits and unsigned bit vectors of up to 63 bits.
+   */
+  private final boolean fitsInLong;
+
+  private final long minValueLong;
+
+  private final long maxValueLong;
+
+  private @Nullable BitVectorInterval range = null;
+
   private BitVectorInfo(int pSize, boolean pSigned) {
     Preconditions.checkArgument(pSize >= 0, "bit vector size must not be negative");
     size = pSize;
     signed = pSigned;
     minValue = !signed ? BigInteger.ZERO : BigInteger.valueOf(2).pow(size - 1).negate();
     maxValue = !signed ? BigInteger.valueOf(2).pow(size).subtract(BigInteger.ONE) : BigInteger.valueOf(2).pow(size - 1).subtract(BigInteger.ONE);
+    fitsInLong = minValue.bitLength() < Long.SIZE && maxValue.bitLength() < Long.SIZE;
+    minValueLong = fitsInLong ? minValue.longValue() : 0;
+    maxValueLong = fitsInLong ? maxValue.longValue() : 0;
   }
 
   public int getSize() {
@@ -71,8 +87,42 @@ public class BitVectorInfo implements TypeInfo {
     return maxValue;
   }
 
+  /**
+   * Checks whether all values of the bit vector can be represented as a long. In this case, the
+   * intervals of the bit vector store their bounds as longs instead of BigIntegers.
+   *
+   * @return <code>true</code> if all values of the bit vector fit into a long, <code>false</code>
+   *     otherwise.
+   */
+  public boolean fitsInLong() {
+    return fitsInLong;
+  }
+
+  /**
+   * Returns the minimum value as a long (may only be called if {@link #fitsInLong()} returns
+   * true).
+   */
+  long getMinValueLong() {
+    Preconditions.checkState(fitsInLong);
+    return minValueLong;
+  }
+
+  /**
+   * Returns the maximum value as a long (may only be called if {@link #fitsInLong()} returns
+   * true).
+   */
+  long getMaxValueLong() {
+    Preconditions.checkState(fitsInLong);
+    return maxValueLong;
+  }
+
   public BitVectorInterval getRange() {
-    return BitVectorInterval.of(this, minValue, maxValue);
+    BitVectorInterval result = range;
+    if (result == null) {
+      result = BitVectorInterval.of(this, minValue, maxValue);
+      range = result;
+    }
+    return result;
   }
 
   @Override
@@ -31,7 +31,7 @@ import com.google.common.base.Preconditions;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import javax.annotation.Nullable;
 
 /**
  * This class represents simple convex ranges of BigIntegers.
@@ -39,19 +39,33 @@ import java.util.Objects;
  * concrete value or infinity. In case of a concrete value, the bound is assumed
  * to be included in the range.
  *
+ * If all values of the bit vector fit into a long (cf. {@link BitVectorInfo#fitsInLong()}),
+ * the bounds are stored as longs and most operations are computed without
+ * creating BigIntegers.
+ *
  * All instances of this class are immutable.
  */
 public class BitVectorInterval implements BitVectorType {
 
   /**
-   * The lower bound of the interval.
+   * The lower bound of the interval, or <code>null</code> if the bounds are stored as longs.
+   */
+  private final @Nullable BigInteger lowerBound;
+
+  /**
+   * The upper bound of the interval, or <code>null</code> if the bounds are stored as longs.
+   */
+  private final @Nullable BigInteger upperBound;
+
+  /**
+   * The lower bound of the interval if the bounds are stored as longs.
    */
-  private final BigInteger lowerBound;
+  private final long lowerBoundLong;
 
   /**
-   * The upper bound of the interval.
+   * The upper bound of the interval if the bounds are stored as longs.
    */
-  private final BigInteger upperBound;
+  private final long upperBoundLong;
 
   /**
    * Size and signedness.
@@ -76,8 +90,40 @@ public class BitVectorInterval implements BitVectorType {
     checkArgument(pUpperBound.compareTo(pInfo.getMaxValue()) <= 0, "upper bound must fit the bit vector");
 
     info = pInfo;
-    lowerBound = pLowerBound;
-    upperBound = pUpperBound;
+    if (pInfo.fitsInLong()) {
+      lowerBound = null;
+      upperBound = null;
+      lowerBoundLong = pLowerBound.longValue();
+      upperBoundLong = pUpperBound.longValue();
+    } else {
+      lowerBound = pLowerBound;
+      upperBound = pUpperBound;
+      lowerBoundLong = 0;
+      upperBoundLong = 0;
+    }
+  }
+
+  /**
+   * Creates a new interval from the given lower bound to the given upper bound
+   * for a bit vector whose values fit into a long.
+   *
+   * The lower bound must be a value less than or equal to the upper bound.
+   *
+   * @param pLowerBound the lower bound of the interval.
+   * @param pUpperBound the upper bound of the interval.
+   */
+  private BitVectorInterval(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    checkNotNull(pInfo);
+    checkArgument(pInfo.fitsInLong(), "bit vector does not fit into a long");
+    checkArgument(pLowerBound <= pUpperBound, "lower endpoint greater than upper end point");
+    checkArgument(pLowerBound >= pInfo.getMinValueLong(), "lower bound must fit the bit vector");
+    checkArgument(pUpperBound <= pInfo.getMaxValueLong(), "upper bound must fit the bit vector");
+
+    info = pInfo;
+    lowerBound = null;
+    upperBound = null;
+    lowerBoundLong = pLowerBound;
+    upperBoundLong = pUpperBound;
   }
 
   /**
@@ -90,18 +136,45 @@ public class BitVectorInterval implements BitVectorType {
     return info;
   }
 
+  /**
+   * Checks whether the bounds of this interval are stored as longs, in which case
+   * {@link #getLowerBoundLong()} and {@link #getUpperBoundLong()} may be called.
+   *
+   * @return <code>true</code> if the bounds of this interval are stored as longs,
+   * <code>false</code> otherwise.
+   */
+  public boolean hasLongBounds() {
+    return lowerBound == null;
+  }
+
   /**
    * Return lower bound (may only be called if {@link #hasLowerBound()} returns true.
    */
   public BigInteger getLowerBound() {
-    return lowerBound;
+    return lowerBound == null ? BigInteger.valueOf(lowerBoundLong) : lowerBound;
   }
 
   /**
    * Return upper bound (may only be called if {@link #hasUpperBound()} returns true.
    */
   public BigInteger getUpperBound() {
-    return upperBound;
+    return upperBound == null ? BigInteger.valueOf(upperBoundLong) : upperBound;
+  }
+
+  /**
+   * Return lower bound (may only be called if {@link #hasLongBounds()} returns true.
+   */
+  public long getLowerBoundLong() {
+    checkState(hasLongBounds());
+    return lowerBoundLong;
+  }
+
+  /**
+   * Return upper bound (may only be called if {@link #hasLongBounds()} returns true.
+   */
+  public long getUpperBoundLong() {
+    checkState(hasLongBounds());
+    return upperBoundLong;
   }
 
   /**
@@ -135,6 +208,12 @@ public class BitVectorInterval implements BitVectorType {
     if (pOther.isSingleton() || contains(pOther)) {
       return pOther;
     }
+    if (hasLongBounds()) {
+      return new BitVectorInterval(
+          info,
+          Math.max(lowerBoundLong, pOther.lowerBoundLong),
+          Math.min(upperBoundLong, pOther.upperBoundLong));
+    }
     // The lower bound of this interval is a candidate for the new lower bound
     BigInteger lowerBound = this.lowerBound;
 
@@ -159,11 +238,17 @@ public class BitVectorInterval implements BitVectorType {
 
   public BitVectorInterval getNegativePart() {
     Preconditions.checkArgument(containsNegative(), "This interval has no negative part.");
+    if (hasLongBounds()) {
+      return new BitVectorInterval(info, lowerBoundLong, Math.min(-1, upperBoundLong));
+    }
     return BitVectorInterval.of(info, lowerBound, BigInteger.valueOf(-1).min(upperBound));
   }
 
   public BitVectorInterval getPositivePart() {
     Preconditions.checkArgument(containsPositive(), "This interval has no positive part.");
+    if (hasLongBounds()) {
+      return new BitVectorInterval(info, Math.max(1, lowerBoundLong), upperBoundLong);
+    }
     return BitVectorInterval.of(info, BigInteger.ONE.max(lowerBound), upperBound);
   }
 
@@ -189,6 +274,9 @@ public class BitVectorInterval implements BitVectorType {
    * positive value, <code>false</code> otherwise.
    */
   public boolean containsPositive() {
+    if (hasLongBounds()) {
+      return upperBoundLong > 0;
+    }
     return upperBound.signum() == 1;
   }
 
@@ -198,26 +286,47 @@ public class BitVectorInterval implements BitVectorType {
    * <code>false</code> otherwise.
    */
   public boolean containsZero() {
+    if (hasLongBounds()) {
+      return upperBoundLong >= 0 && lowerBoundLong <= 0;
+    }
     return upperBound.signum() >= 0
         && lowerBound.signum() <= 0;
   }
 
   /**
-   * Checks if this interval contains the value zero.
-   * @return <code>true</code> if this interval contains the value zero,
+   * Checks if this interval contains the given value.
+   * @return <code>true</code> if this interval contains the given value,
    * <code>false</code> otherwise.
    */
   public boolean contains(BigInteger pValue) {
+    if (hasLongBounds()) {
+      return fitsInLong(pValue) && contains(pValue.longValue());
+    }
     return upperBound.compareTo(pValue) >= 0
         && lowerBound.compareTo(pValue) <= 0;
   }
 
+  /**
+   * Checks if this interval contains the given value.
+   * @return <code>true</code> if this interval contains the given value,
+   * <code>false</code> otherwise.
+   */
+  public boolean contains(long pValue) {
+    if (hasLongBounds()) {
+      return upperBoundLong >= pValue && lowerBoundLong <= pValue;
+    }
+    return contains(BigInteger.valueOf(pValue));
+  }
+
   /**
    * Checks if this interval contains at least one negative value.
    * @return <code>true</code> if this interval contains at least one
    * negative value, <code>false</code> otherwise.
    */
   public boolean containsNegative() {
+    if (hasLongBounds()) {
+      return lowerBoundLong < 0;
+    }
     return lowerBound.signum() == -1;
   }
 
@@ -228,7 +337,14 @@ public class BitVectorInterval implements BitVectorType {
    * @return The upper bound minus the lower bound plus one.
    */
   public BigInteger size() {
-    return upperBound.subtract(lowerBound).add(BigInteger.ONE);
+    if (hasLongBounds()) {
+      // the difference of the bounds is never negative, so a negative result indicates an overflow
+      long difference = upperBoundLong - lowerBoundLong;
+      if (difference >= 0 && difference < Long.MAX_VALUE) {
+        return BigInteger.valueOf(difference + 1);
+      }
+    }
+    return getUpperBound().subtract(getLowerBound()).add(BigInteger.ONE);
   }
 
   /**
@@ -240,6 +356,9 @@ public class BitVectorInterval implements BitVectorType {
    * single value, <code>false</code> otherwise.
    */
   public boolean isSingleton() {
+    if (hasLongBounds()) {
+      return lowerBoundLong == upperBoundLong;
+    }
     return lowerBound.equals(upperBound);
   }
 
@@ -254,8 +373,17 @@ public class BitVectorInterval implements BitVectorType {
    * @return the mathematical negation of this interval.
    */
   public BitVectorInterval negate(boolean pAllowSignedWrapAround, OverflowEventHandler pOverflowEventHandler) {
-    BigInteger newLowerBound = upperBound.negate();
-    BigInteger newUpperBound = lowerBound.negate();
+    // Fast path if the negated interval fits into the bit vector without wrap-around
+    if (hasLongBounds() && lowerBoundLong != Long.MIN_VALUE) {
+      long newLowerBound = -upperBoundLong;
+      long newUpperBound = -lowerBoundLong;
+      if (newLowerBound >= info.getMinValueLong() && newUpperBound <= info.getMaxValueLong()) {
+        return new BitVectorInterval(info, newLowerBound, newUpperBound);
+      }
+    }
+
+    BigInteger newLowerBound = getUpperBound().negate();
+    BigInteger newUpperBound = getLowerBound().negate();
 
     boolean lbExceedsBelow = newLowerBound.compareTo(info.getMinValue()) < 0;
     boolean lbExceedsAbove = !lbExceedsBelow && newLowerBound.compareTo(info.getMaxValue()) > 0;
@@ -298,7 +426,7 @@ public class BitVectorInterval implements BitVectorType {
       BigInteger pI,
       boolean pAllowSignedWrapAround,
       OverflowEventHandler pOverflowEventHandler) {
-    if (pInfo.getRange().contains(pI)) {
+    if (pI.compareTo(pInfo.getMinValue()) >= 0 && pI.compareTo(pInfo.getMaxValue()) <= 0) {
       return BitVectorInterval.singleton(pInfo, pI);
     }
     // If the type is signed, wrap-around is implementation defined
@@ -316,6 +444,30 @@ public class BitVectorInterval implements BitVectorType {
     return BitVectorInterval.singleton(pInfo, value);
   }
 
+  /**
+   * Casts the interval from the given lower bound to the given upper bound
+   * into the given bit vector. Only if the interval does not fit into the
+   * bit vector, the bounds are converted to BigIntegers to compute the
+   * wrap-around.
+   */
+  public static BitVectorInterval cast(BitVectorInfo pInfo,
+      long pLowerBound,
+      long pUpperBound,
+      boolean pAllowSignedWrapAround,
+      OverflowEventHandler pOverflowEventHandler) {
+    if (pInfo.fitsInLong()
+        && pLowerBound >= pInfo.getMinValueLong()
+        && pUpperBound <= pInfo.getMaxValueLong()) {
+      return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+    }
+    return cast(
+        pInfo,
+        BigInteger.valueOf(pLowerBound),
+        BigInteger.valueOf(pUpperBound),
+        pAllowSignedWrapAround,
+        pOverflowEventHandler);
+  }
+
   public static BitVectorInterval cast(BitVectorInfo pInfo,
       BigInteger pLowerBound,
       BigInteger pUpperBound,
@@ -395,6 +547,12 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMaxValue() {
+    if (hasLongBounds()) {
+      if (upperBoundLong == info.getMaxValueLong()) {
+        return this;
+      }
+      return new BitVectorInterval(info, lowerBoundLong, info.getMaxValueLong());
+    }
     if (upperBound.equals(info.getMaxValue())) {
       return this;
     }
@@ -409,6 +567,12 @@ public class BitVectorInterval implements BitVectorType {
    * allowed by the bit vector size.
    */
   public BitVectorInterval extendToMinValue() {
+    if (hasLongBounds()) {
+      if (lowerBoundLong == info.getMinValueLong()) {
+        return this;
+      }
+      return new BitVectorInterval(info, info.getMinValueLong(), upperBoundLong);
+    }
     if (lowerBound.equals(info.getMinValue())) {
       return this;
     }
@@ -424,20 +588,81 @@ public class BitVectorInterval implements BitVectorType {
     }
 
     BitVectorInterval other = (BitVectorInterval) pObj;
-    return Objects.equals(this.lowerBound, other.lowerBound)
-        && Objects.equals(this.upperBound, other.upperBound);
+    if (hasLongBounds() && other.hasLongBounds()) {
+      return this.lowerBoundLong == other.lowerBoundLong
+          && this.upperBoundLong == other.upperBoundLong;
+    }
+    return getLowerBound().equals(other.getLowerBound())
+        && getUpperBound().equals(other.getUpperBound());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(lowerBound, upperBound);
+    // must not depend on the representation of the bounds, see equals
+    if (hasLongBounds()) {
+      return 31 * Long.hashCode(lowerBoundLong) + Long.hashCode(upperBoundLong);
+    }
+    return 31 * hashCode(lowerBound) + hashCode(upperBound);
+  }
+
+  private static int hashCode(BigInteger pBound) {
+    return fitsInLong(pBound) ? Long.hashCode(pBound.longValue()) : pBound.hashCode();
+  }
+
+  private static boolean fitsInLong(BigInteger pValue) {
+    return pValue.bitLength() < Long.SIZE;
   }
 
   @Override
   public String toString() {
+    if (hasLongBounds()) {
+      return "[" + lowerBoundLong + ", " + upperBoundLong + "]";
+    }
     return "[" + lowerBound + ", " + upperBound + "]";
   }
 
+  /**
+   * Compares the lower bound of this interval to the lower bound of the given interval.
+   *
+   * @param pOther the interval whose lower bound this interval's lower bound is compared to.
+   * @return a negative integer, zero, or a positive integer if the lower bound of this interval
+   * is less than, equal to, or greater than the lower bound of the given interval.
+   */
+  public int compareLowerBoundTo(BitVectorInterval pOther) {
+    if (hasLongBounds() && pOther.hasLongBounds()) {
+      return Long.compare(lowerBoundLong, pOther.lowerBoundLong);
+    }
+    return getLowerBound().compareTo(pOther.getLowerBound());
+  }
+
+  /**
+   * Compares the upper bound of this interval to the upper bound of the given interval.
+   *
+   * @param pOther the interval whose upper bound this interval's upper bound is compared to.
+   * @return a negative integer, zero, or a positive integer if the upper bound of this interval
+   * is less than, equal to, or greater than the upper bound of the given interval.
+   */
+  public int compareUpperBoundTo(BitVectorInterval pOther) {
+    if (hasLongBounds() && pOther.hasLongBounds()) {
+      return Long.compare(upperBoundLong, pOther.upperBoundLong);
+    }
+    return getUpperBound().compareTo(pOther.getUpperBound());
+  }
+
+  /**
+   * Checks if all values of this interval are greater than all values of the given interval.
+   *
+   * @param pOther the interval to compare this interval to.
+   * @return <code>true</code> if the lower bound of this interval is greater than the upper
+   * bound of the given interval, <code>false</code> otherwise.
+   */
+  public boolean isAbove(BitVectorInterval pOther) {
+    if (hasLongBounds() && pOther.hasLongBounds()) {
+      return lowerBoundLong > pOther.upperBoundLong;
+    }
+    return getLowerBound().compareTo(pOther.getUpperBound()) > 0;
+  }
+
   /**
    * Checks if this interval contains the given interval.
    * @param pOther the interval that this interval is checked for containing.
@@ -452,8 +677,7 @@ public class BitVectorInterval implements BitVectorType {
       return false;
     }
 
-    return this.lowerBound.compareTo(pOther.lowerBound) <= 0
-        && this.upperBound.compareTo(pOther.upperBound) >= 0;
+    return compareLowerBoundTo(pOther) <= 0 && compareUpperBoundTo(pOther) >= 0;
   }
 
   /**
@@ -469,8 +693,15 @@ public class BitVectorInterval implements BitVectorType {
   public boolean touches(BitVectorInterval pOther) {
     if (pOther == null) { return false; }
     if (intersectsWith(pOther)) { return true; }
-    return pOther.upperBound.add(BigInteger.ONE).equals(this.lowerBound)
-        || this.upperBound.add(BigInteger.ONE).equals(pOther.lowerBound);
+    if (hasLongBounds() && pOther.hasLongBounds()) {
+      // the intervals do not intersect, so the upper bound of the lower interval cannot overflow
+      if (isAbove(pOther)) {
+        return pOther.upperBoundLong + 1 == this.lowerBoundLong;
+      }
+      return this.upperBoundLong + 1 == pOther.lowerBoundLong;
+    }
+    return pOther.getUpperBound().add(BigInteger.ONE).equals(this.getLowerBound())
+        || this.getUpperBound().add(BigInteger.ONE).equals(pOther.getLowerBound());
   }
 
   /**
@@ -484,9 +715,7 @@ public class BitVectorInterval implements BitVectorType {
 
     // this is [a, b]; other is [c, d]
     // result is true if a <= d and b >= c
-    boolean aLessThanOrEqB = this.lowerBound.compareTo(other.upperBound) <= 0;
-    boolean bGreaterThanOrEqC = this.upperBound.compareTo(other.lowerBound) >= 0;
-    return aLessThanOrEqB && bGreaterThanOrEqC;
+    return !this.isAbove(other) && !other.isAbove(this);
   }
 
   /**
@@ -553,6 +782,13 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pI, pI);
   }
 
+  public static BitVectorInterval singleton(BitVectorInfo pInfo, long pI) {
+    if (pInfo.fitsInLong()) {
+      return new BitVectorInterval(pInfo, pI, pI);
+    }
+    return singleton(pInfo, BigInteger.valueOf(pI));
+  }
+
   public static BitVectorInterval greaterOrEqual(BitVectorInfo pInfo, BigInteger pI) {
     return singleton(pInfo, pI).extendToMaxValue();
   }
@@ -565,31 +801,32 @@ public class BitVectorInterval implements BitVectorType {
     return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
   }
 
+  public static BitVectorInterval of(BitVectorInfo pInfo, long pLowerBound, long pUpperBound) {
+    if (pInfo.fitsInLong()) {
+      return new BitVectorInterval(pInfo, pLowerBound, pUpperBound);
+    }
+    return of(pInfo, BigInteger.valueOf(pLowerBound), BigInteger.valueOf(pUpperBound));
+  }
+
   /**
    * Create the smallest interval that contains two given intervals;
    */
   public static BitVectorInterval span(BitVectorInterval a, BitVectorInterval b) {
     a.checkBitVectorCompatibilityWith(b);
-    BigInteger lower;
-    if (a.lowerBound == null || b.lowerBound == null) {
-      lower = null;
-    } else {
-      lower = a.lowerBound.min(b.lowerBound);
-    }
-
-    BigInteger upper;
-    if (a.upperBound == null || b.upperBound == null) {
-      upper = null;
-    } else {
-      upper = a.upperBound.max(b.upperBound);
-    }
-
-    if (lower == a.lowerBound && upper == a.upperBound) {
+    boolean lowerFromA = a.compareLowerBoundTo(b) <= 0;
+    boolean upperFromA = a.compareUpperBoundTo(b) >= 0;
+    if (lowerFromA && upperFromA) {
       return a;
-    } else if (lower == b.lowerBound && upper == b.upperBound) {
+    } else if (!lowerFromA && !upperFromA) {
       return b;
+    } else if (a.hasLongBounds()) {
+      return new BitVectorInterval(
+          a.info,
+          Math.min(a.lowerBoundLong, b.lowerBoundLong),
+          Math.max(a.upperBoundLong, b.upperBoundLong));
     } else {
-      return new BitVectorInterval(a.info, lower, upper);
+      return new BitVectorInterval(
+          a.info, a.lowerBound.min(b.lowerBound), a.upperBound.max(b.upperBound));
     }
   }
 }
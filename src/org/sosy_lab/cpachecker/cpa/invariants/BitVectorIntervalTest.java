@@ -0,0 +1,206 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.invariants;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.invariants.operators.Operator;
+import org.sosy_lab.cpachecker.cpa.invariants.operators.bitvector.IIIOperatorFactory;
+
+/**
+ * Compares the operations on intervals whose bounds are stored as longs with the same operations
+ * computed on the BigInteger bounds, for random intervals of several bit-vector types.
+ */
+public class BitVectorIntervalTest {
+
+  private static final int ITERATIONS = 2_000;
+
+  private static final BitVectorInfo[] TYPES = {
+    BitVectorInfo.from(8, true),
+    BitVectorInfo.from(8, false),
+    BitVectorInfo.from(32, true),
+    BitVectorInfo.from(32, false),
+    BitVectorInfo.from(63, false),
+    BitVectorInfo.from(64, true),
+    BitVectorInfo.from(64, false),
+    BitVectorInfo.from(65, true),
+  };
+
+  private final Random random = new Random(0);
+
+  /** Returns a random value of the bit vector, preferring values near the extremes and zero. */
+  private BigInteger randomValue(BitVectorInfo pInfo) {
+    BigInteger offset = BigInteger.valueOf(random.nextInt(4));
+    switch (random.nextInt(4)) {
+      case 0:
+        return pInfo.getMinValue().add(offset);
+      case 1:
+        return pInfo.getMaxValue().subtract(offset);
+      case 2:
+        return pInfo.isSigned() ? offset.subtract(BigInteger.valueOf(2)) : offset;
+      default:
+        return new BigInteger(pInfo.getSize(), random).add(pInfo.getMinValue());
+    }
+  }
+
+  private BitVectorInterval randomInterval(BitVectorInfo pInfo) {
+    BigInteger a = randomValue(pInfo);
+    BigInteger b = random.nextInt(8) == 0 ? a : randomValue(pInfo);
+    return BitVectorInterval.of(pInfo, a.min(b), a.max(b));
+  }
+
+  private static BitVectorInterval castBigInteger(
+      BitVectorInfo pInfo, BigInteger pLowerBound, BigInteger pUpperBound, boolean pWrapAround) {
+    return BitVectorInterval.cast(
+        pInfo, pLowerBound, pUpperBound, pWrapAround, OverflowEventHandler.EMPTY);
+  }
+
+  @Test
+  public void testLongBoundsMatchBigIntegerBounds() {
+    for (BitVectorInfo info : TYPES) {
+      for (int i = 0; i < ITERATIONS; i++) {
+        BitVectorInterval interval = randomInterval(info);
+        BigInteger lower = interval.getLowerBound();
+        BigInteger upper = interval.getUpperBound();
+        assertEquals(info.fitsInLong(), interval.hasLongBounds());
+        assertEquals(interval, BitVectorInterval.of(info, lower, upper));
+        assertEquals(upper.subtract(lower).add(BigInteger.ONE), interval.size());
+        assertEquals(lower.equals(upper), interval.isSingleton());
+        assertEquals(lower.signum() <= 0 && upper.signum() >= 0, interval.containsZero());
+        assertEquals(upper.signum() > 0, interval.containsPositive());
+        assertEquals(lower.signum() < 0, interval.containsNegative());
+
+        BigInteger value = randomValue(info);
+        assertEquals(
+            lower.compareTo(value) <= 0 && upper.compareTo(value) >= 0, interval.contains(value));
+        if (info.fitsInLong()) {
+          assertEquals(interval.contains(value), interval.contains(value.longValueExact()));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testComparisonsMatchBigIntegerBounds() {
+    for (BitVectorInfo info : TYPES) {
+      for (int i = 0; i < ITERATIONS; i++) {
+        BitVectorInterval a = randomInterval(info);
+        BitVectorInterval b = randomInterval(info);
+        int lowerComparison = a.getLowerBound().compareTo(b.getLowerBound());
+        int upperComparison = a.getUpperBound().compareTo(b.getUpperBound());
+        assertEquals(Integer.signum(lowerComparison), Integer.signum(a.compareLowerBoundTo(b)));
+        assertEquals(Integer.signum(upperComparison), Integer.signum(a.compareUpperBoundTo(b)));
+        assertEquals(a.getLowerBound().compareTo(b.getUpperBound()) > 0, a.isAbove(b));
+        assertEquals(lowerComparison <= 0 && upperComparison >= 0, a.contains(b));
+
+        boolean intersects =
+            a.getLowerBound().compareTo(b.getUpperBound()) <= 0
+                && b.getLowerBound().compareTo(a.getUpperBound()) <= 0;
+        assertEquals(intersects, a.intersectsWith(b));
+        assertEquals(
+            intersects
+                || a.getUpperBound().add(BigInteger.ONE).equals(b.getLowerBound())
+                || b.getUpperBound().add(BigInteger.ONE).equals(a.getLowerBound()),
+            a.touches(b));
+
+        assertEquals(
+            BitVectorInterval.of(
+                info,
+                a.getLowerBound().min(b.getLowerBound()),
+                a.getUpperBound().max(b.getUpperBound())),
+            BitVectorInterval.span(a, b));
+        if (intersects) {
+          assertEquals(
+              BitVectorInterval.of(
+                  info,
+                  a.getLowerBound().max(b.getLowerBound()),
+                  a.getUpperBound().min(b.getUpperBound())),
+              a.intersectWith(b));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testNegateMatchesBigIntegerCast() {
+    for (BitVectorInfo info : TYPES) {
+      for (boolean wrapAround : new boolean[] {true, false}) {
+        for (int i = 0; i < ITERATIONS; i++) {
+          BitVectorInterval interval = randomInterval(info);
+          assertEquals(
+              castBigInteger(
+                  info,
+                  interval.getUpperBound().negate(),
+                  interval.getLowerBound().negate(),
+                  wrapAround),
+              interval.negate(wrapAround, OverflowEventHandler.EMPTY));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testArithmeticMatchesBigIntegerCast() {
+    for (BitVectorInfo info : TYPES) {
+      for (boolean wrapAround : new boolean[] {true, false}) {
+        Operator<BitVectorInterval, BitVectorInterval, BitVectorInterval> add =
+            IIIOperatorFactory.INSTANCE.getAdd(wrapAround, OverflowEventHandler.EMPTY);
+        Operator<BitVectorInterval, BitVectorInterval, BitVectorInterval> multiply =
+            IIIOperatorFactory.INSTANCE.getMultiply(wrapAround, OverflowEventHandler.EMPTY);
+
+        for (int i = 0; i < ITERATIONS; i++) {
+          BitVectorInterval a = randomInterval(info);
+          BitVectorInterval b = randomInterval(info);
+          if (a.isSingleton() || b.isSingleton()) {
+            // singletons are handled by the scalar operators with their own special cases
+            continue;
+          }
+
+          assertEquals(
+              castBigInteger(
+                  info,
+                  a.getLowerBound().add(b.getLowerBound()),
+                  a.getUpperBound().add(b.getUpperBound()),
+                  wrapAround),
+              add.apply(a, b));
+
+          BigInteger lbLb = a.getLowerBound().multiply(b.getLowerBound());
+          BigInteger lbUb = a.getLowerBound().multiply(b.getUpperBound());
+          BigInteger ubLb = a.getUpperBound().multiply(b.getLowerBound());
+          BigInteger ubUb = a.getUpperBound().multiply(b.getUpperBound());
+          assertEquals(
+              castBigInteger(
+                  info,
+                  lbLb.min(lbUb).min(ubLb).min(ubUb),
+                  lbLb.max(lbUb).max(ubLb).max(ubUb),
+                  wrapAround),
+              multiply.apply(a, b));
+        }
+      }
+    }
+  }
+}
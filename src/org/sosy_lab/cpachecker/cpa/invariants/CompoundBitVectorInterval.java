@@ -199,9 +199,8 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     int start = 0;
     BitVectorInterval lastInterval = null;
     if (pOther.hasLowerBound() && hasUpperBound()) {
-      BigInteger pOtherLB = pOther.getLowerBound();
       BitVectorInterval currentLocal = this.intervals[start];
-      while (currentLocal != null && pOtherLB.compareTo(currentLocal.getUpperBound()) > 0) {
+      while (currentLocal != null && pOther.isAbove(currentLocal)) {
         resultIntervals.add(currentLocal);
         ++start;
         lastInterval = currentLocal;
@@ -234,7 +233,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
           currentInserted = true;
         } else {
           if (!pOther.hasLowerBound()
-              || (interval.hasLowerBound() && less(pOther.getLowerBound(), interval.getLowerBound()))) {
+              || (interval.hasLowerBound() && pOther.compareLowerBoundTo(interval) < 0)) {
             resultIntervals.add(pOther);
             inserted = true;
           }
@@ -295,14 +294,14 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     CompoundBitVectorInterval result = bottom(info);
     final int lbIndex;
     if (pOther.hasLowerBound()) {
-      int intervalIndex = intervalIndexOf(pOther.getLowerBound());
+      int intervalIndex = intervalIndexOf(lowerBoundOf(pOther));
       lbIndex = intervalIndex >= 0 ? intervalIndex : (-intervalIndex - 1);
     } else {
       lbIndex = 0;
     }
     final int ubIndex;
     if (pOther.hasUpperBound()) {
-      int intervalIndex = intervalIndexOf(pOther.getUpperBound());
+      int intervalIndex = intervalIndexOf(upperBoundOf(pOther));
       ubIndex = intervalIndex >= 0 ? intervalIndex : (-intervalIndex - 1);
     } else {
       ubIndex = this.intervals.length - 1;
@@ -379,8 +378,6 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     }
     boolean hasLowerBound = pInterval.hasLowerBound();
     boolean hasUpperBound = pInterval.hasUpperBound();
-    BigInteger lb = hasLowerBound ? pInterval.getLowerBound() : null;
-    BigInteger ub = hasUpperBound ? pInterval.getUpperBound() : null;
     int leftInclusive = 0;
     int rightExclusive = this.intervals.length;
     while (leftInclusive < rightExclusive) {
@@ -388,10 +385,10 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
       BitVectorInterval intervalAtIndex = this.intervals[index];
       boolean lbIndexLeqLb =
           !intervalAtIndex.hasLowerBound()
-              || (hasLowerBound && intervalAtIndex.getLowerBound().compareTo(lb) <= 0);
+              || (hasLowerBound && intervalAtIndex.compareLowerBoundTo(pInterval) <= 0);
       boolean ubIndexGeqUb =
           !intervalAtIndex.hasUpperBound()
-              || (hasUpperBound && intervalAtIndex.getUpperBound().compareTo(ub) >= 0);
+              || (hasUpperBound && intervalAtIndex.compareUpperBoundTo(pInterval) >= 0);
       if (lbIndexLeqLb) { // Interval at index starts before interval
         if (ubIndexGeqUb) { // Interval at index ends after interval
           return true;
@@ -404,7 +401,15 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     return false;
   }
 
-  private int intervalIndexOf(BigInteger value) {
+  /**
+   * Finds the index of the interval containing the given value, given as singleton interval.
+   *
+   * @param value the value to search for.
+   * @return the index of the interval containing the value, or a negative number if the value
+   * is not contained.
+   */
+  private int intervalIndexOf(BitVectorInterval value) {
+    assert value.isSingleton();
     if (isBottom()) {
       return -1;
     }
@@ -416,8 +421,8 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     int index = rightExclusive / 2;
     while (leftInclusive < rightExclusive) {
       BitVectorInterval intervalAtIndex = this.intervals[index];
-      boolean lbIndexLeqValue = !intervalAtIndex.hasLowerBound() || intervalAtIndex.getLowerBound().compareTo(value) <= 0;
-      boolean ubIndexGeqValue = !intervalAtIndex.hasUpperBound() || intervalAtIndex.getUpperBound().compareTo(value) >= 0;
+      boolean lbIndexLeqValue = !intervalAtIndex.hasLowerBound() || intervalAtIndex.compareLowerBoundTo(value) <= 0;
+      boolean ubIndexGeqValue = !intervalAtIndex.hasUpperBound() || intervalAtIndex.compareUpperBoundTo(value) >= 0;
       if (lbIndexLeqValue) { // Interval at index starts before the value
         if (ubIndexGeqValue) { // Interval at index ends after the value
           return index;
@@ -432,6 +437,20 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     return index == 0 ? -1 : -index;
   }
 
+  private static BitVectorInterval lowerBoundOf(BitVectorInterval pInterval) {
+    if (pInterval.hasLongBounds()) {
+      return BitVectorInterval.singleton(pInterval.getTypeInfo(), pInterval.getLowerBoundLong());
+    }
+    return BitVectorInterval.singleton(pInterval.getTypeInfo(), pInterval.getLowerBound());
+  }
+
+  private static BitVectorInterval upperBoundOf(BitVectorInterval pInterval) {
+    if (pInterval.hasLongBounds()) {
+      return BitVectorInterval.singleton(pInterval.getTypeInfo(), pInterval.getUpperBoundLong());
+    }
+    return BitVectorInterval.singleton(pInterval.getTypeInfo(), pInterval.getUpperBound());
+  }
+
   /**
    * Checks if the given big integer value is contained in this state.
    * @param pValue the value to check for.
@@ -459,8 +478,14 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    */
   public boolean contains(long pValue) {
     if (isBottom()) { return false; }
-    BigInteger value = BigInteger.valueOf(pValue);
-    return intervalIndexOf(value) >= 0;
+    if (containsAllPossibleValues()) { return true; }
+    if (!info.fitsInLong()) {
+      return contains(BigInteger.valueOf(pValue));
+    }
+    if (pValue < info.getMinValueLong() || pValue > info.getMaxValueLong()) {
+      return false;
+    }
+    return intervalIndexOf(BitVectorInterval.singleton(info, pValue)) >= 0;
   }
 
   /**
@@ -598,10 +623,17 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
     // If the value fits in, the cast is easy
     if (pBitVectorInfo.getRange().contains(info.getRange())) {
       BitVectorInterval[] castedIntervals = new BitVectorInterval[intervals.length];
-      Lists.transform(getBitVectorIntervals(), pInterval -> BitVectorInterval.of(
-          pBitVectorInfo,
-          pInterval.getLowerBound(),
-          pInterval.getUpperBound())).toArray(castedIntervals);
+      Lists.transform(
+              getBitVectorIntervals(),
+              pInterval ->
+                  pInterval.hasLongBounds()
+                      ? BitVectorInterval.of(
+                          pBitVectorInfo,
+                          pInterval.getLowerBoundLong(),
+                          pInterval.getUpperBoundLong())
+                      : BitVectorInterval.of(
+                          pBitVectorInfo, pInterval.getLowerBound(), pInterval.getUpperBound()))
+          .toArray(castedIntervals);
       return new CompoundBitVectorInterval(
           pBitVectorInfo,
           castedIntervals);
@@ -779,6 +811,14 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
   }
 
   private static CompoundBitVectorInterval negate(BitVectorInfo pInfo, BitVectorInterval pInterval, boolean pAllowSignedWrapAround, final OverflowEventHandler pOverflowEventHandler) {
+    // Without wrap-around, the negation of the interval is computed on longs
+    if (pInterval.hasLongBounds() && pInterval.getLowerBoundLong() != Long.MIN_VALUE) {
+      long newLowerBound = -pInterval.getUpperBoundLong();
+      long newUpperBound = -pInterval.getLowerBoundLong();
+      if (newLowerBound >= pInfo.getMinValueLong() && newUpperBound <= pInfo.getMaxValueLong()) {
+        return CompoundBitVectorInterval.of(BitVectorInterval.of(pInfo, newLowerBound, newUpperBound));
+      }
+    }
     BigInteger newLowerBound = pInterval.getUpperBound().negate();
     BigInteger newUpperBound = pInterval.getLowerBound().negate();
 
@@ -1768,60 +1808,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
   private static BitVectorInterval union(BitVectorInterval pA, BitVectorInterval pB) {
     Preconditions.checkArgument(pA.getTypeInfo().equals(pB.getTypeInfo()));
     Preconditions.checkArgument(pA.touches(pB), "Cannot unite intervals that do not touch.");
-    return BitVectorInterval.of(pA.getTypeInfo(), lowestBound(pA, pB), highestBound(pA, pB));
-  }
-
-  /**
-   * Returns the lowest bound of the two given intervals.
-   *
-   * @param pA one if the intervals to get the lowest lower bound from.
-   * @param pB one if the intervals to get the lowest lower bound from.
-   *
-   * @return the lowest bound of the two given intervals.
-   */
-  private static BigInteger lowestBound(BitVectorInterval pA, BitVectorInterval pB) {
-    BigInteger aLowerBound = pA.getLowerBound();
-    BigInteger bLowerBound = pB.getLowerBound();
-    return lessOrEqual(aLowerBound, bLowerBound) ? aLowerBound : bLowerBound;
-  }
-
-  /**
-   * Returns the highest bound of the two given intervals.
-   *
-   * @param pA one if the intervals to get the highest upper bound from.
-   * @param pB one if the intervals to get the highest upper bound from.
-   *
-   * @return the highest bound of the two given intervals.
-   */
-  private static BigInteger highestBound(BitVectorInterval pA, BitVectorInterval pB) {
-    BigInteger aUpperBound = pA.getUpperBound();
-    BigInteger bUpperBound = pB.getUpperBound();
-    return lessOrEqual(bUpperBound, aUpperBound) ? aUpperBound : bUpperBound;
-  }
-
-  /**
-   * Checks if the first given big integer is less than the second given big integer,
-   * none of which may be <code>null</code>.
-   *
-   * @param pFirst the value being compared to the reference value.
-   * @param pSecond the reference value.
-   *
-   * @return <code>true</code> if <code>pFirst</code> is less than <code>pSecond</code>, <code>false</code> otherwise.
-   */
-  private static boolean less(BigInteger pFirst, BigInteger pSecond) {
-    return pFirst.compareTo(pSecond) < 0;
-  }
-
-  /**
-   * Checks if the first given big integer is less than or equal to the second given big integer, none of which may be <code>null</code>.
-   *
-   * @param pFirst the value being compared to the reference value.
-   * @param pSecond the reference value.
-   *
-   * @return <code>true</code> if <code>pFirst</code> is less than or equal to <code>pSecond</code>, <code>false</code> otherwise.
-   */
-  private static boolean lessOrEqual(BigInteger pFirst, BigInteger pSecond) {
-    return pFirst.compareTo(pSecond) <= 0;
+    return BitVectorInterval.span(pA, pB);
   }
 
   /**
@@ -1858,7 +1845,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    * @return a compound state representing the given long value.
    */
   public static CompoundBitVectorInterval singleton(BitVectorInfo pInfo, long pValue) {
-    return singleton(pInfo, BigInteger.valueOf(pValue));
+    return CompoundBitVectorInterval.of(BitVectorInterval.singleton(pInfo, pValue));
   }
 
   /**
@@ -1902,7 +1889,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    * @return a compound state representing "zero".
    */
   public static CompoundBitVectorInterval zero(BitVectorInfo pInfo) {
-    return CompoundBitVectorInterval.singleton(pInfo, BigInteger.ZERO);
+    return CompoundBitVectorInterval.singleton(pInfo, 0);
   }
 
   /**
@@ -1913,7 +1900,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
    * @return a compound state representing "1".
    */
   public static CompoundBitVectorInterval one(BitVectorInfo pInfo) {
-    return CompoundBitVectorInterval.singleton(pInfo, BigInteger.ONE);
+    return CompoundBitVectorInterval.singleton(pInfo, 1);
   }
 
   /**
@@ -1964,7 +1951,7 @@ public class CompoundBitVectorInterval implements CompoundIntegralInterval, BitV
   }
 
   private static CompoundBitVectorInterval getZeroToOne(BitVectorInfo pInfo) {
-    return CompoundBitVectorInterval.of(BitVectorInterval.of(pInfo, BigInteger.ZERO, BigInteger.ONE));
+    return CompoundBitVectorInterval.of(BitVectorInterval.of(pInfo, 0, 1));
   }
 
 }
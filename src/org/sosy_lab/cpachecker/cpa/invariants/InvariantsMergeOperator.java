@@ -24,7 +24,6 @@
 package org.sosy_lab.cpachecker.cpa.invariants;
 
 import java.util.ArrayDeque;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
@@ -37,6 +36,7 @@ import org.sosy_lab.cpachecker.cpa.invariants.formula.CollectVarsVisitor;
 import org.sosy_lab.cpachecker.cpa.invariants.formula.NumeralFormula;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.states.MemoryLocationSet;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
@@ -102,7 +102,7 @@ public class InvariantsMergeOperator implements MergeOperator {
   }
 
   private static boolean environmentsEqualWithRespectToInterestingVariables(InvariantsState pState1, InvariantsState pState2, InvariantsPrecision pPrecision) {
-    Set<MemoryLocation> checkedVariables = new HashSet<>();
+    Set<MemoryLocation> checkedVariables = new MemoryLocationSet();
     Queue<MemoryLocation> waitlist = new ArrayDeque<>(pPrecision.getInterestingVariables());
     Map<? extends MemoryLocation, ? extends NumeralFormula<CompoundInterval>> environment1 = pState1.getEnvironment();
     Map<? extends MemoryLocation, ? extends NumeralFormula<CompoundInterval>> environment2 = pState2.getEnvironment();
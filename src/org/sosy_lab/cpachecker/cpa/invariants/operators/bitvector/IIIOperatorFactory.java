@@ -80,6 +80,21 @@ public enum IIIOperatorFactory {
          * bounds for the new upper bound. If any of the summands is not
          * finite, the resulting bound isn't finite either.
          */
+        if (pOperand1.hasLongBounds()) {
+          long lowerBound = pOperand1.getLowerBoundLong() + pOperand2.getLowerBoundLong();
+          long upperBound = pOperand1.getUpperBoundLong() + pOperand2.getUpperBoundLong();
+          if (!ISIOperatorFactory.addOverflows(
+                  pOperand1.getLowerBoundLong(), pOperand2.getLowerBoundLong(), lowerBound)
+              && !ISIOperatorFactory.addOverflows(
+                  pOperand1.getUpperBoundLong(), pOperand2.getUpperBoundLong(), upperBound)) {
+            return BitVectorInterval.cast(
+                pOperand1.getTypeInfo(),
+                lowerBound,
+                upperBound,
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          }
+        }
         BigInteger lowerBound = pOperand1.getLowerBound();
         BigInteger upperBound = pOperand1.getUpperBound();
         BigInteger pLowerBound = pOperand2.getLowerBound();
@@ -338,6 +353,14 @@ public enum IIIOperatorFactory {
          * At most one bound of each interval can be infinite and neither
          * of the intervals is a singleton at this point.
          */
+        if (pFirstOperand.hasLongBounds()) {
+          BitVectorInterval result =
+              multiplyLongBounds(
+                  pFirstOperand, pSecondOperand, pAllowSignedWrapAround, pOverflowEventHandler);
+          if (result != null) {
+            return result;
+          }
+        }
         BigInteger pLowerBound = pSecondOperand.getLowerBound();
         BigInteger pUpperBound = pSecondOperand.getUpperBound();
 
@@ -527,6 +550,39 @@ public enum IIIOperatorFactory {
     };
   }
 
+  /**
+   * Multiplies two intervals with long bounds without creating BigIntegers.
+   *
+   * @return the product, or <code>null</code> if any of the products of the bounds overflows
+   * the long range.
+   */
+  private static @Nullable BitVectorInterval multiplyLongBounds(
+      BitVectorInterval pFirstOperand,
+      BitVectorInterval pSecondOperand,
+      boolean pAllowSignedWrapAround,
+      OverflowEventHandler pOverflowEventHandler) {
+    long[] firstBounds = {pFirstOperand.getLowerBoundLong(), pFirstOperand.getUpperBoundLong()};
+    long[] secondBounds = {pSecondOperand.getLowerBoundLong(), pSecondOperand.getUpperBoundLong()};
+    long lowerBound = Long.MAX_VALUE;
+    long upperBound = Long.MIN_VALUE;
+    for (long first : firstBounds) {
+      for (long second : secondBounds) {
+        long product = first * second;
+        if (ISIOperatorFactory.multiplyOverflows(first, second, product)) {
+          return null;
+        }
+        lowerBound = Math.min(lowerBound, product);
+        upperBound = Math.max(upperBound, product);
+      }
+    }
+    return BitVectorInterval.cast(
+        pFirstOperand.getTypeInfo(),
+        lowerBound,
+        upperBound,
+        pAllowSignedWrapAround,
+        pOverflowEventHandler);
+  }
+
   private static void checkBitVectorCompatibility(BitVectorInterval pFirstOperand, BitVectorInterval pSecondOperand) {
     Preconditions.checkArgument(
         pFirstOperand.getTypeInfo().equals(pSecondOperand.getTypeInfo()),
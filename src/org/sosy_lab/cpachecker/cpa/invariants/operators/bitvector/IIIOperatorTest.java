@@ -60,6 +60,28 @@ public class IIIOperatorTest {
     assertEquals(one, ADD.apply(zero, one));
   }
 
+  @Test
+  public void testAddLongOverflow() {
+    BitVectorInfo longInfo = BitVectorInfo.from(64, true);
+    BitVectorInterval maxMinusOneToMax =
+        BitVectorInterval.of(longInfo, Long.MAX_VALUE - 1, Long.MAX_VALUE);
+    // the sums of the bounds exceed the long range
+    assertEquals(
+        BitVectorInterval.of(longInfo, Long.MIN_VALUE, Long.MIN_VALUE + 2),
+        ADD.apply(maxMinusOneToMax, BitVectorInterval.of(longInfo, 2, 3)));
+    assertEquals(
+        longInfo.getRange(), ADD.apply(maxMinusOneToMax, BitVectorInterval.of(longInfo, 1, 2)));
+
+    // the values of unsigned 64-bit bit vectors do not fit into a long
+    BitVectorInfo ulongInfo = BitVectorInfo.from(64, false);
+    BigInteger twoToThe63 = BigInteger.ONE.shiftLeft(63);
+    BitVectorInterval twoToThe63PlusOne =
+        BitVectorInterval.of(ulongInfo, twoToThe63, twoToThe63.add(BigInteger.ONE));
+    assertEquals(
+        BitVectorInterval.of(ulongInfo, BigInteger.ZERO, BigInteger.valueOf(2)),
+        ADD.apply(twoToThe63PlusOne, twoToThe63PlusOne));
+  }
+
   @Test
   public void testModulo() {
     BigInteger scalarFour = BigInteger.valueOf(4);
@@ -123,6 +145,15 @@ public class IIIOperatorTest {
     assertEquals(INT.getRange(), MULTIPLY.apply(minToFive, minToFive));
     assertEquals(INT.getRange(), MULTIPLY.apply(minToNegFive, minToNegFive));
     assertEquals(fortyToHundred, MULTIPLY.apply(twentyToTwentyFive, twoToFour));
+
+    // the products of the bounds exceed the long range
+    BitVectorInfo longInfo = BitVectorInfo.from(64, true);
+    BitVectorInterval large = BitVectorInterval.of(longInfo, 1L << 40, (1L << 40) + 1);
+    assertEquals(
+        BitVectorInterval.of(longInfo, 0, (1L << 41) + 1), MULTIPLY.apply(large, large));
+    assertEquals(
+        BitVectorInterval.of(longInfo, 1L << 60, (1L << 60) + (1L << 40) + (1L << 20) + 1),
+        MULTIPLY.apply(large, BitVectorInterval.of(longInfo, 1L << 20, (1L << 20) + 1)));
   }
 
   @Test
@@ -60,6 +60,20 @@ public enum ISIOperatorFactory {
         if (pFirstOperand.isTop() || pSecondOperand.equals(BigInteger.ZERO)) {
           return pFirstOperand;
         }
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.bitLength() < Long.SIZE) {
+          long value = pSecondOperand.longValue();
+          long lowerBound = pFirstOperand.getLowerBoundLong() + value;
+          long upperBound = pFirstOperand.getUpperBoundLong() + value;
+          if (!addOverflows(pFirstOperand.getLowerBoundLong(), value, lowerBound)
+              && !addOverflows(pFirstOperand.getUpperBoundLong(), value, upperBound)) {
+            return BitVectorInterval.cast(
+                pFirstOperand.getTypeInfo(),
+                lowerBound,
+                upperBound,
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().add(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().add(pSecondOperand);
         return BitVectorInterval.cast(
@@ -129,6 +143,20 @@ public enum ISIOperatorFactory {
          * Infinite bounds stay infinite, finite bounds are multiplied with
          * the factor.
          */
+        if (pFirstOperand.hasLongBounds() && pSecondOperand.bitLength() < Long.SIZE) {
+          long factor = pSecondOperand.longValue();
+          long lowerBound = pFirstOperand.getLowerBoundLong() * factor;
+          long upperBound = pFirstOperand.getUpperBoundLong() * factor;
+          if (!multiplyOverflows(pFirstOperand.getLowerBoundLong(), factor, lowerBound)
+              && !multiplyOverflows(pFirstOperand.getUpperBoundLong(), factor, upperBound)) {
+            return BitVectorInterval.cast(
+                pFirstOperand.getTypeInfo(),
+                lowerBound,
+                upperBound,
+                pAllowSignedWrapAround,
+                pOverflowEventHandler);
+          }
+        }
         BigInteger lowerBound = pFirstOperand.getLowerBound().multiply(pSecondOperand);
         BigInteger upperBound = pFirstOperand.getUpperBound().multiply(pSecondOperand);
         return BitVectorInterval.cast(
@@ -554,4 +582,24 @@ public enum ISIOperatorFactory {
     };
   }
 
+  /**
+   * Checks if the long addition of the given summands, which resulted in the given sum,
+   * overflowed.
+   */
+  static boolean addOverflows(long pSummand1, long pSummand2, long pSum) {
+    // overflow iff both summands have the same sign and the sum has the opposite sign
+    return ((pSummand1 ^ pSum) & (pSummand2 ^ pSum)) < 0;
+  }
+
+  /**
+   * Checks if the long multiplication of the given factors, which resulted in the given product,
+   * overflowed.
+   */
+  static boolean multiplyOverflows(long pFactor1, long pFactor2, long pProduct) {
+    if (pFactor1 == 0) {
+      return false;
+    }
+    return (pFactor1 == -1 && pFactor2 == Long.MIN_VALUE) || pProduct / pFactor1 != pFactor2;
+  }
+
 }
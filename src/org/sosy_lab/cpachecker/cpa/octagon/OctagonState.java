@@ -369,7 +369,8 @@ public class OctagonState implements AbstractState {
 
     OctagonState newState =
         new OctagonState(
-            octagonManager.assingVar(octagon, varIdx, arr),
+            octagonManager.closeIncrementally(
+                octagonManager.assingVar(octagon, varIdx, arr), varIdx),
             HashBiMap.create(variableToIndexMap),
             new HashMap<>(variableToTypeMap),
             logger);
@@ -397,7 +398,8 @@ public class OctagonState implements AbstractState {
 
     OctagonState newState =
         new OctagonState(
-            octagonManager.intervAssingVar(octagon, varIdx, arr),
+            octagonManager.closeIncrementally(
+                octagonManager.intervAssingVar(octagon, varIdx, arr), varIdx),
             HashBiMap.create(variableToIndexMap),
             new HashMap<>(variableToTypeMap),
             logger);
@@ -421,7 +423,8 @@ public class OctagonState implements AbstractState {
 
     OctagonState newState =
         new OctagonState(
-            octagonManager.addBinConstraint(octagon, 1, arr),
+            octagonManager.closeIncrementally(
+                octagonManager.addBinConstraint(octagon, 1, arr), leftIndex),
             HashBiMap.create(variableToIndexMap),
             new HashMap<>(variableToTypeMap),
             logger);
@@ -472,7 +475,7 @@ public class OctagonState implements AbstractState {
 
     oct = oct.add(new OctagonIntervalCoefficients(oct.size(), new OctagonInterval(Double.NEGATIVE_INFINITY, 0), this));
     OctagonState assignedState = makeAssignment(pVariableName, oct);
-    return assignedState.intersect(this);
+    return assignedState.intersect(this, pVariableName);
   }
 
   /**
@@ -533,7 +536,7 @@ public class OctagonState implements AbstractState {
     }
     oct = oct.add(new OctagonIntervalCoefficients(oct.size(), new OctagonInterval(Double.NEGATIVE_INFINITY, -1), this));
     OctagonState assignedState = makeAssignment(pVariableName, oct);
-    return assignedState.intersect(this);
+    return assignedState.intersect(this, pVariableName);
   }
 
   /**
@@ -579,7 +582,7 @@ public class OctagonState implements AbstractState {
     }
     oct = oct.add(new OctagonIntervalCoefficients(oct.size(), new OctagonInterval(0, Double.POSITIVE_INFINITY), this));
     OctagonState assignedState = makeAssignment(pVariableName, oct);
-    return assignedState.intersect(this);
+    return assignedState.intersect(this, pVariableName);
   }
 
   /**
@@ -641,7 +644,7 @@ public class OctagonState implements AbstractState {
     oct = oct.add(new OctagonIntervalCoefficients(oct.size(), new OctagonInterval(1, Double.POSITIVE_INFINITY), this));
     OctagonState assignedState = makeAssignment(pVariableName, oct);
 
-    return assignedState.intersect(this);
+    return assignedState.intersect(this, pVariableName);
   }
 
   /**
@@ -664,7 +667,7 @@ public class OctagonState implements AbstractState {
 
   public OctagonState addEqConstraint(MemoryLocation pVariableName, IOctagonCoefficients coeffs) {
     OctagonState assignedState = makeAssignment(pVariableName, coeffs);
-    return assignedState.intersect(this);
+    return assignedState.intersect(this, pVariableName);
   }
 
   /**
@@ -709,6 +712,23 @@ public class OctagonState implements AbstractState {
         logger);
   }
 
+  /**
+   * Intersects two states that differ only in the constraints of the given variable, so that the
+   * result can be closed incrementally.
+   */
+  private OctagonState intersect(OctagonState other, MemoryLocation pChangedVarName) {
+    int varIdx = getVariableIndexFor(pChangedVarName);
+    if (varIdx == -1) {
+      return intersect(other);
+    }
+    return new OctagonState(
+        octagonManager.closeIncrementally(
+            octagonManager.intersection(octagon, other.octagon), varIdx),
+        HashBiMap.create(variableToIndexMap),
+        new HashMap<>(variableToTypeMap),
+        logger);
+  }
+
   public OctagonState removeTempVars(String functionName, String varPrefix) {
     return removeVars(functionName + "::" + varPrefix);
   }
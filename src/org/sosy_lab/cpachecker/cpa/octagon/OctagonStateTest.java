@@ -0,0 +1,83 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2014  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cpa.octagon.OctagonState.Type;
+import org.sosy_lab.cpachecker.cpa.octagon.coefficients.IOctagonCoefficients;
+import org.sosy_lab.cpachecker.cpa.octagon.coefficients.OctagonSimpleCoefficients;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.octagon.OctagonJavaManager;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+public class OctagonStateTest {
+
+  private final MemoryLocation a = MemoryLocation.valueOf("a");
+  private final MemoryLocation b = MemoryLocation.valueOf("b");
+
+  /** State with the unbounded variables a and b, a has the lower index. */
+  private OctagonState state;
+
+  @Before
+  public void setUp() {
+    state =
+        new OctagonState(LogManager.createTestLogManager(), new OctagonJavaManager(true))
+            .declareVariable(a, Type.INT)
+            .declareVariable(b, Type.INT);
+  }
+
+  private IOctagonCoefficients coefficientsOf(MemoryLocation pVariable) {
+    return new OctagonSimpleCoefficients(
+        state.sizeOfVariables(), state.getVariableIndexFor(pVariable), OctagonIntValue.ONE, state);
+  }
+
+  /** Restricts b to [0, 3]. */
+  private OctagonState boundB(OctagonState pState) {
+    return pState
+        .addGreaterEqConstraint(b, OctagonIntValue.ZERO)
+        .addSmallerEqConstraint(b, OctagonIntValue.of(3));
+  }
+
+  @Test
+  public void testEqConstraintOnVariableWithLowerIndex() {
+    // only the relation between a and b changes, not the bounds of a
+    OctagonState equal = state.addEqConstraint(a, coefficientsOf(b));
+    assertThat(boundB(equal).getVariablesWithBounds().get(a))
+        .isEqualTo(new OctagonInterval(0L, 3L));
+  }
+
+  @Test
+  public void testSmallerEqConstraintOnVariableWithLowerIndex() {
+    OctagonState smaller = state.addSmallerEqConstraint(a, coefficientsOf(b));
+    assertThat(boundB(smaller).getVariablesWithBounds().get(a).getHigh())
+        .isEqualTo(OctagonIntValue.of(3));
+    assertThat(boundB(smaller).addGreaterEqConstraint(a, OctagonIntValue.of(4)).isEmpty())
+        .isTrue();
+  }
+}
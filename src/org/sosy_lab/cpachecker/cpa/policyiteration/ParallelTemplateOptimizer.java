@@ -0,0 +1,224 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.policyiteration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FormulaType;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment.OptStatus;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Maximizes the templates of one abstraction in parallel.
+ *
+ * <p>The templates are partitioned and each partition is optimized by a separate worker. Solver
+ * contexts are not thread-safe, so each worker has its own instance of {@link Solver} with an
+ * optimization prover, and all formulas are translated into the context of the worker by the
+ * calling thread. Objectives are not boolean formulas and cannot be translated directly, so each
+ * of them is bound to a fresh variable (one per formula type) by an equality constraint.
+ *
+ * <p>Workers only compute the optimal values, extracting the policies requires models in the main
+ * context and is left to the caller.
+ */
+class ParallelTemplateOptimizer implements AutoCloseable {
+
+  private static final String OBJECTIVE_VARIABLE = "__lpi_objective";
+
+  private final FormulaManagerView fmgr;
+  private final List<Solver> workerSolvers;
+  private final ExecutorService executor;
+  private boolean closed = false;
+  private final Map<FormulaType<?>, String> objectiveVariables = new HashMap<>();
+
+  ParallelTemplateOptimizer(
+      int pNumberOfThreads,
+      FormulaManagerView pFmgr,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    checkArgument(pNumberOfThreads > 1);
+    fmgr = pFmgr;
+
+    // the persistent query cache is maintained by the main solver only
+    Configuration workerConfig =
+        Configuration.builder()
+            .copyFrom(pConfig)
+            .clearOption("solver.persistentCache.file")
+            .build();
+    ImmutableList.Builder<Solver> solvers = ImmutableList.builder();
+    for (int i = 0; i < pNumberOfThreads; i++) {
+      solvers.add(Solver.create(workerConfig, pLogger, pShutdownNotifier));
+    }
+    workerSolvers = solvers.build();
+
+    // important to use daemon threads here, because we might never have the chance
+    // to stop the executor if the analysis is aborted
+    executor =
+        Executors.newFixedThreadPool(
+            pNumberOfThreads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("Policy iteration optimization worker %d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Maximize each objective subject to the start constraints and its own constraint.
+   *
+   * @param startConstraints Constraints shared by all objectives.
+   * @param queries Pairs of objective and the constraint specific to it.
+   * @param epsilon Value to substitute for the infinitesimal in the results.
+   * @return For each query, the status of the optimization and the optimal value of the objective
+   *     (empty if it is unbounded).
+   */
+  List<Pair<OptStatus, Optional<Rational>>> maximize(
+      BooleanFormula startConstraints,
+      List<Pair<Formula, BooleanFormula>> queries,
+      Rational epsilon)
+      throws SolverException, InterruptedException {
+
+    int partitionSize = (queries.size() + workerSolvers.size() - 1) / workerSolvers.size();
+    List<List<Pair<Formula, BooleanFormula>>> partitions = Lists.partition(queries, partitionSize);
+
+    List<Future<List<Pair<OptStatus, Optional<Rational>>>>> results =
+        new ArrayList<>(partitions.size());
+    try {
+      for (int i = 0; i < partitions.size(); i++) {
+        final Solver workerSolver = workerSolvers.get(i);
+        final FormulaManagerView workerFmgr = workerSolver.getFormulaManager();
+
+        // translate in this thread, the main solver context must not be accessed concurrently
+        final BooleanFormula workerStartConstraints =
+            workerFmgr.translateFrom(startConstraints, fmgr);
+        final List<Pair<Formula, BooleanFormula>> workerQueries =
+            new ArrayList<>(partitions.get(i).size());
+        for (Pair<Formula, BooleanFormula> query : partitions.get(i)) {
+          Formula objective = query.getFirstNotNull();
+          FormulaType<Formula> type = fmgr.getFormulaType(objective);
+          String name =
+              objectiveVariables.computeIfAbsent(
+                  type, t -> OBJECTIVE_VARIABLE + objectiveVariables.size());
+          BooleanFormula constraint =
+              fmgr.getBooleanFormulaManager()
+                  .and(
+                      query.getSecondNotNull(),
+                      fmgr.makeEqual(fmgr.makeVariable(type, name), objective));
+          workerQueries.add(
+              Pair.of(
+                  workerFmgr.makeVariable(type, name),
+                  workerFmgr.translateFrom(constraint, fmgr)));
+        }
+
+        results.add(
+            executor.submit(
+                () -> optimize(workerSolver, workerStartConstraints, workerQueries, epsilon)));
+      }
+
+      List<Pair<OptStatus, Optional<Rational>>> values = new ArrayList<>(queries.size());
+      for (Future<List<Pair<OptStatus, Optional<Rational>>>> result : results) {
+        values.addAll(result.get());
+      }
+      return values;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new AssertionError("unexpected exception during template optimization", t);
+
+    } finally {
+      for (Future<?> result : results) {
+        result.cancel(true);
+      }
+    }
+  }
+
+  private static List<Pair<OptStatus, Optional<Rational>>> optimize(
+      Solver workerSolver,
+      BooleanFormula startConstraints,
+      List<Pair<Formula, BooleanFormula>> queries,
+      Rational epsilon)
+      throws SolverException, InterruptedException {
+    List<Pair<OptStatus, Optional<Rational>>> values = new ArrayList<>(queries.size());
+
+    try (OptimizationProverEnvironment optEnvironment = workerSolver.newOptEnvironment()) {
+      optEnvironment.addConstraint(startConstraints);
+
+      for (Pair<Formula, BooleanFormula> query : queries) {
+        optEnvironment.push();
+        optEnvironment.addConstraint(query.getSecondNotNull());
+        int handle = optEnvironment.maximize(query.getFirstNotNull());
+
+        OptStatus status = optEnvironment.check();
+        Optional<Rational> value = Optional.empty();
+        if (status == OptStatus.OPT) {
+          value = optEnvironment.upper(handle, epsilon);
+        }
+        values.add(Pair.of(status, value));
+        optEnvironment.pop();
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Stop the workers and close their solvers. This is done when the {@link PolicyCPA} is closed,
+   * i.e., after the statistics were printed. Calling this method again has no effect.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    executor.shutdownNow();
+    for (Solver workerSolver : workerSolvers) {
+      workerSolver.close();
+    }
+  }
+}
@@ -99,11 +99,11 @@ public class PolicyCPA extends SingleEdgeTransferRelation
         fmgr, pConfig, pLogger, shutdownNotifier, cfa,
         AnalysisDirection.FORWARD);
     if (useCachingPathFormulaManager) {
-      pathFormulaManager = new CachingPathFormulaManager(pathFormulaManager);
+      pathFormulaManager = new CachingPathFormulaManager(pathFormulaManager, pConfig);
     }
     pfmgr = pathFormulaManager;
 
-    statistics = new PolicyIterationStatistics(cfa);
+    statistics = new PolicyIterationStatistics(cfa, solver);
     TemplateToFormulaConversionManager pTemplateToFormulaConversionManager =
         new TemplateToFormulaConversionManager(cfa, pLogger);
     stateFormulaConversionManager = new StateFormulaConversionManager(
@@ -297,6 +297,7 @@ public class PolicyCPA extends SingleEdgeTransferRelation
 
   @Override
   public void close() {
+    policyIterationManager.close();
     solver.close();
   }
 
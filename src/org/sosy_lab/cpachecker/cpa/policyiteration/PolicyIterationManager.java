@@ -9,6 +9,7 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.asIterable;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -130,9 +131,15 @@ public class PolicyIterationManager {
   @Option(secure=true, description="Generate new templates using polyhedra convex hull")
   private boolean generateTemplatesUsingConvexHull = false;
 
-  @Option(secure=true, description="Use caching optimization solver")
+  @Option(secure=true, description="Use caching optimization solver, which reuses the results "
+      + "of repeated abstraction and value determination queries")
   private boolean useCachingOptSolver = false;
 
+  @Option(secure=true, description="Number of threads (each with its own solver instance) "
+      + "that optimize the templates of an abstraction in parallel "
+      + "(values smaller than 2 disable parallelism)")
+  private int parallelOptimizationThreads = 0;
+
   @Option(secure=true, description="Compute abstraction for larger templates "
       + "using decomposition")
   private boolean computeAbstractionByDecomposition = false;
@@ -165,6 +172,7 @@ public class PolicyIterationManager {
   private final RCNFManager rcnfManager;
   private final TemplatePrecision initialPrecision;
   private final TemplateToFormulaConversionManager templateToFormulaConversionManager;
+  @Nullable private final ParallelTemplateOptimizer parallelOptimizer;
   @Nullable private BlockPartitioning partitioning;
 
   public PolicyIterationManager(
@@ -199,6 +207,19 @@ public class PolicyIterationManager {
     linearizationManager = pLinearizationManager;
     rcnfManager = new RCNFManager(pConfig);
     initialPrecision = pPrecision;
+    if (parallelOptimizationThreads > 1) {
+      parallelOptimizer = new ParallelTemplateOptimizer(
+          parallelOptimizationThreads, fmgr, pConfig, logger, shutdownNotifier);
+    } else {
+      parallelOptimizer = null;
+    }
+  }
+
+  /** Release the additional resources (e.g., solver instances) used by this instance. */
+  void close() {
+    if (parallelOptimizer != null) {
+      parallelOptimizer.close();
+    }
   }
 
   /**
@@ -625,7 +646,7 @@ public class PolicyIterationManager {
 
     // Maximize for each template subject to the overall constraints.
     statistics.valueDeterminationTimer.start();
-    try (OptimizationProverEnvironment optEnvironment = solver.newOptEnvironment()) {
+    try (OptimizationProverEnvironment optEnvironment = newOptProver()) {
 
       valDetConstraints.constraints.forEach(c -> optEnvironment.addConstraint(c));
 
@@ -741,12 +762,8 @@ public class PolicyIterationManager {
 
     statistics.getBoundTimer.start();
     try {
-      boolean unsignedAndLower = template.isUnsigned() &&
-          (template.getKind() == Kind.NEG_LOWER_BOUND ||
-              template.getKind() == Kind.NEG_SUM_LOWER_BOUND);
-      if ((bound.isPresent()
-              && !templateToFormulaConversionManager.isOverflowing(template, bound.get()))
-          || unsignedAndLower) {
+      boolean unsignedAndLower = isUnsignedLowerBound(template);
+      if (hasPolicyBound(template, bound)) {
         Rational boundValue;
         if (bound.isPresent() && unsignedAndLower) {
           boundValue = Rational.max(bound.get(), Rational.ZERO);
@@ -777,6 +794,22 @@ public class PolicyIterationManager {
     }
   }
 
+  private boolean isUnsignedLowerBound(Template template) {
+    return template.isUnsigned() &&
+        (template.getKind() == Kind.NEG_LOWER_BOUND ||
+            template.getKind() == Kind.NEG_SUM_LOWER_BOUND);
+  }
+
+  /**
+   * @return Whether the optimization result {@code bound} yields a policy bound
+   * for the template.
+   */
+  private boolean hasPolicyBound(Template template, Optional<Rational> bound) {
+    return (bound.isPresent()
+            && !templateToFormulaConversionManager.isOverflowing(template, bound.get()))
+        || isUnsignedLowerBound(template);
+  }
+
   private Set<BooleanFormula> toLemmas(BooleanFormula formula)
       throws InterruptedException {
     switch (toLemmasAlgorithm) {
@@ -829,6 +862,10 @@ public class PolicyIterationManager {
 
     final Map<Template, PolicyBound> abstraction = new HashMap<>();
 
+    // Queries which are not yet optimized, all of them are solved together
+    // (in parallel if possible).
+    final List<TemplateQuery> queries = new ArrayList<>();
+
     try (OptimizationProverEnvironment optEnvironment = newOptProver()) {
 
       optEnvironment.push();
@@ -836,8 +873,6 @@ public class PolicyIterationManager {
       optEnvironment.push();
 
       for (Template template : precision.getTemplatesForNode(node)) {
-        optEnvironment.pop();
-        optEnvironment.push();
 
         // Optimize for the template subject to the
         // constraints introduced by {@code p}.
@@ -846,6 +881,14 @@ public class PolicyIterationManager {
         Set<String> objectiveVars = extractFunctionNames(objective);
 
         if (computeAbstractionByDecomposition) {
+          if (template.size() > 1) {
+
+            // Decomposition uses the bounds of the templates optimized before.
+            optimizeTemplates(queries, optEnvironment, startConstraints,
+                abstraction, precision, p, generatorState);
+            queries.clear();
+          }
+
           Pair<DecompositionStatus, PolicyBound> res = computeByDecomposition(
               template, p, lemmas, startConstraintLemmas, abstraction);
           switch (res.getFirstNotNull()) {
@@ -896,44 +939,11 @@ public class PolicyIterationManager {
           abstraction.put(template, bound);
         }
 
-        optEnvironment.addConstraint(annotatedFormula);
-
-        int handle = optEnvironment.maximize(objective);
-
-        OptStatus status;
-        try {
-          statistics.optTimer.start();
-          status = optEnvironment.check();
-        } finally {
-          statistics.optTimer.stop();
-        }
-
-        switch (status) {
-          case OPT:
-
-            Optional<Rational> bound = optEnvironment.upper(handle, EPSILON);
-            Optional<PolicyBound> policyBound = getPolicyBound(
-                template, precision, optEnvironment, bound, annotatedFormula,
-                p, generatorState, objective);
-            if (policyBound.isPresent()) {
-              abstraction.put(template, policyBound.get());
-            }
-
-            logger.log(Level.FINE, "Got bound: ", bound);
-            break;
-
-          case UNSAT:
-            throw new CPAException("Unexpected UNSAT");
-
-          case UNDEF:
-            logger.log(Level.WARNING, "Solver returned undefined status on the problem: ");
-            logger.log(Level.INFO, optEnvironment.toString());
-            throw new CPATransferException("Solver returned undefined status");
-          default:
-            throw new AssertionError("Unhandled enum value in switch: " + status);
-        }
-
+        queries.add(new TemplateQuery(template, objective, annotatedFormula));
       }
+
+      optimizeTemplates(queries, optEnvironment, startConstraints,
+          abstraction, precision, p, generatorState);
     } catch (SolverException e) {
       throw new CPATransferException("Solver error: ", e);
     }
@@ -952,6 +962,159 @@ public class PolicyIterationManager {
         pSibling);
   }
 
+  /**
+   * Template together with the formula for its value and the constraints
+   * it has to be optimized for.
+   */
+  private static final class TemplateQuery {
+    private final Template template;
+    private final Formula objective;
+    private final BooleanFormula annotatedFormula;
+
+    private TemplateQuery(
+        Template pTemplate, Formula pObjective, BooleanFormula pAnnotatedFormula) {
+      template = pTemplate;
+      objective = pObjective;
+      annotatedFormula = pAnnotatedFormula;
+    }
+  }
+
+  /**
+   * Optimize all {@code queries} and put the resulting bounds into
+   * {@code abstraction}.
+   *
+   * @param optEnvironment Environment with {@code startConstraints} asserted
+   *                       at the bottom of the stack and an empty level on top.
+   */
+  private void optimizeTemplates(
+      List<TemplateQuery> queries,
+      OptimizationProverEnvironment optEnvironment,
+      BooleanFormula startConstraints,
+      Map<Template, PolicyBound> abstraction,
+      TemplatePrecision precision,
+      PathFormula p,
+      PolicyIntermediateState generatorState)
+      throws CPAException, SolverException, InterruptedException {
+
+    if (parallelOptimizer == null || queries.size() < 2) {
+      for (TemplateQuery query : queries) {
+        optimizeTemplate(
+            query, optEnvironment, abstraction, precision, p, generatorState);
+      }
+      return;
+    }
+
+    List<Pair<OptStatus, Optional<Rational>>> results;
+    statistics.parallelOptTimer.start();
+    try {
+      results = parallelOptimizer.maximize(
+          startConstraints,
+          Lists.transform(queries, q -> Pair.of(q.objective, q.annotatedFormula)),
+          EPSILON);
+    } finally {
+      statistics.parallelOptTimer.stop();
+    }
+
+    for (int i = 0; i < queries.size(); i++) {
+      TemplateQuery query = queries.get(i);
+      OptStatus status = results.get(i).getFirstNotNull();
+      Optional<Rational> bound = results.get(i).getSecondNotNull();
+      checkOptStatus(status, query.annotatedFormula);
+
+      if (!hasPolicyBound(query.template, bound)) {
+        logger.log(Level.FINE, "Got bound: ", bound);
+        continue;
+      }
+
+      // The policy is derived from a model in the main solver context:
+      // any model reaching the optimal value is sufficient.
+      optEnvironment.pop();
+      optEnvironment.push();
+      optEnvironment.addConstraint(query.annotatedFormula);
+      if (bound.isPresent()) {
+        optEnvironment.addConstraint(fmgr.makeGreaterOrEqual(
+            query.objective,
+            fmgr.makeNumber(query.objective, bound.get()), true));
+      }
+      if (optEnvironment.isUnsat()) {
+
+        // The optimum is not reached (strict inequalities), optimize again.
+        optimizeTemplate(
+            query, optEnvironment, abstraction, precision, p, generatorState);
+        continue;
+      }
+
+      Optional<PolicyBound> policyBound = getPolicyBound(
+          query.template, precision, optEnvironment, bound,
+          query.annotatedFormula, p, generatorState, query.objective);
+      if (policyBound.isPresent()) {
+        abstraction.put(query.template, policyBound.get());
+      }
+      logger.log(Level.FINE, "Got bound: ", bound);
+    }
+  }
+
+  /**
+   * Optimize a single template on the given environment and put the resulting
+   * bound into {@code abstraction}.
+   */
+  private void optimizeTemplate(
+      TemplateQuery query,
+      OptimizationProverEnvironment optEnvironment,
+      Map<Template, PolicyBound> abstraction,
+      TemplatePrecision precision,
+      PathFormula p,
+      PolicyIntermediateState generatorState)
+      throws CPAException, SolverException, InterruptedException {
+    optEnvironment.pop();
+    optEnvironment.push();
+    optEnvironment.addConstraint(query.annotatedFormula);
+
+    int handle = optEnvironment.maximize(query.objective);
+
+    OptStatus status;
+    try {
+      statistics.optTimer.start();
+      status = optEnvironment.check();
+    } finally {
+      statistics.optTimer.stop();
+    }
+    checkOptStatus(status, optEnvironment);
+
+    Optional<Rational> bound = optEnvironment.upper(handle, EPSILON);
+    Optional<PolicyBound> policyBound = getPolicyBound(
+        query.template, precision, optEnvironment, bound, query.annotatedFormula,
+        p, generatorState, query.objective);
+    if (policyBound.isPresent()) {
+      abstraction.put(query.template, policyBound.get());
+    }
+
+    logger.log(Level.FINE, "Got bound: ", bound);
+  }
+
+  /**
+   * Throw an exception if the status is not {@link OptStatus#OPT}.
+   *
+   * @param problem Description of the problem for logging.
+   */
+  private void checkOptStatus(OptStatus status, Object problem)
+      throws CPAException {
+    switch (status) {
+      case OPT:
+        return;
+
+      case UNSAT:
+        throw new CPAException("Unexpected UNSAT");
+
+      case UNDEF:
+        logger.log(Level.WARNING, "Solver returned undefined status on the problem: ");
+        logger.log(Level.INFO, problem.toString());
+        throw new CPATransferException("Solver returned undefined status");
+      default:
+        throw new AssertionError("Unhandled enum value in switch: " + status);
+    }
+  }
+
   private OptimizationProverEnvironment newOptProver() {
     if (useCachingOptSolver) {
       return solver.newCachedOptEnvironment();
@@ -11,6 +11,7 @@ import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.templates.Template;
 
 public class PolicyIterationStatistics implements Statistics {
@@ -26,6 +27,7 @@ public class PolicyIterationStatistics implements Statistics {
   public final Timer polyhedraWideningTimer = new Timer();
 
   final Timer optTimer = new Timer();
+  final Timer parallelOptTimer = new Timer();
   final Timer checkIndependenceTimer = new Timer();
 
   final Timer ackermannizationTimer = new Timer();
@@ -34,11 +36,13 @@ public class PolicyIterationStatistics implements Statistics {
   final Timer getBoundTimer = new Timer();
 
   private final CFA cfa;
+  private final Solver solver;
 
   private BigInteger wideningTemplatesGenerated = BigInteger.ZERO;
 
-  public PolicyIterationStatistics(CFA pCFA) {
+  public PolicyIterationStatistics(CFA pCFA, Solver pSolver) {
     cfa = pCFA;
+    solver = pSolver;
   }
 
   @Override
@@ -49,6 +53,9 @@ public class PolicyIterationStatistics implements Statistics {
     printTimer(out, valueDeterminationTimer, "value determination");
     printTimer(out, abstractionTimer, "abstraction");
     printTimer(out, optTimer, "optimization (OPT-SMT)");
+    printTimer(out, parallelOptTimer, "parallel optimization of templates");
+    out.printf("Number of cached OPT-SMT queries: %d (answered from cache: %d)%n",
+        solver.optChecks, solver.cachedOptChecks);
 
     printTimer(out, checkSATTimer, "checking bad states (SMT)");
 
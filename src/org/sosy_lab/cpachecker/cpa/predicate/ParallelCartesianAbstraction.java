@@ -0,0 +1,213 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Computes the truth values of predicates for Cartesian abstraction in parallel.
+ *
+ * <p>The set of predicates is partitioned and each partition is checked by a separate worker.
+ * Solver contexts are not thread-safe, so each worker has its own instance of {@link Solver}, and
+ * all formulas are translated into the context of the worker before they are checked. Translation
+ * is done by the calling thread, because it needs to access the main solver context.
+ */
+class ParallelCartesianAbstraction implements AutoCloseable {
+
+  private final FormulaManagerView fmgr;
+  private final List<Solver> workerSolvers;
+  private final ExecutorService executor;
+  private boolean closed = false;
+
+  ParallelCartesianAbstraction(
+      int pNumberOfThreads,
+      FormulaManagerView pFmgr,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    checkArgument(pNumberOfThreads > 1);
+    fmgr = pFmgr;
+
+    // the persistent query cache is maintained by the main solver only
+    Configuration workerConfig =
+        Configuration.builder()
+            .copyFrom(pConfig)
+            .clearOption("solver.persistentCache.file")
+            .build();
+    ImmutableList.Builder<Solver> solvers = ImmutableList.builder();
+    for (int i = 0; i < pNumberOfThreads; i++) {
+      solvers.add(Solver.create(workerConfig, pLogger, pShutdownNotifier));
+    }
+    workerSolvers = solvers.build();
+
+    // important to use daemon threads here, because we might never have the chance
+    // to stop the executor if the analysis is aborted
+    executor =
+        Executors.newFixedThreadPool(
+            pNumberOfThreads,
+            new ThreadFactoryBuilder()
+                .setNameFormat("Cartesian abstraction worker %d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Determine for each predicate whether it is implied by the formula (1),
+   * whether its negation is implied by the formula (-1), or neither (0).
+   * The formula is expected to be satisfiable.
+   *
+   * @param f The formula to abstract.
+   * @param predicates The predicates to check.
+   * @param instantiator A function that will be applied to instantiate each abstraction predicate.
+   * @return A map from each predicate to its truth value.
+   */
+  Map<AbstractionPredicate, Byte> computePredicateValues(
+      final BooleanFormula f,
+      final List<AbstractionPredicate> predicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator)
+      throws SolverException, InterruptedException {
+    if (predicates.isEmpty()) {
+      return ImmutableMap.of();
+    }
+
+    int partitionSize = (predicates.size() + workerSolvers.size() - 1) / workerSolvers.size();
+    List<List<AbstractionPredicate>> partitions = Lists.partition(predicates, partitionSize);
+
+    List<Future<List<Byte>>> results = new ArrayList<>(partitions.size());
+    try {
+      for (int i = 0; i < partitions.size(); i++) {
+        final Solver workerSolver = workerSolvers.get(i);
+        final FormulaManagerView workerFmgr = workerSolver.getFormulaManager();
+
+        // translate in this thread, the main solver context must not be accessed concurrently
+        final BooleanFormula workerFormula = workerFmgr.translateFrom(f, fmgr);
+        final List<BooleanFormula> workerPredicates = new ArrayList<>(partitions.get(i).size());
+        for (AbstractionPredicate p : partitions.get(i)) {
+          BooleanFormula predTrue = instantiator.apply(p.getSymbolicAtom());
+          workerPredicates.add(workerFmgr.translateFrom(predTrue, fmgr));
+        }
+
+        results.add(
+            executor.submit(
+                () -> checkPredicates(workerSolver, workerFormula, workerPredicates)));
+      }
+
+      ImmutableMap.Builder<AbstractionPredicate, Byte> predicateValues = ImmutableMap.builder();
+      for (int i = 0; i < partitions.size(); i++) {
+        List<AbstractionPredicate> partition = partitions.get(i);
+        List<Byte> values = results.get(i).get();
+        for (int j = 0; j < partition.size(); j++) {
+          predicateValues.put(partition.get(j), values.get(j));
+        }
+      }
+      return predicateValues.build();
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new AssertionError("unexpected exception during Cartesian abstraction", t);
+
+    } finally {
+      for (Future<?> result : results) {
+        result.cancel(true);
+      }
+    }
+  }
+
+  private static List<Byte> checkPredicates(
+      Solver workerSolver, BooleanFormula f, List<BooleanFormula> predicates)
+      throws SolverException, InterruptedException {
+    BooleanFormulaManagerView bfmgr = workerSolver.getFormulaManager().getBooleanFormulaManager();
+    List<Byte> values = new ArrayList<>(predicates.size());
+
+    try (ProverEnvironment thmProver = workerSolver.newProverEnvironment()) {
+      thmProver.push(f);
+
+      for (BooleanFormula predTrue : predicates) {
+        byte predVal = 0; // pred is neither true nor false
+
+        thmProver.push(bfmgr.not(predTrue));
+        boolean isTrue = thmProver.isUnsat();
+        thmProver.pop();
+
+        if (isTrue) {
+          predVal = 1;
+        } else {
+          // check whether it's false...
+          thmProver.push(predTrue);
+          boolean isFalse = thmProver.isUnsat();
+          thmProver.pop();
+
+          if (isFalse) {
+            predVal = -1;
+          }
+        }
+        values.add(predVal);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Stop the workers and close their solvers. This is done when the {@link PredicateCPA} is
+   * closed, i.e., after the statistics were printed. Calling this method again has no effect.
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    executor.shutdownNow();
+    for (Solver workerSolver : workerSolvers) {
+      workerSolver.close();
+    }
+  }
+}
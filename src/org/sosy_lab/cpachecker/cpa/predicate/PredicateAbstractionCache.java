@@ -0,0 +1,245 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.predicates.AbstractionFormula;
+import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.FunctionDeclaration;
+import org.sosy_lab.java_smt.api.visitors.DefaultFormulaVisitor;
+import org.sosy_lab.java_smt.api.visitors.TraversalProcess;
+
+/**
+ * Bounded caches for the results of {@link PredicateAbstractionManager}.
+ *
+ * <p>The cached formulas keep the solver terms behind them alive, so all caches evict their least
+ * recently used entries when they grow too large. The abstraction cache and the unsatisfiability
+ * cache are bounded by the estimated size (number of distinct DAG nodes) of the retained formulas,
+ * the Cartesian-abstraction cache is bounded by its number of entries. The latter exists only if
+ * Cartesian abstraction is used.
+ *
+ * <p>All methods are thread-safe. The caches are not shared between several analyses, because the
+ * cached formulas belong to one solver context and each predicate analysis creates its own solver.
+ */
+@Options(prefix = "cpa.predicate.abs.cache")
+final class PredicateAbstractionCache {
+
+  @Option(
+    secure = true,
+    description =
+        "Maximum estimated size (number of formula nodes) of all formulas that are retained "
+            + "by the abstraction cache and the unsatisfiability cache. "
+            + "Least-recently used entries are evicted if this limit is exceeded. "
+            + "Use -1 for no limit."
+  )
+  private long maxFormulaSize = 10_000_000;
+
+  @Option(
+    secure = true,
+    description =
+        "Maximum number of entries in the cache for Cartesian abstraction. "
+            + "Least-recently used entries are evicted if this limit is exceeded. "
+            + "Use -1 for no limit."
+  )
+  private long maxCartesianEntries = 1_000_000;
+
+  // values are the cached abstraction together with the weight of the entry
+  private final Cache<
+          Pair<BooleanFormula, ImmutableSet<AbstractionPredicate>>,
+          Pair<AbstractionFormula, Integer>>
+      abstractionCache;
+
+  // Cache for satisfiability queries: if formula is contained, it is unsat.
+  // The values are the weights of the entries.
+  private final Cache<BooleanFormula, Integer> unsatisfiabilityCache;
+
+  // cache for cartesian abstraction queries. For each predicate, the values
+  // are -1: predicate is false, 0: predicate is don't care,
+  // 1: predicate is true
+  private final @Nullable Cache<Pair<BooleanFormula, AbstractionPredicate>, Byte>
+      cartesianAbstractionCache;
+
+  private final AtomicLong retainedFormulaSize = new AtomicLong();
+  private final AtomicLong maxRetainedFormulaSize = new AtomicLong();
+
+  /**
+   * @param pCartesianAbstraction whether Cartesian abstraction is used and its cache is needed
+   */
+  PredicateAbstractionCache(Configuration pConfig, boolean pCartesianAbstraction)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+
+    abstractionCache = buildWeightedCache((key, value) -> value.getSecondNotNull());
+    unsatisfiabilityCache = buildWeightedCache((key, value) -> value);
+
+    if (pCartesianAbstraction) {
+      CacheBuilder<Object, Object> cartesianCacheBuilder = CacheBuilder.newBuilder().recordStats();
+      if (maxCartesianEntries >= 0) {
+        cartesianCacheBuilder.maximumSize(maxCartesianEntries);
+      }
+      cartesianAbstractionCache = cartesianCacheBuilder.build();
+    } else {
+      cartesianAbstractionCache = null;
+    }
+  }
+
+  private <K, V> Cache<K, V> buildWeightedCache(Weigher<K, V> weigher) {
+    RemovalListener<K, V> weightTracker =
+        notification ->
+            retainedFormulaSize.addAndGet(
+                -weigher.weigh(notification.getKey(), notification.getValue()));
+
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maxFormulaSize < 0) {
+      return builder.removalListener(weightTracker).build();
+    }
+    return builder
+        .maximumWeight(maxFormulaSize)
+        .weigher(weigher)
+        .removalListener(weightTracker)
+        .build();
+  }
+
+  @Nullable
+  AbstractionFormula getAbstraction(
+      Pair<BooleanFormula, ImmutableSet<AbstractionPredicate>> pKey) {
+    Pair<AbstractionFormula, Integer> entry = abstractionCache.getIfPresent(pKey);
+    return entry == null ? null : entry.getFirstNotNull();
+  }
+
+  void putAbstraction(
+      Pair<BooleanFormula, ImmutableSet<AbstractionPredicate>> pKey,
+      AbstractionFormula pResult,
+      FormulaManagerView pFmgr) {
+    int weight =
+        estimateSize(pKey.getFirstNotNull(), pFmgr)
+            + estimateSize(pResult.asFormula(), pFmgr)
+            + pKey.getSecondNotNull().size();
+    trackInsertion(weight);
+    abstractionCache.put(pKey, Pair.of(pResult, weight));
+  }
+
+  boolean isUnsat(BooleanFormula f) {
+    return unsatisfiabilityCache.getIfPresent(f) != null;
+  }
+
+  void putUnsat(BooleanFormula f, FormulaManagerView pFmgr) {
+    int weight = estimateSize(f, pFmgr);
+    trackInsertion(weight);
+    unsatisfiabilityCache.put(f, weight);
+  }
+
+  /**
+   * Return the cached value of a predicate for Cartesian abstraction
+   * (-1: false, 0: don't care, 1: true), or null if the value is not cached.
+   */
+  @Nullable
+  Byte getCartesianValue(Pair<BooleanFormula, AbstractionPredicate> pKey) {
+    checkState(cartesianAbstractionCache != null, "cache created without Cartesian abstraction");
+    return cartesianAbstractionCache.getIfPresent(pKey);
+  }
+
+  void putCartesianValue(Pair<BooleanFormula, AbstractionPredicate> pKey, byte pValue) {
+    checkState(cartesianAbstractionCache != null, "cache created without Cartesian abstraction");
+    cartesianAbstractionCache.put(pKey, pValue);
+  }
+
+  private void trackInsertion(int pWeight) {
+    long current = retainedFormulaSize.addAndGet(pWeight);
+    maxRetainedFormulaSize.accumulateAndGet(current, Math::max);
+  }
+
+  /** Estimate the size of a formula as the number of distinct nodes in its DAG. */
+  private static int estimateSize(BooleanFormula f, FormulaManagerView pFmgr) {
+    final int[] count = {0};
+    pFmgr.visitRecursively(
+        f,
+        new DefaultFormulaVisitor<TraversalProcess>() {
+          @Override
+          protected TraversalProcess visitDefault(Formula pF) {
+            count[0]++;
+            return TraversalProcess.CONTINUE;
+          }
+
+          @Override
+          public TraversalProcess visitFunction(
+              Formula pF, List<Formula> pArgs, FunctionDeclaration<?> pDecl) {
+            count[0]++;
+            return TraversalProcess.CONTINUE;
+          }
+        });
+    return count[0];
+  }
+
+  void printStatistics(PrintStream out) {
+    printCacheStatistics(out, "Abstraction cache:                ", abstractionCache);
+    printCacheStatistics(out, "Unsatisfiability cache:           ", unsatisfiabilityCache);
+    if (cartesianAbstractionCache != null
+        && cartesianAbstractionCache.stats().requestCount() > 0) {
+      printCacheStatistics(out, "Cartesian abstraction cache:      ", cartesianAbstractionCache);
+    }
+    out.println(
+        "Estimated size of cached formulas: "
+            + retainedFormulaSize.get()
+            + " nodes (max: "
+            + maxRetainedFormulaSize.get()
+            + ")");
+  }
+
+  private static void printCacheStatistics(PrintStream out, String name, Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    out.println(
+        name
+            + cache.size()
+            + " entries, hit rate "
+            + toPercent(stats.hitCount(), stats.requestCount())
+            + " ("
+            + stats.hitCount()
+            + " of "
+            + stats.requestCount()
+            + "), "
+            + stats.evictionCount()
+            + " evictions");
+  }
+}
@@ -31,10 +31,12 @@ import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
@@ -43,7 +45,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -55,6 +56,7 @@ import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -82,6 +84,7 @@ import org.sosy_lab.cpachecker.util.predicates.regions.RegionCreator;
 import org.sosy_lab.cpachecker.util.predicates.regions.RegionCreator.RegionBuilder;
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.PersistentQueryCache;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.statistics.StatTimer;
 import org.sosy_lab.java_smt.api.BooleanFormula;
@@ -100,6 +103,7 @@ public class PredicateAbstractionManager {
     public int numSymbolicAbstractions = 0; // precision completely empty, no computation
     public int numSatCheckAbstractions = 0; // precision was {false}, only sat check
     public int numCallsAbstractionCached = 0; // result was cached, no computation
+    public int numCallsAbstractionPersistentlyCached = 0; // result was cached by a previous run
     public int numInductivePathFormulaCacheUsed = 0; // loop was cached, no new computation
 
     public int numTotalPredicates = 0;
@@ -109,12 +113,14 @@ public class PredicateAbstractionManager {
     public int numInductivePredicates = 0;
     public int numCartesianAbsPredicates = 0;
     public int numCartesianAbsPredicatesCached = 0;
+    public int numCartesianAbsPredicatesParallel = 0;
     public int numBooleanAbsPredicates = 0;
     public final Timer abstractionReuseTime = new Timer();
     public final StatTimer abstractionReuseImplicationTime = new StatTimer("Time for checking reusability of abstractions");
     public final Timer trivialPredicatesTime = new Timer();
     public final Timer inductivePredicatesTime = new Timer();
     public final Timer cartesianAbstractionTime = new Timer();
+    public final Timer parallelCartesianAbstractionTime = new Timer();
     public final Timer quantifierEliminationTime = new Timer();
     public final Timer booleanAbstractionTime = new Timer();
     public final NestedTimer abstractionEnumTime = new NestedTimer(); // outer: solver time, inner: bdd time
@@ -155,6 +161,25 @@ public class PredicateAbstractionManager {
       description = "whether to use Boolean or Cartesian abstraction or both")
   private AbstractionType abstractionType = AbstractionType.BOOLEAN;
 
+  @Option(
+    secure = true,
+    name = "abstraction.parallelCartesianThreads",
+    description =
+        "Number of threads (each with its own solver instance) that check the predicates "
+            + "of Cartesian abstraction in parallel (values smaller than 2 disable parallelism)."
+  )
+  private int parallelCartesianThreads = 0;
+
+  @Option(
+    secure = true,
+    name = "abstraction.parallelCartesianMinPredicates",
+    description =
+        "Minimal number of uncached predicates for which Cartesian abstraction "
+            + "is computed in parallel (smaller abstractions are computed sequentially)."
+  )
+  @IntegerOption(min = 1)
+  private int parallelCartesianMinPredicates = 32;
+
   @Option(secure=true, name = "abstraction.dumpHardQueries",
       description = "dump the abstraction formulas if they took to long")
   private boolean dumpHardAbstractions = false;
@@ -186,15 +211,10 @@ public class PredicateAbstractionManager {
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
 
-  private final Map<Pair<BooleanFormula, ImmutableSet<AbstractionPredicate>>, AbstractionFormula> abstractionCache;
-
-  // Cache for satisfiability queries: if formula is contained, it is unsat
-  private final Set<BooleanFormula> unsatisfiabilityCache;
+  // caches for abstractions, satisfiability queries, and cartesian abstraction queries
+  private final @Nullable PredicateAbstractionCache cache;
 
-  //cache for cartesian abstraction queries. For each predicate, the values
-  // are -1: predicate is false, 0: predicate is don't care,
-  // 1: predicate is true
-  private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
+  private final @Nullable ParallelCartesianAbstraction parallelCartesianAbstraction;
 
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
@@ -226,17 +246,22 @@ public class PredicateAbstractionManager {
     }
 
     if (useCache) {
-      abstractionCache = new HashMap<>();
-      unsatisfiabilityCache = new HashSet<>();
+      cache =
+          new PredicateAbstractionCache(
+              pConfig,
+              abstractionType == AbstractionType.CARTESIAN
+                  || abstractionType == AbstractionType.COMBINED);
     } else {
-      abstractionCache = null;
-      unsatisfiabilityCache = null;
+      cache = null;
     }
 
-    if (useCache && (abstractionType != AbstractionType.BOOLEAN)) {
-      cartesianAbstractionCache = new HashMap<>();
+    if (parallelCartesianThreads > 1 && abstractionType != AbstractionType.BOOLEAN
+        && abstractionType != AbstractionType.ELIMINATION) {
+      parallelCartesianAbstraction =
+          new ParallelCartesianAbstraction(
+              parallelCartesianThreads, fmgr, pConfig, logger, shutdownNotifier);
     } else {
-      cartesianAbstractionCache = null;
+      parallelCartesianAbstraction = null;
     }
 
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
@@ -346,7 +371,7 @@ public class PredicateAbstractionManager {
     Pair<BooleanFormula, ImmutableSet<AbstractionPredicate>> absKey = null;
     if (useCache) {
       absKey = Pair.of(f, ImmutableSet.copyOf(remainingPredicates));
-      AbstractionFormula result = abstractionCache.get(absKey);
+      AbstractionFormula result = cache.getAbstraction(absKey);
 
       if (result != null) {
         // create new abstraction object to have a unique abstraction id
@@ -363,8 +388,7 @@ public class PredicateAbstractionManager {
         return result;
       }
 
-      boolean unsatisfiable = unsatisfiabilityCache.contains(symbFormula)
-                            || unsatisfiabilityCache.contains(f);
+      boolean unsatisfiable = cache.isUnsat(symbFormula) || cache.isUnsat(f);
       if (unsatisfiable) {
         // block is infeasible
         logger.log(Level.FINEST, "Block feasibility of abstraction", stats.numCallsAbstraction, "was cached and is false.");
@@ -415,10 +439,10 @@ public class PredicateAbstractionManager {
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
 
     if (useCache) {
-      abstractionCache.put(absKey, result);
+      cache.putAbstraction(absKey, result, fmgr);
 
       if (result.isFalse()) {
-        unsatisfiabilityCache.add(f);
+        cache.putUnsat(f, fmgr);
       }
     }
 
@@ -460,7 +484,7 @@ public class PredicateAbstractionManager {
       return bfmgr.makeTrue();
     }
 
-    if (unsatisfiabilityCache.contains(pF)) {
+    if (useCache && cache.isUnsat(pF)) {
       stats.numCallsAbstractionCached++;
       return bfmgr.makeFalse();
     }
@@ -478,8 +502,8 @@ public class PredicateAbstractionManager {
       symbolicAbs = fmgr.simplify(symbolicAbs);
     }
 
-    if (bfmgr.isFalse(symbolicAbs)) {
-      unsatisfiabilityCache.add(pF);
+    if (useCache && bfmgr.isFalse(symbolicAbs)) {
+      cache.putUnsat(pF, fmgr);
     }
 
     return symbolicAbs;
@@ -733,6 +757,37 @@ public class PredicateAbstractionManager {
       final Collection<AbstractionPredicate> remainingPredicates,
       final Function<BooleanFormula, BooleanFormula> instantiator)
       throws SolverException, InterruptedException {
+    final Optional<PersistentQueryCache> persistentCache = solver.getPersistentQueryCache();
+    final List<BooleanFormula> predicateAtoms = new ArrayList<>(remainingPredicates.size());
+    if (persistentCache.isPresent()) {
+      for (AbstractionPredicate predicate : remainingPredicates) {
+        predicateAtoms.add(predicate.getSymbolicAtom());
+      }
+      Optional<BooleanFormula> cachedAbs =
+          persistentCache.get().lookupAbstraction(f, predicateAtoms, abstractionType.name());
+      if (cachedAbs.isPresent()) {
+        stats.numCallsAbstractionPersistentlyCached++;
+        remainingPredicates.clear(); // mark all predicates as handled
+        return amgr.convertFormulaToRegion(cachedAbs.get());
+      }
+    }
+
+    Region abs = computeAbstraction0(f, remainingPredicates, instantiator);
+
+    if (persistentCache.isPresent()) {
+      persistentCache
+          .get()
+          .storeAbstraction(
+              f, predicateAtoms, abstractionType.name(), amgr.convertRegionToFormula(abs));
+    }
+    return abs;
+  }
+
+  private Region computeAbstraction0(
+      final BooleanFormula f,
+      final Collection<AbstractionPredicate> remainingPredicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator)
+      throws SolverException, InterruptedException {
     Region abs = rmgr.makeTrue();
 
     try (ProverEnvironment thmProver = solver.newProverEnvironment()) {
@@ -825,14 +880,49 @@ public class PredicateAbstractionManager {
     try {
       Region absbdd = rmgr.makeTrue();
 
+      // check the uncached predicates in parallel if there are enough of them,
+      // the values found in the cache are kept such that each predicate is looked up only once
+      Map<AbstractionPredicate, Byte> parallelPredVals = ImmutableMap.of();
+      Map<AbstractionPredicate, Byte> cachedPredVals = null;
+      if (parallelCartesianAbstraction != null) {
+        cachedPredVals = new HashMap<>();
+        List<AbstractionPredicate> uncachedPredicates = new ArrayList<>();
+        for (AbstractionPredicate p : pPredicates) {
+          Byte cachedPredVal = useCache ? cache.getCartesianValue(Pair.of(f, p)) : null;
+          if (cachedPredVal != null) {
+            cachedPredVals.put(p, cachedPredVal);
+          } else {
+            uncachedPredicates.add(p);
+          }
+        }
+        if (uncachedPredicates.size() >= parallelCartesianMinPredicates) {
+          stats.parallelCartesianAbstractionTime.start();
+          try {
+            parallelPredVals =
+                parallelCartesianAbstraction.computePredicateValues(
+                    f, uncachedPredicates, instantiator);
+          } finally {
+            stats.parallelCartesianAbstractionTime.stop();
+          }
+          stats.numCartesianAbsPredicatesParallel += parallelPredVals.size();
+        }
+      }
+
       // check whether each of the predicate is implied in the next state...
 
       final Iterator<AbstractionPredicate> predicateIt = pPredicates.iterator();
       while (predicateIt.hasNext()) {
         final AbstractionPredicate p = predicateIt.next();
         Pair<BooleanFormula, AbstractionPredicate> cacheKey = Pair.of(f, p);
-        if (useCache && cartesianAbstractionCache.containsKey(cacheKey)) {
-          byte predVal = cartesianAbstractionCache.get(cacheKey);
+        Byte cachedPredVal;
+        if (cachedPredVals != null) {
+          cachedPredVal = cachedPredVals.get(p);
+        } else {
+          cachedPredVal = useCache ? cache.getCartesianValue(cacheKey) : null;
+        }
+        Byte parallelPredVal = parallelPredVals.get(p);
+        if (cachedPredVal != null) {
+          byte predVal = cachedPredVal;
           stats.numCartesianAbsPredicatesCached++;
 
           stats.abstractionEnumTime.getCurentInnerTimer().start();
@@ -849,6 +939,25 @@ public class PredicateAbstractionManager {
           }
           stats.abstractionEnumTime.getCurentInnerTimer().stop();
 
+        } else if (parallelPredVal != null) {
+          byte predVal = parallelPredVal;
+
+          if (predVal != 0) {
+            stats.numCartesianAbsPredicates++;
+            stats.abstractionEnumTime.getCurentInnerTimer().start();
+            Region v = p.getAbstractVariable();
+            if (predVal == -1) { // pred is false
+              v = rmgr.makeNot(v);
+            }
+            absbdd = rmgr.makeAnd(absbdd, v);
+            predicateIt.remove(); // mark predicate as handled
+            stats.abstractionEnumTime.getCurentInnerTimer().stop();
+          }
+
+          if (useCache) {
+            cache.putCartesianValue(cacheKey, predVal);
+          }
+
         } else {
           logger.log(Level.ALL, "DEBUG_1",
               "CHECKING VALUE OF PREDICATE: ", p.getSymbolicAtom());
@@ -894,7 +1003,7 @@ public class PredicateAbstractionManager {
           }
 
           if (useCache) {
-            cartesianAbstractionCache.put(cacheKey, predVal);
+            cache.putCartesianValue(cacheKey, predVal);
           }
         }
       }
@@ -1262,4 +1371,17 @@ public class PredicateAbstractionManager {
   public Set<AbstractionPredicate> extractPredicates(Region pRegion) {
     return amgr.extractPredicates(pRegion);
   }
+
+  /** Release the additional resources (e.g., solver instances) used by this instance. */
+  void close() {
+    if (parallelCartesianAbstraction != null) {
+      parallelCartesianAbstraction.close();
+    }
+  }
+
+  void printCacheStatistics(PrintStream out) {
+    if (cache != null) {
+      cache.printStatistics(out);
+    }
+  }
 }
@@ -60,6 +60,7 @@ import org.sosy_lab.cpachecker.util.blocking.interfaces.BlockComputer;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
 import org.sosy_lab.cpachecker.util.predicates.BlockOperator;
 import org.sosy_lab.cpachecker.util.predicates.bdd.BDDManagerFactory;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.CachingPathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
@@ -71,6 +72,8 @@ import org.sosy_lab.cpachecker.util.refinement.PrefixProvider;
 import org.sosy_lab.java_smt.api.SolverException;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 /**
@@ -128,6 +131,9 @@ public class PredicateCPA
   private final PredicateCPAInvariantsManager invariantsManager;
   private final BlockOperator blk;
 
+  // created by users of this CPA (e.g., refiners), closed together with this CPA
+  private final List<InterpolationManager> interpolationManagers = new CopyOnWriteArrayList<>();
+
   protected PredicateCPA(
       Configuration config,
       LogManager logger,
@@ -158,7 +164,7 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, config);
     }
     pathFormulaManager = pfMgr;
 
@@ -279,6 +285,14 @@ public class PredicateCPA
     return pathFormulaManager;
   }
 
+  /**
+   * Register an interpolation manager that uses the solver of this CPA
+   * and needs to be closed together with it.
+   */
+  void registerInterpolationManager(InterpolationManager pInterpolationManager) {
+    interpolationManagers.add(pInterpolationManager);
+  }
+
   public Solver getSolver() {
     return solver;
   }
@@ -323,6 +337,10 @@ public class PredicateCPA
 
   @Override
   public void close() {
+    for (InterpolationManager interpolationManager : interpolationManagers) {
+      interpolationManager.close();
+    }
+    predicateManager.close();
     solver.close();
   }
 
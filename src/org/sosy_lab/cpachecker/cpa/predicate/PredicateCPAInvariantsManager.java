@@ -798,15 +798,19 @@ class PredicateCPAInvariantsManager implements StatisticsProvider, InvariantSupp
       InvCandidateGenerator candidateGenerator =
           new InvCandidateGenerator(pPath, pAbstractionStatesTrace);
 
-      KInductionInvariantChecker invChecker =
-          new KInductionInvariantChecker(
-              config,
-              pInvariantShutdown,
-              new OnlyWarningsLogmanager(logger),
-              cfa,
-              specification,
-              candidateGenerator);
-      invChecker.checkCandidates();
+      try {
+        KInductionInvariantChecker invChecker =
+            new KInductionInvariantChecker(
+                config,
+                pInvariantShutdown,
+                new OnlyWarningsLogmanager(logger),
+                cfa,
+                specification,
+                candidateGenerator);
+        invChecker.checkCandidates();
+      } finally {
+        candidateGenerator.close();
+      }
 
       if (candidateGenerator.hasFoundInvariants()) {
         List<Pair<BooleanFormula, CFANode>> invariants =
@@ -868,6 +872,11 @@ class PredicateCPAInvariantsManager implements StatisticsProvider, InvariantSupp
               .extractInfeasiblePrefixes(argPath);
     }
 
+    /** Release the resources needed for producing candidates. */
+    private void close() {
+      imgr.close();
+    }
+
     @Override
     public boolean produceMoreCandidates() {
       if (trieNum >= kInductionTries) {
@@ -144,6 +144,7 @@ public class PredicateCPARefinerFactory {
     InterpolationManager interpolationManager =
         new InterpolationManager(
             pfmgr, solver, loopStructure, variableClassification, config, shutdownNotifier, logger);
+    predicateCpa.registerInterpolationManager(interpolationManager);
 
     PathChecker pathChecker =
         new PathChecker(config, logger, shutdownNotifier, machineModel, pfmgr, solver);
@@ -293,6 +293,9 @@ class PredicateCPAStatistics extends AbstractStatistics {
       out.println("  Times precision was empty:       " + valueWithPercentage(as.numSymbolicAbstractions, as.numCallsAbstraction));
       out.println("  Times precision was {false}:     " + valueWithPercentage(as.numSatCheckAbstractions, as.numCallsAbstraction));
       out.println("  Times result was cached:         " + valueWithPercentage(as.numCallsAbstractionCached, as.numCallsAbstraction));
+      if (solver.getPersistentQueryCache().isPresent()) {
+        out.println("  Times cached by previous runs:   " + valueWithPercentage(as.numCallsAbstractionPersistentlyCached, as.numCallsAbstraction));
+      }
       out.println("  Times cartesian abs was used:    " + valueWithPercentage(as.cartesianAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times boolean abs was used:      " + valueWithPercentage(as.booleanAbstractionTime.getNumberOfIntervals(), as.numCallsAbstraction));
       out.println("  Times result was 'false':        " + valueWithPercentage(prec.numAbstractionsFalse, prec.numAbstractions));
@@ -319,6 +322,13 @@ class PredicateCPAStatistics extends AbstractStatistics {
     out.println("Number of SMT sat checks:          " + solver.satChecks);
     out.println("  trivial:                         " + solver.trivialSatChecks);
     out.println("  cached:                          " + solver.cachedSatChecks);
+    if (solver.getPersistentQueryCache().isPresent()) {
+      out.println("  cached by previous runs:         " + solver.persistentlyCachedSatChecks);
+    }
+    amgr.printCacheStatistics(out);
+    if (solver.getPersistentQueryCache().isPresent()) {
+      solver.getPersistentQueryCache().get().printStatistics(out);
+    }
     out.println();
     out.println("Max ABE block size:                       " + prec.maxBlockSize);
     out.println("Number of predicates discovered:          " + allDistinctPreds);
@@ -345,6 +355,9 @@ class PredicateCPAStatistics extends AbstractStatistics {
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds cached for cartesian abs: " + valueWithPercentage(as.numCartesianAbsPredicatesCached, as.numTotalPredicates));
         out.println("Number of preds solved by cartesian abs:  " + valueWithPercentage(as.numCartesianAbsPredicates, as.numTotalPredicates));
+        if (as.parallelCartesianAbstractionTime.getNumberOfIntervals() > 0) {
+          out.println("Number of preds checked in parallel:      " + valueWithPercentage(as.numCartesianAbsPredicatesParallel, as.numTotalPredicates));
+        }
       }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds handled by boolean abs:   " + valueWithPercentage(as.numBooleanAbsPredicates, as.numTotalPredicates));
@@ -375,6 +388,9 @@ class PredicateCPAStatistics extends AbstractStatistics {
       }
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("    Cartesian abstraction:           " + as.cartesianAbstractionTime);
+        if (as.parallelCartesianAbstractionTime.getNumberOfIntervals() > 0) {
+          out.println("      Parallel predicate checks:     " + as.parallelCartesianAbstractionTime);
+        }
       }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("    Boolean abstraction:             " + as.booleanAbstractionTime);
@@ -406,6 +422,7 @@ class PredicateCPAStatistics extends AbstractStatistics {
       out.println("Time for unsat checks:             " + trans.satCheckTimer + " (Calls: " + trans.satCheckTimer.getNumberOfIntervals() + ")");
     }
     out.println();
+    solver.getFormulaManager().printStatistics(out);
     pfmgr.printStatistics(out);
     out.println();
     rmgr.printStatistics(out);
@@ -126,6 +126,7 @@ public class PredicateForcedCovering implements ForcedCovering, StatisticsProvid
                                                    config,
                                                    predicateCpa.getShutdownNotifier(),
                                                    pLogger);
+    predicateCpa.registerInterpolationManager(imgr);
     fmgr = predicateCpa.getSolver().getFormulaManager();
     predAbsMgr = predicateCpa.getPredicateManager();
     impact = new ImpactUtility(config, fmgr, predAbsMgr);
@@ -41,6 +41,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.util.Precisions;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
@@ -127,6 +128,16 @@ public class PredicatePrecision implements Precision {
   private final ImmutableSetMultimap<String, AbstractionPredicate> mFunctionPredicates;
   private final ImmutableSet<AbstractionPredicate> mGlobalPredicates;
 
+  /**
+   * Lazily filled cache for {@link #getPredicates(LocationInstance)}, indexed by node number.
+   * It stores for each node the combined set of local, function, and global predicates, which is
+   * always one of the sets already stored in the maps above, so no predicate sets are copied.
+   * The cache belongs to this (immutable) instance, thus creating a new precision during
+   * refinement implicitly invalidates it.
+   * Concurrent updates may lose entries, but this is harmless because they are recomputed.
+   */
+  private volatile ImmutableSet<AbstractionPredicate>[] predicatesByNode;
+
   private static final PredicatePrecision EMPTY =
       new PredicatePrecision(
           ImmutableList.<Map.Entry<LocationInstance, AbstractionPredicate>>of(),
@@ -201,6 +212,13 @@ public class PredicatePrecision implements Precision {
       locationInstancePredicates.putAll(location, mGlobalPredicates);
     }
     mLocationInstancePredicates = ImmutableSetMultimap.copyOf(locationInstancePredicates);
+
+    predicatesByNode = newPredicateArray(0);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ImmutableSet<AbstractionPredicate>[] newPredicateArray(int size) {
+    return new ImmutableSet[size];
   }
 
   private static <K, V> void putAll(Iterable<Map.Entry<K, V>> entries, Multimap<K, V> map) {
@@ -294,17 +312,43 @@ public class PredicatePrecision implements Precision {
    * Return all predicates for one specific location in this precision.
    */
   public final ImmutableSet<AbstractionPredicate> getPredicates(LocationInstance locationInstance) {
-    ImmutableSet<AbstractionPredicate> result =
-        getLocationInstancePredicates().get(locationInstance);
-    if (result.isEmpty()) {
-      result = getLocalPredicates().get(locationInstance.getLocation());
+    if (!mLocationInstancePredicates.isEmpty()) {
+      ImmutableSet<AbstractionPredicate> result =
+          mLocationInstancePredicates.get(locationInstance);
+      if (!result.isEmpty()) {
+        return result;
+      }
     }
+    return getPredicates(locationInstance.getLocation());
+  }
+
+  /**
+   * Return the union of local, function, and global predicates for a location,
+   * using the per-node cache.
+   */
+  private ImmutableSet<AbstractionPredicate> getPredicates(CFANode loc) {
+    int nodeNumber = loc.getNodeNumber();
+    ImmutableSet<AbstractionPredicate>[] cache = predicatesByNode;
+    if (nodeNumber < cache.length) {
+      ImmutableSet<AbstractionPredicate> result = cache[nodeNumber];
+      if (result != null) {
+        return result;
+      }
+    }
+
+    ImmutableSet<AbstractionPredicate> result = mLocalPredicates.get(loc);
     if (result.isEmpty()) {
-      result = getFunctionPredicates().get(locationInstance.getFunctionName());
+      result = mFunctionPredicates.get(loc.getFunctionName());
     }
     if (result.isEmpty()) {
-      result = getGlobalPredicates();
+      result = mGlobalPredicates;
+    }
+
+    if (nodeNumber >= cache.length) {
+      cache = Arrays.copyOf(cache, Math.max(nodeNumber + 1, 2 * cache.length));
+      predicatesByNode = cache;
     }
+    cache[nodeNumber] = result;
     return result;
   }
 
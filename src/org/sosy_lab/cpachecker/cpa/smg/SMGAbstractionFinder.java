@@ -26,6 +26,7 @@ package org.sosy_lab.cpachecker.cpa.smg;
 import com.google.common.collect.ImmutableSet;
 import java.util.Set;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 
 public interface SMGAbstractionFinder {
 
@@ -34,7 +35,19 @@ public interface SMGAbstractionFinder {
     return traverse(pSmg, pSMGState, ImmutableSet.of());
   }
 
-  public Set<SMGAbstractionCandidate> traverse(CLangSMG pSmg, SMGState pSMGState,
+  default Set<SMGAbstractionCandidate> traverse(CLangSMG pSmg, SMGState pSMGState,
       Set<SMGAbstractionBlock> abstractionLocks)
+      throws SMGInconsistentException {
+    return traverse(pSmg, pSMGState, abstractionLocks, pSmg.getHeapObjects());
+  }
+
+  /**
+   * Search for abstraction candidates, starting the traversal only at the given heap objects.
+   * Candidates are found along pointers, so if the start objects form connected components of
+   * the SMG, the result contains exactly those candidates of a full traversal that lie within
+   * these components.
+   */
+  public Set<SMGAbstractionCandidate> traverse(CLangSMG pSmg, SMGState pSMGState,
+      Set<SMGAbstractionBlock> abstractionLocks, Iterable<SMGObject> pStartObjects)
       throws SMGInconsistentException;
 }
\ No newline at end of file
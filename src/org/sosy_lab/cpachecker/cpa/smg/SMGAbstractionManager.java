@@ -23,18 +23,27 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.dll.SMGDoublyLinkedListFinder;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.sll.SMGSingleLinkedListFinder;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 
 public class SMGAbstractionManager {
 
+  public static final StatCounter incrementalSearches =
+      new StatCounter("Number of incremental abstraction searches");
+  public static final StatCounter skippedSearches =
+      new StatCounter("Number of abstraction searches skipped for unchanged heaps");
+
   private final LogManager logger;
   private final CLangSMG smg;
   private final SMGState smgState;
@@ -44,6 +53,9 @@ public class SMGAbstractionManager {
   private final SMGDoublyLinkedListFinder dllCandidateFinder;
   private final SMGSingleLinkedListFinder sllCandidateFinder;
 
+  /** The parameters of the search, for the change tracking in the SMG. */
+  private final Object searchKey;
+
   public SMGAbstractionManager(LogManager pLogger, CLangSMG pSMG, SMGState pSMGstate) {
     smg = pSMG;
     smgState = pSMGstate;
@@ -51,6 +63,7 @@ public class SMGAbstractionManager {
     blocks = ImmutableSet.of();
     dllCandidateFinder = new SMGDoublyLinkedListFinder();
     sllCandidateFinder = new SMGSingleLinkedListFinder();
+    searchKey = ImmutableList.of(blocks);
   }
 
   public SMGAbstractionManager(LogManager pLogger, CLangSMG pSMG, SMGState pSMGstate,
@@ -61,6 +74,7 @@ public class SMGAbstractionManager {
     blocks = pBlocks;
     dllCandidateFinder = new SMGDoublyLinkedListFinder();
     sllCandidateFinder = new SMGSingleLinkedListFinder();
+    searchKey = ImmutableList.of(blocks);
   }
 
   public SMGAbstractionManager(LogManager pLogger, CLangSMG pSMG, SMGState pSMGstate,
@@ -71,14 +85,37 @@ public class SMGAbstractionManager {
     blocks = pBlocks;
     dllCandidateFinder = new SMGDoublyLinkedListFinder(equalSeq, entailSeq, incSeq);
     sllCandidateFinder = new SMGSingleLinkedListFinder(equalSeq, entailSeq, incSeq);
+    searchKey = ImmutableList.of(blocks, equalSeq, entailSeq, incSeq);
   }
 
   private boolean hasCandidates() throws SMGInconsistentException {
 
-    abstractionCandidates.addAll(dllCandidateFinder.traverse(smg, smgState, blocks));
-    abstractionCandidates.addAll(sllCandidateFinder.traverse(smg, smgState, blocks));
+    // If the SMG (or its predecessor) was already searched without result, only the parts
+    // connected to changes since then can contain candidates.
+    Set<SMGObject> affectedObjects = smg.getObjectsAffectedByChanges(searchKey);
+    Iterable<SMGObject> startObjects;
+    if (affectedObjects == null) {
+      startObjects = smg.getHeapObjects();
+    } else if (affectedObjects.isEmpty()) {
+      skippedSearches.inc();
+      return false;
+    } else {
+      incrementalSearches.inc();
+      startObjects = Sets.intersection(smg.getHeapObjects(), affectedObjects);
+    }
 
-    return (!abstractionCandidates.isEmpty());
+    abstractionCandidates.addAll(
+        dllCandidateFinder.traverse(smg, smgState, blocks, startObjects));
+    abstractionCandidates.addAll(
+        sllCandidateFinder.traverse(smg, smgState, blocks, startObjects));
+
+    if (abstractionCandidates.isEmpty()) {
+      smg.markSearchedForAbstraction(searchKey);
+      return false;
+    } else {
+      smg.forgetAbstractionSearch();
+      return true;
+    }
   }
 
   private SMGAbstractionCandidate getBestCandidate() {
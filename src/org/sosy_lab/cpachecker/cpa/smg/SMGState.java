@@ -177,6 +177,8 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     invalidWrite = false;
     explicitValues.putAll(pMergedExplicitValues);
     blockEnded = false;
+    // explicit values are relevant for abstraction, but changes to them were not tracked
+    heap.forgetAbstractionSearch();
   }
 
   /**
@@ -266,6 +268,7 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     predecessorId = pOriginalState.getId();
     id = ID_COUNTER.getAndIncrement();
     explicitValues.putAll(pCombinedMap);
+    heap.forgetAbstractionSearch();
     invalidFree = pOriginalState.invalidFree;
     invalidRead = pOriginalState.invalidRead;
     invalidWrite = pOriginalState.invalidWrite;
@@ -1310,10 +1313,10 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     SMGEdgeHasValue new_edge = new SMGEdgeHasValue(pType, pOffset, pObject, pValue);
 
     // Check if the edge is  not present already
-    SMGEdgeHasValueFilter filter = SMGEdgeHasValueFilter.objectFilter(pObject);
+    SMGEdgeHasValueFilter filter =
+        SMGEdgeHasValueFilter.objectFilter(pObject).filterAtOffset(pOffset);
 
-    Set<SMGEdgeHasValue> edges = heap.getHVEdges(filter);
-    if (edges.contains(new_edge)) {
+    if (heap.getHVEdges(filter).contains(new_edge)) {
       performConsistencyCheck(SMGRuntimeCheck.HALF);
       return new SMGStateEdgePair(this, new_edge);
     }
@@ -1328,17 +1331,15 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     /* We need to remove all non-zero overlapping edges
      * and remember all overlapping zero edges to shrink them later
      */
-    for (SMGEdgeHasValue hv : edges) {
+    long end = pOffset + new_edge.getSizeInBits(heap.getMachineModel());
+    for (SMGEdgeHasValue hv : heap.getOverlappingHVEdges(pObject, pOffset, end)) {
 
-      boolean hvEdgeOverlaps = new_edge.overlapsWith(hv, heap.getMachineModel());
       boolean hvEdgeIsZero = hv.getValue() == SMG.NULL_ADDRESS;
 
-      if (hvEdgeOverlaps) {
-        if (hvEdgeIsZero) {
-          overlappingZeroEdges.add(hv);
-        } else {
-          heap.removeHasValueEdge(hv);
-        }
+      if (hvEdgeIsZero) {
+        overlappingZeroEdges.add(hv);
+      } else {
+        heap.removeHasValueEdge(hv);
       }
     }
 
@@ -1362,6 +1363,16 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     return blockEnded;
   }
 
+  /** Estimated memory consumption of the value-related structures of the SMG, for statistics. */
+  long estimateValueStorageSizeInBytes() {
+    return heap.estimateValueStorageSizeInBytes();
+  }
+
+  /** See {@link SMG#estimateBoxedValueStorageSizeInBytes()}, for statistics. */
+  long estimateBoxedValueStorageSizeInBytes() {
+    return heap.estimateBoxedValueStorageSizeInBytes();
+  }
+
   public static class SMGStateEdgePair {
 
     private final SMGState smgState;
@@ -1823,56 +1834,49 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
 
     long targetRangeSize = pTargetOffset + copyRange;
 
-    SMGEdgeHasValueFilter filterSource = new SMGEdgeHasValueFilter();
-    filterSource.filterByObject(pSource);
-    SMGEdgeHasValueFilter filterTarget = new SMGEdgeHasValueFilter();
-    filterTarget.filterByObject(pTarget);
-
     //Remove all Target edges in range
-    Set<SMGEdgeHasValue> targetEdges = getHVEdges(filterTarget);
+    Set<SMGEdgeHasValue> targetEdges =
+        heap.getOverlappingHVEdges(pTarget, pTargetOffset, targetRangeSize);
 
     for (SMGEdgeHasValue edge : targetEdges) {
-      if (edge.overlapsWith(pTargetOffset, targetRangeSize, heap.getMachineModel())) {
-        boolean hvEdgeIsZero = edge.getValue() == SMG.NULL_ADDRESS;
-        heap.removeHasValueEdge(edge);
-        if (hvEdgeIsZero) {
-          SMGObject object = edge.getObject();
+      boolean hvEdgeIsZero = edge.getValue() == SMG.NULL_ADDRESS;
+      heap.removeHasValueEdge(edge);
+      if (hvEdgeIsZero) {
+        SMGObject object = edge.getObject();
 
-          MachineModel maModel = heap.getMachineModel();
+        MachineModel maModel = heap.getMachineModel();
 
-          // Shrink overlapping zero edge
-          long zeroEdgeOffset = edge.getOffset();
+        // Shrink overlapping zero edge
+        long zeroEdgeOffset = edge.getOffset();
 
-          long zeroEdgeOffset2 = zeroEdgeOffset + edge.getSizeInBits(maModel);
+        long zeroEdgeOffset2 = zeroEdgeOffset + edge.getSizeInBits(maModel);
 
-          if (zeroEdgeOffset < pTargetOffset) {
-            SMGEdgeHasValue newZeroEdge =
-                new SMGEdgeHasValue(Math.toIntExact(pTargetOffset - zeroEdgeOffset),
-                    zeroEdgeOffset, object, 0);
-            heap.addHasValueEdge(newZeroEdge);
-          }
+        if (zeroEdgeOffset < pTargetOffset) {
+          SMGEdgeHasValue newZeroEdge =
+              new SMGEdgeHasValue(Math.toIntExact(pTargetOffset - zeroEdgeOffset),
+                  zeroEdgeOffset, object, 0);
+          heap.addHasValueEdge(newZeroEdge);
+        }
 
-          if (targetRangeSize < zeroEdgeOffset2) {
-            SMGEdgeHasValue newZeroEdge =
-                new SMGEdgeHasValue(Math.toIntExact(zeroEdgeOffset2 - targetRangeSize),
-                    targetRangeSize, object, 0);
-            heap.addHasValueEdge(newZeroEdge);
-          }
+        if (targetRangeSize < zeroEdgeOffset2) {
+          SMGEdgeHasValue newZeroEdge =
+              new SMGEdgeHasValue(Math.toIntExact(zeroEdgeOffset2 - targetRangeSize),
+                  targetRangeSize, object, 0);
+          heap.addHasValueEdge(newZeroEdge);
         }
       }
     }
 
     // Copy all Source edges
-    Set<SMGEdgeHasValue> sourceEdges = getHVEdges(filterSource);
+    Set<SMGEdgeHasValue> sourceEdges =
+        heap.getOverlappingHVEdges(pSource, pSourceOffset, pSourceLastCopyBitOffset);
 
     // Shift the source edge offset depending on the target range offset
     long copyShift = pTargetOffset - pSourceOffset;
 
     for (SMGEdgeHasValue edge : sourceEdges) {
-      if (edge.overlapsWith(pSourceOffset, pSourceLastCopyBitOffset, heap.getMachineModel())) {
-        long offset = edge.getOffset() + copyShift;
-        newSMGState = writeValue(pTarget, offset, edge.getType(), edge.getValue()).getState();
-      }
+      long offset = edge.getOffset() + copyShift;
+      newSMGState = writeValue(pTarget, offset, edge.getType(), edge.getValue()).getState();
     }
 
     performConsistencyCheck(SMGRuntimeCheck.FULL);
@@ -2011,11 +2015,13 @@ public class SMGState implements AbstractQueryableState, LatticeAbstractState<SM
     }
 
     explicitValues.put(pKey, pValue);
+    heap.recordChangedValue(pKey.getAsInt());
     return null;
   }
 
   public void clearExplicit(SMGKnownSymValue pKey) {
     explicitValues.remove(pKey);
+    heap.recordChangedValue(pKey.getAsInt());
   }
 
   boolean isExplicit(int value) {
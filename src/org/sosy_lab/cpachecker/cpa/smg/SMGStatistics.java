@@ -28,6 +28,7 @@ import javax.annotation.Nullable;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
+import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatistics;
 
 public class SMGStatistics extends AbstractStatistics {
@@ -38,6 +39,26 @@ public class SMGStatistics extends AbstractStatistics {
     put(pOut, 1, SMGIsLessOrEqual.globalsTimer);
     put(pOut, 1, SMGIsLessOrEqual.stackTimer);
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
+    put(pOut, 1, SMGIsLessOrEqual.fingerprintRejections);
+    put(pOut, 0, SMGAbstractionManager.incrementalSearches);
+    put(pOut, 0, SMGAbstractionManager.skippedSearches);
+
+    int states = 0;
+    long valueStorage = 0;
+    long boxedValueStorage = 0;
+    for (SMGState state : AbstractStates.projectToType(pReached, SMGState.class)) {
+      states++;
+      valueStorage += state.estimateValueStorageSizeInBytes();
+      boxedValueStorage += state.estimateBoxedValueStorageSizeInBytes();
+    }
+    if (states > 0) {
+      put(pOut, 0, "Avg. size of SMG values per state (bytes)", valueStorage / states);
+      put(
+          pOut,
+          1,
+          "saved compared to boxed tree-based sets (bytes)",
+          (boxedValueStorage - valueStorage) / states);
+    }
   }
 
   @Override
@@ -102,6 +102,16 @@ public class CLangSMG extends SMG {
 
   private List<SMGObject> invalidObjects = new ArrayList<>();
 
+  /**
+   * The fingerprint of this SMG, together with the parts of the SMG it was computed from.
+   * All of them are persistent, so the fingerprint is up to date as long as they are identical.
+   */
+  private @Nullable CLangSMGFingerprint fingerprint = null;
+  private @Nullable PersistentSet<SMGObject> fingerprintedHeap = null;
+  private @Nullable PersistentStack<CLangStackFrame> fingerprintedStack = null;
+  private @Nullable PersistentMap<String, SMGRegion> fingerprintedGlobals = null;
+  private @Nullable PersistentMap<SMGObject, Boolean> fingerprintedValidity = null;
+
   public void reportInvalidObject(SMGObject pSMGObject) {
     invalidObjects.add(pSMGObject);
   }
@@ -147,6 +157,11 @@ public class CLangSMG extends SMG {
     stack_objects = pHeap.stack_objects;
     heap_objects = pHeap.heap_objects;
     global_objects = pHeap.global_objects;
+    fingerprint = pHeap.fingerprint;
+    fingerprintedHeap = pHeap.fingerprintedHeap;
+    fingerprintedStack = pHeap.fingerprintedStack;
+    fingerprintedGlobals = pHeap.fingerprintedGlobals;
+    fingerprintedValidity = pHeap.fingerprintedValidity;
     has_leaks = pHeap.has_leaks;
   }
 
@@ -460,6 +475,26 @@ public class CLangSMG extends SMG {
     return global_objects;
   }
 
+  /**
+   * Returns a fingerprint of this SMG for quickly rejecting pairs of SMGs that are not less or
+   * equal. The fingerprint is cached as long as this SMG does not change.
+   */
+  public CLangSMGFingerprint getFingerprint() {
+    PersistentMap<SMGObject, Boolean> validity = getObjectValidity();
+    if (fingerprint == null
+        || fingerprintedHeap != heap_objects
+        || fingerprintedStack != stack_objects
+        || fingerprintedGlobals != global_objects
+        || fingerprintedValidity != validity) {
+      fingerprint = CLangSMGFingerprint.of(this, validity);
+      fingerprintedHeap = heap_objects;
+      fingerprintedStack = stack_objects;
+      fingerprintedGlobals = global_objects;
+      fingerprintedValidity = validity;
+    }
+    return fingerprint;
+  }
+
   /**
    * Constant.
    *
@@ -0,0 +1,100 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import java.util.Arrays;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.cpa.smg.CLangStackFrame;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObjectKind;
+
+/**
+ * A cheap summary of the parts of a {@link CLangSMG} that
+ * {@link org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual} requires to match.
+ * Comparing two fingerprints takes constant time and rejects many pairs of SMGs
+ * before their objects and edges are compared.
+ *
+ * <p>The heap of both SMGs has to consist of the same objects (compared by id) with the same
+ * validity, the stack has to consist of frames of the same functions,
+ * and the first SMG must not have more global variables than the second one.
+ */
+public final class CLangSMGFingerprint {
+
+  private final int heapSize;
+  private final int[] heapObjectsPerKind;
+  private final int heapHash;
+  private final int stackSize;
+  private final int stackHash;
+  private final int globalsSize;
+
+  private CLangSMGFingerprint(
+      int pHeapSize,
+      int[] pHeapObjectsPerKind,
+      int pHeapHash,
+      int pStackSize,
+      int pStackHash,
+      int pGlobalsSize) {
+    heapSize = pHeapSize;
+    heapObjectsPerKind = pHeapObjectsPerKind;
+    heapHash = pHeapHash;
+    stackSize = pStackSize;
+    stackHash = pStackHash;
+    globalsSize = pGlobalsSize;
+  }
+
+  static CLangSMGFingerprint of(CLangSMG pSMG, PersistentMap<SMGObject, Boolean> pValidity) {
+    int[] perKind = new int[SMGObjectKind.values().length];
+    int heapHash = 0;
+    int heapSize = 0;
+    for (SMGObject object : pSMG.getHeapObjects()) {
+      heapSize++;
+      perKind[object.getKind().ordinal()]++;
+      // order-independent, because the heap is a set
+      heapHash += 31 * object.getId() + (Boolean.TRUE.equals(pValidity.get(object)) ? 1 : 0);
+    }
+
+    int stackHash = 1;
+    int stackSize = 0;
+    for (CLangStackFrame frame : pSMG.getStackFrames()) {
+      stackSize++;
+      stackHash = 31 * stackHash + frame.getFunctionDeclaration().getOrigName().hashCode();
+    }
+
+    return new CLangSMGFingerprint(
+        heapSize, perKind, heapHash, stackSize, stackHash, pSMG.getGlobalObjects().size());
+  }
+
+  /**
+   * Returns false if the SMG of this fingerprint is definitely not less or equal to the SMG of
+   * the other fingerprint. If true is returned, nothing is known.
+   */
+  public boolean mayBeLessOrEqual(CLangSMGFingerprint pOther) {
+    return heapSize == pOther.heapSize
+        && stackSize == pOther.stackSize
+        && globalsSize <= pOther.globalsSize
+        && heapHash == pOther.heapHash
+        && stackHash == pOther.stackHash
+        && Arrays.equals(heapObjectsPerKind, pOther.heapObjectsPerKind);
+  }
+}
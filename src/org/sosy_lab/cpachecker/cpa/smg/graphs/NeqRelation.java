@@ -24,7 +24,8 @@
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import java.util.Set;
-import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntMultimap;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntSet;
 
 /**
  * This class tracks Pairs of Integers. Implemented as an immutable map.
@@ -32,18 +33,18 @@ import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
  */
 final class NeqRelation {
 
-  private final PersistentMultimap<Integer, Integer> smgValues;
+  private final PersistentIntMultimap smgValues;
 
   public NeqRelation() {
-    smgValues = PersistentMultimap.of();
+    smgValues = PersistentIntMultimap.of();
   }
 
-  private NeqRelation(PersistentMultimap<Integer, Integer> pMap) {
+  private NeqRelation(PersistentIntMultimap pMap) {
     smgValues = pMap;
   }
 
   public Set<Integer> getNeqsForValue(Integer pV) {
-    return smgValues.get(pV);
+    return smgValues.get(pV).asSet();
   }
 
   public NeqRelation addRelationAndCopy(Integer pOne, Integer pTwo) {
@@ -55,12 +56,12 @@ final class NeqRelation {
   }
 
   public boolean neq_exists(Integer pOne, Integer pTwo) {
-    return smgValues.get(pOne).contains(pTwo);
+    return smgValues.contains(pOne, pTwo);
   }
 
   public NeqRelation removeValueAndCopy(Integer pOne) {
-    PersistentMultimap<Integer, Integer> newSet = smgValues.removeAndCopy(pOne);
-    for (Integer pTwo : smgValues.get(pOne)) {
+    PersistentIntMultimap newSet = smgValues.removeAndCopy(pOne);
+    for (int pTwo : smgValues.get(pOne).asSet()) {
       newSet = newSet.removeAndCopy(pTwo, pOne);
     }
     return new NeqRelation(newSet);
@@ -69,12 +70,23 @@ final class NeqRelation {
   /** transform all relations from (A->C) towards (A->B) and delete C */
   public NeqRelation mergeValuesAndCopy(Integer pB, Integer pC) {
     NeqRelation result = removeValueAndCopy(pC);
-    for (Integer value : getNeqsForValue(pC)) {
+    PersistentIntSet neqsOfC = smgValues.get(pC);
+    for (int value : neqsOfC.asSet()) {
       result = result.addRelationAndCopy(pB, value);
     }
     return result;
   }
 
+  /** Estimated memory consumption of this relation in bytes. */
+  long estimateSizeInBytes() {
+    return smgValues.estimateSizeInBytes();
+  }
+
+  /** Returns the number of stored pairs, each relation is stored in both directions. */
+  int numberOfEntries() {
+    return smgValues.numberOfEntries();
+  }
+
   @Override
   public String toString() {
     return "neq_rel=" + smgValues.toString();
@@ -93,4 +105,4 @@ final class NeqRelation {
     NeqRelation other = (NeqRelation) obj;
     return other.smgValues != null && smgValues.equals(other.smgValues);
   }
-}
\ No newline at end of file
+}
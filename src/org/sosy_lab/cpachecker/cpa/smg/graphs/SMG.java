@@ -25,10 +25,14 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.TreeMultimap;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
@@ -48,11 +52,12 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGNullObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGExplicitValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntSet;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
 
 public class SMG {
   private PersistentSet<SMGObject> objects;
-  private PersistentSet<Integer> values;
+  private PersistentIntSet values;
   private SMGHasValueEdges hv_edges;
   private SMGPointsToEdges pt_edges;
   private PersistentMap<SMGObject, Boolean> object_validity;
@@ -65,12 +70,26 @@ public class SMG {
 
   private final MachineModel machine_model;
 
+  /**
+   * Change tracking for the search of abstraction candidates. After a search without candidates,
+   * its key is stored and all objects and values that change afterwards are recorded, so that the
+   * next search with the same key only needs to examine the parts of the SMG that are connected to
+   * a change. Not part of the equality of SMGs.
+   */
+  private @Nullable Object abstractionSearchKey = null;
+  private PersistentSet<SMGObject> changedObjects = PersistentSet.of();
+  private PersistentIntSet changedValues = PersistentIntSet.of();
+
   /**
    * An address of the special object representing null
    */
   public final static int NULL_ADDRESS = 0;
   private final static SMGEdgePointsTo NULL_POINTER = new SMGEdgePointsTo(NULL_ADDRESS, SMGNullObject.INSTANCE, 0);
 
+  // sizes on a 64-bit JVM with compressed references, for the statistics only
+  private static final int BOXED_TREE_NODE_BYTES = 32;
+  private static final int BOXED_INTEGER_BYTES = 16;
+
   /**
    * Constructor.
    *
@@ -81,8 +100,8 @@ public class SMG {
    */
   public SMG(final MachineModel pMachineModel) {
     objects = PersistentSet.of();
-    values = PersistentSet.of();
-    hv_edges = new SMGHasValueEdgeSet();
+    values = PersistentIntSet.of();
+    hv_edges = new SMGHasValueEdgeSet(pMachineModel);
     pt_edges = new SMGPointsToMap();
     object_validity = PathCopyingPersistentTreeMap.of();
     objectAllocationIdentity = PathCopyingPersistentTreeMap.of();
@@ -110,6 +129,9 @@ public class SMG {
     objectAllocationIdentity = pHeap.objectAllocationIdentity;
     objects = pHeap.objects;
     values = pHeap.values;
+    abstractionSearchKey = pHeap.abstractionSearchKey;
+    changedObjects = pHeap.changedObjects;
+    changedValues = pHeap.changedValues;
   }
 
   @Override
@@ -168,6 +190,7 @@ public class SMG {
   final public void removeValue(final Integer pValue) {
     Preconditions.checkArgument(pValue != 0, "Can not remove NULL from SMG");
     values = values.removeAndCopy(pValue);
+    recordChangedValue(pValue);
     neq = neq.removeValueAndCopy(pValue);
     pathPredicate.removeValue(pValue);
     errorPredicate.removeValue(pValue);
@@ -183,6 +206,7 @@ public class SMG {
   @VisibleForTesting
   final public void removeObject(final SMGObject pObj) {
     objects = objects.removeAndCopy(pObj);
+    recordChangedObject(pObj);
     object_validity = object_validity.removeAndCopy(pObj);
     objectAllocationIdentity = objectAllocationIdentity.removeAndCopy(pObj);
   }
@@ -197,6 +221,17 @@ public class SMG {
   final public void removeObjectAndEdges(final SMGObject pObj) {
     Preconditions.checkArgument(pObj != SMGNullObject.INSTANCE, "Can not remove NULL from SMG");
     removeObject(pObj);
+    if (abstractionSearchKey != null) {
+      // the objects holding the values of removed edges are no longer connected to pObj
+      for (SMGEdgeHasValue edge : hv_edges.getEdgesForObject(pObj)) {
+        recordChangedValue(edge.getValue());
+      }
+      for (SMGEdgePointsTo edge : pt_edges) {
+        if (edge.getObject() == pObj) {
+          recordChangedValue(edge.getValue());
+        }
+      }
+    }
     hv_edges = hv_edges.removeAllEdgesOfObjectAndCopy(pObj);
     pt_edges = pt_edges.removeAllEdgesOfObjectAndCopy(pObj);
   }
@@ -212,6 +247,7 @@ public class SMG {
    */
   final public void addObject(final SMGObject pObj, final boolean pValidity, final boolean pExternal) {
     objects = objects.addAndCopy(pObj);
+    recordChangedObject(pObj);
     object_validity = object_validity.putAndCopy(pObj, pValidity);
     objectAllocationIdentity = objectAllocationIdentity.putAndCopy(pObj, new ExternalObjectFlag(pExternal));
   }
@@ -225,6 +261,7 @@ public class SMG {
    */
   final public void addValue(Integer pValue) {
     values = values.addAndCopy(pValue);
+    recordChangedValue(pValue);
   }
 
   /**
@@ -236,6 +273,8 @@ public class SMG {
    */
   final public void addPointsToEdge(SMGEdgePointsTo pEdge) {
     pt_edges = pt_edges.addAndCopy(pEdge);
+    recordChangedValue(pEdge.getValue());
+    recordChangedObject(pEdge.getObject());
   }
 
   /**
@@ -247,6 +286,8 @@ public class SMG {
    */
   final public void addHasValueEdge(SMGEdgeHasValue pEdge) {
     hv_edges = hv_edges.addEdgeAndCopy(pEdge);
+    recordChangedObject(pEdge.getObject());
+    recordChangedValue(pEdge.getValue());
   }
 
   /**
@@ -258,6 +299,8 @@ public class SMG {
    */
   final public void removeHasValueEdge(SMGEdgeHasValue pEdge) {
     hv_edges = hv_edges.removeEdgeAndCopy(pEdge);
+    recordChangedObject(pEdge.getObject());
+    recordChangedValue(pEdge.getValue());
   }
 
   /**
@@ -269,6 +312,10 @@ public class SMG {
    */
   final public void removePointsToEdge(int pValue) {
     Preconditions.checkArgument(pValue != 0, "Can not remove NULL from SMG");
+    if (abstractionSearchKey != null && pt_edges.containsEdgeWithValue(pValue)) {
+      recordChangedObject(pt_edges.getEdgeWithValue(pValue).getObject());
+    }
+    recordChangedValue(pValue);
     pt_edges = pt_edges.removeEdgeWithValueAndCopy(pValue);
   }
 
@@ -285,6 +332,7 @@ public class SMG {
   public void setValidity(SMGObject pObject, boolean pValidity) {
     Preconditions.checkArgument(objects.contains(pObject), "Object [" + pObject + "] not in SMG");
     object_validity = object_validity.putAndCopy(pObject, pValidity);
+    recordChangedObject(pObject);
   }
 
   /**
@@ -300,6 +348,7 @@ public class SMG {
   public void setExternallyAllocatedFlag(SMGObject pObject, boolean pExternal) {
     Preconditions.checkArgument(objects.contains(pObject), "Object [" + pObject + "] not in SMG");
     objectAllocationIdentity = objectAllocationIdentity.putAndCopy(pObject, new ExternalObjectFlag(pExternal));
+    recordChangedObject(pObject);
   }
 
   /**
@@ -309,11 +358,12 @@ public class SMG {
    * Keeps consistency: no
    */
   public void replaceHVSet(Set<SMGEdgeHasValue> pNewHV) {
-    SMGHasValueEdges tmp = new SMGHasValueEdgeSet();
+    SMGHasValueEdges tmp = new SMGHasValueEdgeSet(machine_model);
     for (SMGEdgeHasValue edge : pNewHV) {
       tmp = tmp.addEdgeAndCopy(edge);
     }
     hv_edges = tmp;
+    forgetAbstractionSearch();
   }
 
   /**
@@ -322,6 +372,8 @@ public class SMG {
    */
   public void addNeqRelation(Integer pV1, Integer pV2) {
     neq = neq.addRelationAndCopy(pV1, pV2);
+    recordChangedValue(pV1);
+    recordChangedValue(pV2);
   }
 
   /**
@@ -408,6 +460,18 @@ public class SMG {
     return ImmutableSet.copyOf(pFilter.filter(hv_edges));
   }
 
+  /**
+   * Getter for obtaining the Has-Value edges of an object that overlap a range of bits. Constant.
+   * @param pObject the object whose edges are to be obtained
+   * @param pStart the first bit of the range
+   * @param pEnd the bit after the end of the range
+   * @return A set of Has-Value edges of pObject that overlap the range, ordered by offset
+   */
+  final public Set<SMGEdgeHasValue> getOverlappingHVEdges(
+      SMGObject pObject, long pStart, long pEnd) {
+    return ImmutableSet.copyOf(hv_edges.getOverlappingEdges(pObject, pStart, pEnd));
+  }
+
   public Set<SMGEdgePointsTo> getPtEdges(SMGEdgePointsToFilter pFilter) {
     return ImmutableSet.copyOf(pFilter.filter(pt_edges));
   }
@@ -452,6 +516,11 @@ public class SMG {
     return object_validity.get(pObject);
   }
 
+  /** Returns the validity of all objects, used for detecting changes of the SMG. */
+  final PersistentMap<SMGObject, Boolean> getObjectValidity() {
+    return object_validity;
+  }
+
   /**
    * Getter for determing if the object pObject is externally allocated
    * Throws {@link IllegalAccessException} if pObject is not present is the SMG
@@ -542,9 +611,21 @@ public class SMG {
   private boolean isCoveredByNullifiedBlocks(SMGObject pObject, long pOffset, int size) {
     long expectedMinClear = pOffset + size;
 
-    TreeMap<Long, Integer> nullEdgesOffsetToSize = getNullEdgesMapOffsetToSizeForObject(pObject);
-    Entry<Long, Integer> floorEntry = nullEdgesOffsetToSize.floorEntry(pOffset);
-    return (floorEntry != null && floorEntry.getValue() + floorEntry.getKey() >= expectedMinClear);
+    // the overlapping edges are ordered by offset, so the covered prefix grows monotonically
+    long clearedUpTo = pOffset;
+    for (SMGEdgeHasValue edge : hv_edges.getOverlappingEdges(pObject, pOffset, expectedMinClear)) {
+      if (edge.getValue() != NULL_ADDRESS) {
+        continue;
+      }
+      if (edge.getOffset() > clearedUpTo) {
+        return false;
+      }
+      clearedUpTo = Math.max(clearedUpTo, edge.getOffset() + edge.getSizeInBits(machine_model));
+      if (clearedUpTo >= expectedMinClear) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public void mergeValues(int pV1, int pV2) {
@@ -575,7 +656,9 @@ public class SMG {
           new SMGEdgeHasValue(old_hve.getType(), old_hve.getOffset(), old_hve.getObject(), pV1);
       hv_edges = hv_edges.removeEdgeAndCopy(old_hve);
       hv_edges = hv_edges.addEdgeAndCopy(newHvEdge);
+      recordChangedObject(old_hve.getObject());
     }
+    recordChangedValue(pV1);
 
     // TODO: Handle PT Edges: I'm not entirely sure how they should be handled
   }
@@ -588,6 +671,124 @@ public class SMG {
     return neq.getNeqsForValue(pV);
   }
 
+  private void recordChangedObject(SMGObject pObject) {
+    if (abstractionSearchKey != null) {
+      changedObjects = changedObjects.addAndCopy(pObject);
+    }
+  }
+
+  /**
+   * Estimated memory consumption in bytes of the set of values, the neq relation, and the map of
+   * points-to edges (without the edges themselves).
+   */
+  public final long estimateValueStorageSizeInBytes() {
+    return values.estimateSizeInBytes()
+        + neq.estimateSizeInBytes()
+        + pt_edges.estimateSizeInBytes();
+  }
+
+  /**
+   * Estimated memory consumption in bytes that the data counted by {@link
+   * #estimateValueStorageSizeInBytes()} would need in tree-based collections of boxed integers,
+   * i.e., one tree node and one {@link Integer} per entry.
+   */
+  public final long estimateBoxedValueStorageSizeInBytes() {
+    int entries = values.size() + neq.numberOfEntries() + pt_edges.size();
+    return (long) entries * (BOXED_TREE_NODE_BYTES + BOXED_INTEGER_BYTES);
+  }
+
+  /**
+   * Record that the abstract value of pValue changed outside of the SMG, e.g., because an explicit
+   * value was assigned to it, for the change tracking of abstraction searches.
+   */
+  public final void recordChangedValue(int pValue) {
+    if (abstractionSearchKey != null && pValue != NULL_ADDRESS) {
+      changedValues = changedValues.addAndCopy(pValue);
+    }
+  }
+
+  /**
+   * Remember that this SMG was searched for abstraction candidates without finding any. Starts
+   * recording changes, see {@link #getObjectsAffectedByChanges(Object)}.
+   *
+   * @param pSearchKey identifies the parameters of the search, e.g., the abstraction blocks
+   */
+  public final void markSearchedForAbstraction(Object pSearchKey) {
+    abstractionSearchKey = Preconditions.checkNotNull(pSearchKey);
+    changedObjects = PersistentSet.of();
+    changedValues = PersistentIntSet.of();
+  }
+
+  /** Stop recording changes, the next abstraction search has to examine the whole SMG. */
+  public final void forgetAbstractionSearch() {
+    abstractionSearchKey = null;
+    changedObjects = PersistentSet.of();
+    changedValues = PersistentIntSet.of();
+  }
+
+  /**
+   * Returns all objects that are connected (by has-value and points-to edges, in any direction)
+   * to an object or value that changed since the last call to {@link
+   * #markSearchedForAbstraction(Object)} with the same key. Returns null if there was no such
+   * call, or if the changes were not recorded, in which case the whole SMG has to be searched.
+   */
+  public final @Nullable Set<SMGObject> getObjectsAffectedByChanges(Object pSearchKey) {
+    if (abstractionSearchKey == null || !abstractionSearchKey.equals(pSearchKey)) {
+      return null;
+    }
+    if (changedObjects.size() == 0 && changedValues.isEmpty()) {
+      return ImmutableSet.of();
+    }
+
+    SetMultimap<Integer, SMGObject> holdersOfValue = HashMultimap.create();
+    for (SMGEdgeHasValue edge : getHVEdges()) {
+      if (edge.getValue() != NULL_ADDRESS) {
+        holdersOfValue.put(edge.getValue(), edge.getObject());
+      }
+    }
+    SetMultimap<SMGObject, Integer> addressesOfObject = HashMultimap.create();
+    for (SMGEdgePointsTo edge : pt_edges) {
+      if (edge.getValue() != NULL_ADDRESS) {
+        addressesOfObject.put(edge.getObject(), edge.getValue());
+      }
+    }
+
+    Set<SMGObject> affectedObjects = new HashSet<>();
+    Set<Integer> affectedValues = new HashSet<>();
+    Deque<SMGObject> objectsToProcess = new ArrayDeque<>();
+    Deque<Integer> valuesToProcess = new ArrayDeque<>();
+    for (SMGObject object : objects) {
+      if (changedObjects.contains(object)) {
+        objectsToProcess.add(object);
+      }
+    }
+    changedValues.forEachInt(valuesToProcess::add);
+
+    while (!objectsToProcess.isEmpty() || !valuesToProcess.isEmpty()) {
+      if (!valuesToProcess.isEmpty()) {
+        Integer value = valuesToProcess.remove();
+        if (affectedValues.add(value)) {
+          objectsToProcess.addAll(holdersOfValue.get(value));
+          SMGEdgePointsTo pointer = pt_edges.getEdgeWithValue(value);
+          if (pointer != null) {
+            objectsToProcess.add(pointer.getObject());
+          }
+        }
+      } else {
+        SMGObject object = objectsToProcess.remove();
+        if (object != SMGNullObject.INSTANCE && affectedObjects.add(object)) {
+          for (SMGEdgeHasValue edge : hv_edges.getEdgesForObject(object)) {
+            if (edge.getValue() != NULL_ADDRESS) {
+              valuesToProcess.add(edge.getValue());
+            }
+          }
+          valuesToProcess.addAll(addressesOfObject.get(object));
+        }
+      }
+    }
+    return affectedObjects;
+  }
+
   private static class ExternalObjectFlag {
     private final boolean external;
 
@@ -606,12 +807,13 @@ public class SMG {
   }
 
   protected void clearValuesHvePte() {
-    values = PersistentSet.of();
-    hv_edges = new SMGHasValueEdgeSet();
+    values = PersistentIntSet.of();
+    hv_edges = new SMGHasValueEdgeSet(machine_model);
     pt_edges = new SMGPointsToMap();
     neq = new NeqRelation();
     pathPredicate.clear();
     initializeNullAddress();
+    forgetAbstractionSearch();
   }
 
   private void initializeNullAddress() {
@@ -623,6 +825,7 @@ public class SMG {
     objects = PersistentSet.of();
     object_validity = PathCopyingPersistentTreeMap.of();
     initializeNullObject();
+    forgetAbstractionSearch();
   }
 
   private void initializeNullObject() {
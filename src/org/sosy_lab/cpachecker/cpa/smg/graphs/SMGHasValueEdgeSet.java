@@ -23,53 +23,113 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import java.util.SortedMap;
 import javax.annotation.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
-import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 
+/**
+ * A persistent set of has-value-edges, indexed first by their object and then by their offset.
+ * Edges at a given offset and edges overlapping a given range of an object are found in
+ * logarithmic time instead of scanning all edges of the object.
+ */
 public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
-  private final PersistentMultimap<SMGObject, SMGEdgeHasValue> map;
+  private final MachineModel machineModel;
+  private final PersistentSortedMap<SMGObject, ObjectEdges> map;
 
-  public SMGHasValueEdgeSet() {
-    map = PersistentMultimap.of();
+  public SMGHasValueEdgeSet(MachineModel pMachineModel) {
+    machineModel = checkNotNull(pMachineModel);
+    map = PathCopyingPersistentTreeMap.of();
   }
 
-  private SMGHasValueEdgeSet(PersistentMultimap<SMGObject, SMGEdgeHasValue> pMap) {
+  private SMGHasValueEdgeSet(
+      MachineModel pMachineModel, PersistentSortedMap<SMGObject, ObjectEdges> pMap) {
+    machineModel = pMachineModel;
     map = pMap;
   }
 
   @Override
   public SMGHasValueEdgeSet removeAllEdgesOfObjectAndCopy(SMGObject obj) {
-    return new SMGHasValueEdgeSet(map.removeAndCopy(obj));
+    return new SMGHasValueEdgeSet(machineModel, map.removeAndCopy(obj));
   }
 
   @Override
   public SMGHasValueEdgeSet addEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    return new SMGHasValueEdgeSet(map.putAndCopy(pEdge.getObject(), pEdge));
+    ObjectEdges old = map.get(pEdge.getObject());
+    ObjectEdges base = old == null ? ObjectEdges.EMPTY : old;
+    ObjectEdges updated = base.add(pEdge, pEdge.getSizeInBits(machineModel));
+    if (old == updated) {
+      return this;
+    }
+    return new SMGHasValueEdgeSet(machineModel, map.putAndCopy(pEdge.getObject(), updated));
   }
 
   @Override
   public SMGHasValueEdgeSet removeEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    PersistentMultimap<SMGObject, SMGEdgeHasValue> updated =
-        map.removeAndCopy(pEdge.getObject(), pEdge);
-    if (map == updated) {
+    ObjectEdges old = map.get(pEdge.getObject());
+    if (old == null) {
       return this;
+    }
+    ObjectEdges updated = old.remove(pEdge);
+    if (old == updated) {
+      return this;
+    } else if (updated.byOffset.isEmpty()) {
+      return new SMGHasValueEdgeSet(machineModel, map.removeAndCopy(pEdge.getObject()));
     } else {
-      return new SMGHasValueEdgeSet(updated);
+      return new SMGHasValueEdgeSet(machineModel, map.putAndCopy(pEdge.getObject(), updated));
     }
   }
 
   @Override
   public ImmutableSet<SMGEdgeHasValue> getHvEdges() {
-    return map.values();
+    ImmutableSet.Builder<SMGEdgeHasValue> builder = ImmutableSet.builder();
+    for (ObjectEdges edges : map.values()) {
+      builder.addAll(Iterables.concat(edges.byOffset.values()));
+    }
+    return builder.build();
   }
 
   @Override
   public @Nullable ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
-    return map.get(pObject);
+    ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    return ImmutableSet.copyOf(Iterables.concat(edges.byOffset.values()));
+  }
+
+  @Override
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset) {
+    ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    ImmutableSet<SMGEdgeHasValue> atOffset = edges.byOffset.get(pOffset);
+    return atOffset == null ? ImmutableSet.of() : atOffset;
+  }
+
+  @Override
+  public Iterable<SMGEdgeHasValue> getOverlappingEdges(SMGObject pObject, long pStart, long pEnd) {
+    ObjectEdges edges = map.get(pObject);
+    if (edges == null) {
+      return ImmutableSet.of();
+    }
+    // An edge can only overlap the range if it starts less than the maximal edge size before it.
+    // Edges starting exactly at pStart always overlap, even for an empty range.
+    long from = Math.min(pStart, pStart - edges.maxSizeInBits + 1);
+    long to = Math.max(pEnd, pStart + 1);
+    SortedMap<Long, ImmutableSet<SMGEdgeHasValue>> candidates = edges.byOffset.subMap(from, to);
+    return FluentIterable.concat(candidates.values())
+        .filter(edge -> edge.overlapsWith(pStart, pEnd, machineModel));
   }
 
   @Override
@@ -90,4 +150,71 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
   public String toString() {
     return map.toString();
   }
-}
\ No newline at end of file
+
+  /**
+   * The edges of a single object, sorted by offset. There may be several edges with different
+   * types at the same offset.
+   */
+  private static final class ObjectEdges {
+
+    private static final ObjectEdges EMPTY = new ObjectEdges(PathCopyingPersistentTreeMap.of(), 0);
+
+    private final PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> byOffset;
+
+    /**
+     * An upper bound for the size of all edges of the object, which limits the range of offsets
+     * that need to be searched for overlapping edges. It is not decreased when edges are removed,
+     * and thus not part of equality.
+     */
+    private final int maxSizeInBits;
+
+    private ObjectEdges(
+        PersistentSortedMap<Long, ImmutableSet<SMGEdgeHasValue>> pByOffset, int pMaxSizeInBits) {
+      byOffset = pByOffset;
+      maxSizeInBits = pMaxSizeInBits;
+    }
+
+    private ObjectEdges add(SMGEdgeHasValue pEdge, int pSizeInBits) {
+      ImmutableSet<SMGEdgeHasValue> old = byOffset.get(pEdge.getOffset());
+      if (old != null && old.contains(pEdge)) {
+        return this;
+      }
+      ImmutableSet.Builder<SMGEdgeHasValue> atOffset = ImmutableSet.builder();
+      if (old != null) {
+        atOffset.addAll(old);
+      }
+      return new ObjectEdges(
+          byOffset.putAndCopy(pEdge.getOffset(), atOffset.add(pEdge).build()),
+          Math.max(maxSizeInBits, pSizeInBits));
+    }
+
+    private ObjectEdges remove(SMGEdgeHasValue pEdge) {
+      ImmutableSet<SMGEdgeHasValue> old = byOffset.get(pEdge.getOffset());
+      if (old == null || !old.contains(pEdge)) {
+        return this;
+      }
+      ImmutableSet<SMGEdgeHasValue> atOffset =
+          ImmutableSet.copyOf(Iterables.filter(old, e -> !e.equals(pEdge)));
+      if (atOffset.isEmpty()) {
+        return new ObjectEdges(byOffset.removeAndCopy(pEdge.getOffset()), maxSizeInBits);
+      } else {
+        return new ObjectEdges(byOffset.putAndCopy(pEdge.getOffset(), atOffset), maxSizeInBits);
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return byOffset.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof ObjectEdges && byOffset.equals(((ObjectEdges) pObj).byOffset);
+    }
+
+    @Override
+    public String toString() {
+      return byOffset.toString();
+    }
+  }
+}
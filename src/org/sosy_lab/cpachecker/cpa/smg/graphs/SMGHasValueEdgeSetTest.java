@@ -0,0 +1,96 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+
+public class SMGHasValueEdgeSetTest {
+
+  private final SMGObject obj1 = new SMGRegion(256, "object-1");
+  private final SMGObject obj2 = new SMGRegion(256, "object-2");
+
+  // obj1 = [0,64) has 1, [32,64) has 2, [64,80) has 3, [128,256) has 0
+  private final SMGEdgeHasValue hv1at0 = new SMGEdgeHasValue(64, 0, obj1, 1);
+  private final SMGEdgeHasValue hv2at32 = new SMGEdgeHasValue(32, 32, obj1, 2);
+  private final SMGEdgeHasValue hv3at64 = new SMGEdgeHasValue(16, 64, obj1, 3);
+  private final SMGEdgeHasValue hv0at128 = new SMGEdgeHasValue(128, 128, obj1, 0);
+  private final SMGEdgeHasValue hv4at0 = new SMGEdgeHasValue(32, 0, obj2, 4);
+
+  private SMGHasValueEdges createEdges() {
+    SMGHasValueEdges edges = new SMGHasValueEdgeSet(MachineModel.LINUX64);
+    for (SMGEdgeHasValue edge : ImmutableList.of(hv0at128, hv3at64, hv1at0, hv2at32, hv4at0)) {
+      edges = edges.addEdgeAndCopy(edge);
+    }
+    return edges;
+  }
+
+  @Test
+  public void testEdgesForObjectAtOffset() {
+    SMGHasValueEdges edges = createEdges();
+
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 0)).containsExactly(hv1at0);
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 32)).containsExactly(hv2at32);
+    assertThat(edges.getEdgesForObjectAtOffset(obj1, 16)).isEmpty();
+    assertThat(edges.getEdgesForObjectAtOffset(obj2, 0)).containsExactly(hv4at0);
+    assertThat(edges.getEdgesForObject(obj1)).containsExactly(hv1at0, hv2at32, hv3at64, hv0at128);
+    assertThat(edges.getHvEdges()).hasSize(5);
+  }
+
+  @Test
+  public void testOverlappingEdges() {
+    SMGHasValueEdges edges = createEdges();
+
+    assertThat(edges.getOverlappingEdges(obj1, 40, 48)).containsExactly(hv1at0, hv2at32).inOrder();
+    assertThat(edges.getOverlappingEdges(obj1, 64, 65)).containsExactly(hv3at64);
+    assertThat(edges.getOverlappingEdges(obj1, 80, 128)).isEmpty();
+    assertThat(edges.getOverlappingEdges(obj1, 60, 200))
+        .containsExactly(hv1at0, hv2at32, hv3at64, hv0at128)
+        .inOrder();
+    assertThat(edges.getOverlappingEdges(obj2, 0, 256)).containsExactly(hv4at0);
+  }
+
+  @Test
+  public void testRemoveEdges() {
+    SMGHasValueEdges edges = createEdges();
+
+    SMGHasValueEdges removed = edges.removeEdgeAndCopy(hv1at0);
+    assertThat(removed.getOverlappingEdges(obj1, 0, 32)).isEmpty();
+    assertThat(removed.getEdgesForObject(obj1)).containsExactly(hv2at32, hv3at64, hv0at128);
+    assertThat(edges.getEdgesForObject(obj1)).contains(hv1at0);
+
+    assertThat(removed.removeEdgeAndCopy(hv1at0)).isSameAs(removed);
+    assertThat(removed.addEdgeAndCopy(hv1at0)).isEqualTo(edges);
+
+    SMGHasValueEdges withoutObj1 = edges.removeAllEdgesOfObjectAndCopy(obj1);
+    assertThat(withoutObj1.getEdgesForObject(obj1)).isEmpty();
+    assertThat(withoutObj1.getHvEdges()).containsExactly(hv4at0);
+  }
+}
@@ -46,4 +46,14 @@ public interface SMGHasValueEdges {
   public ImmutableSet<SMGEdgeHasValue> getHvEdges();
 
   public @Nullable ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+
+  /** Returns all edges of the given object that start at the given offset. */
+  public ImmutableSet<SMGEdgeHasValue> getEdgesForObjectAtOffset(SMGObject pObject, long pOffset);
+
+  /**
+   * Returns all edges of the given object that overlap the range from pStart (inclusive) to pEnd
+   * (exclusive), in the sense of {@code SMGEdgeHasValue.overlapsWith}. The edges are returned in
+   * ascending order of their offsets.
+   */
+  public Iterable<SMGEdgeHasValue> getOverlappingEdges(SMGObject pObject, long pStart, long pEnd);
 }
\ No newline at end of file
@@ -48,4 +48,7 @@ public interface SMGPointsToEdges extends Iterable<SMGEdgePointsTo> {
 
   public int size();
 
+  /** Estimated memory consumption of the collection (without the edges) in bytes. */
+  public long estimateSizeInBytes();
+
 }
@@ -24,21 +24,20 @@
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
 import java.util.Iterator;
-import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
-import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsToFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntMap;
 
 public class SMGPointsToMap implements SMGPointsToEdges {
 
-  private final PersistentMap<Integer, SMGEdgePointsTo> map;
+  private final PersistentIntMap<SMGEdgePointsTo> map;
 
   public SMGPointsToMap() {
-    map = PathCopyingPersistentTreeMap.of();
+    map = PersistentIntMap.of();
   }
 
-  private SMGPointsToMap(PersistentMap<Integer, SMGEdgePointsTo> pMap) {
+  private SMGPointsToMap(PersistentIntMap<SMGEdgePointsTo> pMap) {
     map = pMap;
   }
 
@@ -54,7 +53,7 @@ public class SMGPointsToMap implements SMGPointsToEdges {
 
   @Override
   public SMGPointsToMap removeAllEdgesOfObjectAndCopy(SMGObject pObj) {
-    PersistentMap<Integer, SMGEdgePointsTo> tmp = map;
+    PersistentIntMap<SMGEdgePointsTo> tmp = map;
     for (SMGEdgePointsTo edge : SMGEdgePointsToFilter.targetObjectFilter(pObj).filter(this)) {
       tmp = tmp.removeAndCopy(edge.getValue());
     }
@@ -81,6 +80,11 @@ public class SMGPointsToMap implements SMGPointsToEdges {
     return map.size();
   }
 
+  @Override
+  public long estimateSizeInBytes() {
+    return map.estimateSizeInBytes();
+  }
+
   @Override
   public boolean equals(Object o) {
     return o instanceof SMGPointsToMap && map.equals(((SMGPointsToMap)o).map);
@@ -539,4 +539,29 @@ public class SMGTest {
     Assert.assertFalse(nr.neq_exists(one, three));
     Assert.assertFalse(nr.neq_exists(two, three));
   }
+
+  @Test
+  public void changeTrackingForAbstractionTest() {
+    SMGObject obj3 = new SMGRegion(64, "object-3");
+    smg.addObject(obj3);
+    Object key = "key";
+
+    assertThat(smg.getObjectsAffectedByChanges(key)).isNull();
+
+    smg.markSearchedForAbstraction(key);
+    assertThat(smg.getObjectsAffectedByChanges(key)).isEmpty();
+    assertThat(smg.getObjectsAffectedByChanges("other key")).isNull();
+
+    // changes are inherited by copies, and reach all connected objects
+    SMG smgCopy = new SMG(smg);
+    smgCopy.addHasValueEdge(new SMGEdgeHasValue(mockType, 0, obj1, val2));
+    assertThat(smgCopy.getObjectsAffectedByChanges(key)).containsExactly(obj1, obj2);
+    assertThat(smg.getObjectsAffectedByChanges(key)).isEmpty();
+
+    smgCopy.setValidity(obj3, false);
+    assertThat(smgCopy.getObjectsAffectedByChanges(key)).containsExactly(obj1, obj2, obj3);
+
+    smgCopy.forgetAbstractionSearch();
+    assertThat(smgCopy.getObjectsAffectedByChanges(key)).isNull();
+  }
 }
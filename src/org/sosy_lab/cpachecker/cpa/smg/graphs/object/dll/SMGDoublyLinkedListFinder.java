@@ -66,10 +66,11 @@ public class SMGDoublyLinkedListFinder implements SMGAbstractionFinder {
 
   @Override
   public Set<SMGAbstractionCandidate> traverse(CLangSMG pSmg, SMGState pSMGState,
-      Set<SMGAbstractionBlock> pAbstractionLocks) throws SMGInconsistentException {
+      Set<SMGAbstractionBlock> pAbstractionLocks, Iterable<SMGObject> pStartObjects)
+      throws SMGInconsistentException {
     SMGJoinDllProgress progress = new SMGJoinDllProgress();
 
-    for (SMGObject object : pSmg.getHeapObjects()) {
+    for (SMGObject object : pStartObjects) {
       startTraversal(object, pSmg, pSMGState, progress);
     }
 
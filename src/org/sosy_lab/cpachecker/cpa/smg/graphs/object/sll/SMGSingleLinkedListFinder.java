@@ -64,10 +64,11 @@ public class SMGSingleLinkedListFinder implements SMGAbstractionFinder {
 
   @Override
   public Set<SMGAbstractionCandidate> traverse(CLangSMG pSmg, SMGState pSMGState,
-      Set<SMGAbstractionBlock> pAbstractionLocks) throws SMGInconsistentException {
+      Set<SMGAbstractionBlock> pAbstractionLocks, Iterable<SMGObject> pStartObjects)
+      throws SMGInconsistentException {
     SMGJoinSllProgress pProgress = new SMGJoinSllProgress();
 
-    for (SMGObject object : pSmg.getHeapObjects()) {
+    for (SMGObject object : pStartObjects) {
       startTraversal(object, pSmg, pSMGState, pProgress);
     }
 
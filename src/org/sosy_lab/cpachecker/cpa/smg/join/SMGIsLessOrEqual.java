@@ -35,6 +35,7 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValueFilter;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -52,6 +53,9 @@ public class SMGIsLessOrEqual {
       new ThreadSafeTimerContainer("Time for joining stacks");
   public static final ThreadSafeTimerContainer heapTimer =
       new ThreadSafeTimerContainer("Time for joining heaps");
+  /** Shared by all threads like the timers, which is safe because {@link StatCounter} is atomic. */
+  public static final StatCounter fingerprintRejections =
+      new StatCounter("Number of SMGs rejected by fingerprint");
 
   private SMGIsLessOrEqual() {} // Utility class.
 
@@ -71,12 +75,10 @@ public class SMGIsLessOrEqual {
         return true;
       }
 
-      // if smg1 has not allocated the same number of SMGObjects in the heap, it is not equal to smg2
-      if (pSMG1.getHeapObjects().size() != pSMG2.getHeapObjects().size()) {
-        return false;
-      }
-
-      if (pSMG1.getStackFrames().size() != pSMG2.getStackFrames().size()) {
+      // compares the number of heap objects, stack frames and globals, and many more
+      // necessary conditions in constant time
+      if (!pSMG1.getFingerprint().mayBeLessOrEqual(pSMG2.getFingerprint())) {
+        fingerprintRejections.inc();
         return false;
       }
 
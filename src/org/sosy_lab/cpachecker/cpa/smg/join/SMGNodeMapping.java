@@ -23,21 +23,38 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.join;
 
-import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
-
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 
 public class SMGNodeMapping {
   private final Map<SMGObject, SMGObject> object_map = new HashMap<>();
-  private final Map<Integer, Integer> value_map = new HashMap<>();
+
+  /*
+   * The mapping of values is the hot spot of joins, so it is stored in an open-addressing hash
+   * table with linear probing on primitive arrays, without boxing keys and values.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+  private int[] valueKeys = new int[INITIAL_CAPACITY];
+  private int[] valueValues = new int[INITIAL_CAPACITY];
+  private boolean[] valueUsed = new boolean[INITIAL_CAPACITY];
+  private int valueCount = 0;
 
   @Override
   public int hashCode() {
-    return Objects.hash(object_map, value_map);
+    // the same as for a Map<Integer, Integer> of the value mapping
+    int valueHash = 0;
+    for (int i = 0; i < valueUsed.length; i++) {
+      if (valueUsed[i]) {
+        valueHash += valueKeys[i] ^ valueValues[i];
+      }
+    }
+    return Objects.hash(object_map, valueHash);
   }
 
   @Override
@@ -46,19 +63,48 @@ public class SMGNodeMapping {
       return false;
     }
     SMGNodeMapping other = (SMGNodeMapping) obj;
-    return Objects.equals(object_map, other.object_map)
-        && Objects.equals(value_map, other.value_map);
+    if (!Objects.equals(object_map, other.object_map) || valueCount != other.valueCount) {
+      return false;
+    }
+    for (int i = 0; i < valueUsed.length; i++) {
+      if (valueUsed[i]) {
+        int slot = other.findSlot(valueKeys[i]);
+        if (!other.valueUsed[slot] || other.valueValues[slot] != valueValues[i]) {
+          return false;
+        }
+      }
+    }
+    return true;
   }
 
   public SMGNodeMapping() {}
 
   public SMGNodeMapping(SMGNodeMapping origin) {
     object_map.putAll(origin.object_map);
-    value_map.putAll(origin.value_map);
+    valueKeys = origin.valueKeys.clone();
+    valueValues = origin.valueValues.clone();
+    valueUsed = origin.valueUsed.clone();
+    valueCount = origin.valueCount;
+  }
+
+  /** Returns the slot of the key, or the empty slot where it would be inserted. */
+  private int findSlot(int key) {
+    int mask = valueUsed.length - 1;
+    int slot = mix(key) & mask;
+    while (valueUsed[slot] && valueKeys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
   }
 
   public Integer get(Integer i) {
-    return value_map.get(i);
+    int slot = findSlot(i);
+    return valueUsed[slot] ? valueValues[slot] : null;
   }
 
   public SMGObject get (SMGObject o) {
@@ -70,19 +116,67 @@ public class SMGNodeMapping {
   }
 
   public void map(Integer key, Integer value) {
-    value_map.put(key, value);
+    int slot = findSlot(key);
+    if (!valueUsed[slot]) {
+      if (2 * (valueCount + 1) > valueUsed.length) {
+        resize(2 * valueUsed.length);
+        slot = findSlot(key);
+      }
+      valueUsed[slot] = true;
+      valueKeys[slot] = key;
+      valueCount++;
+    }
+    valueValues[slot] = value;
   }
 
-  public void removeValue(Integer value) {
+  private void resize(int capacity) {
+    int[] oldKeys = valueKeys;
+    int[] oldValues = valueValues;
+    boolean[] oldUsed = valueUsed;
+    valueKeys = new int[capacity];
+    valueValues = new int[capacity];
+    valueUsed = new boolean[capacity];
+    for (int i = 0; i < oldUsed.length; i++) {
+      if (oldUsed[i]) {
+        int slot = findSlot(oldKeys[i]);
+        valueUsed[slot] = true;
+        valueKeys[slot] = oldKeys[i];
+        valueValues[slot] = oldValues[i];
+      }
+    }
+  }
 
-    for (Entry<Integer, Integer> entry : value_map.entrySet()) {
-      if (entry.getValue().equals(value)) {
-        value_map.remove(entry.getKey());
+  public void removeValue(Integer value) {
+    for (int i = 0; i < valueUsed.length; i++) {
+      if (valueUsed[i] && valueValues[i] == value) {
+        removeSlot(i);
         return;
       }
     }
   }
 
+  /** Removes the entry in the given slot and moves later entries of its probe sequence. */
+  private void removeSlot(int pSlot) {
+    int mask = valueUsed.length - 1;
+    int gap = pSlot;
+    valueUsed[gap] = false;
+    valueCount--;
+
+    int slot = (gap + 1) & mask;
+    while (valueUsed[slot]) {
+      int home = mix(valueKeys[slot]) & mask;
+      // move the entry into the gap if the gap lies between its home slot and its slot
+      if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+        valueUsed[gap] = true;
+        valueKeys[gap] = valueKeys[slot];
+        valueValues[gap] = valueValues[slot];
+        valueUsed[slot] = false;
+        gap = slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
   public void removeValue(SMGObject value) {
     for (Entry<SMGObject, SMGObject> entry : object_map.entrySet()) {
       if (entry.getValue().equals(value)) {
@@ -93,7 +187,7 @@ public class SMGNodeMapping {
   }
 
   public boolean containsKey(Integer key) {
-    return value_map.containsKey(key);
+    return valueUsed[findSlot(key)];
   }
 
   public boolean containsKey(SMGObject key) {
@@ -108,7 +202,14 @@ public class SMGNodeMapping {
     return object_map.entrySet();
   }
 
+  /** Returns a snapshot of the mapping of values. */
   public Set<Entry<Integer, Integer>> getValue_mapEntrySet() {
-    return value_map.entrySet();
+    Set<Entry<Integer, Integer>> entries = new LinkedHashSet<>(valueCount);
+    for (int i = 0; i < valueUsed.length; i++) {
+      if (valueUsed[i]) {
+        entries.add(new SimpleImmutableEntry<>(valueKeys[i], valueValues[i]));
+      }
+    }
+    return entries;
   }
-}
\ No newline at end of file
+}
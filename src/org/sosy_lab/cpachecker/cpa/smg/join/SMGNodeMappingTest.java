@@ -0,0 +1,77 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.join;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+public class SMGNodeMappingTest {
+
+  @Test
+  public void testValueMappingLikeMap() {
+    SMGNodeMapping mapping = new SMGNodeMapping();
+    Map<Integer, Integer> expected = new HashMap<>();
+    Random random = new Random(0);
+
+    for (int i = 0; i < 10_000; i++) {
+      int key = random.nextInt(200) - 20;
+      // injective, so removing by value is unambiguous
+      int value = 3 * key + random.nextInt(3);
+      if (random.nextInt(4) == 0) {
+        if (expected.containsKey(key)) {
+          mapping.removeValue(expected.get(key));
+          expected.remove(key);
+        }
+      } else {
+        mapping.map(key, value);
+        expected.put(key, value);
+      }
+
+      assertThat(mapping.containsKey(key)).isEqualTo(expected.containsKey(key));
+      assertThat(mapping.get(key)).isEqualTo(expected.get(key));
+    }
+
+    assertThat(mapping.getValue_mapEntrySet()).containsExactlyElementsIn(expected.entrySet());
+  }
+
+  @Test
+  public void testEqualsAndCopy() {
+    SMGNodeMapping mapping = new SMGNodeMapping();
+    for (int i = 0; i < 100; i++) {
+      mapping.map(i * 7, i);
+    }
+
+    SMGNodeMapping copy = new SMGNodeMapping(mapping);
+    assertThat(copy).isEqualTo(mapping);
+    assertThat(copy.hashCode()).isEqualTo(mapping.hashCode());
+
+    copy.map(3, 4);
+    assertThat(copy).isNotEqualTo(mapping);
+    assertThat(mapping.containsKey(3)).isFalse();
+  }
+}
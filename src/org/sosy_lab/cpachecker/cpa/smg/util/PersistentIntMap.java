@@ -0,0 +1,325 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntSet.align;
+import static org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntSet.insertAt;
+import static org.sosy_lab.cpachecker.cpa.smg.util.PersistentIntSet.removeAt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+import javax.annotation.Nullable;
+
+/**
+ * A persistent map from primitive ints to non-null values, implemented as a hash array mapped
+ * trie in the same way as {@link PersistentIntSet}.
+ */
+public final class PersistentIntMap<V> {
+
+  private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(Node.EMPTY, 0, 0);
+
+  private final Node root;
+  private final int size;
+  private final int hashCode; // as defined by Map.hashCode()
+
+  private PersistentIntMap(Node pRoot, int pSize, int pHashCode) {
+    root = pRoot;
+    size = pSize;
+    hashCode = pHashCode;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <V> PersistentIntMap<V> of() {
+    return (PersistentIntMap<V>) EMPTY;
+  }
+
+  public PersistentIntMap<V> putAndCopy(int pKey, V pValue) {
+    checkNotNull(pValue);
+    V old = get(pKey);
+    if (pValue.equals(old)) {
+      return this;
+    }
+    Node newRoot = root.put(pKey, pValue, 0);
+    if (old == null) {
+      return new PersistentIntMap<>(newRoot, size + 1, hashCode + entryHashCode(pKey, pValue));
+    } else {
+      return new PersistentIntMap<>(
+          newRoot, size, hashCode - entryHashCode(pKey, old) + entryHashCode(pKey, pValue));
+    }
+  }
+
+  public PersistentIntMap<V> removeAndCopy(int pKey) {
+    V old = get(pKey);
+    if (old == null) {
+      return this;
+    }
+    return new PersistentIntMap<>(
+        root.remove(pKey, 0), size - 1, hashCode - entryHashCode(pKey, old));
+  }
+
+  @SuppressWarnings("unchecked")
+  public @Nullable V get(int pKey) {
+    return (V) root.get(pKey, 0);
+  }
+
+  public boolean containsKey(int pKey) {
+    return root.get(pKey, 0) != null;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Returns an unmodifiable snapshot of the values of this map. */
+  public Collection<V> values() {
+    List<V> values = new ArrayList<>(size);
+    root.collectValues(values);
+    return Collections.unmodifiableList(values);
+  }
+
+  /**
+   * Estimate the memory used by this map in bytes, excluding the values themselves (cf. {@link
+   * PersistentIntSet#estimateSizeInBytes()}).
+   */
+  public long estimateSizeInBytes() {
+    return 24 + root.estimateSizeInBytes();
+  }
+
+  private static int entryHashCode(int pKey, Object pValue) {
+    return Integer.hashCode(pKey) ^ pValue.hashCode();
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object pO) {
+    if (this == pO) {
+      return true;
+    }
+    if (!(pO instanceof PersistentIntMap)) {
+      return false;
+    }
+    PersistentIntMap<?> other = (PersistentIntMap<?>) pO;
+    return size == other.size && hashCode == other.hashCode && root.equals(other.root);
+  }
+
+  @Override
+  public String toString() {
+    StringJoiner result = new StringJoiner(", ", "{", "}");
+    root.appendTo(result);
+    return result.toString();
+  }
+
+  private static int mask(int pKey, int pShift) {
+    return (pKey >>> pShift) & 31;
+  }
+
+  private static int index(int pBitmap, int pBit) {
+    return Integer.bitCount(pBitmap & (pBit - 1));
+  }
+
+  private static final class Node {
+
+    private static final int[] NO_KEYS = new int[0];
+    private static final Object[] NO_VALUES = new Object[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Node EMPTY = new Node(0, 0, NO_KEYS, NO_VALUES, NO_NODES);
+
+    private final int dataMap;
+    private final int nodeMap;
+    private final int[] keys;
+    private final Object[] values;
+    private final Node[] nodes;
+
+    private Node(int pDataMap, int pNodeMap, int[] pKeys, Object[] pValues, Node[] pNodes) {
+      dataMap = pDataMap;
+      nodeMap = pNodeMap;
+      keys = pKeys;
+      values = pValues;
+      nodes = pNodes;
+    }
+
+    private @Nullable Object get(int pKey, int pShift) {
+      int bit = 1 << mask(pKey, pShift);
+      if ((dataMap & bit) != 0) {
+        int dataIndex = index(dataMap, bit);
+        return keys[dataIndex] == pKey ? values[dataIndex] : null;
+      } else if ((nodeMap & bit) != 0) {
+        return nodes[index(nodeMap, bit)].get(pKey, pShift + 5);
+      }
+      return null;
+    }
+
+    private Node put(int pKey, Object pValue, int pShift) {
+      int bit = 1 << mask(pKey, pShift);
+      if ((dataMap & bit) != 0) {
+        int dataIndex = index(dataMap, bit);
+        int existing = keys[dataIndex];
+        if (existing == pKey) {
+          Object[] newValues = values.clone();
+          newValues[dataIndex] = pValue;
+          return new Node(dataMap, nodeMap, keys, newValues, nodes);
+        }
+        Node subNode = pair(existing, values[dataIndex], pKey, pValue, pShift + 5);
+        return new Node(
+            dataMap ^ bit,
+            nodeMap | bit,
+            removeAt(keys, dataIndex),
+            removeAt(values, dataIndex),
+            insertAt(nodes, index(nodeMap, bit), subNode));
+
+      } else if ((nodeMap & bit) != 0) {
+        int nodeIndex = index(nodeMap, bit);
+        Node[] newNodes = nodes.clone();
+        newNodes[nodeIndex] = nodes[nodeIndex].put(pKey, pValue, pShift + 5);
+        return new Node(dataMap, nodeMap, keys, values, newNodes);
+
+      } else {
+        int dataIndex = index(dataMap, bit);
+        return new Node(
+            dataMap | bit,
+            nodeMap,
+            insertAt(keys, dataIndex, pKey),
+            insertAt(values, dataIndex, pValue),
+            nodes);
+      }
+    }
+
+    private static Node pair(int pKey1, Object pValue1, int pKey2, Object pValue2, int pShift) {
+      int mask1 = mask(pKey1, pShift);
+      int mask2 = mask(pKey2, pShift);
+      if (mask1 == mask2) {
+        return new Node(
+            0,
+            1 << mask1,
+            NO_KEYS,
+            NO_VALUES,
+            new Node[] {pair(pKey1, pValue1, pKey2, pValue2, pShift + 5)});
+      }
+      int bitmap = (1 << mask1) | (1 << mask2);
+      if (mask1 < mask2) {
+        return new Node(
+            bitmap, 0, new int[] {pKey1, pKey2}, new Object[] {pValue1, pValue2}, NO_NODES);
+      } else {
+        return new Node(
+            bitmap, 0, new int[] {pKey2, pKey1}, new Object[] {pValue2, pValue1}, NO_NODES);
+      }
+    }
+
+    /** Remove a key that is known to be present. */
+    private Node remove(int pKey, int pShift) {
+      int bit = 1 << mask(pKey, pShift);
+      if ((dataMap & bit) != 0) {
+        int dataIndex = index(dataMap, bit);
+        return new Node(
+            dataMap ^ bit,
+            nodeMap,
+            removeAt(keys, dataIndex),
+            removeAt(values, dataIndex),
+            nodes);
+      }
+
+      int nodeIndex = index(nodeMap, bit);
+      Node newChild = nodes[nodeIndex].remove(pKey, pShift + 5);
+      if (newChild.nodeMap == 0 && newChild.keys.length == 1) {
+        // canonical form: a sub-trie with a single entry is inlined
+        int dataIndex = index(dataMap, bit);
+        return new Node(
+            dataMap | bit,
+            nodeMap ^ bit,
+            insertAt(keys, dataIndex, newChild.keys[0]),
+            insertAt(values, dataIndex, newChild.values[0]),
+            removeAt(nodes, nodeIndex));
+      }
+      Node[] newNodes = nodes.clone();
+      newNodes[nodeIndex] = newChild;
+      return new Node(dataMap, nodeMap, keys, values, newNodes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> void collectValues(Collection<V> pResult) {
+      for (Object value : values) {
+        pResult.add((V) value);
+      }
+      for (Node node : nodes) {
+        node.collectValues(pResult);
+      }
+    }
+
+    private void appendTo(StringJoiner pResult) {
+      for (int i = 0; i < keys.length; i++) {
+        pResult.add(keys[i] + "=" + values[i]);
+      }
+      for (Node node : nodes) {
+        node.appendTo(pResult);
+      }
+    }
+
+    private long estimateSizeInBytes() {
+      // node object, keys array, values array, nodes array
+      long bytes =
+          24
+              + align(16 + 4L * keys.length)
+              + align(16 + 4L * values.length)
+              + align(16 + 4L * nodes.length);
+      for (Node node : nodes) {
+        bytes += node.estimateSizeInBytes();
+      }
+      return bytes;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * dataMap + nodeMap;
+    }
+
+    @Override
+    public boolean equals(Object pO) {
+      if (this == pO) {
+        return true;
+      }
+      if (!(pO instanceof Node)) {
+        return false;
+      }
+      Node other = (Node) pO;
+      return dataMap == other.dataMap
+          && nodeMap == other.nodeMap
+          && Arrays.equals(keys, other.keys)
+          && Arrays.equals(values, other.values)
+          && Arrays.equals(nodes, other.nodes);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.util;
+
+/**
+ * A persistent multimap from ints to ints, based on {@link PersistentIntMap} and {@link
+ * PersistentIntSet}.
+ */
+public final class PersistentIntMultimap {
+
+  private static final PersistentIntMultimap EMPTY =
+      new PersistentIntMultimap(PersistentIntMap.of());
+
+  private final PersistentIntMap<PersistentIntSet> delegate;
+
+  private PersistentIntMultimap(PersistentIntMap<PersistentIntSet> pDelegate) {
+    delegate = pDelegate;
+  }
+
+  public static PersistentIntMultimap of() {
+    return EMPTY;
+  }
+
+  public PersistentIntMultimap putAndCopy(int pKey, int pValue) {
+    PersistentIntSet old = get(pKey);
+    PersistentIntSet updated = old.addAndCopy(pValue);
+    if (old == updated) {
+      return this;
+    }
+    return new PersistentIntMultimap(delegate.putAndCopy(pKey, updated));
+  }
+
+  public PersistentIntMultimap removeAndCopy(int pKey) {
+    PersistentIntMap<PersistentIntSet> updated = delegate.removeAndCopy(pKey);
+    return updated == delegate ? this : new PersistentIntMultimap(updated);
+  }
+
+  public PersistentIntMultimap removeAndCopy(int pKey, int pValue) {
+    PersistentIntSet old = get(pKey);
+    PersistentIntSet updated = old.removeAndCopy(pValue);
+    if (old == updated) {
+      return this;
+    } else if (updated.isEmpty()) {
+      return new PersistentIntMultimap(delegate.removeAndCopy(pKey));
+    } else {
+      return new PersistentIntMultimap(delegate.putAndCopy(pKey, updated));
+    }
+  }
+
+  /** Returns the values for the given key, or an empty set. */
+  public PersistentIntSet get(int pKey) {
+    PersistentIntSet values = delegate.get(pKey);
+    return values == null ? PersistentIntSet.of() : values;
+  }
+
+  public boolean contains(int pKey, int pValue) {
+    return get(pKey).contains(pValue);
+  }
+
+  /** Returns the number of keys. */
+  public int size() {
+    return delegate.size();
+  }
+
+  /** Returns the number of key-value pairs. */
+  public int numberOfEntries() {
+    int entries = 0;
+    for (PersistentIntSet values : delegate.values()) {
+      entries += values.size();
+    }
+    return entries;
+  }
+
+  /** Estimate the memory used by this multimap in bytes, including the value sets. */
+  public long estimateSizeInBytes() {
+    long bytes = 16 + delegate.estimateSizeInBytes();
+    for (PersistentIntSet values : delegate.values()) {
+      bytes += values.estimateSizeInBytes();
+    }
+    return bytes;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object pO) {
+    return pO instanceof PersistentIntMultimap
+        && delegate.equals(((PersistentIntMultimap) pO).delegate);
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+}
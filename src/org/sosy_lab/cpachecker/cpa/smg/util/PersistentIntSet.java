@@ -0,0 +1,375 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * A persistent set of primitive ints, implemented as a hash array mapped trie in the compressed
+ * and canonical (CHAMP) variant. Compared to a {@link PersistentSet} of boxed Integers, an element
+ * needs only 4 bytes instead of a tree node and an Integer object. Because of the canonical form,
+ * two sets are equal if and only if their tries are structurally equal.
+ *
+ * <p>Each trie level consumes 5 bits of the element, so the depth is bounded by 7 and no hash
+ * collisions can occur.
+ */
+public final class PersistentIntSet implements Iterable<Integer> {
+
+  private static final PersistentIntSet EMPTY = new PersistentIntSet(Node.EMPTY, 0, 0);
+
+  private final Node root;
+  private final int size;
+  private final int hashCode; // sum of all elements, as defined by Set.hashCode()
+
+  private PersistentIntSet(Node pRoot, int pSize, int pHashCode) {
+    root = pRoot;
+    size = pSize;
+    hashCode = pHashCode;
+  }
+
+  public static PersistentIntSet of() {
+    return EMPTY;
+  }
+
+  public PersistentIntSet addAndCopy(int pKey) {
+    Node newRoot = root.add(pKey, 0);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentIntSet(newRoot, size + 1, hashCode + pKey);
+  }
+
+  public PersistentIntSet removeAndCopy(int pKey) {
+    Node newRoot = root.remove(pKey, 0);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentIntSet(newRoot, size - 1, hashCode - pKey);
+  }
+
+  public boolean contains(int pKey) {
+    return root.contains(pKey, 0);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void forEachInt(IntConsumer pAction) {
+    root.forEach(pAction);
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt iterator() {
+    return new NodeIterator(root);
+  }
+
+  /** Returns an unmodifiable view of this set. */
+  public Set<Integer> asSet() {
+    return new AbstractSet<Integer>() {
+      @Override
+      public boolean contains(Object pO) {
+        return pO instanceof Integer && PersistentIntSet.this.contains((Integer) pO);
+      }
+
+      @Override
+      public PrimitiveIterator.OfInt iterator() {
+        return PersistentIntSet.this.iterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+
+      @Override
+      public int hashCode() {
+        return hashCode;
+      }
+    };
+  }
+
+  /**
+   * Estimate the memory used by this set in bytes, assuming 8-byte-aligned objects with 12-byte
+   * headers and compressed references.
+   */
+  public long estimateSizeInBytes() {
+    return 24 + root.estimateSizeInBytes();
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object pO) {
+    if (this == pO) {
+      return true;
+    }
+    if (!(pO instanceof PersistentIntSet)) {
+      return false;
+    }
+    PersistentIntSet other = (PersistentIntSet) pO;
+    return size == other.size && hashCode == other.hashCode && root.equals(other.root);
+  }
+
+  @Override
+  public String toString() {
+    return asSet().toString();
+  }
+
+  private static int mask(int pKey, int pShift) {
+    return (pKey >>> pShift) & 31;
+  }
+
+  private static int index(int pBitmap, int pBit) {
+    return Integer.bitCount(pBitmap & (pBit - 1));
+  }
+
+  private static final class Node {
+
+    private static final int[] NO_KEYS = new int[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final Node EMPTY = new Node(0, 0, NO_KEYS, NO_NODES);
+
+    private final int dataMap; // positions of the elements stored inline
+    private final int nodeMap; // positions of the sub-tries
+    private final int[] keys;
+    private final Node[] nodes;
+
+    private Node(int pDataMap, int pNodeMap, int[] pKeys, Node[] pNodes) {
+      dataMap = pDataMap;
+      nodeMap = pNodeMap;
+      keys = pKeys;
+      nodes = pNodes;
+    }
+
+    private boolean contains(int pKey, int pShift) {
+      int bit = 1 << mask(pKey, pShift);
+      if ((dataMap & bit) != 0) {
+        return keys[index(dataMap, bit)] == pKey;
+      } else if ((nodeMap & bit) != 0) {
+        return nodes[index(nodeMap, bit)].contains(pKey, pShift + 5);
+      }
+      return false;
+    }
+
+    private Node add(int pKey, int pShift) {
+      int bit = 1 << mask(pKey, pShift);
+      if ((dataMap & bit) != 0) {
+        int dataIndex = index(dataMap, bit);
+        int existing = keys[dataIndex];
+        if (existing == pKey) {
+          return this;
+        }
+        // move both elements into a new sub-trie
+        Node subNode = pair(existing, pKey, pShift + 5);
+        int nodeIndex = index(nodeMap, bit);
+        return new Node(
+            dataMap ^ bit,
+            nodeMap | bit,
+            removeAt(keys, dataIndex),
+            insertAt(nodes, nodeIndex, subNode));
+
+      } else if ((nodeMap & bit) != 0) {
+        int nodeIndex = index(nodeMap, bit);
+        Node child = nodes[nodeIndex];
+        Node newChild = child.add(pKey, pShift + 5);
+        if (newChild == child) {
+          return this;
+        }
+        Node[] newNodes = nodes.clone();
+        newNodes[nodeIndex] = newChild;
+        return new Node(dataMap, nodeMap, keys, newNodes);
+
+      } else {
+        return new Node(dataMap | bit, nodeMap, insertAt(keys, index(dataMap, bit), pKey), nodes);
+      }
+    }
+
+    /** Create a trie for two different elements. */
+    private static Node pair(int pKey1, int pKey2, int pShift) {
+      // the elements differ in at least one bit, so this terminates at shift 30
+      int mask1 = mask(pKey1, pShift);
+      int mask2 = mask(pKey2, pShift);
+      if (mask1 == mask2) {
+        return new Node(0, 1 << mask1, NO_KEYS, new Node[] {pair(pKey1, pKey2, pShift + 5)});
+      }
+      int[] pairKeys = mask1 < mask2 ? new int[] {pKey1, pKey2} : new int[] {pKey2, pKey1};
+      return new Node((1 << mask1) | (1 << mask2), 0, pairKeys, NO_NODES);
+    }
+
+    private Node remove(int pKey, int pShift) {
+      int bit = 1 << mask(pKey, pShift);
+      if ((dataMap & bit) != 0) {
+        int dataIndex = index(dataMap, bit);
+        if (keys[dataIndex] != pKey) {
+          return this;
+        }
+        return new Node(dataMap ^ bit, nodeMap, removeAt(keys, dataIndex), nodes);
+
+      } else if ((nodeMap & bit) != 0) {
+        int nodeIndex = index(nodeMap, bit);
+        Node child = nodes[nodeIndex];
+        Node newChild = child.remove(pKey, pShift + 5);
+        if (newChild == child) {
+          return this;
+        }
+        if (newChild.nodeMap == 0 && newChild.keys.length == 1) {
+          // canonical form: a sub-trie with a single element is inlined
+          return new Node(
+              dataMap | bit,
+              nodeMap ^ bit,
+              insertAt(keys, index(dataMap, bit), newChild.keys[0]),
+              removeAt(nodes, nodeIndex));
+        }
+        Node[] newNodes = nodes.clone();
+        newNodes[nodeIndex] = newChild;
+        return new Node(dataMap, nodeMap, keys, newNodes);
+      }
+      return this;
+    }
+
+    private void forEach(IntConsumer pAction) {
+      for (int key : keys) {
+        pAction.accept(key);
+      }
+      for (Node node : nodes) {
+        node.forEach(pAction);
+      }
+    }
+
+    private long estimateSizeInBytes() {
+      // node object, keys array, nodes array
+      long bytes = 24 + align(16 + 4L * keys.length) + align(16 + 4L * nodes.length);
+      for (Node node : nodes) {
+        bytes += node.estimateSizeInBytes();
+      }
+      return bytes;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * dataMap + nodeMap;
+    }
+
+    @Override
+    public boolean equals(Object pO) {
+      if (this == pO) {
+        return true;
+      }
+      if (!(pO instanceof Node)) {
+        return false;
+      }
+      Node other = (Node) pO;
+      return dataMap == other.dataMap
+          && nodeMap == other.nodeMap
+          && Arrays.equals(keys, other.keys)
+          && Arrays.equals(nodes, other.nodes);
+    }
+  }
+
+  private static final class NodeIterator implements PrimitiveIterator.OfInt {
+
+    // depth of the trie is at most 7
+    private final Node[] nodeStack = new Node[8];
+    private final int[] keyPositions = new int[8];
+    private final int[] nodePositions = new int[8];
+    private int depth = 0;
+
+    private NodeIterator(Node pRoot) {
+      nodeStack[0] = pRoot;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (depth >= 0) {
+        Node node = nodeStack[depth];
+        if (keyPositions[depth] < node.keys.length) {
+          return true;
+        } else if (nodePositions[depth] < node.nodes.length) {
+          Node child = node.nodes[nodePositions[depth]++];
+          depth++;
+          nodeStack[depth] = child;
+          keyPositions[depth] = 0;
+          nodePositions[depth] = 0;
+        } else {
+          nodeStack[depth] = null;
+          depth--;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public int nextInt() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return nodeStack[depth].keys[keyPositions[depth]++];
+    }
+  }
+
+  static long align(long pBytes) {
+    return (pBytes + 7) & ~7L;
+  }
+
+  static int[] insertAt(int[] pArray, int pIndex, int pValue) {
+    int[] result = new int[pArray.length + 1];
+    System.arraycopy(pArray, 0, result, 0, pIndex);
+    result[pIndex] = pValue;
+    System.arraycopy(pArray, pIndex, result, pIndex + 1, pArray.length - pIndex);
+    return result;
+  }
+
+  static int[] removeAt(int[] pArray, int pIndex) {
+    int[] result = new int[pArray.length - 1];
+    System.arraycopy(pArray, 0, result, 0, pIndex);
+    System.arraycopy(pArray, pIndex + 1, result, pIndex, pArray.length - pIndex - 1);
+    return result;
+  }
+
+  static <T> T[] insertAt(T[] pArray, int pIndex, T pValue) {
+    T[] result = Arrays.copyOf(pArray, pArray.length + 1);
+    System.arraycopy(pArray, pIndex, result, pIndex + 1, pArray.length - pIndex);
+    result[pIndex] = pValue;
+    return result;
+  }
+
+  static <T> T[] removeAt(T[] pArray, int pIndex) {
+    T[] result = Arrays.copyOf(pArray, pArray.length - 1);
+    System.arraycopy(pArray, pIndex + 1, result, pIndex, pArray.length - pIndex - 1);
+    return result;
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class PersistentIntSetTest {
+
+  @Test
+  public void testSetAgainstHashSet() {
+    Random random = new Random(42);
+    for (int round = 0; round < 20; round++) {
+      PersistentIntSet set = PersistentIntSet.of();
+      Set<Integer> expected = new HashSet<>();
+      List<PersistentIntSet> history = new ArrayList<>();
+      List<Set<Integer>> expectedHistory = new ArrayList<>();
+
+      for (int i = 0; i < 1000; i++) {
+        // alternate between dense small keys and arbitrary keys with full-depth collisions
+        int key = round % 2 == 0 ? random.nextInt(100) - 50 : random.nextInt();
+        if (random.nextInt(3) == 0) {
+          set = set.removeAndCopy(key);
+          expected.remove(key);
+        } else {
+          set = set.addAndCopy(key);
+          expected.add(key);
+        }
+        if (i % 100 == 0) {
+          history.add(set);
+          expectedHistory.add(new HashSet<>(expected));
+        }
+      }
+
+      assertThat(set.size()).isEqualTo(expected.size());
+      assertThat(set.asSet()).isEqualTo(expected);
+      assertThat(set.hashCode()).isEqualTo(expected.hashCode());
+      for (int i = 0; i < history.size(); i++) {
+        assertThat(history.get(i).asSet()).isEqualTo(expectedHistory.get(i));
+      }
+
+      // the structure does not depend on the insertion order
+      List<Integer> keys = new ArrayList<>(expected);
+      Collections.shuffle(keys, random);
+      PersistentIntSet other = PersistentIntSet.of();
+      for (int key : keys) {
+        other = other.addAndCopy(key);
+      }
+      assertThat(other).isEqualTo(set);
+
+      for (int key : keys) {
+        other = other.removeAndCopy(key);
+      }
+      assertThat(other.isEmpty()).isTrue();
+      assertThat(other).isEqualTo(PersistentIntSet.of());
+    }
+  }
+
+  @Test
+  public void testMapAgainstHashMap() {
+    Random random = new Random(42);
+    PersistentIntMap<String> map = PersistentIntMap.of();
+    Map<Integer, String> expected = new HashMap<>();
+
+    for (int i = 0; i < 5000; i++) {
+      int key = random.nextInt(500);
+      if (random.nextInt(3) == 0) {
+        map = map.removeAndCopy(key);
+        expected.remove(key);
+      } else {
+        String value = "v" + random.nextInt(3);
+        map = map.putAndCopy(key, value);
+        expected.put(key, value);
+      }
+    }
+
+    assertThat(map.size()).isEqualTo(expected.size());
+    assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(map.values()).containsExactlyElementsIn(expected.values());
+    for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+      assertThat(map.get(entry.getKey())).isEqualTo(entry.getValue());
+    }
+    assertThat(map.get(500)).isNull();
+  }
+
+  @Test
+  public void testMultimap() {
+    PersistentIntMultimap multimap =
+        PersistentIntMultimap.of().putAndCopy(1, 2).putAndCopy(1, 3).putAndCopy(2, 1);
+
+    assertThat(multimap.contains(1, 3)).isTrue();
+    assertThat(multimap.get(1).asSet()).containsExactly(2, 3);
+    assertThat(multimap.numberOfEntries()).isEqualTo(3);
+
+    multimap = multimap.removeAndCopy(1, 2).removeAndCopy(1, 3);
+    assertThat(multimap.size()).isEqualTo(1);
+    assertThat(multimap.get(1).isEmpty()).isTrue();
+    assertThat(multimap).isEqualTo(PersistentIntMultimap.of().putAndCopy(2, 1));
+  }
+}
@@ -0,0 +1,655 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * {@link ValueStore} implemented as a path-copying 32-way trie over the ids of the memory
+ * locations (cf. {@link MemoryLocation#getId()}).
+ *
+ * <p>Numeric values that wrap a {@link Long} are stored unboxed in the leaves of the trie,
+ * all other values (symbolic values, floating-point numbers, etc.) are stored as objects.
+ * Modifications copy only the path from the root to the modified leaf,
+ * and {@link #retainEqualEntries(ValueStore)} and {@link #containsAllEntries(ValueStore)}
+ * skip all subtrees that are shared between two stores.
+ * Iteration is in the order of the ids, i.e., in the order in which the memory locations
+ * were first seen.
+ */
+final class PrimitiveValueStore implements ValueStore {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final PrimitiveValueStore EMPTY = new PrimitiveValueStore(null, 0, 0, 0);
+
+  /**
+   * Leaf of the trie with the entries for WIDTH consecutive ids.
+   * Slot i is empty if keys[i] is null. Otherwise the value is values[i],
+   * or the unboxed number numbers[i] if values[i] is null.
+   */
+  private static final class Leaf {
+    private final MemoryLocation[] keys;
+    private final long[] numbers;
+    private final Value[] values;
+    private final int count;
+
+    private Leaf(MemoryLocation[] pKeys, long[] pNumbers, Value[] pValues, int pCount) {
+      keys = pKeys;
+      numbers = pNumbers;
+      values = pValues;
+      count = pCount;
+    }
+
+    private Value getValue(int i) {
+      Value value = values[i];
+      return value == null ? new NumericValue(numbers[i]) : value;
+    }
+
+    private int entryHashCode(int i) {
+      Value value = values[i];
+      int valueHash = value == null ? Long.hashCode(numbers[i]) : value.hashCode();
+      return keys[i].hashCode() ^ valueHash;
+    }
+
+    /** Compare slot i of this leaf with slot i of the other leaf (both need to be non-empty). */
+    private boolean valueEquals(int i, Leaf other) {
+      Value value = values[i];
+      Value otherValue = other.values[i];
+      if (value == null && otherValue == null) {
+        return numbers[i] == other.numbers[i];
+      }
+      return getValue(i).equals(other.getValue(i));
+    }
+  }
+
+  // Leaf if shift is 0, Object[] otherwise
+  private final transient @Nullable Object root;
+
+  // the number of bits of the id that are handled below the root
+  private final transient int shift;
+  private final transient int size;
+
+  // the hash code of asMap()
+  private final transient int entriesHashCode;
+
+  private PrimitiveValueStore(@Nullable Object pRoot, int pShift, int pSize, int pHashCode) {
+    root = pRoot;
+    shift = pShift;
+    size = pSize;
+    entriesHashCode = pHashCode;
+  }
+
+  static PrimitiveValueStore of() {
+    return EMPTY;
+  }
+
+  private static boolean isUnboxable(Value pValue) {
+    return pValue instanceof NumericValue && ((NumericValue) pValue).getNumber() instanceof Long;
+  }
+
+  private @Nullable Leaf getLeaf(int id) {
+    if (root == null || id < 0 || (id >>> shift) >= WIDTH) {
+      return null;
+    }
+    Object node = root;
+    for (int s = shift; s > 0; s -= BITS) {
+      node = ((Object[]) node)[(id >>> s) & MASK];
+      if (node == null) {
+        return null;
+      }
+    }
+    return (Leaf) node;
+  }
+
+  @Override
+  public @Nullable Value get(MemoryLocation pLocation) {
+    int id = pLocation.getId();
+    Leaf leaf = getLeaf(id);
+    if (leaf == null || leaf.keys[id & MASK] == null) {
+      return null;
+    }
+    return leaf.getValue(id & MASK);
+  }
+
+  @Override
+  public boolean containsKey(MemoryLocation pLocation) {
+    int id = pLocation.getId();
+    Leaf leaf = getLeaf(id);
+    return leaf != null && leaf.keys[id & MASK] != null;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public PrimitiveValueStore putAndCopy(MemoryLocation pLocation, Value pValue) {
+    checkNotNull(pValue);
+    int id = pLocation.getId();
+    int slot = id & MASK;
+    Leaf oldLeaf = getLeaf(id);
+    int oldEntryHash = 0;
+    if (oldLeaf != null && oldLeaf.keys[slot] != null) {
+      Value oldValue = oldLeaf.values[slot];
+      if (oldValue == null
+          ? isUnboxable(pValue) && oldLeaf.numbers[slot] == ((NumericValue) pValue).longValue()
+          : oldValue == pValue) {
+        return this;
+      }
+      oldEntryHash = oldLeaf.entryHashCode(slot);
+    }
+
+    Object newRoot = root;
+    int newShift = shift;
+    while ((id >>> newShift) >= WIDTH) {
+      if (newRoot != null) {
+        Object[] node = new Object[WIDTH];
+        node[0] = newRoot;
+        newRoot = node;
+      }
+      newShift += BITS;
+    }
+
+    Leaf newLeaf = copyLeaf(oldLeaf);
+    if (isUnboxable(pValue)) {
+      newLeaf.numbers[slot] = ((NumericValue) pValue).longValue();
+      newLeaf.values[slot] = null;
+    } else {
+      newLeaf.numbers[slot] = 0;
+      newLeaf.values[slot] = pValue;
+    }
+    boolean added = newLeaf.keys[slot] == null;
+    newLeaf.keys[slot] = pLocation;
+    if (added) {
+      newLeaf = new Leaf(newLeaf.keys, newLeaf.numbers, newLeaf.values, newLeaf.count + 1);
+    }
+
+    newRoot = replaceLeaf(newRoot, newShift, id, newLeaf);
+    return new PrimitiveValueStore(
+        newRoot,
+        newShift,
+        size + (added ? 1 : 0),
+        entriesHashCode - oldEntryHash + newLeaf.entryHashCode(slot));
+  }
+
+  @Override
+  public PrimitiveValueStore removeAndCopy(MemoryLocation pLocation) {
+    int id = pLocation.getId();
+    int slot = id & MASK;
+    Leaf oldLeaf = getLeaf(id);
+    if (oldLeaf == null || oldLeaf.keys[slot] == null) {
+      return this;
+    }
+    if (size == 1) {
+      return EMPTY;
+    }
+
+    int oldEntryHash = oldLeaf.entryHashCode(slot);
+    Leaf newLeaf = null;
+    if (oldLeaf.count > 1) {
+      newLeaf = copyLeaf(oldLeaf);
+      newLeaf.keys[slot] = null;
+      newLeaf.numbers[slot] = 0;
+      newLeaf.values[slot] = null;
+      newLeaf = new Leaf(newLeaf.keys, newLeaf.numbers, newLeaf.values, oldLeaf.count - 1);
+    }
+    Object newRoot = replaceLeaf(root, shift, id, newLeaf);
+    return new PrimitiveValueStore(newRoot, shift, size - 1, entriesHashCode - oldEntryHash);
+  }
+
+  private static Leaf copyLeaf(@Nullable Leaf leaf) {
+    if (leaf == null) {
+      return new Leaf(new MemoryLocation[WIDTH], new long[WIDTH], new Value[WIDTH], 0);
+    }
+    return new Leaf(leaf.keys.clone(), leaf.numbers.clone(), leaf.values.clone(), leaf.count);
+  }
+
+  /**
+   * Return a copy of the path to the leaf of the given id with the new leaf.
+   * Empty inner nodes are removed, so that each non-null node contains at least one entry.
+   */
+  private static @Nullable Object replaceLeaf(
+      @Nullable Object node, int shift, int id, @Nullable Leaf newLeaf) {
+    if (shift == 0) {
+      return newLeaf;
+    }
+    Object[] inner = node == null ? new Object[WIDTH] : ((Object[]) node).clone();
+    int i = (id >>> shift) & MASK;
+    inner[i] = replaceLeaf(inner[i], shift - BITS, id, newLeaf);
+    if (inner[i] == null && isEmpty(inner)) {
+      return null;
+    }
+    return inner;
+  }
+
+  private static boolean isEmpty(Object[] inner) {
+    for (Object child : inner) {
+      if (child != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Return the root of this store lifted to the given height. */
+  private @Nullable Object liftRoot(int pShift) {
+    Object node = root;
+    for (int s = shift; s < pShift; s += BITS) {
+      if (node != null) {
+        Object[] inner = new Object[WIDTH];
+        inner[0] = node;
+        node = inner;
+      }
+    }
+    return node;
+  }
+
+  @Override
+  public ValueStore retainEqualEntries(ValueStore pOther) {
+    if (this == pOther || isEmpty()) {
+      return this;
+    }
+    if (!(pOther instanceof PrimitiveValueStore)) {
+      PrimitiveValueStore result = this;
+      for (Map.Entry<MemoryLocation, Value> entry : asMap().entrySet()) {
+        if (!entry.getValue().equals(pOther.get(entry.getKey()))) {
+          result = result.removeAndCopy(entry.getKey());
+        }
+      }
+      return result;
+    }
+
+    PrimitiveValueStore other = (PrimitiveValueStore) pOther;
+    if (other.isEmpty()) {
+      return EMPTY;
+    }
+    int s = Math.max(shift, other.shift);
+    Object root1 = liftRoot(s);
+    // removed[0] counts the removed entries, removed[1] sums up their hash codes
+    int[] removed = {0, 0};
+    Object newRoot = retain(root1, other.liftRoot(s), s, removed);
+    if (newRoot == root1) {
+      return this;
+    }
+    if (newRoot == null) {
+      return EMPTY;
+    }
+    return new PrimitiveValueStore(newRoot, s, size - removed[0], entriesHashCode - removed[1]);
+  }
+
+  /**
+   * Return the part of node1 that is also present in node2 (both of the same height).
+   * Returns node1 if nothing was removed and null if everything was removed.
+   */
+  private static @Nullable Object retain(
+      @Nullable Object node1, @Nullable Object node2, int shift, int[] removed) {
+    if (node1 == node2 || node1 == null) {
+      return node1;
+    }
+    if (node2 == null) {
+      forEachLeaf(
+          node1,
+          shift,
+          leaf -> {
+            for (int i = 0; i < WIDTH; i++) {
+              if (leaf.keys[i] != null) {
+                removed[0]++;
+                removed[1] += leaf.entryHashCode(i);
+              }
+            }
+          });
+      return null;
+    }
+
+    if (shift == 0) {
+      Leaf leaf1 = (Leaf) node1;
+      Leaf leaf2 = (Leaf) node2;
+      Leaf result = null;
+      int count = leaf1.count;
+      for (int i = 0; i < WIDTH; i++) {
+        if (leaf1.keys[i] != null && (leaf2.keys[i] == null || !leaf1.valueEquals(i, leaf2))) {
+          if (result == null) {
+            result = copyLeaf(leaf1);
+          }
+          removed[0]++;
+          removed[1] += leaf1.entryHashCode(i);
+          result.keys[i] = null;
+          result.numbers[i] = 0;
+          result.values[i] = null;
+          count--;
+        }
+      }
+      if (result == null) {
+        return leaf1;
+      }
+      return count == 0 ? null : new Leaf(result.keys, result.numbers, result.values, count);
+    }
+
+    Object[] inner1 = (Object[]) node1;
+    Object[] inner2 = (Object[]) node2;
+    Object[] result = null;
+    for (int i = 0; i < WIDTH; i++) {
+      Object child = retain(inner1[i], inner2[i], shift - BITS, removed);
+      if (child != inner1[i]) {
+        if (result == null) {
+          result = inner1.clone();
+        }
+        result[i] = child;
+      }
+    }
+    if (result == null) {
+      return inner1;
+    }
+    return isEmpty(result) ? null : result;
+  }
+
+  @Override
+  public boolean containsAllEntries(ValueStore pOther) {
+    if (this == pOther || pOther.size() == 0) {
+      return true;
+    }
+    if (pOther.size() > size) {
+      return false;
+    }
+    if (!(pOther instanceof PrimitiveValueStore)) {
+      for (Map.Entry<MemoryLocation, Value> otherEntry : pOther.asMap().entrySet()) {
+        if (!otherEntry.getValue().equals(get(otherEntry.getKey()))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    PrimitiveValueStore other = (PrimitiveValueStore) pOther;
+    int s = Math.max(shift, other.shift);
+    return containsAll(liftRoot(s), other.liftRoot(s), s);
+  }
+
+  /** Check whether all entries below node2 are present in node1 (both of the same height). */
+  private static boolean containsAll(@Nullable Object node1, @Nullable Object node2, int shift) {
+    if (node1 == node2 || node2 == null) {
+      return true;
+    }
+    if (node1 == null) {
+      return false; // node2 is not empty
+    }
+    if (shift == 0) {
+      Leaf leaf1 = (Leaf) node1;
+      Leaf leaf2 = (Leaf) node2;
+      if (leaf2.count > leaf1.count) {
+        return false;
+      }
+      for (int i = 0; i < WIDTH; i++) {
+        if (leaf2.keys[i] != null
+            && (leaf1.keys[i] == null || !leaf1.valueEquals(i, leaf2))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    Object[] inner1 = (Object[]) node1;
+    Object[] inner2 = (Object[]) node2;
+    for (int i = 0; i < WIDTH; i++) {
+      if (!containsAll(inner1[i], inner2[i], shift - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private interface LeafVisitor {
+    void visit(Leaf leaf);
+  }
+
+  private static void forEachLeaf(Object node, int shift, LeafVisitor visitor) {
+    if (shift == 0) {
+      visitor.visit((Leaf) node);
+    } else {
+      for (Object child : (Object[]) node) {
+        if (child != null) {
+          forEachLeaf(child, shift - BITS, visitor);
+        }
+      }
+    }
+  }
+
+  private boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Map<MemoryLocation, Value> asMap() {
+    return new MapView();
+  }
+
+  @Override
+  public PersistentMap<MemoryLocation, Value> toPersistentMap() {
+    PersistentMap<MemoryLocation, Value> result = PathCopyingPersistentTreeMap.of();
+    for (Map.Entry<MemoryLocation, Value> entry : asMap().entrySet()) {
+      result = result.putAndCopy(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  /** Unmodifiable map view of this store. */
+  private final class MapView extends AbstractMap<MemoryLocation, Value> {
+
+    @Override
+    public Value get(Object pKey) {
+      return pKey instanceof MemoryLocation
+          ? PrimitiveValueStore.this.get((MemoryLocation) pKey)
+          : null;
+    }
+
+    @Override
+    public boolean containsKey(Object pKey) {
+      return pKey instanceof MemoryLocation
+          && PrimitiveValueStore.this.containsKey((MemoryLocation) pKey);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public int hashCode() {
+      return entriesHashCode;
+    }
+
+    @Override
+    public Set<Map.Entry<MemoryLocation, Value>> entrySet() {
+      return new AbstractSet<Map.Entry<MemoryLocation, Value>>() {
+        @Override
+        public Iterator<Map.Entry<MemoryLocation, Value>> iterator() {
+          return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+          return size;
+        }
+      };
+    }
+  }
+
+  /** Iterator over all entries in the order of their ids. */
+  private final class EntryIterator implements Iterator<Map.Entry<MemoryLocation, Value>> {
+
+    // the current path from the root to a leaf, and the next child index on each level
+    private final Object[] path;
+    private final int[] indices;
+
+    private @Nullable Leaf currentLeaf = null;
+    private int slot = WIDTH;
+    private int remaining = size;
+
+    private EntryIterator() {
+      int depth = shift / BITS + 1;
+      path = new Object[depth];
+      indices = new int[depth];
+      path[0] = root;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining > 0;
+    }
+
+    @Override
+    public Map.Entry<MemoryLocation, Value> next() {
+      if (remaining == 0) {
+        throw new NoSuchElementException();
+      }
+      while (true) {
+        while (currentLeaf != null && slot < WIDTH) {
+          int i = slot++;
+          if (currentLeaf.keys[i] != null) {
+            remaining--;
+            return new AbstractMap.SimpleImmutableEntry<>(
+                currentLeaf.keys[i], currentLeaf.getValue(i));
+          }
+        }
+        advanceToNextLeaf();
+      }
+    }
+
+    private void advanceToNextLeaf() {
+      int leafLevel = path.length - 1;
+      if (leafLevel == 0) {
+        // the root is the only leaf
+        currentLeaf = (Leaf) root;
+        slot = 0;
+        return;
+      }
+
+      // move up until there is an unvisited child, then down to the leftmost leaf below it
+      int level = currentLeaf == null ? 0 : leafLevel - 1;
+      while (true) {
+        Object[] inner = (Object[]) path[level];
+        Object child = null;
+        while (child == null && indices[level] < WIDTH) {
+          child = inner[indices[level]++];
+        }
+        if (child == null) {
+          level--; // cannot go above the root as long as there are remaining entries
+        } else if (level + 1 == leafLevel) {
+          currentLeaf = (Leaf) child;
+          slot = 0;
+          return;
+        } else {
+          level++;
+          path[level] = child;
+          indices[level] = 0;
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (!(pObj instanceof ValueStore)) {
+      return false;
+    }
+    ValueStore other = (ValueStore) pObj;
+    if (size != other.size() || entriesHashCode != other.hashCode()) {
+      return false;
+    }
+    return containsAllEntries(other);
+  }
+
+  @Override
+  public int hashCode() {
+    return entriesHashCode;
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+
+  private Object writeReplace() {
+    return new SerializationProxy(this);
+  }
+
+  /**
+   * javadoc to remove unused parameter warning
+   * @param in the input stream
+   */
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Proxy required");
+  }
+
+  /** The ids are only valid in the current JVM, so we serialize the memory locations. */
+  private static class SerializationProxy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<MemoryLocation> locations;
+    private final List<Value> values;
+
+    private SerializationProxy(PrimitiveValueStore pStore) {
+      locations = new ArrayList<>(pStore.size());
+      values = new ArrayList<>(pStore.size());
+      for (Map.Entry<MemoryLocation, Value> entry : pStore.asMap().entrySet()) {
+        locations.add(entry.getKey());
+        values.add(entry.getValue());
+      }
+    }
+
+    private Object readResolve() {
+      PrimitiveValueStore result = EMPTY;
+      for (int i = 0; i < locations.size(); i++) {
+        result = result.putAndCopy(locations.get(i), values.get(i));
+      }
+      return result;
+    }
+  }
+}
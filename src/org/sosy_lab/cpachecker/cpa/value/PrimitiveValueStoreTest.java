@@ -0,0 +1,109 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.value.symbolic.type.SymbolicValueFactory;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/** Check that {@link PrimitiveValueStore} behaves like {@link TreeValueStore}. */
+public class PrimitiveValueStoreTest {
+
+  private static final int LOCATIONS = 300;
+
+  private static MemoryLocation location(int i) {
+    return MemoryLocation.valueOf("f", "x" + i);
+  }
+
+  private static Value value(Random random) {
+    switch (random.nextInt(4)) {
+      case 0:
+        return new NumericValue(1.5 * random.nextInt(3));
+      case 1:
+        return SymbolicValueFactory.getInstance().newIdentifier();
+      default:
+        return new NumericValue((long) random.nextInt(3));
+    }
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    ValueStore primitive = PrimitiveValueStore.of();
+    ValueStore tree = TreeValueStore.of();
+
+    for (int i = 0; i < 5000; i++) {
+      MemoryLocation loc = location(random.nextInt(LOCATIONS));
+      if (random.nextInt(3) == 0) {
+        primitive = primitive.removeAndCopy(loc);
+        tree = tree.removeAndCopy(loc);
+      } else {
+        Value value = value(random);
+        primitive = primitive.putAndCopy(loc, value);
+        tree = tree.putAndCopy(loc, value);
+      }
+
+      assertThat(primitive.size()).isEqualTo(tree.size());
+      assertThat(primitive.get(loc)).isEqualTo(tree.get(loc));
+      assertThat(primitive.containsKey(loc)).isEqualTo(tree.containsKey(loc));
+    }
+
+    assertThat(primitive.asMap()).containsExactlyEntriesIn(tree.asMap());
+    assertThat(primitive.toPersistentMap()).isEqualTo(tree.toPersistentMap());
+    assertThat(primitive).isEqualTo(tree);
+    assertThat(tree).isEqualTo(primitive);
+    assertThat(primitive.hashCode()).isEqualTo(tree.hashCode());
+  }
+
+  @Test
+  public void testJoinAndLessOrEqual() {
+    Random random = new Random(1);
+    ValueStore primitive1 = PrimitiveValueStore.of();
+    for (int i = 0; i < LOCATIONS; i++) {
+      primitive1 = primitive1.putAndCopy(location(i), value(random));
+    }
+    ValueStore primitive2 = primitive1;
+    for (int i = 0; i < 50; i++) {
+      primitive2 = primitive2.putAndCopy(location(random.nextInt(LOCATIONS)), value(random));
+    }
+    ValueStore tree1 = TreeValueStore.of(primitive1.toPersistentMap());
+    ValueStore tree2 = TreeValueStore.of(primitive2.toPersistentMap());
+
+    ValueStore joined = primitive1.retainEqualEntries(primitive2);
+    assertThat(joined).isEqualTo(tree1.retainEqualEntries(tree2));
+    assertThat(joined).isEqualTo(primitive1.retainEqualEntries(tree2));
+    assertThat(joined.retainEqualEntries(primitive1)).isSameAs(joined);
+
+    assertThat(primitive1.containsAllEntries(joined)).isTrue();
+    assertThat(primitive2.containsAllEntries(joined)).isTrue();
+    assertThat(primitive1.containsAllEntries(tree1)).isTrue();
+    assertThat(joined.containsAllEntries(primitive1))
+        .isEqualTo(tree1.retainEqualEntries(tree2).containsAllEntries(tree1));
+  }
+}
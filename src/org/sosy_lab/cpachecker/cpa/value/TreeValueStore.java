@@ -0,0 +1,136 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/** {@link ValueStore} backed by a sorted persistent map (the default). */
+final class TreeValueStore implements ValueStore {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final TreeValueStore EMPTY = new TreeValueStore(PathCopyingPersistentTreeMap.of());
+
+  private final PersistentMap<MemoryLocation, Value> values;
+
+  private TreeValueStore(PersistentMap<MemoryLocation, Value> pValues) {
+    values = checkNotNull(pValues);
+  }
+
+  static TreeValueStore of() {
+    return EMPTY;
+  }
+
+  static TreeValueStore of(PersistentMap<MemoryLocation, Value> pValues) {
+    return pValues.isEmpty() ? EMPTY : new TreeValueStore(pValues);
+  }
+
+  @Override
+  public @Nullable Value get(MemoryLocation pLocation) {
+    return values.get(pLocation);
+  }
+
+  @Override
+  public boolean containsKey(MemoryLocation pLocation) {
+    return values.containsKey(pLocation);
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public TreeValueStore putAndCopy(MemoryLocation pLocation, Value pValue) {
+    return new TreeValueStore(values.putAndCopy(pLocation, pValue));
+  }
+
+  @Override
+  public TreeValueStore removeAndCopy(MemoryLocation pLocation) {
+    if (!values.containsKey(pLocation)) {
+      return this;
+    }
+    return new TreeValueStore(values.removeAndCopy(pLocation));
+  }
+
+  @Override
+  public TreeValueStore retainEqualEntries(ValueStore pOther) {
+    PersistentMap<MemoryLocation, Value> result = values;
+    for (Map.Entry<MemoryLocation, Value> entry : values.entrySet()) {
+      if (!entry.getValue().equals(pOther.get(entry.getKey()))) {
+        result = result.removeAndCopy(entry.getKey());
+      }
+    }
+    return result == values ? this : of(result);
+  }
+
+  @Override
+  public boolean containsAllEntries(ValueStore pOther) {
+    for (Map.Entry<MemoryLocation, Value> otherEntry : pOther.asMap().entrySet()) {
+      if (!otherEntry.getValue().equals(values.get(otherEntry.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Map<MemoryLocation, Value> asMap() {
+    return Collections.unmodifiableMap(values);
+  }
+
+  @Override
+  public PersistentMap<MemoryLocation, Value> toPersistentMap() {
+    return values;
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (this == pObj) {
+      return true;
+    }
+    if (pObj instanceof TreeValueStore) {
+      return values.equals(((TreeValueStore) pObj).values);
+    }
+    return pObj instanceof ValueStore && values.equals(((ValueStore) pObj).asMap());
+  }
+
+  @Override
+  public int hashCode() {
+    return values.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return values.toString();
+  }
+}
@@ -94,6 +94,12 @@ public class ValueAnalysisCPA
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private Path initialPrecisionFile = null;
 
+  @Option(secure=true, name="primitiveStorage",
+      description="experimental: store the values of abstract states in a trie keyed by "
+          + "memory-location ids, with integer values stored unboxed, instead of a sorted map. "
+          + "Variables of states are listed in the order in which they were first seen.")
+  private boolean usePrimitiveStorage = false;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -254,6 +260,9 @@ public class ValueAnalysisCPA
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
+    if (usePrimitiveStorage) {
+      return ValueAnalysisState.withPrimitiveStorage(cfa.getMachineModel());
+    }
     return new ValueAnalysisState(cfa.getMachineModel());
   }
 
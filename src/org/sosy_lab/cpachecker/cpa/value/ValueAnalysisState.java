@@ -28,6 +28,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
@@ -66,6 +67,7 @@ import org.sosy_lab.cpachecker.util.predicates.smt.FloatingPointFormulaManagerVi
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
 import org.sosy_lab.cpachecker.util.refinement.ForgetfulState;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.states.MemoryLocationSet;
 import org.sosy_lab.java_smt.api.BitvectorFormula;
 import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.BooleanFormulaManager;
@@ -80,7 +82,8 @@ public class ValueAnalysisState
 
   private static final long serialVersionUID = -3152134511524554357L;
 
-  private static final Set<MemoryLocation> blacklist = new HashSet<>();
+  // written by transfer relations that may run concurrently, e.g., in parallel interpolation
+  private static final Set<MemoryLocation> blacklist = Sets.newConcurrentHashSet();
 
   static void addToBlacklist(MemoryLocation var) {
     blacklist.add(checkNotNull(var));
@@ -89,29 +92,36 @@ public class ValueAnalysisState
   /**
    * the map that keeps the name of variables and their constant values (concrete and symbolic ones)
    */
-  private PersistentMap<MemoryLocation, Value> constantsMap;
+  private ValueStore constantsMap;
 
   private final @Nullable MachineModel machineModel;
 
   private transient PersistentMap<MemoryLocation, Type> memLocToType = PathCopyingPersistentTreeMap.of();
 
   public ValueAnalysisState(MachineModel pMachineModel) {
-    this(
-        checkNotNull(pMachineModel),
-        PathCopyingPersistentTreeMap.of(),
-        PathCopyingPersistentTreeMap.of());
+    this(checkNotNull(pMachineModel), TreeValueStore.of(), PathCopyingPersistentTreeMap.of());
+  }
+
+  /**
+   * Create an empty state whose values are stored in a trie keyed by memory-location ids,
+   * with numeric values stored unboxed (cf. {@link PrimitiveValueStore}).
+   * All states derived from this state use the same kind of storage.
+   */
+  static ValueAnalysisState withPrimitiveStorage(MachineModel pMachineModel) {
+    return new ValueAnalysisState(
+        checkNotNull(pMachineModel), PrimitiveValueStore.of(), PathCopyingPersistentTreeMap.of());
   }
 
   public ValueAnalysisState(
       Optional<MachineModel> pMachineModel,
       PersistentMap<MemoryLocation, Value> pConstantsMap,
       PersistentMap<MemoryLocation, Type> pLocToTypeMap) {
-    this(pMachineModel.orElse(null), pConstantsMap, pLocToTypeMap);
+    this(pMachineModel.orElse(null), TreeValueStore.of(pConstantsMap), pLocToTypeMap);
   }
 
   private ValueAnalysisState(
       @Nullable MachineModel pMachineModel,
-      PersistentMap<MemoryLocation, Value> pConstantsMap,
+      ValueStore pConstantsMap,
       PersistentMap<MemoryLocation, Type> pLocToTypeMap) {
     machineModel = pMachineModel;
     constantsMap = checkNotNull(pConstantsMap);
@@ -169,7 +179,7 @@ public class ValueAnalysisState
    * @param pValue value to be assigned.
    */
   public void assignConstant(SymbolicIdentifier pSymbolicIdentifier, Value pValue) {
-    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.entrySet()) {
+    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.asMap().entrySet()) {
       MemoryLocation currMemloc = entry.getKey();
       Value currVal = entry.getValue();
 
@@ -208,7 +218,7 @@ public class ValueAnalysisState
       typeAssignment = typeAssignment.putAndCopy(pMemoryLocation, type);
     }
     PersistentMap<MemoryLocation, Value> valueAssignment = PathCopyingPersistentTreeMap.of();
-    valueAssignment = valueAssignment.putAndCopy(pMemoryLocation, value);
+    valueAssignment = valueAssignment.putAndCopy(pMemoryLocation, checkNotNull(value));
 
     return new ValueAnalysisInformation(valueAssignment, typeAssignment);
   }
@@ -227,8 +237,8 @@ public class ValueAnalysisState
    * @param toRetain the names of the variables to retain
    */
   public void retainAll(Set<MemoryLocation> toRetain) {
-    Set<MemoryLocation> toRemove = new HashSet<>();
-    for (MemoryLocation memoryLocation : constantsMap.keySet()) {
+    Set<MemoryLocation> toRemove = new MemoryLocationSet();
+    for (MemoryLocation memoryLocation : constantsMap.asMap().keySet()) {
       if (!toRetain.contains(memoryLocation)) {
         toRemove.add(memoryLocation);
       }
@@ -245,7 +255,7 @@ public class ValueAnalysisState
    * @param functionName the name of the function that is about to be left
    */
   void dropFrame(String functionName) {
-    for (MemoryLocation variableName : constantsMap.keySet()) {
+    for (MemoryLocation variableName : constantsMap.asMap().keySet()) {
       if (variableName.isOnFunctionStack(functionName)) {
         forget(variableName);
       }
@@ -305,7 +315,7 @@ public class ValueAnalysisState
   int getNumberOfGlobalVariables() {
     int numberOfGlobalVariables = 0;
 
-    for (MemoryLocation variableName : constantsMap.keySet()) {
+    for (MemoryLocation variableName : constantsMap.asMap().keySet()) {
       if (!variableName.isOnFunctionStack()) {
         numberOfGlobalVariables++;
       }
@@ -322,24 +332,18 @@ public class ValueAnalysisState
    */
   @Override
   public ValueAnalysisState join(ValueAnalysisState reachedState) {
-    PersistentMap<MemoryLocation, Value> newConstantsMap = PathCopyingPersistentTreeMap.of();
-    PersistentMap<MemoryLocation, Type> newlocToTypeMap = PathCopyingPersistentTreeMap.of();
-
-    for (Map.Entry<MemoryLocation, Value> otherEntry : reachedState.constantsMap.entrySet()) {
-      MemoryLocation key = otherEntry.getKey();
-
-      if (Objects.equals(otherEntry.getValue(), constantsMap.get(key))) {
-        newConstantsMap = newConstantsMap.putAndCopy(key, otherEntry.getValue());
-        newlocToTypeMap = newlocToTypeMap.putAndCopy(key, memLocToType.get(key));
-      }
-    }
+    ValueStore newConstantsMap = reachedState.constantsMap.retainEqualEntries(constantsMap);
 
     // return the reached state if both maps are equal
-    if (newConstantsMap.size() == reachedState.constantsMap.size()) {
+    if (newConstantsMap == reachedState.constantsMap) {
       return reachedState;
-    } else {
-      return new ValueAnalysisState(machineModel, newConstantsMap, newlocToTypeMap);
     }
+
+    PersistentMap<MemoryLocation, Type> newlocToTypeMap = PathCopyingPersistentTreeMap.of();
+    for (MemoryLocation key : newConstantsMap.asMap().keySet()) {
+      newlocToTypeMap = newlocToTypeMap.putAndCopy(key, memLocToType.get(key));
+    }
+    return new ValueAnalysisState(machineModel, newConstantsMap, newlocToTypeMap);
   }
 
   /**
@@ -359,17 +363,7 @@ public class ValueAnalysisState
     // also, this element is not less or equal than the other element,
     // if any one constant's value of the other element differs from the constant's value in this
     // element
-    for (Map.Entry<MemoryLocation, Value> otherEntry : other.constantsMap.entrySet()) {
-      MemoryLocation key = otherEntry.getKey();
-      Value otherValue = otherEntry.getValue();
-      Value thisValue = constantsMap.get(key);
-
-      if (!otherValue.equals(thisValue)) {
-        return false;
-      }
-    }
-
-    return true;
+    return constantsMap.containsAllEntries(other.constantsMap);
   }
 
   @Override
@@ -400,7 +394,7 @@ public class ValueAnalysisState
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append("[");
-    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.entrySet()) {
+    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.asMap().entrySet()) {
       MemoryLocation key = entry.getKey();
       sb.append(" <");
       sb.append(key.getAsSimpleString());
@@ -422,7 +416,7 @@ public class ValueAnalysisState
     StringBuilder sb = new StringBuilder();
 
     sb.append("[");
-    Joiner.on(", ").withKeyValueSeparator("=").appendTo(sb, constantsMap);
+    Joiner.on(", ").withKeyValueSeparator("=").appendTo(sb, constantsMap.asMap());
     sb.append("]");
 
     return sb.toString();
@@ -557,7 +551,7 @@ public class ValueAnalysisState
     BitvectorFormulaManagerView bitvectorFMGR = manager.getBitvectorFormulaManager();
     FloatingPointFormulaManagerView floatFMGR = manager.getFloatingPointFormulaManager();
 
-    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.entrySet()) {
+    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.asMap().entrySet()) {
       NumericValue num = entry.getValue().asNumericValue();
 
       if (num != null) {
@@ -615,9 +609,9 @@ public class ValueAnalysisState
    * @return the set of variable names that differ
    */
   public Set<MemoryLocation> getDifference(ValueAnalysisState other) {
-    Set<MemoryLocation> difference = new HashSet<>();
+    Set<MemoryLocation> difference = new MemoryLocationSet();
 
-    for (MemoryLocation variableName : other.constantsMap.keySet()) {
+    for (MemoryLocation variableName : other.constantsMap.asMap().keySet()) {
       if (!contains(variableName)) {
         difference.add(variableName);
 
@@ -636,7 +630,7 @@ public class ValueAnalysisState
    * @return the new mapping
    */
   public Multimap<String, Value> addToValueMapping(Multimap<String, Value> valueMapping) {
-    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.entrySet()) {
+    for (Map.Entry<MemoryLocation, Value> entry : constantsMap.asMap().entrySet()) {
       valueMapping.put(entry.getKey().getAsSimpleString(), entry.getValue());
     }
 
@@ -651,7 +645,7 @@ public class ValueAnalysisState
   public Set<String> getTrackedVariableNames() {
     Set<String> result = new HashSet<>();
 
-    for (MemoryLocation loc : constantsMap.keySet()) {
+    for (MemoryLocation loc : constantsMap.asMap().keySet()) {
       result.add(loc.getAsSimpleString());
     }
 
@@ -667,11 +661,11 @@ public class ValueAnalysisState
   @Override
   public Set<MemoryLocation> getTrackedMemoryLocations() {
     // no copy necessary, set is immutable
-    return constantsMap.keySet();
+    return constantsMap.asMap().keySet();
   }
 
   public Map<MemoryLocation, Value> getConstantsMapView() {
-    return Collections.unmodifiableMap(constantsMap);
+    return Collections.unmodifiableMap(constantsMap.asMap());
   }
 
   /**
@@ -680,18 +674,19 @@ public class ValueAnalysisState
    * @return the value-analysis interpolant reflecting the value assignment of this state
    */
   public ValueAnalysisInterpolant createInterpolant() {
-    return new ValueAnalysisInterpolant(new HashMap<>(constantsMap), new HashMap<>(memLocToType));
+    return new ValueAnalysisInterpolant(
+        new HashMap<>(constantsMap.asMap()), new HashMap<>(memLocToType));
   }
 
   public ValueAnalysisInformation getInformation() {
-    return new ValueAnalysisInformation(constantsMap, memLocToType);
+    return new ValueAnalysisInformation(constantsMap.toPersistentMap(), memLocToType);
   }
 
 
   public Set<MemoryLocation> getMemoryLocationsOnStack(String pFunctionName) {
-    Set<MemoryLocation> result = new HashSet<>();
+    Set<MemoryLocation> result = new MemoryLocationSet();
 
-    Set<MemoryLocation> memoryLocations = constantsMap.keySet();
+    Set<MemoryLocation> memoryLocations = constantsMap.asMap().keySet();
 
     for (MemoryLocation memoryLocation : memoryLocations) {
       if (memoryLocation.isOnFunctionStack() && memoryLocation.getFunctionName().equals(pFunctionName)) {
@@ -704,9 +699,9 @@ public class ValueAnalysisState
   }
 
   public Set<MemoryLocation> getGlobalMemoryLocations() {
-    Set<MemoryLocation> result = new HashSet<>();
+    Set<MemoryLocation> result = new MemoryLocationSet();
 
-    Set<MemoryLocation> memoryLocations = constantsMap.keySet();
+    Set<MemoryLocation> memoryLocations = constantsMap.asMap().keySet();
 
     for (MemoryLocation memoryLocation : memoryLocations) {
       if (!memoryLocation.isOnFunctionStack()) {
@@ -719,7 +714,7 @@ public class ValueAnalysisState
   }
 
   public void forgetValuesWithIdentifier(String pIdentifier) {
-    for (MemoryLocation memoryLocation : constantsMap.keySet()) {
+    for (MemoryLocation memoryLocation : constantsMap.asMap().keySet()) {
       if (memoryLocation.getIdentifier().equals(pIdentifier)) {
         constantsMap = constantsMap.removeAndCopy(memoryLocation);
         memLocToType = memLocToType.removeAndCopy(memoryLocation);
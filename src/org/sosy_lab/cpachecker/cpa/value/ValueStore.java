@@ -0,0 +1,68 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.io.Serializable;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.collect.PersistentMap;
+import org.sosy_lab.cpachecker.cpa.value.type.Value;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Immutable storage for the values of a {@link ValueAnalysisState}.
+ *
+ * <p>There are two implementations: {@link TreeValueStore} is backed by a sorted persistent map,
+ * {@link PrimitiveValueStore} is keyed by the ids of the memory locations and stores numeric
+ * values unboxed. Stores of both kinds can be combined with each other, and {@link #equals(Object)}
+ * and {@link #hashCode()} are consistent with the map returned by {@link #asMap()}.
+ */
+interface ValueStore extends Serializable {
+
+  @Nullable
+  Value get(MemoryLocation pLocation);
+
+  boolean containsKey(MemoryLocation pLocation);
+
+  int size();
+
+  ValueStore putAndCopy(MemoryLocation pLocation, Value pValue);
+
+  ValueStore removeAndCopy(MemoryLocation pLocation);
+
+  /**
+   * Return a store with all entries of this store that have the same value in the other store.
+   * If this are all entries, this instance is returned.
+   */
+  ValueStore retainEqualEntries(ValueStore pOther);
+
+  /** Check whether all entries of the other store are present with the same value in this store. */
+  boolean containsAllEntries(ValueStore pOther);
+
+  /** Return an unmodifiable view of this store. */
+  Map<MemoryLocation, Value> asMap();
+
+  /** Return the content of this store as a persistent map. */
+  PersistentMap<MemoryLocation, Value> toPersistentMap();
+}
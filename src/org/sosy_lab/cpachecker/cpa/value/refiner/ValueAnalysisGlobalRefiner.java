@@ -23,37 +23,85 @@
  */
 package org.sosy_lab.cpachecker.cpa.value.refiner;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
 import org.sosy_lab.cpachecker.cpa.arg.ARGPath;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisCPA;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
 import org.sosy_lab.cpachecker.cpa.value.refiner.utils.SortingPathExtractor;
 import org.sosy_lab.cpachecker.cpa.value.refiner.utils.ValueAnalysisFeasibilityChecker;
 import org.sosy_lab.cpachecker.cpa.value.refiner.utils.ValueAnalysisInterpolantManager;
 import org.sosy_lab.cpachecker.cpa.value.refiner.utils.ValueAnalysisPrefixProvider;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.refinement.GenericPrefixProvider;
 import org.sosy_lab.cpachecker.util.refinement.InterpolationTree;
 import org.sosy_lab.cpachecker.util.refinement.PrefixSelector;
 import org.sosy_lab.cpachecker.util.refinement.StrongestPostOperator;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 @Options(prefix = "cpa.value.refinement")
-public class ValueAnalysisGlobalRefiner extends ValueAnalysisRefiner {
+public class ValueAnalysisGlobalRefiner extends ValueAnalysisRefiner implements AutoCloseable {
 
   @Option(
       secure = true,
       description = "whether to use the top-down interpolation strategy or the bottom-up interpolation strategy")
   private boolean useTopDownInterpolationStrategy = true;
 
+  @Option(
+      secure = true,
+      name = "parallelInterpolation.threads",
+      description =
+          "number of threads for interpolating the target paths of a refinement. "
+              + "With more than one thread, each target path is interpolated independently "
+              + "from the root of the ARG, and the interpolants of all paths are merged "
+              + "in the interpolation tree before the precision is updated. "
+              + "This ignores the interpolation strategy, so it requires "
+              + "useTopDownInterpolationStrategy to be disabled.")
+  @IntegerOption(min = 1)
+  private int parallelInterpolationThreads = 1;
+
+  /** Path interpolators of the worker threads, kept for their statistics. */
+  private final ImmutableList<ValueAnalysisPathInterpolator> workerInterpolators;
+
+  /** Path interpolators that are currently not used by a worker thread. */
+  private final @Nullable BlockingQueue<ValueAnalysisPathInterpolator> idleInterpolators;
+
+  private final @Nullable ExecutorService executor;
+
+  private final StatCounter parallelInterpolations =
+      new StatCounter("Number of paths interpolated in parallel");
+  private final StatTimer parallelInterpolationTime =
+      new StatTimer("Time for parallel path interpolation");
+
   public static ValueAnalysisGlobalRefiner create(final ConfigurableProgramAnalysis pCpa)
       throws InvalidConfigurationException {
 
@@ -112,6 +160,49 @@ public class ValueAnalysisGlobalRefiner extends ValueAnalysisRefiner {
         pCfa);
 
     pConfig.inject(this, ValueAnalysisGlobalRefiner.class);
+
+    if (parallelInterpolationThreads > 1) {
+      if (useTopDownInterpolationStrategy) {
+        throw new InvalidConfigurationException(
+            "Parallel interpolation interpolates each target path on its own and does not "
+                + "support the top-down interpolation strategy, "
+                + "set cpa.value.refinement.useTopDownInterpolationStrategy=false.");
+      }
+
+      // The transfer relation behind the strongest-post operator keeps the state of the
+      // current transfer in fields, so every worker gets its own interpolator with
+      // its own strongest-post operator, feasibility checker, and prefix provider.
+      ImmutableList.Builder<ValueAnalysisPathInterpolator> interpolators = ImmutableList.builder();
+      for (int i = 0; i < parallelInterpolationThreads; i++) {
+        final StrongestPostOperator<ValueAnalysisState> strongestPostOp =
+            new ValueAnalysisStrongestPostOperator(pLogger, Configuration.builder().build(), pCfa);
+        interpolators.add(
+            new ValueAnalysisPathInterpolator(
+                new ValueAnalysisFeasibilityChecker(strongestPostOp, pLogger, pCfa, pConfig),
+                strongestPostOp,
+                new ValueAnalysisPrefixProvider(pLogger, pCfa, pConfig, pShutdownNotifier),
+                pConfig,
+                pLogger,
+                pShutdownNotifier,
+                pCfa));
+      }
+      workerInterpolators = interpolators.build();
+      idleInterpolators = new LinkedBlockingQueue<>(workerInterpolators);
+
+      // The executor is stopped in close(), but use daemon threads anyway, because close()
+      // is only called if the CEGAR algorithm is not wrapped by another algorithm.
+      executor =
+          Executors.newFixedThreadPool(
+              parallelInterpolationThreads,
+              new ThreadFactoryBuilder()
+                  .setNameFormat("Value-analysis interpolation worker %d")
+                  .setDaemon(true)
+                  .build());
+    } else {
+      workerInterpolators = ImmutableList.of();
+      idleInterpolators = null;
+      executor = null;
+    }
   }
 
   /**
@@ -126,5 +217,82 @@ public class ValueAnalysisGlobalRefiner extends ValueAnalysisRefiner {
         targetsPaths,
         useTopDownInterpolationStrategy);
   }
+
+  /**
+   * Interpolate each target path on its own thread, starting from the root with the initial
+   * interpolant. The paths share only read-only data (ARG and CFA), and the results are added
+   * to the interpolation tree in the order of the target paths, which joins the interpolants
+   * of states that are shared between several paths.
+   */
+  @Override
+  protected boolean interpolatePathsIndependently(
+      final InterpolationTree<ValueAnalysisState, ValueAnalysisInterpolant> pInterpolationTree,
+      final List<ARGPath> pTargetPaths)
+      throws CPAException, InterruptedException {
+    if (executor == null || pTargetPaths.size() < 2) {
+      return false;
+    }
+
+    logger.log(
+        Level.FINEST, "interpolating", pTargetPaths.size(), "target paths in parallel");
+    parallelInterpolationTime.start();
+    List<Future<Map<ARGState, ValueAnalysisInterpolant>>> results =
+        new ArrayList<>(pTargetPaths.size());
+    try {
+      for (ARGPath targetPath : pTargetPaths) {
+        results.add(executor.submit(() -> interpolateWithIdleInterpolator(targetPath)));
+      }
+      for (Future<Map<ARGState, ValueAnalysisInterpolant>> result : results) {
+        pInterpolationTree.addInterpolants(result.get());
+        parallelInterpolations.inc();
+      }
+      return true;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+      throw new AssertionError("unexpected exception during interpolation", t);
+
+    } finally {
+      for (Future<?> result : results) {
+        result.cancel(true);
+      }
+      parallelInterpolationTime.stop();
+    }
+  }
+
+  private Map<ARGState, ValueAnalysisInterpolant> interpolateWithIdleInterpolator(
+      ARGPath pTargetPath) throws CPAException, InterruptedException {
+    // there are as many interpolators as threads, so this never blocks
+    ValueAnalysisPathInterpolator interpolator = idleInterpolators.take();
+    try {
+      return interpolator.performInterpolation(
+          pTargetPath, ValueAnalysisInterpolantManager.getInstance().createInitialInterpolant());
+    } finally {
+      idleInterpolators.add(interpolator);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  protected void printAdditionalStatistics(
+      PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    super.printAdditionalStatistics(pOut, pResult, pReached);
+    if (executor != null) {
+      StatisticsWriter.writingStatisticsTo(pOut)
+          .put(parallelInterpolations)
+          .put(parallelInterpolationTime);
+      for (int i = 0; i < workerInterpolators.size(); i++) {
+        pOut.println("Interpolation worker " + i + ":");
+        workerInterpolators.get(i).printStatistics(pOut, pResult, pReached);
+      }
+    }
+  }
 }
 
@@ -34,6 +34,7 @@ import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
 
@@ -61,8 +62,8 @@ public class SymbolicIdentifier implements SymbolicValue, Comparable<SymbolicIde
 
   private static final long serialVersionUID = -3773425414056328601L;
 
-  // stores the next usable id
-  private static long nextId = 0;
+  // stores the next usable id (atomic, because refinements may run on several threads)
+  private static final AtomicLong nextId = new AtomicLong();
 
   // this objects unique id for identifying it
   private final long id;
@@ -87,7 +88,7 @@ public class SymbolicIdentifier implements SymbolicValue, Comparable<SymbolicIde
    * @return a new instance of a <code>SymbolicIdentifier</code>
    */
   static SymbolicIdentifier getNewIdentifier() {
-    return new SymbolicIdentifier(nextId++);
+    return new SymbolicIdentifier(nextId.getAndIncrement());
   }
 
   @Override
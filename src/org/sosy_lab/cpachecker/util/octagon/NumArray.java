@@ -23,18 +23,35 @@
  */
 package org.sosy_lab.cpachecker.util.octagon;
 
+import javax.annotation.Nullable;
+
 public class NumArray {
 
   private final long array;
+  private final @Nullable double[] values;
 
   NumArray(long l) {
     array = l;
+    values = null;
+  }
+
+  /** Creates a num array on the Java heap, infinity is represented by {@link Double#POSITIVE_INFINITY}. */
+  NumArray(double[] pValues) {
+    array = 0;
+    values = pValues;
   }
 
   long getArray() {
     return array;
   }
 
+  double[] getValues() {
+    if (values == null) {
+      throw new IllegalStateException("num array " + array + " is stored in native memory");
+    }
+    return values;
+  }
+
   @Override
   public String toString() {
     // TODO
@@ -47,11 +64,17 @@ public class NumArray {
       return false;
     }
     NumArray otherArr = (NumArray) pObj;
+    if (values != null || otherArr.values != null) {
+      return values == otherArr.values;
+    }
     return this.array == otherArr.array;
   }
 
   @Override
   public int hashCode() {
+    if (values != null) {
+      return System.identityHashCode(values);
+    }
     return (int)array;
   }
 }
\ No newline at end of file
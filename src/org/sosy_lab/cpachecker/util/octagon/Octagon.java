@@ -27,21 +27,31 @@ import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 
 
 public class Octagon {
 
   private final long octId;
+  private final @Nullable OctagonMatrix matrix;
   private final OctagonManager manager;
   private static List<OctagonPhantomReference> phantomReferences = new ArrayList<>();
   private static ReferenceQueue<Octagon> referenceQueue = new ReferenceQueue<>();
 
   Octagon(long l, OctagonManager manager) {
     octId = l;
+    matrix = null;
     this.manager = manager;
     registerPhantomReference(this);
   }
 
+  /** Creates an octagon that is stored on the Java heap and needs no explicit cleanup. */
+  Octagon(OctagonMatrix pMatrix, OctagonManager manager) {
+    octId = 0;
+    matrix = pMatrix;
+    this.manager = manager;
+  }
+
   private static void registerPhantomReference(Octagon oct) {
     phantomReferences.add(new OctagonPhantomReference(oct, referenceQueue));
   }
@@ -57,12 +67,22 @@ public class Octagon {
     return octId;
   }
 
+  OctagonMatrix getMatrix() {
+    if (matrix == null) {
+      throw new IllegalStateException("octagon " + octId + " is stored in native memory");
+    }
+    return matrix;
+  }
+
   public OctagonManager getManager() {
     return manager;
   }
 
   @Override
   public int hashCode() {
+    if (matrix != null) {
+      return matrix.getDimension();
+    }
     return (int)octId;
   }
 
@@ -78,6 +98,9 @@ public class Octagon {
 
   @Override
   public String toString() {
+    if (matrix != null) {
+      return "octagon with dimension: " + matrix.getDimension();
+    }
     return "octagon with id: " + octId;
   }
 }
\ No newline at end of file
@@ -0,0 +1,506 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.BiMap;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonDoubleValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonIntValue;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * {@link OctagonManager} that is implemented in Java and does not need the native octagon
+ * library. Octagons are stored as {@link OctagonMatrix} on the Java heap, so they are freed by the
+ * garbage collector and count towards the heap limit of the JVM.
+ *
+ * <p>Numbers are stored as doubles. For integral octagons, the constants are truncated to
+ * integers and the closure tightens the bounds to integers.
+ *
+ * <p>Octagons are closed lazily. Each octagon remembers whether only the constraints of a single
+ * variable have changed since its last closure, in which case the closure is computed
+ * incrementally.
+ */
+public class OctagonJavaManager extends OctagonManager implements StatisticsProvider {
+
+  private static final int TRUE = 1;
+  private static final int FALSE = 2;
+
+  private final boolean integral;
+
+  final StatCounter fullClosures = new StatCounter("Number of full closures");
+  final StatCounter incrementalClosures = new StatCounter("Number of incremental closures");
+
+  public OctagonJavaManager(boolean pIntegral) {
+    integral = pIntegral;
+  }
+
+  boolean isIntegral() {
+    return integral;
+  }
+
+  private Octagon wrap(OctagonMatrix matrix) {
+    return new Octagon(matrix, this);
+  }
+
+  private static int toLazyResult(boolean b) {
+    return b ? TRUE : FALSE;
+  }
+
+  /* num handling function*/
+
+  @Override
+  public NumArray init_num_t(int n) {
+    return new NumArray(new double[n]);
+  }
+
+  @Override
+  public void num_set(NumArray n1, NumArray n2) {
+    double[] target = n1.getValues();
+    double[] source = n2.getValues();
+    System.arraycopy(source, 0, target, 0, Math.min(source.length, target.length));
+  }
+
+  @Override
+  public Octagon set_bounds(Octagon oct, int pos, NumArray lower, NumArray upper) {
+    // the lower bound is stored negated, like in the results of getVariableBounds
+    return wrap(oct.getMatrix().setBounds(pos, -lower.getValues()[0], upper.getValues()[0]));
+  }
+
+  @Override
+  public void num_set_int(NumArray n, int pos, long i) {
+    n.getValues()[pos] = i;
+  }
+
+  @Override
+  public void num_set_float(NumArray n, int pos, double d) {
+    n.getValues()[pos] = integral && !Double.isInfinite(d) ? (long) d : d;
+  }
+
+  @Override
+  public void num_set_inf(NumArray n, int pos) {
+    n.getValues()[pos] = Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public long num_get_int(NumArray n, int pos) {
+    return (long) n.getValues()[pos];
+  }
+
+  @Override
+  public double num_get_float(NumArray n, int pos) {
+    return n.getValues()[pos];
+  }
+
+  @Override
+  public boolean num_infty(NumArray n, int pos) {
+    return n.getValues()[pos] == Double.POSITIVE_INFINITY;
+  }
+
+  @Override
+  public void num_clear_n(NumArray n, int size) {
+    // memory is managed by the garbage collector
+  }
+
+  /* Octagon handling functions */
+
+  @Override
+  public Octagon empty(int n) {
+    return wrap(OctagonMatrix.empty(n, this));
+  }
+
+  @Override
+  public Octagon universe(int n) {
+    return wrap(OctagonMatrix.universe(n, this));
+  }
+
+  @Override
+  public Octagon copy(Octagon oct) {
+    // matrices are immutable
+    return wrap(oct.getMatrix());
+  }
+
+  @Override
+  public Octagon full_copy(Octagon oct) {
+    return wrap(oct.getMatrix());
+  }
+
+  @Override
+  public int dimension(Octagon oct) {
+    return oct.getMatrix().getDimension();
+  }
+
+  @Override
+  public int nbconstraints(Octagon oct) {
+    return oct.getMatrix().getNumberOfConstraints();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The octagon remembers which variable has changed since its last closure, so a full closure
+   * is computed if the constraints of other variables have changed as well.
+   */
+  @Override
+  public Octagon closeIncrementally(Octagon oct, int k) {
+    // The matrix tracks itself whether only the constraints of a single variable have changed,
+    // which might be the other variable of a relational constraint, so k is not needed.
+    return wrap(oct.getMatrix().close());
+  }
+
+  @Override
+  public boolean isEmpty(Octagon oct) {
+    return oct.getMatrix().isEmpty();
+  }
+
+  @Override
+  public int isEmptyLazy(Octagon oct) {
+    return toLazyResult(isEmpty(oct));
+  }
+
+  @Override
+  public boolean isUniverse(Octagon oct) {
+    return oct.getMatrix().isUniverse();
+  }
+
+  @Override
+  public boolean isIncludedIn(Octagon oct1, Octagon oct2) {
+    return oct1.getMatrix().isIncludedIn(oct2.getMatrix());
+  }
+
+  @Override
+  public int isIncludedInLazy(Octagon oct1, Octagon oct2) {
+    return toLazyResult(isIncludedIn(oct1, oct2));
+  }
+
+  @Override
+  public boolean isEqual(Octagon oct1, Octagon oct2) {
+    return oct1.getMatrix().isEqualTo(oct2.getMatrix());
+  }
+
+  @Override
+  public int isEqualLazy(Octagon oct1, Octagon oct2) {
+    return toLazyResult(isEqual(oct1, oct2));
+  }
+
+  @Override
+  public boolean isIn(Octagon oct1, NumArray array) {
+    return oct1.getMatrix().contains(array.getValues());
+  }
+
+  /* Operators */
+
+  @Override
+  public Octagon intersection(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().intersect(oct2.getMatrix()));
+  }
+
+  @Override
+  public Octagon union(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().union(oct2.getMatrix()));
+  }
+
+  @Override
+  public Octagon widening(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().widen(oct2.getMatrix()));
+  }
+
+  @Override
+  public Octagon narrowing(Octagon oct1, Octagon oct2) {
+    return wrap(oct1.getMatrix().narrow(oct2.getMatrix()));
+  }
+
+  /* Transfer Functions */
+
+  @Override
+  public Octagon forget(Octagon oct, int k) {
+    return wrap(oct.getMatrix().forget(k));
+  }
+
+  @Override
+  public Octagon assingVar(Octagon oct, int k, NumArray array) {
+    double[] coefficients = Arrays.copyOf(array.getValues(), dimension(oct) + 1);
+    return wrap(oct.getMatrix().assign(k, coefficients, coefficients));
+  }
+
+  @Override
+  public Octagon addBinConstraint(Octagon oct, int noOfConstraints, NumArray array) {
+    double[] values = array.getValues();
+    OctagonMatrix result = oct.getMatrix();
+    for (int i = 0; i < noOfConstraints; i++) {
+      int x = (int) values[4 * i + 1];
+      int y = (int) values[4 * i + 2];
+      double bound = values[4 * i + 3];
+      switch ((int) values[4 * i]) {
+        case 0: // x <= c
+          result = result.addUnaryConstraint(x, true, bound);
+          break;
+        case 1: // -x <= c
+          result = result.addUnaryConstraint(x, false, bound);
+          break;
+        case 2: // x + y <= c
+          result = result.addBinaryConstraint(x, true, y, true, bound);
+          break;
+        case 3: // x - y <= c
+          result = result.addBinaryConstraint(x, true, y, false, bound);
+          break;
+        case 4: // -x + y <= c
+          result = result.addBinaryConstraint(x, false, y, true, bound);
+          break;
+        case 5: // -x - y <= c
+          result = result.addBinaryConstraint(x, false, y, false, bound);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown type of binary constraint " + values[4 * i]);
+      }
+    }
+    return wrap(result);
+  }
+
+  @Override
+  public Octagon substituteVar(Octagon oct, int x, NumArray array) {
+    double[] coefficients = Arrays.copyOf(array.getValues(), dimension(oct) + 1);
+    return wrap(substitute(oct.getMatrix(), x, coefficients, coefficients));
+  }
+
+  /**
+   * Substitutes the linear form with interval coefficients for the variable x, i.e., computes
+   * the states from which the assignment x = form leads into the given octagon. The post-state
+   * value of x is moved to a temporary variable t, the form is assigned to a second temporary
+   * variable u, and both temporaries are removed after adding t = u. Thus the result is exact
+   * for the forms that {@link OctagonMatrix#assign} handles exactly.
+   */
+  private static OctagonMatrix substitute(
+      OctagonMatrix matrix, int x, double[] coeffLow, double[] coeffHigh) {
+    int n = matrix.getDimension();
+    int t = n;
+    int u = n + 1;
+    OctagonMatrix result = matrix.addDimensions(2, false);
+
+    double[] copyOfX = new double[n + 3];
+    copyOfX[x] = 1;
+    result = result.assign(t, copyOfX, copyOfX).forget(x);
+    result = result.assign(u, withTemporaries(coeffLow), withTemporaries(coeffHigh));
+    result =
+        result.addBinaryConstraint(t, true, u, false, 0).addBinaryConstraint(t, false, u, true, 0);
+    return result.removeDimensions(2);
+  }
+
+  /** Moves the constant of the form behind the coefficients of the two temporary variables. */
+  private static double[] withTemporaries(double[] coefficients) {
+    int n = coefficients.length - 1;
+    double[] result = Arrays.copyOf(coefficients, n + 3);
+    result[n] = 0;
+    result[n + 2] = coefficients[n];
+    return result;
+  }
+
+  @Override
+  public Octagon addConstraint(Octagon oct, NumArray array) {
+    double[] coefficients = Arrays.copyOf(array.getValues(), dimension(oct) + 1);
+    return wrap(addLinearConstraint(oct.getMatrix(), coefficients));
+  }
+
+  /**
+   * Adds the constraint (c_0 * v_0 + ... + c_(n-1) * v_(n-1) + c_n >= 0). Only octagonal
+   * constraints are added, all other constraints are ignored, which over-approximates the result.
+   */
+  private static OctagonMatrix addLinearConstraint(OctagonMatrix matrix, double[] coefficients) {
+    int n = matrix.getDimension();
+    int first = -1;
+    int second = -1;
+    for (int i = 0; i < n; i++) {
+      if (coefficients[i] == 0) {
+        continue;
+      } else if (Math.abs(coefficients[i]) != 1 || second != -1) {
+        return matrix;
+      } else if (first == -1) {
+        first = i;
+      } else {
+        second = i;
+      }
+    }
+    double bound = coefficients[n];
+    if (first == -1) {
+      return bound >= 0 ? matrix : matrix.toEmpty();
+    } else if (second == -1) {
+      // -c*x <= c_n
+      return matrix.addUnaryConstraint(first, coefficients[first] < 0, bound);
+    } else {
+      return matrix.addBinaryConstraint(
+          first, coefficients[first] < 0, second, coefficients[second] < 0, bound);
+    }
+  }
+
+  @Override
+  public Octagon intervAssingVar(Octagon oct, int k, NumArray array) {
+    int n = dimension(oct);
+    double[] values = array.getValues();
+    double[] coeffLow = new double[n + 1];
+    double[] coeffHigh = new double[n + 1];
+    for (int i = 0; i <= n; i++) {
+      coeffHigh[i] = values[2 * i];
+      coeffLow[i] = -values[2 * i + 1];
+    }
+    return wrap(oct.getMatrix().assign(k, coeffLow, coeffHigh));
+  }
+
+  @Override
+  public Octagon intervSubstituteVar(Octagon oct, int x, NumArray array) {
+    int n = dimension(oct);
+    double[] values = array.getValues();
+    double[] coeffLow = new double[n + 1];
+    double[] coeffHigh = new double[n + 1];
+    for (int i = 0; i <= n; i++) {
+      coeffHigh[i] = values[2 * i];
+      coeffLow[i] = -values[2 * i + 1];
+    }
+    return wrap(substitute(oct.getMatrix(), x, coeffLow, coeffHigh));
+  }
+
+  @Override
+  public Octagon intervAddConstraint(Octagon oct, NumArray array) {
+    int n = dimension(oct);
+    double[] values = array.getValues();
+    double[] coefficients = new double[n + 1];
+    for (int i = 0; i < n; i++) {
+      if (values[2 * i] != -values[2 * i + 1]) {
+        // interval coefficient, over-approximate by ignoring the constraint
+        return oct;
+      }
+      coefficients[i] = values[2 * i];
+    }
+    // the constraint holds if it holds for the upper bound of the constant
+    coefficients[n] = values[2 * n];
+    return wrap(addLinearConstraint(oct.getMatrix(), coefficients));
+  }
+
+  /* change of dimensions */
+
+  @Override
+  public Octagon addDimensionAndEmbed(Octagon oct, int k) {
+    return wrap(oct.getMatrix().addDimensions(k, false));
+  }
+
+  @Override
+  public Octagon addDimensionAndProject(Octagon oct, int k) {
+    return wrap(oct.getMatrix().addDimensions(k, true));
+  }
+
+  @Override
+  public Octagon removeDimension(Octagon oct, int k) {
+    return wrap(oct.getMatrix().removeDimensions(k));
+  }
+
+  @Override
+  public void printNum(NumArray arr, int size) {
+    System.out.println(Arrays.toString(Arrays.copyOf(arr.getValues(), size)));
+  }
+
+  @Override
+  public void printOct(Octagon oct) {
+    System.out.print(oct.getMatrix());
+  }
+
+  @Override
+  public String print(Octagon oct, BiMap<Integer, MemoryLocation> map) {
+    StringBuilder str = new StringBuilder();
+    str.append("Octagon (dimension: " + dimension(oct) + ")\n");
+    if (isEmpty(oct)) {
+      str.append("[Empty]\n");
+      return str.toString();
+    }
+
+    for (int i = 0; i < map.size(); i++) {
+      OctagonInterval bounds = getVariableBounds(oct, i);
+      str.append(" ").append(map.get(i)).append(" -> [");
+      if (bounds.getLow().isInfinite()) {
+        str.append("-INFINITY, ");
+      } else {
+        str.append(bounds.getLow()).append(", ");
+      }
+      if (bounds.getHigh().isInfinite()) {
+        str.append("INFINITY]\n");
+      } else {
+        str.append(bounds.getHigh()).append("]\n");
+      }
+    }
+    return str.toString();
+  }
+
+  @Override
+  public OctagonInterval getVariableBounds(Octagon oct, int id) {
+    OctagonMatrix matrix = oct.getMatrix();
+    checkArgument(id < matrix.getDimension());
+    if (matrix.isEmpty()) {
+      return OctagonInterval.EMPTY;
+    }
+    double lower = matrix.getLowerBound(id);
+    double upper = matrix.getUpperBound(id);
+
+    if (!integral) {
+      return new OctagonInterval(lower, upper);
+    } else if (Double.isInfinite(lower) && Double.isInfinite(upper)) {
+      return new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+    } else if (Double.isInfinite(lower)) {
+      return new OctagonInterval(new OctagonDoubleValue(Double.NEGATIVE_INFINITY),
+                                 OctagonIntValue.of((long) upper));
+    } else if (Double.isInfinite(upper)) {
+      return new OctagonInterval(OctagonIntValue.of((long) lower),
+                                 new OctagonDoubleValue(Double.POSITIVE_INFINITY));
+    } else {
+      return new OctagonInterval((long) lower, (long) upper);
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(
+        new Statistics() {
+
+          @Override
+          public void printStatistics(
+              PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+            StatisticsWriter.writingStatisticsTo(pOut)
+                .put(fullClosures)
+                .put(incrementalClosures);
+          }
+
+          @Override
+          public String getName() {
+            return "Octagon closures";
+          }
+        });
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.octagon.values.OctagonInterval;
+
+public class OctagonJavaManagerTest {
+
+  private final OctagonManager manager = new OctagonJavaManager(true);
+
+  // constraint types of addBinConstraint
+  private static final int PX = 0;
+  private static final int MX = 1;
+  private static final int PXMY = 3;
+
+  private Octagon addConstraint(Octagon oct, int type, int x, int y, long constant) {
+    NumArray arr = manager.init_num_t(4);
+    manager.num_set_int(arr, 0, type);
+    manager.num_set_int(arr, 1, x);
+    manager.num_set_int(arr, 2, y);
+    manager.num_set_int(arr, 3, constant);
+    return manager.addBinConstraint(oct, 1, arr);
+  }
+
+  /** Returns the octagon with the given bounds for all variables. */
+  private Octagon box(long... bounds) {
+    Octagon oct = manager.universe(bounds.length / 2);
+    for (int i = 0; i < bounds.length / 2; i++) {
+      oct = addConstraint(oct, MX, i, 0, -bounds[2 * i]);
+      oct = addConstraint(oct, PX, i, 0, bounds[2 * i + 1]);
+    }
+    return oct;
+  }
+
+  private Octagon assign(Octagon oct, int var, long... coefficients) {
+    NumArray arr = manager.init_num_t(coefficients.length);
+    for (int i = 0; i < coefficients.length; i++) {
+      manager.num_set_int(arr, i, coefficients[i]);
+    }
+    return manager.assingVar(oct, var, arr);
+  }
+
+  @Test
+  public void testClosure() {
+    // 0 <= x <= 10, y - x <= 2, z - y <= -1, z >= -100
+    Octagon oct = manager.addDimensionAndEmbed(box(0, 10), 2);
+    oct = addConstraint(oct, PXMY, 1, 0, 2);
+    oct = addConstraint(oct, PXMY, 2, 1, -1);
+    oct = addConstraint(oct, MX, 2, 0, 100);
+
+    assertThat(manager.getVariableBounds(oct, 2)).isEqualTo(new OctagonInterval(-100L, 11L));
+    assertThat(manager.isEmpty(addConstraint(oct, MX, 2, 0, -12))).isTrue();
+  }
+
+  @Test
+  public void testIntegerTightening() {
+    // x + x <= 3 is tightened to x <= 1
+    Octagon oct = box(0, 10, 0, 10);
+    oct = addConstraint(oct, 2, 0, 0, 3);
+    assertThat(manager.getVariableBounds(oct, 0)).isEqualTo(new OctagonInterval(0L, 1L));
+  }
+
+  @Test
+  public void testAssignment() {
+    Octagon oct = box(0, 5, 3, 4);
+
+    // x = y + 2 keeps the relation between x and y
+    Octagon assigned = assign(oct, 0, 0, 1, 2);
+    assertThat(manager.getVariableBounds(assigned, 0)).isEqualTo(new OctagonInterval(5L, 6L));
+    assertThat(manager.isEmpty(addConstraint(assigned, PXMY, 0, 1, 1))).isTrue();
+
+    // x = -x + 1
+    Octagon negated = assign(oct, 0, -1, 0, 1);
+    assertThat(manager.getVariableBounds(negated, 0)).isEqualTo(new OctagonInterval(-4L, 1L));
+
+    // x = 2 * y - 1 is evaluated with intervals
+    Octagon general = assign(oct, 0, 0, 2, -1);
+    assertThat(manager.getVariableBounds(general, 0)).isEqualTo(new OctagonInterval(5L, 7L));
+  }
+
+  @Test
+  public void testSubstitution() {
+    // x <= 3, x - y <= 0, 0 <= y <= 5
+    Octagon oct = box(-10, 3, 0, 5);
+    oct = addConstraint(oct, PXMY, 0, 1, 0);
+
+    // substituting y + 1 for x yields y + 1 <= 3 and 1 <= 0, which is unsatisfiable
+    NumArray arr = manager.init_num_t(3);
+    manager.num_set_int(arr, 1, 1);
+    manager.num_set_int(arr, 2, 1);
+    assertThat(manager.isEmpty(manager.substituteVar(oct, 0, arr))).isTrue();
+
+    // substituting y - 1 for x yields y - 1 <= 3 and -1 <= 0, x is unconstrained
+    manager.num_set_int(arr, 2, -1);
+    Octagon substituted = manager.substituteVar(oct, 0, arr);
+    assertThat(manager.getVariableBounds(substituted, 1)).isEqualTo(new OctagonInterval(0L, 4L));
+    assertThat(manager.getVariableBounds(substituted, 0))
+        .isEqualTo(new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+
+    // substituting y + [0, 1] for x yields y + [0, 1] <= 3
+    NumArray interval = manager.init_num_t(6);
+    manager.num_set_int(interval, 2, 1);
+    manager.num_set_int(interval, 3, -1);
+    manager.num_set_int(interval, 4, 1);
+    Octagon intervSubstituted = manager.intervSubstituteVar(box(-10, 3, 0, 5), 0, interval);
+    assertThat(manager.getVariableBounds(intervSubstituted, 1))
+        .isEqualTo(new OctagonInterval(0L, 3L));
+  }
+
+  @Test
+  public void testJoinAndInclusion() {
+    Octagon oct1 = box(0, 1, 0, 1);
+    Octagon oct2 = box(4, 5, 4, 5);
+    Octagon union = manager.union(oct1, oct2);
+
+    assertThat(manager.getVariableBounds(union, 0)).isEqualTo(new OctagonInterval(0L, 5L));
+    assertThat(manager.isIncludedIn(oct1, union)).isTrue();
+    assertThat(manager.isIncludedIn(union, oct1)).isFalse();
+    // the relation x - y <= 1 holds in both octagons
+    assertThat(manager.isIncludedIn(union, addConstraint(union, PXMY, 0, 1, 1))).isTrue();
+    assertThat(manager.isIncludedInLazy(union, oct2)).isEqualTo(2);
+  }
+
+  @Test
+  public void testWidening() {
+    Octagon oct1 = box(0, 1);
+    Octagon oct2 = box(-2, 2);
+    Octagon widened = manager.widening(oct1, oct2);
+
+    assertThat(manager.getVariableBounds(widened, 0))
+        .isEqualTo(new OctagonInterval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+    assertThat(manager.isEqual(manager.widening(widened, oct2), widened)).isTrue();
+  }
+
+  @Test
+  public void testIncrementalClosure() {
+    OctagonJavaManager javaManager = (OctagonJavaManager) manager;
+    // y - x <= 1, z - y <= 1
+    Octagon oct = box(0, 10, -10, 10, -10, 10);
+    oct = addConstraint(oct, PXMY, 1, 0, 1);
+    oct = manager.closeIncrementally(addConstraint(oct, PXMY, 2, 1, 1), 2);
+    int fullClosures = javaManager.fullClosures.getValue();
+
+    // only the constraints of one variable change, so no full closure is necessary
+    oct = manager.closeIncrementally(addConstraint(oct, PX, 0, 0, 3), 0);
+    assertThat(manager.getVariableBounds(oct, 2)).isEqualTo(new OctagonInterval(-10L, 5L));
+    oct = manager.closeIncrementally(assign(oct, 2, 1, 0, 0, 1), 2);
+    assertThat(manager.getVariableBounds(oct, 2)).isEqualTo(new OctagonInterval(1L, 4L));
+    assertThat(manager.isEmpty(addConstraint(oct, MX, 1, 0, -5))).isTrue();
+    assertThat(javaManager.fullClosures.getValue()).isEqualTo(fullClosures);
+  }
+
+  @Test
+  public void testIncrementalClosureOfIntersection() {
+    // the intersection records the changed variable itself, which is the other one here
+    Octagon assigned = manager.closeIncrementally(assign(manager.universe(2), 0, 0, 1, 0), 0);
+    Octagon oct = manager.closeIncrementally(manager.intersection(manager.universe(2), assigned), 0);
+    oct = addConstraint(addConstraint(oct, MX, 1, 0, 0), PX, 1, 0, 3);
+    assertThat(manager.getVariableBounds(oct, 0)).isEqualTo(new OctagonInterval(0L, 3L));
+  }
+
+  @Test
+  public void testDimensions() {
+    Octagon oct = manager.addDimensionAndEmbed(box(1, 2), 2);
+    assertThat(manager.dimension(oct)).isEqualTo(3);
+    assertThat(manager.isUniverse(manager.removeDimension(oct, 2))).isFalse();
+    assertThat(manager.dimension(manager.removeDimension(oct, 2))).isEqualTo(1);
+  }
+}
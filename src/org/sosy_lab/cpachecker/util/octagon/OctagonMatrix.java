@@ -0,0 +1,784 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.octagon;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * An octagon that is stored as half-matrix DBM (difference bound matrix) in a primitive array.
+ *
+ * <p>The octagon over the variables v_0, ..., v_(n-1) is represented by a DBM over the 2n nodes
+ * V_2k = v_k and V_(2k+1) = -v_k, where the entry m[i][j] is an upper bound for V_j - V_i.
+ * Because of coherence (m[i][j] = m[j^1][i^1]) only the entries with j <= (i|1) are stored,
+ * row by row, in an array of size 2n(n+1), like in Antoine Mine's octagon library.
+ *
+ * <p>Instances are immutable. The strong closure of a matrix is computed on demand and cached.
+ * Operations that only change the constraints of a single variable of a closed matrix remember
+ * this variable, so that the closure can be computed incrementally in quadratic instead of cubic
+ * time.
+ */
+final class OctagonMatrix {
+
+  private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+  private final int dimension;
+  private final OctagonJavaManager manager;
+
+  // the half matrix, null iff the octagon is known to be empty
+  private final @Nullable double[] m;
+  private final boolean closed;
+
+  // the only variable whose constraints have changed since the matrix was closed, or -1
+  private final int changedVariable;
+
+  // strong closure of this matrix, computed on demand
+  private @Nullable OctagonMatrix closure = null;
+
+  private OctagonMatrix(
+      int pDimension,
+      OctagonJavaManager pManager,
+      @Nullable double[] pM,
+      boolean pClosed,
+      int pChangedVariable) {
+    dimension = pDimension;
+    manager = pManager;
+    m = pM;
+    closed = pClosed || pM == null;
+    changedVariable = closed ? -1 : pChangedVariable;
+  }
+
+  static OctagonMatrix universe(int pDimension, OctagonJavaManager pManager) {
+    double[] m = new double[matrixSize(pDimension)];
+    Arrays.fill(m, INFINITY);
+    for (int i = 0; i < 2 * pDimension; i++) {
+      m[pos(i, i)] = 0;
+    }
+    return new OctagonMatrix(pDimension, pManager, m, true, -1);
+  }
+
+  static OctagonMatrix empty(int pDimension, OctagonJavaManager pManager) {
+    return new OctagonMatrix(pDimension, pManager, null, true, -1);
+  }
+
+  /** Returns the empty octagon with the same dimension. */
+  OctagonMatrix toEmpty() {
+    return empty(dimension, manager);
+  }
+
+  private OctagonMatrix withMatrix(@Nullable double[] pM, boolean pClosed) {
+    return new OctagonMatrix(dimension, manager, pM, pClosed, -1);
+  }
+
+  /** Creates a matrix that differs from a closed matrix only in the constraints of the variable. */
+  private OctagonMatrix withChangedVariable(double[] pM, int var) {
+    return new OctagonMatrix(dimension, manager, pM, false, var);
+  }
+
+  static int matrixSize(int pDimension) {
+    return 2 * pDimension * (pDimension + 1);
+  }
+
+  /** Position of the entry m[i][j] in the half matrix, requires j <= (i|1). */
+  private static int pos(int i, int j) {
+    return j + (((i + 1) * (i + 1)) >> 1);
+  }
+
+  /** Position of the entry m[i][j] in the half matrix, for arbitrary i and j. */
+  private static int index(int i, int j) {
+    return j <= (i | 1) ? pos(i, j) : pos(j ^ 1, i ^ 1);
+  }
+
+  int getDimension() {
+    return dimension;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  boolean isEmpty() {
+    return close().m == null;
+  }
+
+  boolean isUniverse() {
+    double[] c = close().m;
+    if (c == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && c[pos(i, j)] != INFINITY) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Returns the number of finite non-diagonal entries of the half matrix. */
+  int getNumberOfConstraints() {
+    if (m == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        if (i != j && m[pos(i, j)] != INFINITY) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  /** Upper bound of the variable, the octagon must not be empty. */
+  double getUpperBound(int var) {
+    return close().m[pos(2 * var + 1, 2 * var)] / 2;
+  }
+
+  /** Lower bound of the variable, the octagon must not be empty. */
+  double getLowerBound(int var) {
+    return -close().m[pos(2 * var, 2 * var + 1)] / 2;
+  }
+
+  /* Closure */
+
+  /**
+   * Returns the strong closure of this matrix (tight closure for integral octagons). The closure
+   * is computed incrementally if only the constraints of a single variable have changed since this
+   * matrix was closed.
+   */
+  OctagonMatrix close() {
+    if (closed) {
+      return this;
+    }
+    if (closure == null) {
+      double[] result = m.clone();
+      boolean integral = manager.isIntegral();
+      boolean nonEmpty;
+      if (changedVariable >= 0) {
+        manager.incrementalClosures.inc();
+        nonEmpty = closeIncrementally(result, dimension, integral, changedVariable);
+      } else {
+        manager.fullClosures.inc();
+        nonEmpty = closeFully(result, dimension, integral);
+      }
+      closure = withMatrix(nonEmpty ? result : null, true);
+    }
+    return closure;
+  }
+
+  /**
+   * Returns the only variable whose constraints have changed since this matrix was closed,
+   * or -1 if this is not known.
+   */
+  int getChangedVariable() {
+    return changedVariable;
+  }
+
+  /**
+   * Computes the shortest-path closure in place, processing the two nodes of each variable
+   * together, and strengthens the result afterwards.
+   *
+   * @return false if the octagon is empty
+   */
+  private static boolean closeFully(double[] m, int n, boolean integral) {
+    int size = 2 * n;
+    for (int k = 0; k < n; k++) {
+      int k0 = 2 * k;
+      int k1 = k0 + 1;
+      double k01 = m[pos(k0, k1)];
+      double k10 = m[pos(k1, k0)];
+      for (int i = 0; i < size; i++) {
+        double ik0 = m[index(i, k0)];
+        double ik1 = m[index(i, k1)];
+        double viaK0 = Math.min(ik0, ik1 + k10);
+        double viaK1 = Math.min(ik1, ik0 + k01);
+        if (viaK0 == INFINITY && viaK1 == INFINITY) {
+          continue;
+        }
+        for (int j = 0, end = i | 1; j <= end; j++) {
+          double candidate = Math.min(viaK0 + m[index(k0, j)], viaK1 + m[index(k1, j)]);
+          int p = pos(i, j);
+          if (candidate < m[p]) {
+            m[p] = candidate;
+          }
+        }
+      }
+      if (m[pos(k0, k0)] < 0 || m[pos(k1, k1)] < 0) {
+        return false;
+      }
+    }
+    return strengthen(m, n, integral);
+  }
+
+  /**
+   * Computes the closure in place for a matrix where only the entries of the variable v have
+   * changed since it was strongly closed. Paths that use the nodes of v are found by first
+   * closing the rows of v with the closed rest of the matrix and then using the nodes of v
+   * as pivots for all other entries.
+   *
+   * @return false if the octagon is empty
+   */
+  private static boolean closeIncrementally(double[] m, int n, boolean integral, int v) {
+    int size = 2 * n;
+    int v0 = 2 * v;
+    int v1 = v0 + 1;
+
+    // shortest paths from the nodes of v that leave v only once
+    double[] row0 = new double[size];
+    double[] row1 = new double[size];
+    for (int y = 0; y < size; y++) {
+      if ((y >> 1) == v) {
+        continue;
+      }
+      double best0 = m[index(v0, y)];
+      double best1 = m[index(v1, y)];
+      for (int x = 0; x < size; x++) {
+        if ((x >> 1) == v) {
+          continue;
+        }
+        double xy = m[index(x, y)];
+        best0 = Math.min(best0, m[index(v0, x)] + xy);
+        best1 = Math.min(best1, m[index(v1, x)] + xy);
+      }
+      row0[y] = best0;
+      row1[y] = best1;
+    }
+
+    // paths between the nodes of v
+    double b00 = 0;
+    double b11 = 0;
+    double b01 = m[pos(v0, v1)];
+    double b10 = m[pos(v1, v0)];
+    for (int y = 0; y < size; y++) {
+      if ((y >> 1) == v) {
+        continue;
+      }
+      b00 = Math.min(b00, row0[y] + m[index(y, v0)]);
+      b01 = Math.min(b01, row0[y] + m[index(y, v1)]);
+      b10 = Math.min(b10, row1[y] + m[index(y, v0)]);
+      b11 = Math.min(b11, row1[y] + m[index(y, v1)]);
+    }
+    if (b00 < 0 || b11 < 0 || b01 + b10 < 0) {
+      return false;
+    }
+    m[pos(v0, v1)] = b01;
+    m[pos(v1, v0)] = b10;
+
+    // paths from the nodes of v that visit both of them, the columns follow by coherence
+    for (int y = 0; y < size; y++) {
+      if ((y >> 1) == v) {
+        continue;
+      }
+      m[index(v0, y)] = Math.min(row0[y], b01 + row1[y]);
+      m[index(v1, y)] = Math.min(row1[y], b10 + row0[y]);
+    }
+
+    // all other paths through v
+    for (int i = 0; i < size; i++) {
+      if ((i >> 1) == v) {
+        continue;
+      }
+      double iv0 = m[index(i, v0)];
+      double iv1 = m[index(i, v1)];
+      if (iv0 == INFINITY && iv1 == INFINITY) {
+        continue;
+      }
+      for (int j = 0, end = i | 1; j <= end; j++) {
+        double candidate = Math.min(iv0 + m[index(v0, j)], iv1 + m[index(v1, j)]);
+        int p = pos(i, j);
+        if (candidate < m[p]) {
+          m[p] = candidate;
+        }
+      }
+    }
+    return strengthen(m, n, integral);
+  }
+
+  /**
+   * Strengthens a shortest-path closed matrix in place, which results in its strong closure
+   * (Bagnara, Hill, Zaffanella 2009). For integral octagons, the unary constraints are
+   * tightened before, which results in the tight closure.
+   *
+   * @return false if the octagon is empty
+   */
+  private static boolean strengthen(double[] m, int n, boolean integral) {
+    int size = 2 * n;
+    double[] unary = new double[size];
+    for (int i = 0; i < size; i++) {
+      int p = pos(i, i ^ 1);
+      if (integral) {
+        m[p] = 2 * Math.floor(m[p] / 2);
+      }
+      unary[i] = m[p];
+    }
+    for (int i = 0; i < size; i++) {
+      double unaryI = unary[i];
+      if (unaryI == INFINITY) {
+        continue;
+      }
+      for (int j = 0, end = i | 1; j <= end; j++) {
+        double candidate = (unaryI + unary[j ^ 1]) / 2;
+        int p = pos(i, j);
+        if (candidate < m[p]) {
+          m[p] = candidate;
+        }
+      }
+    }
+    for (int i = 0; i < size; i++) {
+      int p = pos(i, i);
+      if (m[p] < 0) {
+        return false;
+      }
+      m[p] = 0;
+    }
+    return true;
+  }
+
+  /* Tests */
+
+  boolean isIncludedIn(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    double[] c = close().m;
+    if (c == null) {
+      return true;
+    }
+    // the other matrix needs not to be closed, because it only contains weaker bounds
+    double[] o = other.m;
+    if (o == null) {
+      return false;
+    }
+    for (int p = 0; p < c.length; p++) {
+      if (c[p] > o[p]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isEqualTo(OctagonMatrix other) {
+    if (dimension != other.dimension) {
+      return false;
+    }
+    double[] c = close().m;
+    double[] o = other.close().m;
+    if (c == null || o == null) {
+      return c == o;
+    }
+    for (int p = 0; p < c.length; p++) {
+      if (c[p] != o[p]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Checks whether the point with the given values of all variables is in the octagon. */
+  boolean contains(double[] pValues) {
+    if (m == null) {
+      return false;
+    }
+    for (int i = 0; i < 2 * dimension; i++) {
+      double vi = (i & 1) == 0 ? pValues[i >> 1] : -pValues[i >> 1];
+      for (int j = 0; j <= (i | 1); j++) {
+        double vj = (j & 1) == 0 ? pValues[j >> 1] : -pValues[j >> 1];
+        if (vj - vi > m[pos(i, j)]) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /* Operators */
+
+  /**
+   * Returns the intersection. If both matrices are closed and differ only in the constraints of
+   * a single variable, which is the case for the intersection of a state with itself after an
+   * assignment, the result can be closed incrementally.
+   */
+  OctagonMatrix intersect(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    if (m == null) {
+      return this;
+    }
+    if (other.m == null) {
+      return other;
+    }
+    if (!closed || !other.closed) {
+      double[] result = m.clone();
+      for (int p = 0; p < result.length; p++) {
+        result[p] = Math.min(result[p], other.m[p]);
+      }
+      return withMatrix(result, false);
+    }
+
+    double[] result = m.clone();
+    // the variables that are part of all changed entries, as long as there are at most two
+    int candidate1 = -2;
+    int candidate2 = -2;
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0, end = i | 1; j <= end; j++) {
+        int p = pos(i, j);
+        if (other.m[p] < result[p]) {
+          result[p] = other.m[p];
+          if (candidate1 == -2) {
+            candidate1 = i >> 1;
+            candidate2 = j >> 1;
+          } else {
+            candidate1 = (candidate1 == i >> 1 || candidate1 == j >> 1) ? candidate1 : -1;
+            candidate2 = (candidate2 == i >> 1 || candidate2 == j >> 1) ? candidate2 : -1;
+          }
+        }
+      }
+    }
+    if (candidate1 == -2) {
+      // nothing has changed
+      return this;
+    }
+    return new OctagonMatrix(
+        dimension, manager, result, false, candidate1 >= 0 ? candidate1 : candidate2);
+  }
+
+  /** Returns the least upper bound, which is strongly closed. */
+  OctagonMatrix union(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    OctagonMatrix c1 = close();
+    OctagonMatrix c2 = other.close();
+    if (c1.m == null) {
+      return c2;
+    }
+    if (c2.m == null) {
+      return c1;
+    }
+    double[] result = c1.m.clone();
+    for (int p = 0; p < result.length; p++) {
+      result[p] = Math.max(result[p], c2.m[p]);
+    }
+    return withMatrix(result, true);
+  }
+
+  /**
+   * Widening with zero as the only threshold. This matrix is the previous iterate and must not be
+   * closed for termination, so only the other matrix is closed. The result is not closed either.
+   */
+  OctagonMatrix widen(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    double[] o = other.close().m;
+    if (m == null) {
+      return other.close();
+    }
+    if (o == null) {
+      return this;
+    }
+    double[] result = m.clone();
+    for (int p = 0; p < result.length; p++) {
+      if (o[p] > result[p]) {
+        result[p] = o[p] <= 0 ? 0 : INFINITY;
+      }
+    }
+    return withMatrix(result, false);
+  }
+
+  OctagonMatrix narrow(OctagonMatrix other) {
+    checkArgument(dimension == other.dimension);
+    double[] c = close().m;
+    double[] o = other.close().m;
+    if (c == null || o == null) {
+      return toEmpty();
+    }
+    double[] result = c.clone();
+    for (int p = 0; p < result.length; p++) {
+      if (result[p] == INFINITY) {
+        result[p] = o[p];
+      }
+    }
+    return withMatrix(result, false);
+  }
+
+  /* Transfer functions */
+
+  /** Removes all constraints of the variable, the result is closed. */
+  OctagonMatrix forget(int var) {
+    double[] c = close().m;
+    if (c == null) {
+      return close();
+    }
+    double[] result = c.clone();
+    clear(result, dimension, var);
+    return withMatrix(result, true);
+  }
+
+  private static void clear(double[] m, int n, int var) {
+    int v0 = 2 * var;
+    int v1 = v0 + 1;
+    for (int y = 0; y < 2 * n; y++) {
+      if ((y >> 1) != var) {
+        m[index(v0, y)] = INFINITY;
+        m[index(v1, y)] = INFINITY;
+      }
+    }
+    m[pos(v0, v1)] = INFINITY;
+    m[pos(v1, v0)] = INFINITY;
+  }
+
+  /** Returns the node of the term (sign * var), which is either 2*var or 2*var+1. */
+  private static int node(int var, boolean positive) {
+    return positive ? 2 * var : 2 * var + 1;
+  }
+
+  /**
+   * Adds the constraint V_j - V_i <= bound, where at least one of the nodes i and j belongs to
+   * the variable var.
+   */
+  private OctagonMatrix addConstraint(int i, int j, double bound, int var) {
+    OctagonMatrix c = close();
+    if (c.m == null || c.m[index(i, j)] <= bound) {
+      return c;
+    }
+    double[] result = c.m.clone();
+    result[index(i, j)] = bound;
+    return withChangedVariable(result, var);
+  }
+
+  /** Adds the constraint (signX * x + signY * y <= bound). */
+  OctagonMatrix addBinaryConstraint(int x, boolean signX, int y, boolean signY, double bound) {
+    // x + y <= c is V_(node x) - V_(node -y) <= c
+    return addConstraint(node(y, !signY), node(x, signX), bound, x);
+  }
+
+  /** Adds the constraint (signX * x <= bound). */
+  OctagonMatrix addUnaryConstraint(int x, boolean signX, double bound) {
+    // x <= c is V_(node x) - V_(node -x) <= 2c
+    return addConstraint(node(x, !signX), node(x, signX), 2 * bound, x);
+  }
+
+  /**
+   * Assigns the linear form with interval coefficients to the variable x. The arrays contain the
+   * lower and upper bounds of the coefficients of all variables, followed by the constant.
+   *
+   * <p>The cases x = x + c, x = -x + c and x = +-y + c are handled exactly, all other forms are
+   * evaluated with the bounds of the variables. For variables y with coefficient +-1, the bounds
+   * of x -+ y are derived in addition.
+   */
+  OctagonMatrix assign(int x, double[] coeffLow, double[] coeffHigh) {
+    OctagonMatrix c = close();
+    if (c.m == null) {
+      return c;
+    }
+    int n = dimension;
+    double constLow = coeffLow[n];
+    double constHigh = coeffHigh[n];
+
+    int nonZero = 0;
+    int lastNonZero = -1;
+    for (int i = 0; i < n; i++) {
+      if (coeffLow[i] != 0 || coeffHigh[i] != 0) {
+        nonZero++;
+        lastNonZero = i;
+      }
+    }
+    int unitSign = nonZero == 1 ? unitSign(coeffLow[lastNonZero], coeffHigh[lastNonZero]) : 0;
+
+    double[] result = c.m.clone();
+    if (unitSign != 0 && lastNonZero == x) {
+      // x = +-x + [a, b], translate the constraints of x
+      if (unitSign < 0) {
+        negate(result, n, x);
+      }
+      translate(result, n, x, constLow, constHigh);
+
+    } else if (unitSign != 0) {
+      // x = +-y + [a, b], i.e., a <= x -+ y <= b
+      int y = node(lastNonZero, unitSign > 0);
+      clear(result, n, x);
+      result[index(y, 2 * x)] = constHigh;
+      result[index(2 * x, y)] = -constLow;
+
+    } else {
+      double[] lower = new double[n];
+      double[] upper = new double[n];
+      for (int i = 0; i < n; i++) {
+        lower[i] = -c.m[pos(2 * i, 2 * i + 1)] / 2;
+        upper[i] = c.m[pos(2 * i + 1, 2 * i)] / 2;
+      }
+      clear(result, n, x);
+      result[pos(2 * x + 1, 2 * x)] = 2 * evaluateHigh(coeffLow, coeffHigh, lower, upper, -1);
+      result[pos(2 * x, 2 * x + 1)] = -2 * evaluateLow(coeffLow, coeffHigh, lower, upper, -1);
+      for (int i = 0; i < n; i++) {
+        int sign = unitSign(coeffLow[i], coeffHigh[i]);
+        if (i != x && sign != 0) {
+          // x -+ y is the linear form without y
+          int y = node(i, sign > 0);
+          result[index(y, 2 * x)] = evaluateHigh(coeffLow, coeffHigh, lower, upper, i);
+          result[index(2 * x, y)] = -evaluateLow(coeffLow, coeffHigh, lower, upper, i);
+        }
+      }
+    }
+    return withChangedVariable(result, x);
+  }
+
+  private static int unitSign(double low, double high) {
+    if (low != high) {
+      return 0;
+    } else if (low == 1) {
+      return 1;
+    } else if (low == -1) {
+      return -1;
+    }
+    return 0;
+  }
+
+  /** Replaces x by -x, which swaps the two nodes of x. */
+  private static void negate(double[] m, int n, int x) {
+    double[] copy = m.clone();
+    for (int i = 0; i < 2 * n; i++) {
+      int si = (i >> 1) == x ? i ^ 1 : i;
+      for (int j = 0, end = i | 1; j <= end; j++) {
+        int sj = (j >> 1) == x ? j ^ 1 : j;
+        m[pos(i, j)] = copy[index(si, sj)];
+      }
+    }
+  }
+
+  /** Replaces x by x + t for some t in [low, high]. */
+  private static void translate(double[] m, int n, int x, double low, double high) {
+    for (int i = 0; i < 2 * n; i++) {
+      for (int j = 0, end = i | 1; j <= end; j++) {
+        // V_j - V_i changes by d*t
+        int d = sign(j, x) - sign(i, x);
+        if (d > 0) {
+          m[pos(i, j)] += d * high;
+        } else if (d < 0) {
+          m[pos(i, j)] += d * low;
+        }
+      }
+    }
+  }
+
+  private static int sign(int node, int x) {
+    if ((node >> 1) != x) {
+      return 0;
+    }
+    return (node & 1) == 0 ? 1 : -1;
+  }
+
+  /** Lower bound of the linear form without the term of the variable skip. */
+  private static double evaluateLow(
+      double[] coeffLow, double[] coeffHigh, double[] lower, double[] upper, int skip) {
+    int n = lower.length;
+    double result = coeffLow[n];
+    for (int i = 0; i < n; i++) {
+      if (i != skip) {
+        result += Math.min(
+            Math.min(multiply(coeffLow[i], lower[i]), multiply(coeffLow[i], upper[i])),
+            Math.min(multiply(coeffHigh[i], lower[i]), multiply(coeffHigh[i], upper[i])));
+      }
+    }
+    return result;
+  }
+
+  /** Upper bound of the linear form without the term of the variable skip. */
+  private static double evaluateHigh(
+      double[] coeffLow, double[] coeffHigh, double[] lower, double[] upper, int skip) {
+    int n = lower.length;
+    double result = coeffHigh[n];
+    for (int i = 0; i < n; i++) {
+      if (i != skip) {
+        result += Math.max(
+            Math.max(multiply(coeffLow[i], lower[i]), multiply(coeffLow[i], upper[i])),
+            Math.max(multiply(coeffHigh[i], lower[i]), multiply(coeffHigh[i], upper[i])));
+      }
+    }
+    return result;
+  }
+
+  /** Multiplication where zero times infinity is zero. */
+  private static double multiply(double a, double b) {
+    return (a == 0 || b == 0) ? 0 : a * b;
+  }
+
+  /** Sets the bounds of the variable, the previous constraints of the variable are removed. */
+  OctagonMatrix setBounds(int var, double lower, double upper) {
+    double[] c = close().m;
+    if (c == null) {
+      return close();
+    }
+    double[] result = c.clone();
+    clear(result, dimension, var);
+    result[pos(2 * var + 1, 2 * var)] = 2 * upper;
+    result[pos(2 * var, 2 * var + 1)] = -2 * lower;
+    return withChangedVariable(result, var);
+  }
+
+  /* Change of dimensions */
+
+  /** Adds unconstrained variables (or variables that are zero) at the end. */
+  OctagonMatrix addDimensions(int k, boolean project) {
+    int newDimension = dimension + k;
+    if (m == null) {
+      return empty(newDimension, manager);
+    }
+    double[] result = Arrays.copyOf(m, matrixSize(newDimension));
+    Arrays.fill(result, m.length, result.length, INFINITY);
+    for (int i = 2 * dimension; i < 2 * newDimension; i++) {
+      result[pos(i, i)] = 0;
+      if (project) {
+        result[pos(i, i ^ 1)] = 0;
+      }
+    }
+    // unconstrained variables do not change the closure
+    return new OctagonMatrix(newDimension, manager, result, closed && !project, project ? -1 : changedVariable);
+  }
+
+  /** Removes the last variables, the result is closed. */
+  OctagonMatrix removeDimensions(int k) {
+    checkArgument(k <= dimension);
+    int newDimension = dimension - k;
+    double[] c = close().m;
+    if (c == null) {
+      return empty(newDimension, manager);
+    }
+    return new OctagonMatrix(
+        newDimension, manager, Arrays.copyOf(c, matrixSize(newDimension)), true, -1);
+  }
+
+  @Override
+  public String toString() {
+    if (m == null) {
+      return "[Empty]";
+    }
+    StringBuilder str = new StringBuilder();
+    for (int i = 0; i < 2 * dimension; i++) {
+      for (int j = 0; j <= (i | 1); j++) {
+        str.append(m[pos(i, j)]).append(j < (i | 1) ? " " : "\n");
+      }
+    }
+    return str.toString();
+  }
+}
@@ -29,12 +29,12 @@ import java.lang.ref.ReferenceQueue;
 public class OctagonPhantomReference extends PhantomReference<Octagon> {
 
   private Long octRef;
-  private OctagonManager manager;
+  private OctagonNativeManager manager;
 
   public OctagonPhantomReference(Octagon reference, ReferenceQueue<? super Octagon> queue) {
     super(reference, queue);
     octRef = reference.getOctId();
-    manager = reference.getManager();
+    manager = (OctagonNativeManager) reference.getManager();
   }
 
   public void cleanup() {
@@ -22,6 +22,7 @@
  *    http://cpachecker.sosy-lab.org
  */
 /**
- * Wrapper around libJoct, Antoine Mine pre-APRON octagon library.
+ * Octagon abstract domain, either as wrapper around libJoct, Antoine Mine pre-APRON octagon
+ * library, or implemented in Java.
  */
 package org.sosy_lab.cpachecker.util.octagon;
\ No newline at end of file
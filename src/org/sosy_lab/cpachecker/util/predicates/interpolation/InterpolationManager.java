@@ -49,9 +49,11 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -70,6 +72,7 @@ import org.sosy_lab.cpachecker.util.LoopStructure;
 import org.sosy_lab.cpachecker.util.Triple;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.ITPStrategy;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.NestedInterpolation;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.ParallelSequentialInterpolation;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolation;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolation.SeqInterpolationStrategy;
 import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolationWithSolver;
@@ -79,6 +82,7 @@ import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.WellScoped
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
 import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.PersistentQueryCache;
 import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 import org.sosy_lab.cpachecker.util.variableclassification.VariableClassification;
@@ -99,6 +103,8 @@ public final class InterpolationManager {
   private final Timer cexAnalysisGetUsefulBlocksTimer = new Timer();
   private final Timer interpolantVerificationTimer = new Timer();
   private int reusedFormulasOnSolverStack = 0;
+  private int persistentlyCachedInterpolations = 0;
+  private int knownPathPrefixes = 0;
 
   public void printStatistics(StatisticsWriter w0) {
     w0.put("Counterexample analysis", cexAnalysisTimer + " (Max: " + cexAnalysisTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ", Calls: " + cexAnalysisTimer.getNumberOfIntervals() + ")");
@@ -107,10 +113,17 @@ public final class InterpolationManager {
       w1.put("Cex.focusing", cexAnalysisGetUsefulBlocksTimer + " (Max: " + cexAnalysisGetUsefulBlocksTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ")");
     }
     w1.put("Refinement sat check", satCheckTimer);
+    if (prefixTrie != null) {
+      w1.put("Sat checks of known path prefixes", knownPathPrefixes);
+      w1.put("Size of path prefix trie", prefixTrie.size() + " (cleared " + prefixTrie.getNumberOfClears() + " times)");
+    }
     if (reuseInterpolationEnvironment && satCheckTimer.getNumberOfIntervals() > 0) {
       w1.put("Reused formulas on solver stack", reusedFormulasOnSolverStack + " (Avg: " + div(reusedFormulasOnSolverStack, satCheckTimer.getNumberOfIntervals()) + ")");
     }
     w1.put("Interpolant computation", getInterpolantTimer);
+    if (persistentlyCachedInterpolations > 0) {
+      w1.put("Interpolants cached by previous runs", persistentlyCachedInterpolations);
+    }
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
       w1.put("Interpolant verification", interpolantVerificationTimer);
     }
@@ -125,6 +138,7 @@ public final class InterpolationManager {
   private final Solver solver;
 
   private final Interpolator<?> interpolator;
+  private final @Nullable PathPrefixTrie prefixTrie;
 
   @Option(secure=true, description="apply deletion-filter to the abstract counterexample, to get "
     + "a minimal set of blocks, before applying interpolation-based refinement")
@@ -135,6 +149,15 @@ public final class InterpolationManager {
         + "to find the minimal infeasible prefix")
   private boolean incrementalCheck = false;
 
+  @Option(secure=true, name="incrementalCexTraceCheck.maxPrefixTrieSize",
+      description="With incrementalCexTraceCheck, remember the satisfiability of up to this many "
+        + "prefixes of counterexample paths, such that prefixes that are shared by consecutive "
+        + "counterexamples are not checked again (0 to disable). "
+        + "Combine with reuseInterpolationEnvironment to also keep the formulas of shared prefixes "
+        + "on the solver stack across refinements.")
+  @IntegerOption(min=0)
+  private int maxPrefixTrieSize = 100_000;
+
   @Option(secure=true, name="cexTraceCheckDirection",
       description="Direction for doing counterexample analysis: from start of trace, from end of trace, or alternatingly from start and end of the trace towards the middle")
   private CexTraceAnalysisDirection direction = CexTraceAnalysisDirection.FORWARDS;
@@ -144,6 +167,8 @@ public final class InterpolationManager {
           "\n- SEQ_CPACHECKER: We simply return each interpolant for i={0..n-1} for the partitions A=[0 .. i] and B=[i+1 .. n]. " +
           "The result is similar to INDUCTIVE_SEQ, but we do not guarantee the 'inductiveness', " +
           "i.e. the solver has to generate nice interpolants itself. Supported by all solvers!" +
+          "\n- SEQ_PARALLEL: like SEQ_CPACHECKER, but the interpolants for the cut points are computed " +
+          "concurrently on separate solver instances (cf. option parallelInterpolation.threads)." +
           "\n- INDUCTIVE_SEQ: Generate an inductive sequence of interpolants the partitions [1,...n]. " +
           "\n- TREE: use the tree-interpolation-feature of a solver to get interpolants" +
           "\n- TREE_WELLSCOPED: We return each interpolant for i={0..n-1} for the partitions " +
@@ -152,7 +177,7 @@ public final class InterpolationManager {
           "\n- TREE_CPACHECKER: similar to TREE_NESTED, but the algorithm is taken from 'Tree Interpolation in Vampire'.")
   private InterpolationStrategy strategy = InterpolationStrategy.SEQ_CPACHECKER;
   private static enum InterpolationStrategy {
-    SEQ, SEQ_CPACHECKER,
+    SEQ, SEQ_CPACHECKER, SEQ_PARALLEL,
     TREE,
     TREE_WELLSCOPED,
     TREE_NESTED,
@@ -165,6 +190,17 @@ public final class InterpolationManager {
       + "if one does not succeed, or even combine the interpolants.")
   private SeqInterpolationStrategy sequentialStrategy = SeqInterpolationStrategy.FWD;
 
+  @Option(secure=true, name="parallelInterpolation.threads",
+      description="Number of threads (each with its own solver instance) "
+        + "for the interpolation strategy SEQ_PARALLEL.")
+  @IntegerOption(min=2)
+  private int parallelInterpolationThreads = 2;
+
+  @Option(secure=true, name="parallelInterpolation.minFormulas",
+      description="Counterexamples with less blocks are interpolated sequentially "
+        + "with the interpolation strategy SEQ_PARALLEL.")
+  private int parallelInterpolationMinFormulas = 8;
+
   @Option(secure=true, description="dump all interpolation problems")
   private boolean dumpInterpolationProblems = false;
 
@@ -186,6 +222,9 @@ public final class InterpolationManager {
   private boolean reuseInterpolationEnvironment = false;
 
   private final ExecutorService executor;
+  private final List<Solver> parallelInterpolationSolvers;
+  private final ExecutorService parallelInterpolationExecutor;
+  private boolean closed = false;
   private final LoopStructure loopStructure;
   private final VariableClassification variableClassification;
 
@@ -211,11 +250,41 @@ public final class InterpolationManager {
     if (itpTimeLimit.isEmpty()) {
       executor = null;
     } else {
-      // important to use daemon threads here, because we never have the chance to stop the executor
+      // important to use daemon threads here, in case the analysis is aborted before close()
       executor =
           Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).build());
     }
 
+    if (strategy == InterpolationStrategy.SEQ_PARALLEL) {
+      // the persistent query cache is maintained by the main solver only
+      Configuration workerConfig =
+          Configuration.builder()
+              .copyFrom(config)
+              .clearOption("solver.persistentCache.file")
+              .build();
+      ImmutableList.Builder<Solver> solvers = ImmutableList.builder();
+      for (int i = 0; i < parallelInterpolationThreads; i++) {
+        solvers.add(Solver.create(workerConfig, pLogger, pShutdownNotifier));
+      }
+      parallelInterpolationSolvers = solvers.build();
+      parallelInterpolationExecutor =
+          Executors.newFixedThreadPool(
+              parallelInterpolationThreads,
+              new ThreadFactoryBuilder()
+                  .setNameFormat("Interpolation worker %d")
+                  .setDaemon(true)
+                  .build());
+    } else {
+      parallelInterpolationSolvers = ImmutableList.of();
+      parallelInterpolationExecutor = null;
+    }
+
+    if (incrementalCheck && maxPrefixTrieSize > 0) {
+      prefixTrie = new PathPrefixTrie(maxPrefixTrieSize);
+    } else {
+      prefixTrie = null;
+    }
+
     if (reuseInterpolationEnvironment) {
       interpolator = new Interpolator<>();
     } else {
@@ -223,6 +292,30 @@ public final class InterpolationManager {
     }
   }
 
+  /**
+   * Stop the worker threads and close the solvers used for parallel interpolation.
+   * The main solver is not closed. This instance may not be used anymore afterwards.
+   *
+   * <p>Instances created by the predicate refiners are registered with the {@link
+   * org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA} and closed together with it, which happens
+   * after the statistics of the analysis were printed. Calling this method again has no effect.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    if (parallelInterpolationExecutor != null) {
+      parallelInterpolationExecutor.shutdownNow();
+    }
+    for (Solver parallelInterpolationSolver : parallelInterpolationSolvers) {
+      parallelInterpolationSolver.close();
+    }
+  }
+
   /**
    * Counterexample analysis. This method is just an helper to delegate the actual work This is used
    * to detect timeouts for interpolation
@@ -291,6 +384,23 @@ public final class InterpolationManager {
     try {
       final BlockFormulas f = prepareCounterexampleFormulas(pFormulas);
 
+      // Interpolants of tree strategies depend on the abstraction states,
+      // so we can only reuse results of sequential interpolation from previous runs.
+      final Optional<PersistentQueryCache> persistentCache =
+          strategy == InterpolationStrategy.SEQ
+                  || strategy == InterpolationStrategy.SEQ_CPACHECKER
+                  || strategy == InterpolationStrategy.SEQ_PARALLEL
+              ? solver.getPersistentQueryCache()
+              : Optional.empty();
+      if (persistentCache.isPresent()) {
+        Optional<List<BooleanFormula>> cachedInterpolants =
+            persistentCache.get().lookupInterpolants(f.getFormulas(), getInterpolationSettings());
+        if (cachedInterpolants.isPresent()) {
+          persistentlyCachedInterpolations++;
+          return CounterexampleTraceInfo.infeasible(cachedInterpolants.get());
+        }
+      }
+
       final Interpolator<?> currentInterpolator;
       if (reuseInterpolationEnvironment) {
         currentInterpolator = checkNotNull(interpolator);
@@ -300,8 +410,15 @@ public final class InterpolationManager {
 
       try {
         try {
-          return currentInterpolator.buildCounterexampleTrace(
-              f, pAbstractionStates);
+          CounterexampleTraceInfo info =
+              currentInterpolator.buildCounterexampleTrace(f, pAbstractionStates);
+          if (persistentCache.isPresent() && info.isSpurious()) {
+            persistentCache
+                .get()
+                .storeInterpolants(
+                    f.getFormulas(), getInterpolationSettings(), info.getInterpolants());
+          }
+          return info;
         } finally {
           if (!reuseInterpolationEnvironment) {
             currentInterpolator.close();
@@ -320,6 +437,17 @@ public final class InterpolationManager {
     }
   }
 
+  /** Identifier for all settings that influence the computed interpolants. */
+  private String getInterpolationSettings() {
+    return strategy
+        + " "
+        + sequentialStrategy
+        + " "
+        + getUsefulBlocks
+        + " "
+        + solver.getInterpolatingVersion();
+  }
+
   /**
    * Counterexample analysis without interpolation. Use this method if you want to check a
    * counterexample for feasibility and in case of a feasible counterexample want the proper path
@@ -620,6 +748,18 @@ public final class InterpolationManager {
       case SEQ_CPACHECKER:
         itpStrategy = new SequentialInterpolation<>(logger, shutdownNotifier, fmgr, bfmgr, sequentialStrategy);
         break;
+      case SEQ_PARALLEL:
+        itpStrategy =
+            new ParallelSequentialInterpolation<>(
+                logger,
+                shutdownNotifier,
+                fmgr,
+                bfmgr,
+                sequentialStrategy,
+                parallelInterpolationSolvers,
+                checkNotNull(parallelInterpolationExecutor),
+                parallelInterpolationMinFormulas);
+        break;
       case SEQ:
         itpStrategy = new SequentialInterpolationWithSolver<>(logger, shutdownNotifier, fmgr, bfmgr);
         break;
@@ -934,12 +1074,25 @@ public final class InterpolationManager {
         reusedFormulasOnSolverStack += currentlyAssertedFormulas.size();
       }
 
+      // the nodes of the prefixes of the trace in the trie, if we remember prefixes
+      final List<PathPrefixTrie.Node> prefixNodes;
+      if (prefixTrie != null) {
+        prefixNodes = new ArrayList<>(traceFormulas.size());
+        PathPrefixTrie.Node node = prefixTrie.getRoot();
+        for (Triple<BooleanFormula, AbstractState, Integer> p : traceFormulas) {
+          node = prefixTrie.getChild(node, p.getFirst());
+          prefixNodes.add(node);
+        }
+      } else {
+        prefixNodes = null;
+      }
+
       boolean isStillFeasible = true;
 
       // we do only need this unsat call here if we are using the incremental
       // checking option, otherwise it is anyway done later on
       if (incrementalCheck && !currentlyAssertedFormulas.isEmpty()) {
-        isStillFeasible = !itpProver.isUnsat();
+        isStillFeasible = !isPrefixUnsat(prefixNodes, currentlyAssertedFormulas.size() - 1);
       }
 
       // add remaining formulas to the solver stack
@@ -959,7 +1112,7 @@ public final class InterpolationManager {
         // We need to iterate through the full loop
         // to add all formulas, but this prevents us from doing further sat checks.
         if (incrementalCheck && isStillFeasible && !bfmgr.isTrue(f)) {
-          isStillFeasible = !itpProver.isUnsat();
+          isStillFeasible = !isPrefixUnsat(prefixNodes, currentlyAssertedFormulas.size() - 1);
         }
       }
 
@@ -970,7 +1123,34 @@ public final class InterpolationManager {
       // we have to do the sat check every time, as it could be that also
       // with incremental checking it was missing (when the path is infeasible
       // and formulas get pushed afterwards)
-      return itpProver.isUnsat();
+      final boolean unsat = itpProver.isUnsat();
+      if (prefixNodes != null && !prefixNodes.isEmpty()) {
+        Iterables.getLast(prefixNodes).setUnsat(unsat);
+      }
+      return unsat;
+    }
+
+    /**
+     * Check whether the formulas on the solver stack, which are the prefix of the trace
+     * up to the given index, are unsatisfiable.
+     * If the result for this prefix is already known from a previous counterexample,
+     * the solver is not asked.
+     */
+    private boolean isPrefixUnsat(
+        final @Nullable List<PathPrefixTrie.Node> prefixNodes, final int index)
+        throws InterruptedException, SolverException {
+      if (prefixNodes == null) {
+        return itpProver.isUnsat();
+      }
+      final PathPrefixTrie.Node node = prefixNodes.get(index);
+      final Boolean knownUnsat = node.isUnsat();
+      if (knownUnsat != null) {
+        knownPathPrefixes++;
+        return knownUnsat;
+      }
+      final boolean unsat = itpProver.isUnsat();
+      node.setUnsat(unsat);
+      return unsat;
     }
 
     private void close() {
@@ -0,0 +1,105 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * A trie over the block formulas of counterexample paths that remembers for each path prefix
+ * whether the conjunction of its formulas is satisfiable.
+ *
+ * <p>Consecutive counterexamples usually share long prefixes (the block formulas of the same ARG
+ * states are identical), so the satisfiability of these prefixes need not be checked again.
+ * Satisfiability of a conjunction does not depend on the state of the solver stack, so the results
+ * stay valid across refinements and prover instances as long as the same solver context is used.
+ *
+ * <p>The trie is cleared completely when it grows larger than the given limit.
+ */
+final class PathPrefixTrie {
+
+  static final class Node {
+    private final Map<BooleanFormula, Node> children = new HashMap<>(2);
+
+    // null if unknown
+    private @Nullable Boolean unsat;
+
+    private Node(@Nullable Boolean pUnsat) {
+      unsat = pUnsat;
+    }
+
+    /** Return whether the prefix is known to be unsatisfiable, or null if it is unknown. */
+    @Nullable
+    Boolean isUnsat() {
+      return unsat;
+    }
+
+    void setUnsat(boolean pUnsat) {
+      assert unsat == null || unsat == pUnsat : "inconsistent satisfiability of path prefix";
+      unsat = pUnsat;
+    }
+  }
+
+  private final int maxSize;
+  private Node root = new Node(false);
+  private int size = 0;
+  private int clears = 0;
+
+  PathPrefixTrie(int pMaxSize) {
+    maxSize = pMaxSize;
+  }
+
+  Node getRoot() {
+    if (size > maxSize) {
+      root = new Node(false);
+      size = 0;
+      clears++;
+    }
+    return root;
+  }
+
+  /**
+   * Return the node for the prefix that extends the prefix of the given node by one formula,
+   * creating it if necessary. Extensions of unsatisfiable prefixes are unsatisfiable, too.
+   */
+  Node getChild(Node pParent, BooleanFormula pFormula) {
+    Node child = pParent.children.get(pFormula);
+    if (child == null) {
+      child = new Node(Boolean.TRUE.equals(pParent.unsat) ? Boolean.TRUE : null);
+      pParent.children.put(pFormula, child);
+      size++;
+    }
+    return child;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int getNumberOfClears() {
+    return clears;
+  }
+}
@@ -0,0 +1,207 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation.strategy;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.strategy.SequentialInterpolation.SeqInterpolationStrategy;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.BooleanFormulaManager;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * This strategy computes the same interpolants as {@link SequentialInterpolation}, i.e., each
+ * interpolant for i={0..n-1} for the partitions A=[0 .. i] and B=[i+1 .. n], but the cut points are
+ * distributed over several workers that compute their interpolants concurrently.
+ *
+ * <p>Solver contexts are not thread-safe, so each worker has its own instance of {@link Solver}
+ * with its own interpolating prover, on which the complete path formula is asserted again. All
+ * formulas are translated between the solver contexts by the calling thread. Because each worker
+ * has to prove the path formula unsatisfiable by itself, this only pays off for long paths with
+ * expensive interpolation queries, shorter paths are handled sequentially on the given prover.
+ */
+public class ParallelSequentialInterpolation<T> extends ITPStrategy<T> {
+
+  private final ShutdownNotifier shutdownNotifier;
+  private final SeqInterpolationStrategy sequentialStrategy;
+  private final List<Solver> workerSolvers;
+  private final ExecutorService executor;
+  private final int minFormulas;
+
+  /**
+   * @param pWorkerSolvers The solvers used by the workers, one per thread of the executor. They
+   *     must not be used by anybody else while interpolants are computed.
+   * @param pExecutor The executor that runs the workers.
+   * @param pMinFormulas Paths with less formulas are interpolated sequentially.
+   */
+  public ParallelSequentialInterpolation(
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      FormulaManagerView pFmgr,
+      BooleanFormulaManager pBfmgr,
+      SeqInterpolationStrategy pSequentialStrategy,
+      List<Solver> pWorkerSolvers,
+      ExecutorService pExecutor,
+      int pMinFormulas) {
+    super(pLogger, pShutdownNotifier, pFmgr, pBfmgr);
+    shutdownNotifier = pShutdownNotifier;
+    sequentialStrategy = pSequentialStrategy;
+    workerSolvers = pWorkerSolvers;
+    executor = pExecutor;
+    minFormulas = pMinFormulas;
+  }
+
+  @Override
+  public List<BooleanFormula> getInterpolants(
+      final InterpolationManager.Interpolator<T> interpolator,
+      final List<Triple<BooleanFormula, AbstractState, T>> formulasWithStateAndGroupId)
+      throws InterruptedException, SolverException {
+
+    final int n = formulasWithStateAndGroupId.size();
+    if (n < minFormulas || n < 2) {
+      return new SequentialInterpolation<T>(
+              logger, shutdownNotifier, fmgr, bfmgr, sequentialStrategy)
+          .getInterpolants(interpolator, formulasWithStateAndGroupId);
+    }
+
+    final boolean backwards =
+        sequentialStrategy == SeqInterpolationStrategy.BWD
+            || sequentialStrategy == SeqInterpolationStrategy.BWD_FALLBACK;
+    final List<BooleanFormula> formulas =
+        Lists.transform(formulasWithStateAndGroupId, Triple::getFirst);
+
+    // cut point i separates the formulas [0 .. i] and [i+1 .. n-1]
+    final List<Integer> cutPoints = new ArrayList<>(n - 1);
+    for (int i = 0; i < n - 1; i++) {
+      cutPoints.add(i);
+    }
+    final int partitionSize = (cutPoints.size() + workerSolvers.size() - 1) / workerSolvers.size();
+    final List<List<Integer>> partitions = Lists.partition(cutPoints, partitionSize);
+
+    logger.log(
+        Level.ALL,
+        "Computing",
+        cutPoints.size(),
+        "interpolants with",
+        partitions.size(),
+        "workers");
+
+    final List<Future<List<BooleanFormula>>> results = new ArrayList<>(partitions.size());
+    try {
+      for (int i = 0; i < partitions.size(); i++) {
+        final Solver workerSolver = workerSolvers.get(i);
+        final FormulaManagerView workerFmgr = workerSolver.getFormulaManager();
+        final List<Integer> partition = partitions.get(i);
+
+        // translate in this thread, the main solver context must not be accessed concurrently
+        final List<BooleanFormula> workerFormulas = new ArrayList<>(n);
+        for (BooleanFormula f : formulas) {
+          workerFormulas.add(workerFmgr.translateFrom(f, fmgr));
+        }
+
+        results.add(
+            executor.submit(
+                () -> interpolate(workerSolver, workerFormulas, partition, backwards)));
+      }
+
+      final List<BooleanFormula> interpolants = new ArrayList<>(n - 1);
+      for (int i = 0; i < partitions.size(); i++) {
+        // the worker is finished, so its solver context may be accessed from this thread
+        final FormulaManagerView workerFmgr = workerSolvers.get(i).getFormulaManager();
+        for (BooleanFormula itp : results.get(i).get()) {
+          interpolants.add(fmgr.translateFrom(itp, workerFmgr));
+        }
+      }
+      return interpolants;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, SolverException.class, InterruptedException.class);
+      throw new AssertionError("unexpected exception during interpolation", t);
+
+    } finally {
+      for (Future<?> result : results) {
+        result.cancel(true);
+      }
+    }
+  }
+
+  /** Compute the interpolants for some cut points of the path in the context of a worker. */
+  private List<BooleanFormula> interpolate(
+      Solver workerSolver,
+      List<BooleanFormula> workerFormulas,
+      List<Integer> cutPoints,
+      boolean backwards)
+      throws InterruptedException, SolverException {
+    try (InterpolatingProverEnvironment<?> itpProver =
+        workerSolver.newProverEnvironmentWithInterpolation()) {
+      return interpolate(itpProver, workerSolver, workerFormulas, cutPoints, backwards);
+    }
+  }
+
+  private <S> List<BooleanFormula> interpolate(
+      InterpolatingProverEnvironment<S> itpProver,
+      Solver workerSolver,
+      List<BooleanFormula> workerFormulas,
+      List<Integer> cutPoints,
+      boolean backwards)
+      throws InterruptedException, SolverException {
+    final List<S> itpGroupIds = new ArrayList<>(workerFormulas.size());
+    for (BooleanFormula f : workerFormulas) {
+      itpGroupIds.add(itpProver.push(f));
+    }
+    if (!itpProver.isUnsat()) {
+      throw new SolverException("Path formula became satisfiable in separate solver instance");
+    }
+
+    final BooleanFormulaManager workerBfmgr =
+        workerSolver.getFormulaManager().getBooleanFormulaManager();
+    final List<BooleanFormula> interpolants = new ArrayList<>(cutPoints.size());
+    for (int cutPoint : cutPoints) {
+      shutdownNotifier.shutdownIfNecessary();
+      if (backwards) {
+        interpolants.add(
+            workerBfmgr.not(
+                itpProver.getInterpolant(itpGroupIds.subList(cutPoint + 1, itpGroupIds.size()))));
+      } else {
+        interpolants.add(itpProver.getInterpolant(itpGroupIds.subList(0, cutPoint + 1)));
+      }
+    }
+    return interpolants;
+  }
+}
@@ -25,15 +25,29 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.EnumMultiset;
+import com.google.common.collect.Multiset;
 import java.io.PrintStream;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToIntFunction;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
@@ -46,45 +60,87 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ *
+ * <p>The caches are bounded by the estimated size of the retained path formulas
+ * (cf. {@link #weigh(PathFormula)}) and evict least-recently used entries.
+ * The results of operations on edges are cached per edge, such that a lookup
+ * only compares path formulas that were used with the same edge.
  */
+@Options(prefix = "cpa.predicate.pathFormulaCache")
 public class CachingPathFormulaManager implements PathFormulaManager {
 
+  @Option(
+    secure = true,
+    description =
+        "Maximum estimated size of the path formulas retained by each cache of "
+            + "the caching path-formula manager (size of a path formula: "
+            + "1 + number of edges since the last abstraction). "
+            + "Least-recently used entries are evicted if this limit is exceeded. "
+            + "Use -1 for no limit."
+  )
+  private long maxWeight = 5_000_000;
+
   public final Timer pathFormulaComputationTimer = new Timer();
   public int pathFormulaCacheHits = 0;
 
   public final PathFormulaManager delegate;
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
+  private final EdgeKeyedCache<Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache;
+  private final EdgeKeyedCache<PathFormula> andFormulaCache;
+
+  private final Cache<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final Multiset<CFAEdgeType> edgeCacheHits = EnumMultiset.create(CFAEdgeType.class);
+  private final Multiset<CFAEdgeType> edgeCacheMisses = EnumMultiset.create(CFAEdgeType.class);
 
   private final PathFormula emptyFormula;
 
-  public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, Configuration pConfig)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+
+    andFormulaWithConditionsCache =
+        new EdgeKeyedCache<>(maxWeight, result -> weigh(result.getFirstNotNull()));
+    andFormulaCache = new EdgeKeyedCache<>(maxWeight, CachingPathFormulaManager::weigh);
+    orFormulaCache = buildWeightedCache((key, result) -> weigh(result));
+    emptyFormulaCache = buildWeightedCache((key, result) -> weigh(key));
+  }
+
+  private <K, V> Cache<K, V> buildWeightedCache(Weigher<K, V> weigher) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maxWeight < 0) {
+      return builder.build();
+    }
+    return builder.maximumWeight(maxWeight).weigher(weigher).build();
+  }
+
+  /**
+   * Estimate the size of the formula that is retained by caching a path formula.
+   * Computing the real size of the formula would be too expensive,
+   * so we use the number of edges that were conjoined since the last abstraction.
+   */
+  private static int weigh(PathFormula pPathFormula) {
+    return 1 + pPathFormula.getLength();
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
 
-    final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(pEdge, pOldFormula);
     if (result == null) {
+      edgeCacheMisses.add(pEdge.getEdgeType());
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAndWithErrorConditions(pOldFormula, pEdge);
       pathFormulaComputationTimer.stop();
-      andFormulaWithConditionsCache.put(formulaCacheKey, result);
+      andFormulaWithConditionsCache.put(pEdge, pOldFormula, result);
 
     } else {
+      edgeCacheHits.add(pEdge.getEdgeType());
       pathFormulaCacheHits++;
     }
     return result;
@@ -92,19 +148,20 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
-    final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.get(pEdge, pOldFormula);
     if (result == null) {
+      edgeCacheMisses.add(pEdge.getEdgeType());
       try {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
       result = delegate.makeAnd(pOldFormula, pEdge);
-      andFormulaCache.put(formulaCacheKey, result);
+      andFormulaCache.put(pEdge, pOldFormula, result);
       } finally {
         pathFormulaComputationTimer.stop();
       }
 
     } else {
+      edgeCacheHits.add(pEdge.getEdgeType());
       pathFormulaCacheHits++;
     }
     return result;
@@ -114,10 +171,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
     final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
 
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
+    PathFormula result = orFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
+      result = orFormulaCache.getIfPresent(Pair.of(pF2, pF1));
     }
 
     if (result == null) {
@@ -136,7 +193,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormula(pOldFormula);
       emptyFormulaCache.put(pOldFormula, result);
@@ -207,6 +264,18 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     int pathFormulaCacheHits = this.pathFormulaCacheHits;
     int totalPathFormulaComputations = this.pathFormulaComputationTimer.getNumberOfIntervals() + pathFormulaCacheHits;
     out.println("Number of path formula cache hits:   " + pathFormulaCacheHits + " (" + toPercent(pathFormulaCacheHits, totalPathFormulaComputations) + ")");
+    for (CFAEdgeType edgeType : CFAEdgeType.values()) {
+      int hits = edgeCacheHits.count(edgeType);
+      int lookups = hits + edgeCacheMisses.count(edgeType);
+      if (lookups > 0) {
+        out.println(String.format("  %-36s%s (%d of %d)", "for " + edgeType + ":", toPercent(hits, lookups), hits, lookups));
+      }
+    }
+    out.println("Cached results for edges:             " + (andFormulaCache.size() + andFormulaWithConditionsCache.size())
+        + " (evicted: " + (andFormulaCache.evictionCount + andFormulaWithConditionsCache.evictionCount) + ")");
+    CacheStats orStats = orFormulaCache.stats().plus(emptyFormulaCache.stats());
+    out.println("Cached merges and abstractions:       " + (orFormulaCache.size() + emptyFormulaCache.size())
+        + " (evicted: " + orStats.evictionCount() + ")");
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -226,4 +295,129 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   public PathFormula makeNewPathFormula(PathFormula pOldFormula, SSAMap pM, PointerTargetSet pPts) {
     return delegate.makeNewPathFormula(pOldFormula, pM, pPts);
   }
+
+  /**
+   * Cache for the results of operations on edges.
+   * The first level is keyed by the edge and ordered by access,
+   * the second level maps the input path formulas to the results for this edge.
+   * If the total weight of all entries exceeds the limit,
+   * the results for the least-recently used edges are evicted,
+   * and then the least-recently used results for the current edge.
+   */
+  private static final class EdgeKeyedCache<V> {
+
+    private static final class EdgeEntries<V> {
+      private final LinkedHashMap<PathFormulaKey, V> results = new LinkedHashMap<>(4, 0.75f, true);
+      private long weight = 0;
+    }
+
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<CFAEdge, EdgeEntries<V>> edges =
+        new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+    private int size = 0;
+    private int evictionCount = 0;
+
+    private EdgeKeyedCache(long pMaxWeight, ToIntFunction<V> pWeigher) {
+      maxWeight = pMaxWeight;
+      weigher = pWeigher;
+    }
+
+    private @Nullable V get(CFAEdge pEdge, PathFormula pOldFormula) {
+      EdgeEntries<V> entries = edges.get(pEdge);
+      return entries == null ? null : entries.results.get(new PathFormulaKey(pOldFormula));
+    }
+
+    private void put(CFAEdge pEdge, PathFormula pOldFormula, V pResult) {
+      EdgeEntries<V> entries = edges.computeIfAbsent(pEdge, edge -> new EdgeEntries<>());
+      int entryWeight = weigher.applyAsInt(pResult);
+      V previous = entries.results.put(new PathFormulaKey(pOldFormula), pResult);
+      if (previous == null) {
+        size++;
+      } else {
+        entryWeight -= weigher.applyAsInt(previous);
+      }
+      entries.weight += entryWeight;
+      weight += entryWeight;
+
+      if (maxWeight >= 0 && weight > maxWeight) {
+        evict(entries);
+      }
+    }
+
+    /**
+     * Evict least-recently used edges except the current one (which is used most recently),
+     * and if this is not enough, the least-recently used results of the current edge
+     * except the one that was just added.
+     */
+    private void evict(EdgeEntries<V> pCurrent) {
+      Iterator<EdgeEntries<V>> it = edges.values().iterator();
+      while (weight > maxWeight && it.hasNext()) {
+        EdgeEntries<V> entries = it.next();
+        if (entries == pCurrent) {
+          break;
+        }
+        weight -= entries.weight;
+        size -= entries.results.size();
+        evictionCount += entries.results.size();
+        it.remove();
+      }
+
+      Iterator<V> results = pCurrent.results.values().iterator();
+      while (weight > maxWeight && pCurrent.results.size() > 1) {
+        int entryWeight = weigher.applyAsInt(results.next());
+        pCurrent.weight -= entryWeight;
+        weight -= entryWeight;
+        size--;
+        evictionCount++;
+        results.remove();
+      }
+    }
+
+    private int size() {
+      return size;
+    }
+  }
+
+  /**
+   * Key for the input path formula of an edge. Path formulas for the same edge mostly differ in
+   * their formula, so the key hashes only the formula and compares the SSA map and the
+   * pointer-target set by identity instead of hashing and comparing them completely. Equal path
+   * formulas with different instances of these maps only result in a cache miss.
+   */
+  private static final class PathFormulaKey {
+
+    private final BooleanFormula formula;
+    private final SSAMap ssa;
+    private final PointerTargetSet pts;
+    private final int length;
+
+    private PathFormulaKey(PathFormula pPathFormula) {
+      formula = pPathFormula.getFormula();
+      ssa = pPathFormula.getSsa();
+      pts = pPathFormula.getPointerTargetSet();
+      length = pPathFormula.getLength();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof PathFormulaKey)) {
+        return false;
+      }
+      PathFormulaKey other = (PathFormulaKey) pObj;
+      return ssa == other.ssa
+          && pts == other.pts
+          && length == other.length
+          && formula.equals(other.formula);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * formula.hashCode() + System.identityHashCode(ssa);
+    }
+  }
 }
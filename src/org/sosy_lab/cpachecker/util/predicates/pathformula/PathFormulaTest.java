@@ -24,14 +24,19 @@
 package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.sosy_lab.common.collect.MapsDifference.collectMapsDifferenceTo;
 
+import com.google.common.collect.Lists;
 import com.google.common.testing.ClassSanityTester;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sosy_lab.common.collect.MapsDifference;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentLinkedList;
 import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
@@ -173,4 +178,64 @@ public class PathFormulaTest {
     thrown.expect(IllegalArgumentException.class);
     builder.setIndex("a", CNumericTypes.INT, 1);
   }
+
+  @Test
+  public void testSSAMerge() {
+    // enough variables for several levels in the underlying trie
+    for (int i = 0; i < 100; i++) {
+      builder.setIndex("v" + i, CNumericTypes.INT, 1);
+    }
+    SSAMap base = builder.build();
+    SSAMap ssa1 =
+        base.builder()
+            .setIndex("v5", CNumericTypes.INT, 3)
+            .setIndex("left", CNumericTypes.INT, 1)
+            .build();
+    SSAMap ssa2 =
+        base.builder()
+            .setIndex("v5", CNumericTypes.INT, 2)
+            .setIndex("v70", CNumericTypes.INT, 4)
+            .setIndex("right", CNumericTypes.INT, 2)
+            .build();
+
+    List<MapsDifference.Entry<String, Integer>> differences = new ArrayList<>();
+    SSAMap merged = SSAMap.merge(ssa1, ssa2, collectMapsDifferenceTo(differences));
+
+    assertThat(merged.getIndex("v5")).isEqualTo(3);
+    assertThat(merged.getIndex("v70")).isEqualTo(4);
+    assertThat(merged.getIndex("v99")).isEqualTo(1);
+    assertThat(merged.getIndex("left")).isEqualTo(1);
+    assertThat(merged.getIndex("right")).isEqualTo(2);
+    assertThat(merged.getIndex("unknown")).isEqualTo(-1);
+    assertThat(merged.allVariables()).hasSize(102);
+    assertThat(Lists.transform(differences, MapsDifference.Entry::getKey))
+        .containsExactly("left", "right", "v5", "v70")
+        .inOrder();
+
+    SSAMap expected =
+        ssa1.builder()
+            .setIndex("v70", CNumericTypes.INT, 4)
+            .setIndex("right", CNumericTypes.INT, 2)
+            .build();
+    assertThat(merged).isEqualTo(expected);
+    assertThat(merged.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(SSAMap.merge(merged, ssa2, MapsDifference.ignoreMapsDifference()))
+        .isEqualTo(merged);
+  }
+
+  @Test
+  public void testSSADelete() {
+    SSAMap ssa =
+        builder
+            .setIndex("a", CNumericTypes.INT, 1)
+            .setIndex("b", CNumericTypes.INT, 2)
+            .build();
+    SSAMap deleted = ssa.builder().deleteVariable("a").build();
+
+    assertThat(deleted.containsVariable("a")).isFalse();
+    assertThat(deleted.containsVariable("b")).isTrue();
+    assertThat(deleted.allVariables()).containsExactly("b");
+    assertThat(deleted)
+        .isEqualTo(SSAMap.emptySSAMap().builder().setIndex("b", CNumericTypes.INT, 2).build());
+  }
 }
@@ -0,0 +1,320 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import javax.annotation.Nullable;
+
+/**
+ * Immutable map from small non-negative int keys to positive int values,
+ * implemented as a path-copying 32-way trie (similar to a persistent vector).
+ * It is intended for dense keys like the ids of {@link SSAVariableIds}.
+ *
+ * <p>Values are stored unboxed, and the value 0 represents an absent key
+ * (so 0 cannot be stored as a value).
+ * Modifications copy only the path from the root to the modified leaf,
+ * and {@link #merge(PersistentIntMap, PersistentIntMap, DifferenceVisitor)}
+ * skips all subtrees that are shared between both maps.
+ */
+final class PersistentIntMap {
+
+  /** Callback for keys with different values in two maps (0 means absent). */
+  interface DifferenceVisitor {
+    void differingValues(int key, int leftValue, int rightValue);
+  }
+
+  /** Callback for all entries of a map. */
+  interface EntryVisitor {
+    void visit(int key, int value);
+  }
+
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private static final PersistentIntMap EMPTY = new PersistentIntMap(null, 0, 0);
+
+  // int[] if shift is 0, Object[] otherwise
+  private final @Nullable Object root;
+
+  // the number of bits of the key that are handled below the root
+  private final int shift;
+  private final int size;
+
+  private PersistentIntMap(@Nullable Object pRoot, int pShift, int pSize) {
+    root = pRoot;
+    shift = pShift;
+    size = pSize;
+  }
+
+  static PersistentIntMap of() {
+    return EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Return the value for the key, or 0 if there is none. */
+  int get(int key) {
+    if (root == null || key < 0 || (key >>> shift) >= WIDTH) {
+      return 0;
+    }
+    Object node = root;
+    for (int s = shift; s > 0; s -= BITS) {
+      node = ((Object[]) node)[(key >>> s) & MASK];
+      if (node == null) {
+        return 0;
+      }
+    }
+    return ((int[]) node)[key & MASK];
+  }
+
+  /** Return a map where the key is mapped to the value (0 removes the key). */
+  PersistentIntMap putAndCopy(int key, int value) {
+    checkArgument(key >= 0, "negative key %s", key);
+    checkArgument(value >= 0, "negative value %s", value);
+    int oldValue = get(key);
+    if (oldValue == value) {
+      return this;
+    }
+
+    Object newRoot = root;
+    int newShift = shift;
+    while ((key >>> newShift) >= WIDTH) {
+      if (newRoot != null) {
+        Object[] node = new Object[WIDTH];
+        node[0] = newRoot;
+        newRoot = node;
+      }
+      newShift += BITS;
+    }
+
+    newRoot = put(newRoot, newShift, key, value);
+    int newSize = size + (oldValue == 0 ? 1 : 0) - (value == 0 ? 1 : 0);
+    return new PersistentIntMap(newRoot, newShift, newSize);
+  }
+
+  private static Object put(@Nullable Object node, int shift, int key, int value) {
+    if (shift == 0) {
+      int[] leaf = node == null ? new int[WIDTH] : ((int[]) node).clone();
+      leaf[key & MASK] = value;
+      return leaf;
+    }
+    Object[] inner = node == null ? new Object[WIDTH] : ((Object[]) node).clone();
+    int i = (key >>> shift) & MASK;
+    inner[i] = put(inner[i], shift - BITS, key, value);
+    return inner;
+  }
+
+  /** Visit all entries in ascending order of their keys. */
+  void forEach(EntryVisitor visitor) {
+    if (root != null) {
+      forEach(root, shift, 0, visitor);
+    }
+  }
+
+  private static void forEach(Object node, int shift, int offset, EntryVisitor visitor) {
+    if (shift == 0) {
+      int[] leaf = (int[]) node;
+      for (int i = 0; i < WIDTH; i++) {
+        if (leaf[i] != 0) {
+          visitor.visit(offset + i, leaf[i]);
+        }
+      }
+    } else {
+      Object[] inner = (Object[]) node;
+      for (int i = 0; i < WIDTH; i++) {
+        if (inner[i] != null) {
+          forEach(inner[i], shift - BITS, offset + (i << shift), visitor);
+        }
+      }
+    }
+  }
+
+  /** Return the root of this map lifted to the given height. */
+  private @Nullable Object liftRoot(int pShift) {
+    Object node = root;
+    for (int s = shift; s < pShift; s += BITS) {
+      if (node != null) {
+        Object[] inner = new Object[WIDTH];
+        inner[0] = node;
+        node = inner;
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Create a map with all keys of both maps, using the maximum if both maps
+   * have a value for a key. All keys with different values
+   * (including keys that are present in only one map) are passed to the visitor
+   * in ascending order.
+   */
+  static PersistentIntMap merge(
+      PersistentIntMap map1, PersistentIntMap map2, DifferenceVisitor visitor) {
+    if (map1 == map2 || map2.isEmpty()) {
+      if (map1 != map2) {
+        map1.forEach((key, value) -> visitor.differingValues(key, value, 0));
+      }
+      return map1;
+    }
+    if (map1.isEmpty()) {
+      map2.forEach((key, value) -> visitor.differingValues(key, 0, value));
+      return map2;
+    }
+
+    int shift = Math.max(map1.shift, map2.shift);
+    Object root1 = map1.liftRoot(shift);
+    Object root2 = map2.liftRoot(shift);
+    int[] addedKeys = {0};
+    Object root = merge(root1, root2, shift, 0, visitor, addedKeys);
+
+    if (root == root1 && shift == map1.shift) {
+      return map1;
+    }
+    if (root == root2 && shift == map2.shift) {
+      return map2;
+    }
+    return new PersistentIntMap(root, shift, map1.size + addedKeys[0]);
+  }
+
+  /**
+   * Merge two nodes of the same height. Returns one of the input nodes
+   * if the result is equal to it.
+   */
+  private static @Nullable Object merge(
+      @Nullable Object node1,
+      @Nullable Object node2,
+      int shift,
+      int offset,
+      DifferenceVisitor visitor,
+      int[] addedKeys) {
+    if (node1 == node2) {
+      return node1;
+    }
+    if (node2 == null) {
+      forEach(node1, shift, offset, (key, value) -> visitor.differingValues(key, value, 0));
+      return node1;
+    }
+    if (node1 == null) {
+      forEach(
+          node2,
+          shift,
+          offset,
+          (key, value) -> {
+            visitor.differingValues(key, 0, value);
+            addedKeys[0]++;
+          });
+      return node2;
+    }
+
+    if (shift == 0) {
+      int[] leaf1 = (int[]) node1;
+      int[] leaf2 = (int[]) node2;
+      boolean equalTo1 = true;
+      boolean equalTo2 = true;
+      int[] result = new int[WIDTH];
+      for (int i = 0; i < WIDTH; i++) {
+        int v1 = leaf1[i];
+        int v2 = leaf2[i];
+        if (v1 != v2) {
+          visitor.differingValues(offset + i, v1, v2);
+          if (v1 == 0) {
+            addedKeys[0]++;
+          }
+        }
+        result[i] = Math.max(v1, v2);
+        equalTo1 &= result[i] == v1;
+        equalTo2 &= result[i] == v2;
+      }
+      return equalTo1 ? leaf1 : equalTo2 ? leaf2 : result;
+    }
+
+    Object[] inner1 = (Object[]) node1;
+    Object[] inner2 = (Object[]) node2;
+    boolean equalTo1 = true;
+    boolean equalTo2 = true;
+    Object[] result = new Object[WIDTH];
+    for (int i = 0; i < WIDTH; i++) {
+      result[i] =
+          merge(inner1[i], inner2[i], shift - BITS, offset + (i << shift), visitor, addedKeys);
+      equalTo1 &= result[i] == inner1[i];
+      equalTo2 &= result[i] == inner2[i];
+    }
+    return equalTo1 ? inner1 : equalTo2 ? inner2 : result;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof PersistentIntMap)) {
+      return false;
+    }
+    PersistentIntMap other = (PersistentIntMap) obj;
+    if (size != other.size) {
+      return false;
+    }
+    int s = Math.max(shift, other.shift);
+    return nodesEqual(liftRoot(s), other.liftRoot(s), s);
+  }
+
+  private static boolean nodesEqual(@Nullable Object node1, @Nullable Object node2, int shift) {
+    if (node1 == node2) {
+      return true;
+    }
+    if (shift == 0) {
+      int[] leaf1 = node1 == null ? new int[WIDTH] : (int[]) node1;
+      int[] leaf2 = node2 == null ? new int[WIDTH] : (int[]) node2;
+      for (int i = 0; i < WIDTH; i++) {
+        if (leaf1[i] != leaf2[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+    for (int i = 0; i < WIDTH; i++) {
+      Object child1 = node1 == null ? null : ((Object[]) node1)[i];
+      Object child2 = node2 == null ? null : ((Object[]) node2)[i];
+      if (!nodesEqual(child1, child2, shift - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int[] hash = {0};
+    forEach((key, value) -> hash[0] += key ^ value);
+    return hash[0];
+  }
+}
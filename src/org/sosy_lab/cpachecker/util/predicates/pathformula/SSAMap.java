@@ -25,8 +25,6 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
-import com.google.common.base.Equivalence;
-import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 
 import org.sosy_lab.common.collect.Collections3;
@@ -43,15 +41,27 @@ import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.cfa.types.c.CTypes;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 
 /**
  * Maps a variable name to its latest "SSA index", that should be used when
  * referring to that variable.
+ *
+ * <p>The indices are stored unboxed in a {@link PersistentIntMap}
+ * that is keyed by the ids of the variable names in {@link SSAVariableIds},
+ * such that lookups and updates need no string comparisons.
+ * The types are stored in a map that is sorted by variable names,
+ * which also provides the sorted set of variables.
  */
 public class SSAMap implements Serializable {
 
@@ -102,7 +112,7 @@ public class SSAMap implements Serializable {
   public static class SSAMapBuilder {
 
     private SSAMap ssa;
-    private PersistentSortedMap<String, Integer> vars; // Do not update without updating varsHashCode!
+    private PersistentIntMap vars; // Do not update without updating varsHashCode!
     private FreshValueProvider freshValueProvider;
     private PersistentSortedMap<String, CType> varTypes;
 
@@ -121,12 +131,11 @@ public class SSAMap implements Serializable {
     }
 
     public int getIndex(String variable) {
-      return SSAMap.getIndex(variable, vars, ssa.defaultValue);
+      return SSAMap.getIndex(SSAVariableIds.lookup(variable), vars, ssa.defaultValue);
     }
 
     public int getFreshIndex(String variable) {
-      return freshValueProvider.getFreshValue(variable,
-          SSAMap.getIndex(variable, vars, ssa.defaultValue));
+      return freshValueProvider.getFreshValue(variable, getIndex(variable));
     }
 
     public CType getType(String name) {
@@ -136,7 +145,8 @@ public class SSAMap implements Serializable {
     @SuppressWarnings("CheckReturnValue")
     public SSAMapBuilder setIndex(String name, CType type, int idx) {
       Preconditions.checkArgument(idx > 0, "Indices need to be positive for this SSAMap implementation:", name, type, idx);
-      int oldIdx = getIndex(name);
+      int id = SSAVariableIds.getOrCreate(name);
+      int oldIdx = SSAMap.getIndex(id, vars, ssa.defaultValue);
       Preconditions.checkArgument(idx >= oldIdx, "SSAMap updates need to be strictly monotone:", name, type, idx);
 
       type = type.getCanonicalType();
@@ -148,7 +158,7 @@ public class SSAMap implements Serializable {
       }
 
       if (idx > oldIdx || idx == ssa.defaultValue) {
-        vars = vars.putAndCopy(name, idx);
+        vars = vars.putAndCopy(id, idx);
         if (oldIdx != ssa.defaultValue) {
           varsHashCode -= mapEntryHashCode(name, oldIdx);
         }
@@ -163,9 +173,10 @@ public class SSAMap implements Serializable {
     }
 
     public SSAMapBuilder deleteVariable(String variable) {
-      int index = getIndex(variable);
+      int id = SSAVariableIds.lookup(variable);
+      int index = SSAMap.getIndex(id, vars, ssa.defaultValue);
       if (index != ssa.defaultValue) {
-        vars = vars.removeAndCopy(variable);
+        vars = vars.putAndCopy(id, 0);
         varsHashCode -= mapEntryHashCode(variable, index);
 
         varTypes = varTypes.removeAndCopy(variable);
@@ -204,7 +215,7 @@ public class SSAMap implements Serializable {
   }
 
   private static final SSAMap EMPTY_SSA_MAP = new SSAMap(
-      PathCopyingPersistentTreeMap.of(),
+      PersistentIntMap.of(),
       new FreshValueProvider(),
       0,
       PathCopyingPersistentTreeMap.of());
@@ -236,21 +247,50 @@ public class SSAMap implements Serializable {
     // probably never be the case on a merge.
 
     checkArgument(s1.defaultValue == s2.defaultValue);
-    PersistentSortedMap<String, Integer> vars;
+    PersistentIntMap vars;
     FreshValueProvider freshValueProvider;
     int defaultIndex;
+    int varsHashCode;
     if (s1.vars == s2.vars && s1.freshValueProvider == s2.freshValueProvider) {
       // both are absolutely identical
       return s1;
 
     } else {
+      // The differences are found in the order of the variable ids,
+      // but they are reported sorted by name (like in the previous implementation
+      // based on sorted maps), such that the merged formulas do not depend on the ids.
+      List<SimpleImmutableEntry<String, int[]>> differences = new ArrayList<>();
       vars =
-          PersistentSortedMaps.merge(
+          PersistentIntMap.merge(
               s1.vars,
               s2.vars,
-              Equivalence.equals(),
-              PersistentSortedMaps.getMaximumMergeConflictHandler(),
-              collectDifferences);
+              (id, index1, index2) ->
+                  differences.add(
+                      new SimpleImmutableEntry<>(
+                          SSAVariableIds.getName(id), new int[] {index1, index2})));
+      differences.sort(Comparator.comparing(SimpleImmutableEntry::getKey));
+
+      varsHashCode = s1.varsHashCode;
+      for (SimpleImmutableEntry<String, int[]> difference : differences) {
+        String name = difference.getKey();
+        int index1 = difference.getValue()[0];
+        int index2 = difference.getValue()[1];
+        if (index1 == 0) {
+          collectDifferences.rightValueOnly(name, index2);
+        } else if (index2 == 0) {
+          collectDifferences.leftValueOnly(name, index1);
+        } else {
+          collectDifferences.differingValues(name, index1, index2);
+        }
+        if (index2 > index1) {
+          // the merged map contains index2 instead of index1
+          if (index1 != 0) {
+            varsHashCode -= SSAMapBuilder.mapEntryHashCode(name, index1);
+          }
+          varsHashCode += SSAMapBuilder.mapEntryHashCode(name, index2);
+        }
+      }
+
       freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
       defaultIndex = s1.defaultValue;
     }
@@ -263,17 +303,17 @@ public class SSAMap implements Serializable {
             TYPE_CONFLICT_CHECKER,
             MapsDifference.ignoreMapsDifference());
 
-    return new SSAMap(vars, freshValueProvider, 0, varTypes, defaultIndex);
+    return new SSAMap(vars, freshValueProvider, varsHashCode, varTypes, defaultIndex);
   }
 
-  private final PersistentSortedMap<String, Integer> vars;
+  private final PersistentIntMap vars;
   private final FreshValueProvider freshValueProvider;
   private final PersistentSortedMap<String, CType> varTypes;
 
   // Cache hashCode of potentially big map
   private final int varsHashCode;
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
+  private SSAMap(PersistentIntMap vars,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
                  PersistentSortedMap<String, CType> varTypes,
@@ -281,18 +321,13 @@ public class SSAMap implements Serializable {
     this.vars = vars;
     this.freshValueProvider = freshValueProvider;
     this.varTypes = varTypes;
-
-    if (varsHashCode == 0) {
-      this.varsHashCode = vars.hashCode();
-    } else {
-      this.varsHashCode = varsHashCode;
-      assert varsHashCode == vars.hashCode();
-    }
+    this.varsHashCode = varsHashCode;
+    assert varsHashCode == computeVarsHashCode(vars);
 
     defaultValue = defaultSSAIdx;
   }
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
+  private SSAMap(PersistentIntMap vars,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
                  PersistentSortedMap<String, CType> varTypes) {
@@ -306,9 +341,24 @@ public class SSAMap implements Serializable {
     return new SSAMapBuilder(this);
   }
 
-  private static int getIndex(String variable, Map<String, Integer> vars, int defaultValue) {
-    Integer value = vars.get(variable);
-    if (value == null) {
+  /**
+   * Compute the hash code of the map from variable names to indices
+   * (as defined by {@link Map#hashCode()}).
+   */
+  private static int computeVarsHashCode(PersistentIntMap vars) {
+    int[] hashCode = {0};
+    vars.forEach(
+        (id, index) ->
+            hashCode[0] += SSAMapBuilder.mapEntryHashCode(SSAVariableIds.getName(id), index));
+    return hashCode[0];
+  }
+
+  private static int getIndex(int id, PersistentIntMap vars, int defaultValue) {
+    if (id < 0) {
+      return defaultValue;
+    }
+    int value = vars.get(id);
+    if (value == 0) {
       return defaultValue;
     }
     return value;
@@ -319,11 +369,12 @@ public class SSAMap implements Serializable {
    * or the [defaultValue].
    */
   public int getIndex(String variable) {
-    return getIndex(variable, vars, defaultValue);
+    return getIndex(SSAVariableIds.lookup(variable), vars, defaultValue);
   }
 
   public boolean containsVariable(String variable) {
-    return vars.containsKey(variable);
+    int id = SSAVariableIds.lookup(variable);
+    return id >= 0 && vars.get(id) != 0;
   }
 
   public CType getType(String name) {
@@ -331,14 +382,20 @@ public class SSAMap implements Serializable {
   }
 
   public SortedSet<String> allVariables() {
-    return vars.keySet();
+    // all variables with an index have a type and vice versa
+    return varTypes.keySet();
   }
 
-  private static final Joiner joiner = Joiner.on(" ");
-
   @Override
   public String toString() {
-    return joiner.join(vars.entrySet());
+    StringBuilder sb = new StringBuilder();
+    for (String variable : varTypes.keySet()) {
+      if (sb.length() > 0) {
+        sb.append(' ');
+      }
+      sb.append(variable).append('=').append(getIndex(variable));
+    }
+    return sb.toString();
   }
 
   @Override
@@ -360,4 +417,45 @@ public class SSAMap implements Serializable {
           && freshValueProvider.equals(other.freshValueProvider);
     }
   }
+
+  private Object writeReplace() {
+    return new SerializationProxy(this);
+  }
+
+  /**
+   * javadoc to remove unused parameter warning
+   * @param in the input stream
+   */
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Proxy required");
+  }
+
+  /** The variable ids are only valid in the current JVM, so we serialize the names. */
+  private static class SerializationProxy implements Serializable {
+
+    private static final long serialVersionUID = -2427338162893384102L;
+
+    private final TreeMap<String, Integer> indices = new TreeMap<>();
+    private final FreshValueProvider freshValueProvider;
+    private final PersistentSortedMap<String, CType> varTypes;
+    private final int defaultValue;
+
+    private SerializationProxy(SSAMap pSsa) {
+      for (String variable : pSsa.allVariables()) {
+        indices.put(variable, pSsa.getIndex(variable));
+      }
+      freshValueProvider = pSsa.freshValueProvider;
+      varTypes = pSsa.varTypes;
+      defaultValue = pSsa.defaultValue;
+    }
+
+    private Object readResolve() {
+      PersistentIntMap vars = PersistentIntMap.of();
+      for (Map.Entry<String, Integer> entry : indices.entrySet()) {
+        vars = vars.putAndCopy(SSAVariableIds.getOrCreate(entry.getKey()), entry.getValue());
+      }
+      return new SSAMap(
+          vars, freshValueProvider, computeVarsHashCode(vars), varTypes, defaultValue);
+    }
+  }
 }
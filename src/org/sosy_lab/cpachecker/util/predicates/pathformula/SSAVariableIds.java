@@ -0,0 +1,86 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interning table that assigns dense ids (0, 1, 2, ...) to variable names,
+ * such that {@link SSAMap} can store its indices in an int-keyed structure.
+ *
+ * <p>Ids are never released, so the table grows with the number of distinct variable names
+ * of all analyzed programs. This class is thread-safe.
+ */
+final class SSAVariableIds {
+
+  private static final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Written only while holding the lock on "ids", but read without locking.
+  // Entries are never changed once set, and each new entry is published by writing the field.
+  private static volatile String[] names = new String[1024];
+
+  private SSAVariableIds() {}
+
+  /** Return the id of a variable, or -1 if the variable never got an id. */
+  static int lookup(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /** Return the id of a variable, assigning a new one if necessary. */
+  static int getOrCreate(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (ids) {
+      id = ids.get(name);
+      if (id == null) {
+        id = ids.size();
+        String[] newNames = names;
+        if (id == newNames.length) {
+          newNames = Arrays.copyOf(newNames, 2 * newNames.length);
+        }
+        newNames[id] = name;
+        names = newNames;
+        ids.put(name, id);
+      }
+      return id;
+    }
+  }
+
+  /** Return the name of the variable with the given id. */
+  static String getName(int id) {
+    String[] currentNames = names;
+    checkElementIndex(id, currentNames.length);
+    String name = currentNames[id];
+    checkArgument(name != null, "no variable with id %s", id);
+    return name;
+  }
+}
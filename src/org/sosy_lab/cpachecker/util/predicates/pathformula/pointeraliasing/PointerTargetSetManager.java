@@ -34,6 +34,7 @@ import com.google.common.base.Equivalence;
 import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
+import java.io.PrintStream;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -51,6 +52,7 @@ import org.sosy_lab.common.collect.PersistentList;
 import org.sosy_lab.common.collect.PersistentSortedMap;
 import org.sosy_lab.common.collect.PersistentSortedMaps;
 import org.sosy_lab.common.collect.PersistentSortedMaps.MergeConflictHandler;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
 import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
@@ -136,6 +138,11 @@ class PointerTargetSetManager {
   private final TypeHandlerWithPointerAliasing typeHandler;
   private final MemoryRegionManager regionMgr;
 
+  private final Timer mergeTimer = new Timer();
+  private int identicalMerges = 0;
+  private int mergedTargetRegions = 0;
+  private int sharedTargetRegions = 0;
+
   /**
    * Creates a new PointerTargetSetManager.
    *
@@ -269,38 +276,60 @@ class PointerTargetSetManager {
     if (pts1.isEmpty() && pts2.isEmpty()) {
       return MergeResult.trivial(PointerTargetSet.emptyPointerTargetSet(), bfmgr);
     }
+    if (pts1 == pts2) {
+      // nothing to merge, and no constraints are necessary
+      identicalMerges++;
+      return MergeResult.trivial(pts1, bfmgr);
+    }
+
+    mergeTimer.start();
+    try {
+      return mergePointerTargetSets0(pts1, pts2, ssa);
+    } finally {
+      mergeTimer.stop();
+    }
+  }
+
+  private MergeResult<PointerTargetSet> mergePointerTargetSets0(
+      final PointerTargetSet pts1, final PointerTargetSet pts2, final SSAMap ssa)
+      throws InterruptedException {
 
     final CopyOnWriteSortedMap<String, CType> basesOnlyPts1 =
         CopyOnWriteSortedMap.copyOf(PathCopyingPersistentTreeMap.<String, CType>of());
     final CopyOnWriteSortedMap<String, CType> basesOnlyPts2 =
         CopyOnWriteSortedMap.copyOf(PathCopyingPersistentTreeMap.<String, CType>of());
 
-    PersistentSortedMap<String, CType> mergedBases =
-        merge(
-            pts1.getBases(),
-            pts2.getBases(),
-            Equivalence.equals(),
-            BaseUnitingConflictHandler.INSTANCE,
-            new MapsDifference.DefaultVisitor<String, CType>() {
-              @Override
-              public void leftValueOnly(String pKey, CType pLeftValue) {
-                basesOnlyPts1.put(pKey, pLeftValue);
-              }
-
-              @Override
-              public void rightValueOnly(String pKey, CType pRightValue) {
-                basesOnlyPts2.put(pKey, pRightValue);
-              }
-
-              @Override
-              public void differingValues(String pKey, CType pLeftValue, CType pRightValue) {
-                if (isFakeBaseType(pLeftValue) && !(pRightValue instanceof CElaboratedType)) {
-                  basesOnlyPts2.put(pKey, pRightValue);
-                } else if (isFakeBaseType(pRightValue) && !(pLeftValue instanceof CElaboratedType)) {
+    // Both sets are often derived from a common predecessor,
+    // so the checks for identical parts below avoid much of the work.
+    PersistentSortedMap<String, CType> mergedBases = pts1.getBases();
+    if (pts1.getBases() != pts2.getBases()) {
+      mergedBases =
+          merge(
+              pts1.getBases(),
+              pts2.getBases(),
+              Equivalence.equals(),
+              BaseUnitingConflictHandler.INSTANCE,
+              new MapsDifference.DefaultVisitor<String, CType>() {
+                @Override
+                public void leftValueOnly(String pKey, CType pLeftValue) {
                   basesOnlyPts1.put(pKey, pLeftValue);
                 }
-              }
-            });
+
+                @Override
+                public void rightValueOnly(String pKey, CType pRightValue) {
+                  basesOnlyPts2.put(pKey, pRightValue);
+                }
+
+                @Override
+                public void differingValues(String pKey, CType pLeftValue, CType pRightValue) {
+                  if (isFakeBaseType(pLeftValue) && !(pRightValue instanceof CElaboratedType)) {
+                    basesOnlyPts2.put(pKey, pRightValue);
+                  } else if (isFakeBaseType(pRightValue) && !(pLeftValue instanceof CElaboratedType)) {
+                    basesOnlyPts1.put(pKey, pLeftValue);
+                  }
+                }
+              });
+    }
     shutdownNotifier.shutdownIfNecessary();
 
 
@@ -309,27 +338,30 @@ class PointerTargetSetManager {
     final CopyOnWriteSortedMap<CompositeField, Boolean> fieldsOnlyPts2 =
         CopyOnWriteSortedMap.copyOf(PathCopyingPersistentTreeMap.<CompositeField, Boolean>of());
 
-    PersistentSortedMap<CompositeField, Boolean> mergedFields =
-        merge(
-            pts1.getFields(),
-            pts2.getFields(),
-            Equivalence.equals(),
-            PersistentSortedMaps.getExceptionMergeConflictHandler(),
-            new MapsDifference.DefaultVisitor<CompositeField, Boolean>() {
-              @Override
-              public void leftValueOnly(CompositeField pKey, Boolean pLeftValue) {
-                fieldsOnlyPts1.put(pKey, pLeftValue);
-              }
-
-              @Override
-              public void rightValueOnly(CompositeField pKey, Boolean pRightValue) {
-                fieldsOnlyPts2.put(pKey, pRightValue);
-              }
-            });
+    PersistentSortedMap<CompositeField, Boolean> mergedFields = pts1.getFields();
+    if (pts1.getFields() != pts2.getFields()) {
+      mergedFields =
+          merge(
+              pts1.getFields(),
+              pts2.getFields(),
+              Equivalence.equals(),
+              PersistentSortedMaps.getExceptionMergeConflictHandler(),
+              new MapsDifference.DefaultVisitor<CompositeField, Boolean>() {
+                @Override
+                public void leftValueOnly(CompositeField pKey, Boolean pLeftValue) {
+                  fieldsOnlyPts1.put(pKey, pLeftValue);
+                }
+
+                @Override
+                public void rightValueOnly(CompositeField pKey, Boolean pRightValue) {
+                  fieldsOnlyPts2.put(pKey, pRightValue);
+                }
+              });
+    }
     shutdownNotifier.shutdownIfNecessary();
 
     PersistentSortedMap<String, PersistentList<PointerTarget>> mergedTargets =
-      merge(pts1.getTargets(), pts2.getTargets(), mergeOnConflict());
+        mergeTargets(pts1.getTargets(), pts2.getTargets());
     shutdownNotifier.shutdownIfNecessary();
 
     // Targets is always the cross product of bases and fields.
@@ -485,14 +517,62 @@ class PointerTargetSetManager {
   }
 
   /**
-   * Gives a handler for merge conflicts.
+   * Merges the targets of two pointer-target sets region by region.
    *
-   * @param <K> The type of the keys in the merge conflict handler.
-   * @param <T> The type of the list entries in the merge conflict handler.
-   * @return A handler for merge conflicts.
+   * <p>The result is based on the map with more regions, and only the regions of the other map
+   * are looked up in it. Regions whose target lists are identical in both maps (which is common,
+   * because the lists are shared with the common predecessor of both sets) are skipped without
+   * comparing their targets.
+   *
+   * @param targets1 The targets of the first set.
+   * @param targets2 The targets of the second set.
+   * @return The union of the targets per region.
    */
-  private static <K, T> MergeConflictHandler<K, PersistentList<T>> mergeOnConflict() {
-    return (key, list1, list2) -> mergeLists(list1, list2);
+  private PersistentSortedMap<String, PersistentList<PointerTarget>> mergeTargets(
+      final PersistentSortedMap<String, PersistentList<PointerTarget>> targets1,
+      final PersistentSortedMap<String, PersistentList<PointerTarget>> targets2) {
+    if (targets1 == targets2) {
+      sharedTargetRegions += targets1.size();
+      return targets1;
+    }
+
+    final boolean firstIsBigger = targets1.size() >= targets2.size();
+    final PersistentSortedMap<String, PersistentList<PointerTarget>> smaller =
+        firstIsBigger ? targets2 : targets1;
+    PersistentSortedMap<String, PersistentList<PointerTarget>> result =
+        firstIsBigger ? targets1 : targets2;
+
+    for (final Map.Entry<String, PersistentList<PointerTarget>> entry : smaller.entrySet()) {
+      final String region = entry.getKey();
+      final PersistentList<PointerTarget> targetsOfSmaller = entry.getValue();
+      final PersistentList<PointerTarget> targetsOfResult = result.get(region);
+      if (targetsOfResult == targetsOfSmaller) {
+        sharedTargetRegions++;
+      } else {
+        mergedTargetRegions++;
+        final PersistentList<PointerTarget> merged;
+        if (targetsOfResult == null) {
+          merged = targetsOfSmaller;
+        } else if (firstIsBigger) {
+          merged = mergeLists(targetsOfResult, targetsOfSmaller);
+        } else {
+          merged = mergeLists(targetsOfSmaller, targetsOfResult);
+        }
+        if (merged != targetsOfResult) {
+          result = result.putAndCopy(region, merged);
+        }
+      }
+    }
+    return result;
+  }
+
+  void printStatistics(PrintStream out) {
+    int merges = mergeTimer.getNumberOfIntervals() + identicalMerges;
+    if (merges > 0) {
+      out.println("Number of pointer-target set merges:  " + merges + " (identical: " + identicalMerges + ")");
+      out.println("  Time for merging pointer-target sets: " + mergeTimer);
+      out.println("  Merged target regions:              " + mergedTargetRegions + " (shared: " + sharedTargetRegions + ")");
+    }
   }
 
   /**
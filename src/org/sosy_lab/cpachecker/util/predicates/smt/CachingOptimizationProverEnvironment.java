@@ -0,0 +1,334 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Formula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Wrapper for {@link OptimizationProverEnvironment} that caches the results of optimization
+ * queries.
+ *
+ * <p>A query consists of the set of asserted constraints and the list of objectives. If the same
+ * query was already checked (by any environment sharing the cache), its status and the bounds of
+ * its objectives are returned without calling the solver. Constraints and objectives are still
+ * passed to the delegate immediately, so that the query can be re-run lazily if a model or a bound
+ * that is not cached is requested afterwards.
+ */
+class CachingOptimizationProverEnvironment implements OptimizationProverEnvironment {
+
+  private final OptimizationProverEnvironment delegate;
+  private final Cache<OptimizationQuery, OptimizationResult> cache;
+  private final Solver solver;
+
+  /** Constraints and objectives of each level of the assertion stack. */
+  private final Deque<List<BooleanFormula>> constraints = new ArrayDeque<>();
+
+  private final Deque<List<Objective>> objectives = new ArrayDeque<>();
+
+  /** Maps the handles returned by the delegate to the position of the objective in the query. */
+  private final Map<Integer, Integer> handles = new HashMap<>();
+
+  /** Result of the last check, or null if the stack has been modified since. */
+  private @Nullable OptimizationResult lastResult = null;
+
+  /** Whether the delegate has checked the current query. */
+  private boolean delegateChecked = false;
+
+  CachingOptimizationProverEnvironment(
+      OptimizationProverEnvironment pDelegate,
+      Cache<OptimizationQuery, OptimizationResult> pCache,
+      Solver pSolver) {
+    delegate = pDelegate;
+    cache = pCache;
+    solver = pSolver;
+    constraints.push(new ArrayList<>());
+    objectives.push(new ArrayList<>());
+  }
+
+  private void stackModified() {
+    lastResult = null;
+    delegateChecked = false;
+  }
+
+  @Override
+  public Void addConstraint(BooleanFormula constraint) {
+    stackModified();
+    constraints.peek().add(constraint);
+    return delegate.addConstraint(constraint);
+  }
+
+  @Override
+  public int maximize(Formula objective) {
+    return addObjective(objective, true, delegate.maximize(objective));
+  }
+
+  @Override
+  public int minimize(Formula objective) {
+    return addObjective(objective, false, delegate.minimize(objective));
+  }
+
+  private int addObjective(Formula objective, boolean maximize, int handle) {
+    stackModified();
+    handles.put(handle, objectives.stream().mapToInt(List::size).sum());
+    objectives.peek().add(new Objective(objective, maximize));
+    return handle;
+  }
+
+  @Override
+  public OptStatus check() throws InterruptedException, SolverException {
+    ImmutableSet.Builder<BooleanFormula> queryConstraints = ImmutableSet.builder();
+    constraints.descendingIterator().forEachRemaining(queryConstraints::addAll);
+    ImmutableList.Builder<Objective> queryObjectives = ImmutableList.builder();
+    objectives.descendingIterator().forEachRemaining(queryObjectives::addAll);
+    OptimizationQuery query =
+        new OptimizationQuery(queryConstraints.build(), queryObjectives.build());
+
+    solver.optChecks++;
+    OptimizationResult result = cache.getIfPresent(query);
+    if (result != null) {
+      solver.cachedOptChecks++;
+      lastResult = result;
+      delegateChecked = false;
+      return result.status;
+    }
+
+    result = new OptimizationResult(delegate.check());
+    if (result.status != OptStatus.UNDEF) {
+      cache.put(query, result);
+    }
+    lastResult = result;
+    delegateChecked = true;
+    return result.status;
+  }
+
+  /** Re-run the current query on the delegate if its result was taken from the cache. */
+  private void ensureDelegateChecked() throws InterruptedException, SolverException {
+    checkState(lastResult != null, "no result available, check() has to be called first");
+    if (!delegateChecked) {
+      OptStatus status = delegate.check();
+      checkState(status == lastResult.status, "solver result differs from cached result");
+      delegateChecked = true;
+    }
+  }
+
+  @Override
+  public void push() {
+    stackModified();
+    constraints.push(new ArrayList<>());
+    objectives.push(new ArrayList<>());
+    delegate.push();
+  }
+
+  @Override
+  public Void push(BooleanFormula f) {
+    push();
+    return addConstraint(f);
+  }
+
+  @Override
+  public void pop() {
+    checkState(constraints.size() > 1, "cannot pop the outermost level");
+    stackModified();
+    constraints.pop();
+    int remaining = objectives.stream().mapToInt(List::size).sum() - objectives.pop().size();
+    handles.values().removeIf(position -> position >= remaining);
+    delegate.pop();
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    // satisfiability checks are not cached, they leave the delegate in a checked state
+    lastResult = null;
+    delegateChecked = false;
+    return delegate.isUnsat();
+  }
+
+  @Override
+  public Optional<Rational> upper(int handle, Rational epsilon) {
+    return getBound(handle, epsilon, true);
+  }
+
+  @Override
+  public Optional<Rational> lower(int handle, Rational epsilon) {
+    return getBound(handle, epsilon, false);
+  }
+
+  private Optional<Rational> getBound(int handle, Rational epsilon, boolean upper) {
+    checkState(lastResult != null, "no result available, check() has to be called first");
+    BoundKey key = new BoundKey(handles.get(handle), epsilon, upper);
+    Optional<Rational> bound = lastResult.bounds.get(key);
+    if (bound == null) {
+      try {
+        ensureDelegateChecked();
+      } catch (SolverException e) {
+        throw new IllegalStateException("re-running cached optimization query failed", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("interrupted while re-running optimization query", e);
+      }
+      bound = upper ? delegate.upper(handle, epsilon) : delegate.lower(handle, epsilon);
+      lastResult.bounds.put(key, bound);
+    }
+    return bound;
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    ensureModelAvailable();
+    return delegate.getModel();
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    ensureModelAvailable();
+    return delegate.getModelAssignments();
+  }
+
+  private void ensureModelAvailable() throws SolverException {
+    if (lastResult != null) {
+      try {
+        ensureDelegateChecked();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SolverException("interrupted while re-running optimization query", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    delegate.close();
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+
+  private static final class Objective {
+    private final Formula formula;
+    private final boolean maximize;
+
+    private Objective(Formula pFormula, boolean pMaximize) {
+      formula = pFormula;
+      maximize = pMaximize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Objective)) {
+        return false;
+      }
+      Objective other = (Objective) o;
+      return maximize == other.maximize && formula.equals(other.formula);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(formula, maximize);
+    }
+  }
+
+  /** Key of the cache, all constraints and objectives of an optimization query. */
+  static final class OptimizationQuery {
+    private final ImmutableSet<BooleanFormula> constraints;
+    private final ImmutableList<Objective> objectives;
+
+    private OptimizationQuery(
+        ImmutableSet<BooleanFormula> pConstraints, ImmutableList<Objective> pObjectives) {
+      constraints = pConstraints;
+      objectives = pObjectives;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof OptimizationQuery)) {
+        return false;
+      }
+      OptimizationQuery other = (OptimizationQuery) o;
+      return constraints.equals(other.constraints) && objectives.equals(other.objectives);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(constraints, objectives);
+    }
+  }
+
+  /** Status of a query and the bounds of its objectives that have been requested so far. */
+  static final class OptimizationResult {
+    private final OptStatus status;
+    private final Map<BoundKey, Optional<Rational>> bounds = new HashMap<>();
+
+    private OptimizationResult(OptStatus pStatus) {
+      status = pStatus;
+    }
+  }
+
+  private static final class BoundKey {
+    private final int objective;
+    private final Rational epsilon;
+    private final boolean upper;
+
+    private BoundKey(int pObjective, Rational pEpsilon, boolean pUpper) {
+      objective = pObjective;
+      epsilon = pEpsilon;
+      upper = pUpper;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof BoundKey)) {
+        return false;
+      }
+      BoundKey other = (BoundKey) o;
+      return objective == other.objective && upper == other.upper && epsilon.equals(other.epsilon);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(objective, epsilon, upper);
+    }
+  }
+}
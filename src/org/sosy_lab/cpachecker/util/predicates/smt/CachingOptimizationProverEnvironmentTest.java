@@ -0,0 +1,143 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.math.BigInteger;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.rationals.Rational;
+import org.sosy_lab.java_smt.SolverContextFactory.Solvers;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment;
+import org.sosy_lab.java_smt.api.OptimizationProverEnvironment.OptStatus;
+
+@SuppressFBWarnings("NP_NONNULL_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR")
+public class CachingOptimizationProverEnvironmentTest extends SolverViewBasedTest0 {
+
+  private IntegerFormula x;
+  private IntegerFormula y;
+
+  /** 0 <= x <= 10 and 0 <= y <= 5 */
+  private BooleanFormula bounds;
+
+  @Override
+  protected Solvers solverToUse() {
+    // the solver with support for optimization
+    return Solvers.Z3;
+  }
+
+  @Before
+  public void setUp() {
+    x = imgrv.makeVariable("x");
+    y = imgrv.makeVariable("y");
+    bounds =
+        bmgrv.and(
+            imgrv.greaterOrEquals(x, imgrv.makeNumber(0)),
+            imgrv.lessOrEquals(x, imgrv.makeNumber(10)),
+            imgrv.greaterOrEquals(y, imgrv.makeNumber(0)),
+            imgrv.lessOrEquals(y, imgrv.makeNumber(5)));
+  }
+
+  @Test
+  public void testCacheHit() throws Exception {
+    try (OptimizationProverEnvironment env = solver.newCachedOptEnvironment()) {
+      env.addConstraint(bounds);
+      int handle = env.maximize(x);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(env.upper(handle, Rational.ZERO)).isEqualTo(Optional.of(Rational.of(10)));
+    }
+    assertThat(solver.cachedOptChecks).isEqualTo(0);
+
+    try (OptimizationProverEnvironment env = solver.newCachedOptEnvironment()) {
+      env.addConstraint(bounds);
+      int handle = env.maximize(x);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(solver.cachedOptChecks).isEqualTo(1);
+      assertThat(env.upper(handle, Rational.ZERO)).isEqualTo(Optional.of(Rational.of(10)));
+
+      // a different objective is a different query
+      env.maximize(y);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(solver.cachedOptChecks).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void testModelAndBoundAfterCacheHit() throws Exception {
+    try (OptimizationProverEnvironment env = solver.newCachedOptEnvironment()) {
+      env.addConstraint(bounds);
+      env.maximize(x);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+    }
+
+    // neither the model nor the bound is cached, so the query is re-run on the solver
+    try (OptimizationProverEnvironment env = solver.newCachedOptEnvironment()) {
+      env.addConstraint(bounds);
+      int handle = env.maximize(x);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(solver.cachedOptChecks).isEqualTo(1);
+
+      assertThat(env.upper(handle, Rational.ZERO)).isEqualTo(Optional.of(Rational.of(10)));
+      try (Model model = env.getModel()) {
+        assertThat(model.evaluate(x)).isEqualTo(BigInteger.TEN);
+      }
+    }
+  }
+
+  @Test
+  public void testHandlesAfterPop() throws Exception {
+    try (OptimizationProverEnvironment env = solver.newCachedOptEnvironment()) {
+      env.addConstraint(bounds);
+
+      env.push();
+      int handleY = env.maximize(y);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(env.upper(handleY, Rational.ZERO)).isEqualTo(Optional.of(Rational.of(5)));
+      env.pop();
+
+      // the objective takes the position of the popped one, but must not get its bound
+      env.push();
+      int handleX = env.maximize(x);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(env.upper(handleX, Rational.ZERO)).isEqualTo(Optional.of(Rational.of(10)));
+      env.pop();
+    }
+    assertThat(solver.cachedOptChecks).isEqualTo(0);
+
+    // the bound of the second query is cached at the position of its objective
+    try (OptimizationProverEnvironment env = solver.newCachedOptEnvironment()) {
+      env.addConstraint(bounds);
+      int handle = env.maximize(x);
+      assertThat(env.check()).isEqualTo(OptStatus.OPT);
+      assertThat(solver.cachedOptChecks).isEqualTo(1);
+      assertThat(env.upper(handle, Rational.ZERO)).isEqualTo(Optional.of(Rational.of(10)));
+    }
+  }
+}
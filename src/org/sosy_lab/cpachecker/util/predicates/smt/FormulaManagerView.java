@@ -25,16 +25,22 @@ package org.sosy_lab.cpachecker.util.predicates.smt;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
@@ -167,11 +173,41 @@ public class FormulaManagerView {
       + "support non-linear arithmetics. This option only effects MULT, MOD and DIV.")
   private boolean useUFsForNonLinearArithmetic = true;
 
+  @Option(
+    secure = true,
+    name = "formulaCache.uninstantiateSize",
+    description =
+        "Maximum number of (sub-)formulas in the cache for uninstantiating formulas "
+            + "(least-recently used entries are evicted, -1 for no limit)."
+  )
+  private long uninstantiateCacheSize = 500_000;
+
+  @Option(
+    secure = true,
+    name = "formulaCache.instantiateSize",
+    description =
+        "Maximum number of formulas in the cache for instantiating formulas with an SSAMap "
+            + "(least-recently used entries are evicted, -1 for no limit, 0 disables the cache)."
+  )
+  private long instantiateCacheSize = 100_000;
+
+  @Option(
+    secure = true,
+    name = "formulaCache.arithmeticSize",
+    description =
+        "Maximum number of formulas in the cache for detecting purely arithmetic terms "
+            + "(least-recently used entries are evicted, -1 for no limit)."
+  )
+  private long arithCacheSize = 100_000;
+
   @VisibleForTesting
   public FormulaManagerView(FormulaManager pFormulaManager, Configuration config, LogManager pLogger) throws InvalidConfigurationException {
     config.inject(this, FormulaManagerView.class);
     logger = pLogger;
     manager = checkNotNull(pFormulaManager);
+    uninstantiateCache = buildCache(uninstantiateCacheSize);
+    instantiateCache = instantiateCacheSize == 0 ? null : buildCache(instantiateCacheSize);
+    arithCache = buildCache(arithCacheSize);
     wrappingHandler = new FormulaWrappingHandler(manager, encodeBitvectorAs, encodeFloatAs);
     booleanFormulaManager = new BooleanFormulaManagerView(wrappingHandler, manager.getBooleanFormulaManager());
     functionFormulaManager = new FunctionFormulaManagerView(wrappingHandler, manager.getUFManager());
@@ -978,6 +1014,20 @@ public class FormulaManagerView {
    * are not allowed in the formula.
    */
   public <F extends Formula> F instantiate(F pF, final SSAMap pSsa) {
+    if (instantiateCache == null) {
+      return instantiate0(pF, pSsa);
+    }
+    Pair<Formula, SSAMap> key = Pair.of(pF, pSsa);
+    @SuppressWarnings("unchecked")
+    F result = (F) instantiateCache.getIfPresent(key);
+    if (result == null) {
+      result = instantiate0(pF, pSsa);
+      instantiateCache.put(key, result);
+    }
+    return result;
+  }
+
+  private <F extends Formula> F instantiate0(F pF, final SSAMap pSsa) {
     return wrap(
         getFormulaType(pF),
         myFreeVariableNodeTransformer(
@@ -1007,8 +1057,85 @@ public class FormulaManagerView {
   // various caches for speeding up expensive tasks
   //
 
-  // cache for uninstantiating terms (see uninstantiate() below)
-  private final Map<Formula, Formula> uninstantiateCache = new HashMap<>();
+  // cache for uninstantiating terms (see uninstantiate() below),
+  // contains the uninstantiated version of all sub-formulas of previously uninstantiated formulas
+  private final Cache<Formula, Formula> uninstantiateCache;
+
+  // cache for instantiating formulas (see instantiate() above), null if disabled
+  private final @Nullable Cache<Pair<Formula, SSAMap>, Formula> instantiateCache;
+
+  private static <K, V> Cache<K, V> buildCache(long maxSize) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (maxSize >= 0) {
+      builder.maximumSize(maxSize);
+    }
+    return builder.build();
+  }
+
+  /** Print hit rates and sizes of the formula caches. */
+  public void printStatistics(PrintStream out) {
+    if (instantiateCache != null) {
+      printCacheStatistics(out, "Instantiate cache:                 ", instantiateCache);
+    }
+    printCacheStatistics(out, "Uninstantiate cache:               ", uninstantiateCache);
+    printCacheStatistics(out, "Arithmetic-term cache:             ", arithCache);
+  }
+
+  private static void printCacheStatistics(PrintStream out, String name, Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    out.println(
+        name
+            + cache.size()
+            + " entries, hit rate "
+            + toPercent(stats.hitCount(), stats.requestCount())
+            + ", "
+            + stats.evictionCount()
+            + " evictions");
+  }
+
+  /**
+   * A map for a single run of {@link #myFreeVariableNodeTransformer(Formula, Map, Function)}
+   * that is backed by a bounded cache that is shared between runs.
+   * Entries of the shared cache may be evicted at any time,
+   * so all entries that are needed during the current run are also kept in a local map.
+   */
+  private static class LayeredCacheMap extends ForwardingMap<Formula, Formula> {
+
+    private final Map<Formula, Formula> local = new HashMap<>();
+    private final Cache<Formula, Formula> shared;
+
+    LayeredCacheMap(Cache<Formula, Formula> pShared) {
+      shared = pShared;
+    }
+
+    @Override
+    protected Map<Formula, Formula> delegate() {
+      return local;
+    }
+
+    @Override
+    public Formula get(Object pKey) {
+      Formula result = local.get(pKey);
+      if (result == null && pKey instanceof Formula) {
+        result = shared.getIfPresent(pKey);
+        if (result != null) {
+          local.put((Formula) pKey, result);
+        }
+      }
+      return result;
+    }
+
+    @Override
+    public boolean containsKey(Object pKey) {
+      return get(pKey) != null;
+    }
+
+    @Override
+    public Formula put(Formula pKey, Formula pValue) {
+      shared.put(pKey, pValue);
+      return local.put(pKey, pValue);
+    }
+  }
 
   /**
    * Only use inside this package and for solver-specific classes
@@ -1053,7 +1180,7 @@ public class FormulaManagerView {
         getFormulaType(f),
         myFreeVariableNodeTransformer(
             unwrap(f),
-            uninstantiateCache,
+            new LayeredCacheMap(uninstantiateCache),
             pArg0 ->
                 pArg0.charAt(pArg0.length() - 1) == INDEX_SEPARATOR
                     ? pArg0
@@ -1301,13 +1428,13 @@ public class FormulaManagerView {
   /**
    * Cache for splitting arithmetic equalities in extractAtoms.
    */
-  private final Map<Formula, Boolean> arithCache = new HashMap<>();
+  private final Cache<Formula, Boolean> arithCache;
 
   /**
    * Returns true if the given term is a pure arithmetic term.
    */
   private boolean myIsPurelyArithmetic(Formula f) {
-    Boolean result = arithCache.get(f);
+    Boolean result = arithCache.getIfPresent(f);
     if (result != null) { return result; }
 
     final AtomicBoolean isPurelyAtomic = new AtomicBoolean(true);
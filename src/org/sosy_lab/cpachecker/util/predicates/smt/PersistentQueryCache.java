@@ -0,0 +1,477 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.BaseEncoding;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import javax.annotation.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * A cache for solver queries that is stored in a file and can thus be shared between several runs
+ * of CPAchecker, e.g., for the verification of successive revisions of the same program.
+ *
+ * <p>Queries are identified by a hash of their SMT-LIB representation (as produced by {@link
+ * FormulaManagerView#dumpFormula(BooleanFormula)}) together with the name and version of the
+ * solver and the kind of the query. The cache stores the results of satisfiability checks,
+ * predicate abstractions, and interpolants. Result formulas are stored in SMT-LIB format and
+ * parsed again when they are read from the cache.
+ *
+ * <p>All caches for the same file within one JVM share their entries. The file is read when the
+ * first of these caches is created and written when the last of them is {@linkplain #close()
+ * closed}, so no entries of other solver instances are lost. The caches are closed together with
+ * their solvers, i.e., when CPAchecker closes the CPAs at the end of the run.
+ *
+ * <p>If no cache file is configured, {@link Solver} does not create a cache at all, so queries are
+ * neither dumped nor hashed.
+ */
+@Options(prefix = "solver.persistentCache")
+public final class PersistentQueryCache {
+
+  @Option(
+    secure = true,
+    name = "file",
+    description =
+        "File for caching solver queries and their results across several runs of CPAchecker "
+            + "(no persistent cache if not set). "
+            + "The file is read at startup and updated at the end of the run."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path cacheFile = null;
+
+  @Option(secure = true, description = "Do not write new results to the persistent query cache.")
+  private boolean readOnly = false;
+
+  @Option(
+    secure = true,
+    description =
+        "When updating the persistent query cache, drop all entries "
+            + "that were not used or added by the current run."
+  )
+  private boolean dropUnusedEntries = false;
+
+  public static enum QueryType {
+    SAT,
+    ABSTRACTION,
+    INTERPOLATION,
+  }
+
+  private static final String UNSAT = "unsat";
+  private static final String SAT = "sat";
+  private static final char SEPARATOR = ' ';
+  private static final char LIST_SEPARATOR = ',';
+  private static final BaseEncoding ENCODING = BaseEncoding.base64();
+
+  /** The entries of one cache file, shared by all caches for this file. */
+  private static final class CacheFile {
+
+    private final Path path;
+
+    private final Map<String, String> entries = new ConcurrentHashMap<>();
+    private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+
+    private int loadedEntries = 0;
+
+    // the following fields are guarded by OPEN_FILES
+    private int references = 0;
+    private boolean modified = false;
+    private boolean dropUnusedEntries = false;
+
+    private CacheFile(Path pPath) {
+      path = pPath;
+    }
+  }
+
+  /** The cache files that are currently in use, indexed by their normalized absolute path. */
+  private static final Map<Path, CacheFile> OPEN_FILES = new HashMap<>();
+
+  private final LogManager logger;
+  private final FormulaManagerView fmgr;
+  private final String solverIdentifier;
+
+  private CacheFile file;
+
+  private final Map<QueryType, AtomicInteger> hits = new EnumMap<>(QueryType.class);
+  private final Map<QueryType, AtomicInteger> misses = new EnumMap<>(QueryType.class);
+  private final AtomicInteger addedEntries = new AtomicInteger();
+
+  // the last query and its key, see getKey()
+  private @Nullable List<?> lastQuery = null;
+  private @Nullable QueryType lastQueryType = null;
+  private @Nullable String lastKey = null;
+
+  private PersistentQueryCache(
+      Configuration pConfig, LogManager pLogger, FormulaManagerView pFmgr, String pSolverIdentifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    fmgr = pFmgr;
+    solverIdentifier = pSolverIdentifier;
+    for (QueryType type : QueryType.values()) {
+      hits.put(type, new AtomicInteger());
+      misses.put(type, new AtomicInteger());
+    }
+  }
+
+  /**
+   * Create a persistent cache and load existing entries from the cache file, unless another cache
+   * for the same file is currently open, whose entries are shared instead.
+   *
+   * @param pSolverIdentifier Name and version of the solver, results of other solvers are ignored.
+   * @return The cache, or null if no cache file is configured.
+   */
+  static @Nullable PersistentQueryCache create(
+      Configuration pConfig, LogManager pLogger, FormulaManagerView pFmgr, String pSolverIdentifier)
+      throws InvalidConfigurationException {
+    PersistentQueryCache cache =
+        new PersistentQueryCache(pConfig, pLogger, pFmgr, pSolverIdentifier);
+    if (cache.cacheFile == null) {
+      return null;
+    }
+    Path path = cache.cacheFile.toAbsolutePath().normalize();
+    synchronized (OPEN_FILES) {
+      CacheFile file = OPEN_FILES.get(path);
+      if (file == null) {
+        file = new CacheFile(path);
+        load(file, pLogger);
+        OPEN_FILES.put(path, file);
+      }
+      file.references++;
+      file.dropUnusedEntries |= cache.dropUnusedEntries && !cache.readOnly;
+      cache.file = file;
+    }
+    return cache;
+  }
+
+  private static void load(CacheFile file, LogManager logger) {
+    if (!Files.isReadable(file.path)) {
+      logger.log(Level.FINE, "Persistent query cache", file.path, "does not exist yet.");
+      return;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file.path, UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        int separator = line.indexOf(SEPARATOR);
+        if (separator > 0) {
+          file.entries.put(line.substring(0, separator), line.substring(separator + 1));
+        }
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not read persistent query cache");
+    }
+    file.loadedEntries = file.entries.size();
+    logger.log(Level.FINE, "Loaded", file.loadedEntries, "entries from persistent query cache.");
+  }
+
+  /**
+   * Release this cache. When the last cache for the same file is closed, the entries of all these
+   * caches are written to the file. This cache may not be used anymore afterwards.
+   */
+  void close() {
+    synchronized (OPEN_FILES) {
+      if (addedEntries.get() > 0) {
+        file.modified = true;
+      }
+      if (--file.references > 0) {
+        return;
+      }
+      OPEN_FILES.remove(file.path);
+      if (file.modified || file.dropUnusedEntries) {
+        save(file, logger);
+      }
+    }
+  }
+
+  /**
+   * Write the entries to the cache file. The file is replaced atomically, so concurrent readers
+   * always see a consistent state.
+   */
+  private static void save(CacheFile file, LogManager logger) {
+    Path tmpFile = null;
+    try {
+      // unique name in the same directory, such that the move below can be atomic
+      tmpFile =
+          Files.createTempFile(
+              file.path.getParent(), file.path.getFileName().toString(), ".tmp");
+      try (Writer w = Files.newBufferedWriter(tmpFile, UTF_8)) {
+        for (Map.Entry<String, String> entry : file.entries.entrySet()) {
+          if (!file.dropUnusedEntries || file.usedKeys.contains(entry.getKey())) {
+            w.append(entry.getKey()).append(SEPARATOR).append(entry.getValue()).append('\n');
+          }
+        }
+      }
+      Files.move(
+          tmpFile, file.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write persistent query cache");
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e2) {
+          logger.logDebugException(e2, "Could not delete temporary file");
+        }
+      }
+    }
+  }
+
+  /**
+   * Look up the result of a satisfiability check.
+   *
+   * @return Whether the formula is unsatisfiable, or empty if the result is not cached.
+   */
+  public Optional<Boolean> lookupUnsat(BooleanFormula f) {
+    String value = lookup(QueryType.SAT, satKey(f));
+    return value == null ? Optional.empty() : Optional.of(value.equals(UNSAT));
+  }
+
+  public void storeUnsat(BooleanFormula f, boolean isUnsat) {
+    if (!readOnly) {
+      store(satKey(f), isUnsat ? UNSAT : SAT);
+    }
+  }
+
+  private String satKey(BooleanFormula f) {
+    return getKey(QueryType.SAT, ImmutableList.of(f), () -> ImmutableList.of(dump(f)));
+  }
+
+  /**
+   * Look up the result of a predicate abstraction.
+   *
+   * @param f The abstracted formula.
+   * @param predicates The formulas of the abstraction predicates (order is irrelevant).
+   * @param settings An identifier for the kind of abstraction that was computed.
+   * @return The abstraction, or empty if the result is not cached.
+   */
+  public Optional<BooleanFormula> lookupAbstraction(
+      BooleanFormula f, Collection<BooleanFormula> predicates, String settings) {
+    String value = lookup(QueryType.ABSTRACTION, abstractionKey(f, predicates, settings));
+    if (value == null) {
+      return Optional.empty();
+    }
+    return parse(ImmutableList.of(value)).map(result -> result.get(0));
+  }
+
+  public void storeAbstraction(
+      BooleanFormula f,
+      Collection<BooleanFormula> predicates,
+      String settings,
+      BooleanFormula abstraction) {
+    if (!readOnly) {
+      store(
+          abstractionKey(f, predicates, settings),
+          ENCODING.encode(dump(abstraction).getBytes(UTF_8)));
+    }
+  }
+
+  private String abstractionKey(
+      BooleanFormula f, Collection<BooleanFormula> predicates, String settings) {
+    return getKey(
+        QueryType.ABSTRACTION,
+        ImmutableList.of(settings, f, predicates),
+        () -> abstractionQuery(f, predicates, settings));
+  }
+
+  private List<String> abstractionQuery(
+      BooleanFormula f, Collection<BooleanFormula> predicates, String settings) {
+    List<String> predicateDumps = new ArrayList<>(predicates.size());
+    for (BooleanFormula predicate : predicates) {
+      predicateDumps.add(dump(predicate));
+    }
+    return ImmutableList.<String>builder()
+        .add(settings)
+        .add(dump(f))
+        .addAll(Ordering.natural().sortedCopy(predicateDumps))
+        .build();
+  }
+
+  /**
+   * Look up the interpolants for a sequence of formulas.
+   *
+   * <p>The interpolants are not checked again. This is sound for the same reason as reusing
+   * results of satisfiability checks: the key is a cryptographic hash of the complete SMT-LIB
+   * representation of all formulas, the interpolation settings, and the solver version, so a hit
+   * means that the same solver computed these interpolants for exactly the same problem. Entries
+   * that cannot be parsed or have the wrong number of interpolants are ignored.
+   *
+   * @param formulas The formulas in the order in which they were given to the interpolation.
+   * @param settings An identifier for the kind of interpolation that was used.
+   * @return The interpolants, or empty if the result is not cached.
+   */
+  public Optional<List<BooleanFormula>> lookupInterpolants(
+      List<BooleanFormula> formulas, String settings) {
+    String value = lookup(QueryType.INTERPOLATION, interpolationKey(formulas, settings));
+    if (value == null) {
+      return Optional.empty();
+    }
+    List<String> encodedInterpolants = Splitter.on(LIST_SEPARATOR).splitToList(value);
+    if (encodedInterpolants.size() != formulas.size() - 1) {
+      logger.log(Level.FINE, "Ignoring invalid entry in persistent query cache");
+      return Optional.empty();
+    }
+    return parse(encodedInterpolants);
+  }
+
+  public void storeInterpolants(
+      List<BooleanFormula> formulas, String settings, List<BooleanFormula> interpolants) {
+    if (readOnly) {
+      return;
+    }
+    StringBuilder value = new StringBuilder();
+    for (BooleanFormula interpolant : interpolants) {
+      if (value.length() > 0) {
+        value.append(LIST_SEPARATOR);
+      }
+      value.append(ENCODING.encode(dump(interpolant).getBytes(UTF_8)));
+    }
+    store(interpolationKey(formulas, settings), value.toString());
+  }
+
+  private String interpolationKey(List<BooleanFormula> formulas, String settings) {
+    return getKey(
+        QueryType.INTERPOLATION,
+        ImmutableList.of(settings, formulas),
+        () -> interpolationQuery(formulas, settings));
+  }
+
+  private List<String> interpolationQuery(List<BooleanFormula> formulas, String settings) {
+    ImmutableList.Builder<String> query = ImmutableList.builder();
+    query.add(settings);
+    for (BooleanFormula f : formulas) {
+      query.add(dump(f));
+    }
+    return query.build();
+  }
+
+  private @Nullable String lookup(QueryType type, String key) {
+    String value = file.entries.get(key);
+    if (value == null) {
+      misses.get(type).incrementAndGet();
+    } else {
+      hits.get(type).incrementAndGet();
+      file.usedKeys.add(key);
+    }
+    return value;
+  }
+
+  private void store(String key, String value) {
+    file.usedKeys.add(key);
+    if (file.entries.put(key, value) == null) {
+      addedEntries.incrementAndGet();
+    }
+  }
+
+  /**
+   * Return the key of a query. The key of the last query is remembered, because a result is
+   * usually stored right after the lookup of the same query failed, and dumping and hashing large
+   * formulas is expensive.
+   *
+   * @param query The objects that identify the query, compared with equals.
+   * @param dumps The parts of the query from which the key is computed.
+   */
+  private synchronized String getKey(
+      QueryType type, List<?> query, Supplier<List<String>> dumps) {
+    if (!query.equals(lastQuery) || type != lastQueryType) {
+      lastKey = computeKey(type, dumps.get());
+      lastQuery = query;
+      lastQueryType = type;
+    }
+    return lastKey;
+  }
+
+  private String computeKey(QueryType type, List<String> query) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(solverIdentifier, UTF_8);
+    hasher.putInt(type.ordinal());
+    for (String part : query) {
+      // length prefix keeps the encoding of the list unambiguous
+      hasher.putInt(part.length());
+      hasher.putString(part, UTF_8);
+    }
+    return type.name() + ":" + hasher.hash();
+  }
+
+  private String dump(BooleanFormula f) {
+    return fmgr.dumpFormula(f).toString();
+  }
+
+  private Optional<List<BooleanFormula>> parse(List<String> encodedFormulas) {
+    ImmutableList.Builder<BooleanFormula> result = ImmutableList.builder();
+    try {
+      for (String encoded : encodedFormulas) {
+        result.add(fmgr.parse(new String(ENCODING.decode(encoded), UTF_8)));
+      }
+    } catch (IllegalArgumentException e) {
+      logger.logDebugException(e, "Ignoring invalid entry in persistent query cache");
+      return Optional.empty();
+    }
+    return Optional.of(result.build());
+  }
+
+  public void printStatistics(PrintStream out) {
+    out.println("Persistent query cache:            " + cacheFile);
+    out.println("  Loaded entries:                  " + file.loadedEntries);
+    out.println("  New entries:                     " + addedEntries.get());
+    for (QueryType type : QueryType.values()) {
+      int typeHits = hits.get(type).get();
+      int typeMisses = misses.get(type).get();
+      if (typeHits + typeMisses > 0) {
+        out.println(
+            String.format(
+                "  %-32s %d hits, %d misses", type.name().toLowerCase() + " queries:",
+                typeHits, typeMisses));
+      }
+    }
+  }
+}
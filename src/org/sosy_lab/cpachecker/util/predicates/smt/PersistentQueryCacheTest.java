@@ -0,0 +1,97 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2015  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class PersistentQueryCacheTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Configuration config;
+
+  @Before
+  public void setUp() throws Exception {
+    Path cacheFile = tempFolder.getRoot().toPath().resolve("queries.cache");
+    config =
+        Configuration.builder()
+            .setOption("solver.solver", "SMTINTERPOL")
+            .setOption("solver.persistentCache.file", cacheFile.toString())
+            .build();
+  }
+
+  /** Check x > y & y > x (unsat) and x > y (sat) with a fresh solver, as a new run would. */
+  private Solver checkQueries() throws Exception {
+    Solver solver =
+        Solver.create(config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy());
+    FormulaManagerView fmgr = solver.getFormulaManager();
+    IntegerFormulaManagerView imgr = fmgr.getIntegerFormulaManager();
+    IntegerFormula x = imgr.makeVariable("x");
+    IntegerFormula y = imgr.makeVariable("y");
+    BooleanFormula xGreater = imgr.greaterThan(x, y);
+    BooleanFormula yGreater = imgr.greaterThan(y, x);
+
+    assertThat(solver.isUnsat(fmgr.getBooleanFormulaManager().and(xGreater, yGreater))).isTrue();
+    assertThat(solver.isUnsat(xGreater)).isFalse();
+    return solver;
+  }
+
+  @Test
+  public void testSecondRunUsesCachedResults() throws Exception {
+    Solver firstRun = checkQueries();
+    assertThat(firstRun.persistentlyCachedSatChecks).isEqualTo(0);
+    firstRun.close();
+    assertThat(Files.exists(tempFolder.getRoot().toPath().resolve("queries.cache"))).isTrue();
+
+    Solver secondRun = checkQueries();
+    assertThat(secondRun.persistentlyCachedSatChecks).isEqualTo(2);
+    secondRun.close();
+  }
+
+  @Test
+  public void testCacheIsWrittenWhenLastSolverIsClosed() throws Exception {
+    Solver first = checkQueries();
+    Solver second = checkQueries();
+    // both solvers of the same run share the entries of the cache file
+    assertThat(second.persistentlyCachedSatChecks).isEqualTo(2);
+    first.close();
+    second.close();
+
+    Solver nextRun = checkQueries();
+    assertThat(nextRun.persistentlyCachedSatChecks).isEqualTo(2);
+    nextRun.close();
+  }
+}
@@ -28,6 +28,8 @@ import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNS
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Verify;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -36,10 +38,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -94,6 +98,16 @@ public final class Solver implements AutoCloseable {
   description="Extract and cache unsat cores for satisfiability checking")
   private boolean cacheUnsatCores = true;
 
+  @Option(
+    secure = true,
+    description =
+        "Maximum number of optimization queries whose results are cached for environments "
+            + "created with newCachedOptEnvironment(), the least-recently used results are "
+            + "evicted (0 disables the cache)."
+  )
+  @IntegerOption(min = 0)
+  private int optimizationCacheSize = 1000;
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
   private final FormulaManagerView fmgr;
@@ -117,13 +131,24 @@ public final class Solver implements AutoCloseable {
   private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
       groupedUnsatCache = new HashMap<>();
 
+  /** Cache of optimization queries, or null if disabled. */
+  private final @Nullable Cache<
+          CachingOptimizationProverEnvironment.OptimizationQuery,
+          CachingOptimizationProverEnvironment.OptimizationResult>
+      optimizationCache;
+
   private final LogManager logger;
 
+  private final @Nullable PersistentQueryCache persistentCache;
+
   // stats
   public final Timer solverTime = new Timer();
   public int satChecks = 0;
   public int trivialSatChecks = 0;
   public int cachedSatChecks = 0;
+  public int persistentlyCachedSatChecks = 0;
+  public int optChecks = 0;
+  public int cachedOptChecks = 0;
 
   private Solver(SolverContextFactory pSolverFactory, Configuration config, LogManager pLogger)
       throws InvalidConfigurationException {
@@ -157,6 +182,10 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+
+    persistentCache =
+        PersistentQueryCache.create(config, pLogger, fmgr, solver + " " + getVersion());
+    optimizationCache = createOptimizationCache();
   }
 
   /**
@@ -202,6 +231,20 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+
+    persistentCache =
+        PersistentQueryCache.create(pConfig, pLogger, fmgr, solver + " " + getVersion());
+    optimizationCache = createOptimizationCache();
+  }
+
+  private @Nullable Cache<
+          CachingOptimizationProverEnvironment.OptimizationQuery,
+          CachingOptimizationProverEnvironment.OptimizationResult>
+      createOptimizationCache() {
+    if (optimizationCacheSize == 0) {
+      return null;
+    }
+    return CacheBuilder.newBuilder().maximumSize(optimizationCacheSize).build();
   }
 
   /**
@@ -223,6 +266,14 @@ public final class Solver implements AutoCloseable {
     return fmgr;
   }
 
+  /**
+   * Return the cache for storing query results across several runs of CPAchecker,
+   * if such a cache is configured.
+   */
+  public Optional<PersistentQueryCache> getPersistentQueryCache() {
+    return Optional.ofNullable(persistentCache);
+  }
+
   /**
    * Direct reference to the underlying SMT solver for more complicated queries.
    *
@@ -289,11 +340,17 @@ public final class Solver implements AutoCloseable {
     return environment;
   }
 
+  /**
+   * Like {@link #newOptEnvironment()}, but the results of optimization queries are cached across
+   * all environments created by this method, such that repeated queries with the same constraints
+   * and objectives do not need to be solved again. If the cache is disabled by the option
+   * solver.optimizationCacheSize, this is the same as {@link #newOptEnvironment()}.
+   */
   public OptimizationProverEnvironment newCachedOptEnvironment() {
-    throw new UnsupportedOperationException("Java-SMT does not support cached prover enviroments.");
-    // OptimizationProverEnvironment environment = solvingContext.newCachedOptimizationProverEnvironment();
-    // environment = new OptimizationProverEnvironmentView(environment, fmgr);
-    // return environment;
+    if (optimizationCache == null) {
+      return newOptEnvironment();
+    }
+    return new CachingOptimizationProverEnvironment(newOptEnvironment(), optimizationCache, this);
   }
 
   /**
@@ -318,9 +375,22 @@ public final class Solver implements AutoCloseable {
 
     solverTime.start();
     try {
+      if (persistentCache != null) {
+        Optional<Boolean> persistentResult = persistentCache.lookupUnsat(f);
+        if (persistentResult.isPresent()) {
+          persistentlyCachedSatChecks++;
+          result = persistentResult.get();
+          unsatCache.put(f, result);
+          return result;
+        }
+      }
+
       result = isUnsatUncached(f);
 
       unsatCache.put(f, result);
+      if (persistentCache != null) {
+        persistentCache.storeUnsat(f, result);
+      }
       return result;
 
     } finally {
@@ -462,6 +532,10 @@ public final class Solver implements AutoCloseable {
    */
   @Override
   public void close() {
+    if (persistentCache != null) {
+      persistentCache.close();
+    }
+
     // Reliably close both formula managers and re-throw exceptions,
     // such that no exception gets lost and both managers get closed.
     // Taken from https://stackoverflow.com/questions/24705055/wrapping-multiple-autocloseables
@@ -24,26 +24,42 @@
  */
 package org.sosy_lab.cpachecker.util.refinement;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.lang.ref.WeakReference;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-
+import java.util.Set;
+import javax.annotation.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.cpa.arg.ARGPath;
 import org.sosy_lab.cpachecker.cpa.arg.ARGPath.PathIterator;
 import org.sosy_lab.cpachecker.cpa.arg.ARGPath.PathPosition;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
-
-import java.util.Deque;
-import java.util.Set;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 /**
  * Generic {@link EdgeInterpolator} that creates interpolants based on
@@ -69,6 +85,12 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
   @Option(secure=true, description="whether or not to manage the callstack, which is needed for BAM")
   private boolean manageCallstack = true;
 
+  @Option(secure=true, description="maximum number of interpolants that are memoized for "
+      + "(input interpolant, edge, path suffix) triples and reused in later refinements, "
+      + "least-recently used entries are evicted (0 disables the memo table)")
+  @IntegerOption(min=0)
+  private int memoizationCacheSize = 10_000;
+
   /**
    * the shutdownNotifier in use
    */
@@ -93,11 +115,36 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
    */
   private int numberOfInterpolationQueries = 0;
 
+  /**
+   * the number of strongest-post computations of the current interpolation
+   */
+  private int numberOfStrongestPosts = 0;
+
   /**
    * the error path checker to be used for feasibility checks
    */
   private final FeasibilityChecker<S> checker;
 
+  /**
+   * the memoized interpolants, or null if memoization is disabled
+   */
+  private final @Nullable Cache<Pair<I, SuffixFingerprint>, MemoizedInterpolant<I>>
+      memoizedInterpolants;
+
+  private final Interner<SuffixFingerprint> fingerprints = Interners.newWeakInterner();
+
+  /**
+   * the path for which {@link #suffixFingerprints} was computed, compared by identity. The path is
+   * only referenced weakly, so the ARG of the last refinement can be garbage collected.
+   */
+  private WeakReference<ARGPath> fingerprintedPath = new WeakReference<>(null);
+  private SuffixFingerprint[] suffixFingerprints = new SuffixFingerprint[0];
+
+  // statistics
+  private final StatCounter memoizationHits = new StatCounter("Number of memoized interpolants reused");
+  private final StatInt avoidedStrongestPosts = new StatInt(StatKind.SUM, "Number of avoided strongest-post computations");
+  private final StatInt avoidedFeasibilityChecks = new StatInt(StatKind.SUM, "Number of avoided feasibility checks");
+
   /**
    * This method acts as the constructor of the class.
    */
@@ -124,6 +171,12 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
           pConfig, pCfa.getVarClassification(), pCpaToRefine);
 
       shutdownNotifier   = pShutdownNotifier;
+
+      memoizedInterpolants = memoizationCacheSize > 0
+          ? CacheBuilder.newBuilder()
+              .maximumSize(memoizationCacheSize)
+              .<Pair<I, SuffixFingerprint>, MemoizedInterpolant<I>>build()
+          : null;
     }
     catch (InvalidConfigurationException e) {
       throw new InvalidConfigurationException("Invalid configuration for checking path: "
@@ -150,6 +203,40 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
   ) throws CPAException, InterruptedException {
 
     numberOfInterpolationQueries = 0;
+    numberOfStrongestPosts = 0;
+
+    // Edges that modify the callstack are not memoized, because a hit would skip the update of the
+    // callstack. The same holds for dynamic multi-edges, which might contain such edges.
+    if (memoizedInterpolants == null
+        || pCurrentEdge == null
+        || pCurrentEdge.getEdgeType() == CFAEdgeType.FunctionCallEdge
+        || pCurrentEdge.getEdgeType() == CFAEdgeType.FunctionReturnEdge) {
+      return computeInterpolant(pCurrentEdge, pCallstack, pOffset, pInputInterpolant);
+    }
+
+    Pair<I, SuffixFingerprint> key = Pair.of(pInputInterpolant, getSuffixFingerprint(pOffset));
+    MemoizedInterpolant<I> memoized = memoizedInterpolants.getIfPresent(key);
+    if (memoized != null) {
+      memoizationHits.inc();
+      avoidedStrongestPosts.setNextValue(memoized.strongestPosts);
+      avoidedFeasibilityChecks.setNextValue(memoized.interpolationQueries);
+      return memoized.interpolant;
+    }
+
+    I interpolant = computeInterpolant(pCurrentEdge, pCallstack, pOffset, pInputInterpolant);
+    memoizedInterpolants.put(
+        key,
+        new MemoizedInterpolant<>(
+            interpolant, numberOfInterpolationQueries, numberOfStrongestPosts));
+    return interpolant;
+  }
+
+  private I computeInterpolant(
+      final CFAEdge pCurrentEdge,
+      final Deque<S> pCallstack,
+      final PathPosition pOffset,
+      final I pInputInterpolant
+  ) throws CPAException, InterruptedException {
 
     // create initial state, based on input interpolant, and create initial successor by consuming
     // the next edge
@@ -222,6 +309,30 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
     return interpolantManager.createInterpolant(initialSuccessor);
   }
 
+  /**
+   * This method returns the fingerprint of the path starting with the outgoing edge of the given
+   * position. The fingerprints of all suffixes of a path are computed at once, because the path
+   * interpolator asks for all positions of the same path one after another.
+   */
+  private SuffixFingerprint getSuffixFingerprint(final PathPosition pOffset) {
+    ARGPath path = pOffset.getPath();
+    if (path != fingerprintedPath.get()) {
+      List<ARGState> states = path.asStatesList();
+      List<CFAEdge> edges = path.getInnerEdges();
+      suffixFingerprints = new SuffixFingerprint[edges.size() + 1];
+      suffixFingerprints[edges.size()] = SuffixFingerprint.EMPTY;
+      for (int i = edges.size() - 1; i >= 0; i--) {
+        suffixFingerprints[i] = fingerprints.intern(new SuffixFingerprint(
+            edges.get(i),
+            AbstractStates.extractLocation(states.get(i)),
+            AbstractStates.extractLocation(states.get(i + 1)),
+            suffixFingerprints[i + 1]));
+      }
+      fingerprintedPath = new WeakReference<>(path);
+    }
+    return suffixFingerprints[pOffset.iterator().getIndex()];
+  }
+
   /**
    * Interpolation on (long) error paths may be expensive, so it might pay off to limit the set of
    * memory locations on which to interpolate.
@@ -264,6 +375,14 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
     return numberOfInterpolationQueries;
   }
 
+  void printStatistics(StatisticsWriter writer) {
+    if (memoizedInterpolants != null) {
+      writer.put(memoizationHits)
+          .put(avoidedStrongestPosts)
+          .put(avoidedFeasibilityChecks);
+    }
+  }
+
   /**
    * This method gets the initial successor, i.e. the state following the initial state.
    *
@@ -289,6 +408,7 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
       oldState = postOperator.handleFunctionReturn(oldState, pInitialEdge, pCallstack);
     }
 
+    numberOfStrongestPosts++;
     return postOperator.getStrongestPost(oldState, precision, pInitialEdge);
   }
 
@@ -303,6 +423,8 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
   public boolean isRemainingPathFeasible(ARGPath remainingErrorPath, S state)
       throws CPAException, InterruptedException {
     numberOfInterpolationQueries++;
+    // the checker computes at most one strongest post per edge of the path
+    numberOfStrongestPosts += remainingErrorPath.size() - 1;
     return checker.isFeasible(remainingErrorPath, state);
   }
 
@@ -331,4 +453,78 @@ public class GenericEdgeInterpolator<S extends ForgetfulState<T>, T, I extends I
     //|| cfaEdge.getEdgeType() == CFAEdgeType.ReturnStatementEdge
     ;
   }
+
+  /**
+   * A memoized interpolant, together with the number of interpolation queries and strongest-post
+   * computations that were needed for computing it.
+   */
+  private static final class MemoizedInterpolant<I> {
+
+    private final I interpolant;
+    private final int interpolationQueries;
+    private final int strongestPosts;
+
+    private MemoizedInterpolant(I pInterpolant, int pInterpolationQueries, int pStrongestPosts) {
+      interpolant = pInterpolant;
+      interpolationQueries = pInterpolationQueries;
+      strongestPosts = pStrongestPosts;
+    }
+  }
+
+  /**
+   * A fingerprint of a path suffix, i.e., of the sequence of its edges. Each fingerprint shares
+   * the fingerprint of its tail, and all fingerprints are interned, so equal suffixes are
+   * represented by the same object and tails can be compared by identity.
+   *
+   * Edges of the CFA are compared by identity. Blank edges are compared by their end points,
+   * because path slicing creates new blank edges in each refinement. Dynamic multi-edges
+   * (represented by null) are determined by their end points as well.
+   */
+  private static final class SuffixFingerprint {
+
+    private static final SuffixFingerprint EMPTY = new SuffixFingerprint(null, null, null, null);
+
+    private final @Nullable CFAEdge edge;
+    private final boolean isBlank;
+    private final @Nullable CFANode start;
+    private final @Nullable CFANode end;
+    private final @Nullable SuffixFingerprint tail;
+    private final int hashCode;
+
+    private SuffixFingerprint(
+        @Nullable CFAEdge pEdge,
+        @Nullable CFANode pStart,
+        @Nullable CFANode pEnd,
+        @Nullable SuffixFingerprint pTail) {
+      isBlank = pEdge instanceof BlankEdge;
+      edge = isBlank ? null : pEdge;
+      start = pEdge == null ? pStart : pEdge.getPredecessor();
+      end = pEdge == null ? pEnd : pEdge.getSuccessor();
+      tail = pTail;
+      hashCode = Objects.hash(System.identityHashCode(edge), isBlank, start, end,
+          System.identityHashCode(tail));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof SuffixFingerprint)) {
+        return false;
+      }
+      SuffixFingerprint other = (SuffixFingerprint) pObj;
+      return hashCode == other.hashCode
+          && edge == other.edge
+          && isBlank == other.isBlank
+          && start == other.start
+          && end == other.end
+          && tail == other.tail;
+    }
+  }
 }
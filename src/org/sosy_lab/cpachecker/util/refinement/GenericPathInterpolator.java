@@ -394,6 +394,9 @@ public class GenericPathInterpolator<S extends ForgetfulState<?>, I extends Inte
         .put(totalPrefixes);
     writer.put(prefixExtractionTime);
     writer.put(prefixSelectionTime);
+    if (interpolator instanceof GenericEdgeInterpolator) {
+      ((GenericEdgeInterpolator<?, ?, ?>) interpolator).printStatistics(writer);
+    }
   }
 
   /**
@@ -263,8 +263,10 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
 
     InterpolationTree<S, I> interpolationTree = createInterpolationTree(pTargetPaths);
 
-    while (interpolationTree.hasNextPathForInterpolation()) {
-      performPathInterpolation(interpolationTree);
+    if (!interpolatePathsIndependently(interpolationTree, pTargetPaths)) {
+      while (interpolationTree.hasNextPathForInterpolation()) {
+        performPathInterpolation(interpolationTree);
+      }
     }
 
     exportTree(interpolationTree, "FINAL");
@@ -279,6 +281,21 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     return new InterpolationTree<>(interpolantManager, logger, targets, true);
   }
 
+  /**
+   * Hook for computing the interpolants of all target paths independently of each other
+   * (e.g., in parallel), instead of the default strategy that interpolates the paths
+   * of the interpolation tree one after another.
+   * Implementations add the interpolants of all paths to the given tree.
+   *
+   * @return whether the interpolants were computed, if false the default strategy is used
+   */
+  @ForOverride
+  protected boolean interpolatePathsIndependently(
+      InterpolationTree<S, I> pInterpolationTree, List<ARGPath> pTargetPaths)
+      throws CPAException, InterruptedException {
+    return false;
+  }
+
   private void performPathInterpolation(InterpolationTree<S, I> interpolationTree) throws CPAException,
       InterruptedException {
     ARGPath errorPath = interpolationTree.getNextPathForInterpolation();
@@ -28,45 +28,160 @@ import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.Ordering;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
 import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.collect.PersistentMap;
 
 /**
-* This class describes a location in the memory.
-*/
+ * This class describes a location in the memory.
+ *
+ * <p>All instances created by the factory methods are interned in a global pool, and each
+ * distinct memory location gets a unique and dense id (0, 1, 2, ...) that is stable for the
+ * lifetime of the JVM (cf. {@link #getId()}). Thus equality is reference (or id) equality,
+ * and id-keyed collections like {@link MemoryLocationSet} can be used.
+ * The natural order is still defined by the names and offsets, such that sorted collections
+ * of memory locations do not depend on the order in which the locations were created.
+ * Ids are never released, so the pool grows with the number of distinct memory locations
+ * of all analyzed programs.
+ */
 public class MemoryLocation implements Comparable<MemoryLocation>, Serializable {
 
   private static final long serialVersionUID = -8910967707373729034L;
+
+  private static final ConcurrentMap<Key, MemoryLocation> pool = new ConcurrentHashMap<>();
+
+  // all interned locations indexed by their id, only modified while holding the lock on "pool"
+  private static volatile MemoryLocation[] locationsById = new MemoryLocation[1024];
+
   private final String functionName;
   private final String identifier;
   private final @Nullable Long offset;
 
-  private MemoryLocation(String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
-    checkNotNull(pFunctionName);
-    checkNotNull(pIdentifier);
+  // the id and the hash code of the interned location with the same content
+  private transient int id;
+  private transient int hashCode;
 
+  private transient @Nullable String simpleString = null;
+
+  private MemoryLocation(
+      @Nullable String pFunctionName, String pIdentifier, @Nullable Long pOffset, int pId) {
     functionName = pFunctionName;
-    identifier = pIdentifier;
+    identifier = checkNotNull(pIdentifier);
     offset = pOffset;
+    id = pId;
+    hashCode = Objects.hash(functionName, identifier, offset);
   }
 
   protected MemoryLocation(String pIdentifier, @Nullable Long pOffset) {
-    checkNotNull(pIdentifier);
+    this(parse(pIdentifier), pOffset);
+  }
+
+  private MemoryLocation(MemoryLocation pNameTemplate, @Nullable Long pOffset) {
+    functionName = pNameTemplate.functionName;
+    identifier = pNameTemplate.identifier;
+    offset = pOffset;
+    MemoryLocation interned = intern(functionName, identifier, offset);
+    id = interned.id;
+    hashCode = interned.hashCode;
+  }
 
+  /** Split a qualified name into function name and identifier (without interning). */
+  private static MemoryLocation parse(String pIdentifier) {
+    checkNotNull(pIdentifier);
     int separatorIndex = pIdentifier.indexOf("::");
     if (separatorIndex >= 0) {
-      functionName = pIdentifier.substring(0, separatorIndex);
-      identifier = pIdentifier.substring(separatorIndex + 2);
+      return new MemoryLocation(
+          pIdentifier.substring(0, separatorIndex),
+          pIdentifier.substring(separatorIndex + 2),
+          null,
+          -1);
     } else {
-      functionName = null;
+      return new MemoryLocation(null, pIdentifier, null, -1);
+    }
+  }
+
+  /** Key of the interning pool, compares memory locations by content. */
+  private static final class Key {
+    private final @Nullable String functionName;
+    private final String identifier;
+    private final @Nullable Long offset;
+
+    private Key(@Nullable String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
+      functionName = pFunctionName;
       identifier = pIdentifier;
+      offset = pOffset;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (this == pObj) {
+        return true;
+      }
+      if (!(pObj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) pObj;
+      return Objects.equals(functionName, other.functionName)
+          && identifier.equals(other.identifier)
+          && Objects.equals(offset, other.offset);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(functionName, identifier, offset);
+    }
+  }
+
+  private static MemoryLocation intern(
+      @Nullable String pFunctionName, String pIdentifier, @Nullable Long pOffset) {
+    Key key = new Key(pFunctionName, checkNotNull(pIdentifier), pOffset);
+    MemoryLocation result = pool.get(key);
+    if (result != null) {
+      return result;
+    }
+    synchronized (pool) {
+      result = pool.get(key);
+      if (result == null) {
+        int newId = pool.size();
+        result = new MemoryLocation(pFunctionName, pIdentifier, pOffset, newId);
+        MemoryLocation[] locations = locationsById;
+        if (newId == locations.length) {
+          locations = Arrays.copyOf(locations, 2 * locations.length);
+        }
+        locations[newId] = result;
+        locationsById = locations;
+        pool.put(key, result);
+      }
+      return result;
     }
-    offset = pOffset;
+  }
+
+  /**
+   * Return the id of this memory location. Ids are dense, i.e., they are in the range
+   * from 0 to the number of distinct memory locations created so far,
+   * and two memory locations are equal if and only if they have the same id.
+   */
+  public int getId() {
+    return id;
+  }
+
+  /** Return the memory location with the given id (cf. {@link #getId()}). */
+  public static MemoryLocation fromId(int pId) {
+    MemoryLocation[] locations = locationsById;
+    MemoryLocation result = pId >= 0 && pId < locations.length ? locations[pId] : null;
+    if (result == null) {
+      throw new IndexOutOfBoundsException("Unknown memory-location id " + pId);
+    }
+    return result;
   }
 
   @Override
@@ -80,32 +195,33 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
       return false;
     }
 
-    MemoryLocation otherLocation = (MemoryLocation) other;
-
-    return Objects.equals(functionName, otherLocation.functionName)
-        && Objects.equals(identifier, otherLocation.identifier)
-        && Objects.equals(offset, otherLocation.offset);
+    return id == ((MemoryLocation) other).id;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(functionName, identifier, offset);
+    return hashCode;
   }
 
   public static MemoryLocation valueOf(String pFunctionName, String pIdentifier) {
-    return new MemoryLocation(pFunctionName, pIdentifier, null);
+    return intern(checkNotNull(pFunctionName), pIdentifier, null);
   }
 
   public static MemoryLocation valueOf(String pFunctionName, String pIdentifier, long pOffset) {
-    return new MemoryLocation(pFunctionName, pIdentifier, pOffset);
+    return intern(checkNotNull(pFunctionName), pIdentifier, pOffset);
   }
 
   public static MemoryLocation valueOf(String pIdentifier, long pOffset) {
-    return new MemoryLocation(pIdentifier, pOffset);
+    return valueOf(pIdentifier, (Long) pOffset);
   }
 
   public static MemoryLocation valueOf(String pIdentifier, OptionalLong pOffset) {
-    return new MemoryLocation(pIdentifier, pOffset.isPresent() ? pOffset.getAsLong() : null);
+    return valueOf(pIdentifier, pOffset.isPresent() ? pOffset.getAsLong() : null);
+  }
+
+  private static MemoryLocation valueOf(String pIdentifier, @Nullable Long pOffset) {
+    MemoryLocation name = parse(pIdentifier);
+    return intern(name.functionName, name.identifier, pOffset);
   }
 
   public static MemoryLocation valueOf(String pVariableName) {
@@ -123,22 +239,25 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
       if (hasOffset) {
         nameParts[1] = nameParts[1].replace("/" + offset, "");
       }
-      return new MemoryLocation(nameParts[0], nameParts[1], offset);
+      return intern(nameParts[0], nameParts[1], offset);
 
     } else {
       if (hasOffset) {
         nameParts[0] = nameParts[0].replace("/" + offset, "");
       }
-      return new MemoryLocation(nameParts[0].replace("/" + offset, ""), offset);
+      return valueOf(nameParts[0].replace("/" + offset, ""), offset);
     }
   }
 
   public String getAsSimpleString() {
-    String variableName = isOnFunctionStack() ? (functionName + "::" + identifier) : (identifier);
-    if (offset == null) {
-      return variableName;
+    // benign race: the string is recomputed if another thread has not yet published it
+    String result = simpleString;
+    if (result == null) {
+      String variableName = isOnFunctionStack() ? (functionName + "::" + identifier) : (identifier);
+      result = offset == null ? variableName : variableName + "/" + offset;
+      simpleString = result;
     }
-    return variableName + "/" + offset;
+    return result;
   }
 
   public String serialize() {
@@ -195,10 +314,25 @@ public class MemoryLocation implements Comparable<MemoryLocation>, Serializable
 
   @Override
   public int compareTo(MemoryLocation other) {
+    if (id == other.id) {
+      return 0;
+    }
     return ComparisonChain.start()
         .compare(functionName, other.functionName, Ordering.natural().nullsFirst())
         .compare(identifier, other.identifier)
         .compare(offset, other.offset, Ordering.natural().nullsFirst())
         .result();
   }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    // ids are only valid in the current JVM
+    MemoryLocation interned = intern(functionName, identifier, offset);
+    id = interned.id;
+    hashCode = interned.hashCode;
+  }
+
+  private Object readResolve() {
+    return fromId(id);
+  }
 }
@@ -0,0 +1,184 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.states;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Mutable set of {@link MemoryLocation}s, implemented as a bit set over their ids.
+ *
+ * <p>Membership tests and updates do not need to hash or compare the names of the locations,
+ * and bulk operations with other instances of this class work word-wise.
+ * Iteration is in the order of the ids, i.e., in the order in which the locations were created.
+ * This class is not thread-safe.
+ */
+public final class MemoryLocationSet extends AbstractSet<MemoryLocation> {
+
+  private final BitSet ids;
+
+  public MemoryLocationSet() {
+    ids = new BitSet();
+  }
+
+  public MemoryLocationSet(Collection<? extends MemoryLocation> pLocations) {
+    if (pLocations instanceof MemoryLocationSet) {
+      ids = (BitSet) ((MemoryLocationSet) pLocations).ids.clone();
+    } else {
+      ids = new BitSet();
+      addAll(pLocations);
+    }
+  }
+
+  @Override
+  public boolean contains(Object pObj) {
+    return pObj instanceof MemoryLocation && ids.get(((MemoryLocation) pObj).getId());
+  }
+
+  @Override
+  public boolean add(MemoryLocation pLocation) {
+    int id = pLocation.getId();
+    if (ids.get(id)) {
+      return false;
+    }
+    ids.set(id);
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object pObj) {
+    if (!contains(pObj)) {
+      return false;
+    }
+    ids.clear(((MemoryLocation) pObj).getId());
+    return true;
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends MemoryLocation> pLocations) {
+    if (pLocations instanceof MemoryLocationSet) {
+      int oldSize = size();
+      ids.or(((MemoryLocationSet) pLocations).ids);
+      return size() != oldSize;
+    }
+    return super.addAll(pLocations);
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> pLocations) {
+    if (pLocations instanceof MemoryLocationSet) {
+      int oldSize = size();
+      ids.and(((MemoryLocationSet) pLocations).ids);
+      return size() != oldSize;
+    }
+    return super.retainAll(pLocations);
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> pLocations) {
+    if (pLocations instanceof MemoryLocationSet) {
+      int oldSize = size();
+      ids.andNot(((MemoryLocationSet) pLocations).ids);
+      return size() != oldSize;
+    }
+    boolean changed = false;
+    for (Object location : pLocations) {
+      changed |= remove(location);
+    }
+    return changed;
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> pLocations) {
+    if (pLocations instanceof MemoryLocationSet) {
+      BitSet missing = (BitSet) ((MemoryLocationSet) pLocations).ids.clone();
+      missing.andNot(ids);
+      return missing.isEmpty();
+    }
+    return super.containsAll(pLocations);
+  }
+
+  @Override
+  public int size() {
+    return ids.cardinality();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return ids.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    ids.clear();
+  }
+
+  @Override
+  public Iterator<MemoryLocation> iterator() {
+    return new Iterator<MemoryLocation>() {
+      private int next = ids.nextSetBit(0);
+      private int last = -1;
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      @Override
+      public MemoryLocation next() {
+        if (next < 0) {
+          throw new NoSuchElementException();
+        }
+        last = next;
+        next = ids.nextSetBit(next + 1);
+        return MemoryLocation.fromId(last);
+      }
+
+      @Override
+      public void remove() {
+        if (last < 0) {
+          throw new IllegalStateException();
+        }
+        ids.clear(last);
+        last = -1;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(Object pObj) {
+    if (pObj instanceof MemoryLocationSet) {
+      return ids.equals(((MemoryLocationSet) pObj).ids);
+    }
+    return super.equals(pObj);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+}
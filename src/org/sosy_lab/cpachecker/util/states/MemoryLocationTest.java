@@ -0,0 +1,76 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2017  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.states;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.testing.SerializableTester;
+import java.util.OptionalLong;
+import org.junit.Test;
+
+public class MemoryLocationTest {
+
+  @Test
+  public void testInterning() {
+    MemoryLocation loc = MemoryLocation.valueOf("main", "x", 4);
+    assertThat(MemoryLocation.valueOf("main::x/4")).isSameAs(loc);
+    assertThat(MemoryLocation.valueOf("main::x", 4)).isSameAs(loc);
+    assertThat(MemoryLocation.valueOf("main::x", OptionalLong.of(4))).isSameAs(loc);
+    assertThat(MemoryLocation.fromId(loc.getId())).isSameAs(loc);
+
+    assertThat(MemoryLocation.valueOf("main", "x")).isNotEqualTo(loc);
+    assertThat(MemoryLocation.valueOf("main::x")).isSameAs(MemoryLocation.valueOf("main", "x"));
+    assertThat(MemoryLocation.valueOf("x")).isNotEqualTo(MemoryLocation.valueOf("main", "x"));
+  }
+
+  @Test
+  public void testPointerToMemoryLocation() {
+    MemoryLocation pointer = PointerToMemoryLocation.valueOf("f::p");
+    MemoryLocation loc = MemoryLocation.valueOf("f", "p");
+    assertThat(pointer).isEqualTo(loc);
+    assertThat(loc).isEqualTo(pointer);
+    assertThat(pointer.hashCode()).isEqualTo(loc.hashCode());
+    assertThat(pointer.compareTo(loc)).isEqualTo(0);
+  }
+
+  @Test
+  public void testSerialization() {
+    MemoryLocation loc = MemoryLocation.valueOf("main", "y", 8);
+    assertThat(SerializableTester.reserialize(loc)).isSameAs(loc);
+  }
+
+  @Test
+  public void testMemoryLocationSet() {
+    MemoryLocationSet set = new MemoryLocationSet();
+    MemoryLocation x = MemoryLocation.valueOf("g", "x");
+    MemoryLocation y = MemoryLocation.valueOf("g", "y");
+    assertThat(set.add(x)).isTrue();
+    assertThat(set.add(x)).isFalse();
+    set.add(y);
+    assertThat(set).containsExactly(x, y);
+    assertThat(set.contains(PointerToMemoryLocation.valueOf("g::x"))).isTrue();
+    assertThat(set.remove(x)).isTrue();
+    assertThat(set).containsExactly(y);
+  }
+}